@@ -34,6 +34,7 @@ import com.intellij.openapi.module.Module;
 import com.igormaznitsa.meta.annotation.MustNotContainNull;
 import com.igormaznitsa.mindmap.ide.commons.DnDUtils;
 import com.igormaznitsa.mindmap.ide.commons.FilePathWithLine;
+import com.igormaznitsa.mindmap.ide.commons.TopicSearchSession;
 import com.igormaznitsa.mindmap.model.Extra;
 import com.igormaznitsa.mindmap.model.Extra.ExtraType;
 import com.igormaznitsa.mindmap.model.ExtraFile;
@@ -133,6 +134,7 @@ public class MindMapDocumentEditor implements AdjustmentListener, DocumentsEdito
   private final JPanel mainPanel;
   private final JScrollPane mainScrollPane;
   private final MindMapPanel mindMapPanel;
+  private final TopicSearchSession searchSession = new TopicSearchSession();
   private final Project project;
   private final VirtualFile file;
   private final Document[] documents;
@@ -437,11 +439,11 @@ public class MindMapDocumentEditor implements AdjustmentListener, DocumentsEdito
     }
     final boolean inTopicText = provider.toSearchIn(FindTextScopeProvider.SearchTextScope.IN_TOPIC_TEXT);
 
-    Topic found = this.mindMapPanel.getModel()
-            .findNext(projectBaseFolder, startTopic, pattern, inTopicText, extras, TOPIC_FINDERS);
+    Topic found = this.searchSession.findNext(this.mindMapPanel.getModel(),
+            projectBaseFolder, startTopic, pattern, inTopicText, extras, TOPIC_FINDERS);
     if (found == null && startTopic != null) {
-      found = this.mindMapPanel.getModel()
-              .findNext(projectBaseFolder, null, pattern, inTopicText, extras, TOPIC_FINDERS);
+      found = this.searchSession.findNext(this.mindMapPanel.getModel(),
+              projectBaseFolder, null, pattern, inTopicText, extras, TOPIC_FINDERS);
     }
 
     if (found != null) {
@@ -474,11 +476,11 @@ public class MindMapDocumentEditor implements AdjustmentListener, DocumentsEdito
     }
     final boolean inTopicText = provider.toSearchIn(FindTextScopeProvider.SearchTextScope.IN_TOPIC_TEXT);
 
-    Topic found = this.mindMapPanel.getModel()
-            .findPrev(projectBaseFolder, startTopic, pattern, inTopicText, extras, TOPIC_FINDERS);
+    Topic found = this.searchSession.findPrev(this.mindMapPanel.getModel(),
+            projectBaseFolder, startTopic, pattern, inTopicText, extras, TOPIC_FINDERS);
     if (found == null && startTopic != null) {
-      found = this.mindMapPanel.getModel()
-              .findPrev(projectBaseFolder, null, pattern, inTopicText, extras, TOPIC_FINDERS);
+      found = this.searchSession.findPrev(this.mindMapPanel.getModel(),
+              projectBaseFolder, null, pattern, inTopicText, extras, TOPIC_FINDERS);
     }
 
     if (found != null) {
@@ -544,6 +546,7 @@ public class MindMapDocumentEditor implements AdjustmentListener, DocumentsEdito
 
   @Override
   public void onMindMapModelChanged(@Nonnull final MindMapPanel mindMapPanel, final boolean saveToHistory) {
+    this.searchSession.invalidate();
     if (saveToHistory) {
       saveMindMapToDocument();
     }
@@ -16,11 +16,9 @@
 
 package com.igormaznitsa.ideamindmap.findtext;
 
-import static com.igormaznitsa.mindmap.ide.commons.Misc.string2pattern;
-
-
 import com.igormaznitsa.ideamindmap.editor.MindMapDocumentEditor;
 import com.igormaznitsa.ideamindmap.utils.AllIcons;
+import com.igormaznitsa.mindmap.ide.commons.SearchPatternCache;
 import com.igormaznitsa.mindmap.swing.services.UIComponentFactory;
 import com.igormaznitsa.mindmap.swing.services.UIComponentFactoryProvider;
 import com.intellij.ui.components.JBLabel;
@@ -58,6 +56,9 @@ public final class FindTextPanel extends JBPanel implements FindTextScopeProvide
   private static boolean stateInFile = true;
   private static boolean stateInURI = true;
   private final MindMapDocumentEditor documentEditor;
+
+  private final SearchPatternCache patternCache = new SearchPatternCache();
+
   private JButton buttonNext;
   private JButton buttonPrev;
   private Box.Filler filler1;
@@ -303,17 +304,22 @@ public final class FindTextPanel extends JBPanel implements FindTextScopeProvide
     }
   }
 
+  @Nonnull
+  private Pattern makePattern(@Nonnull final String text) {
+    return this.patternCache.get(text, this.toggleButtonCaseSensitive.isSelected());
+  }
+
   private void findNext() {
     final String text = this.textFieldSearchText.getText();
     if (!text.isEmpty()) {
-      this.documentEditor.findNext(string2pattern(text, this.toggleButtonCaseSensitive.isSelected() ? Pattern.UNICODE_CASE : (Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE)), this);
+      this.documentEditor.findNext(makePattern(text), this);
     }
   }
 
   private void findPrev() {
     final String text = this.textFieldSearchText.getText();
     if (!text.isEmpty()) {
-      this.documentEditor.findPrev(string2pattern(text, this.toggleButtonCaseSensitive.isSelected() ? Pattern.UNICODE_CASE : (Pattern.UNICODE_CASE | Pattern.CASE_INSENSITIVE)), this);
+      this.documentEditor.findPrev(makePattern(text), this);
     }
   }
 
@@ -0,0 +1,52 @@
+/*
+ * Copyright (C) 2015-2022 Igor A. Maznitsa
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.igormaznitsa.mindmap.ide.commons;
+
+import java.util.regex.Pattern;
+
+/**
+ * Keeps the last pattern made by {@link Misc#string2pattern(String, int)} for search text, so that
+ * repeated find next and find previous calls for the same text don't compile the pattern again.
+ * It is not thread safe.
+ *
+ * @since 1.6.4
+ */
+public final class SearchPatternCache {
+
+  private String lastText;
+  private Pattern lastPattern;
+
+  /**
+   * Get pattern for search text, the cached pattern is returned if text and case sensitivity are
+   * the same as for the previous call.
+   *
+   * @param text          search text, must not be null
+   * @param caseSensitive flag if true then case sensitive pattern is made
+   * @return pattern matching the text literally, must not be null
+   */
+  public Pattern get(final String text, final boolean caseSensitive) {
+    final int flags =
+        caseSensitive ? Pattern.UNICODE_CASE : (Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE);
+    Pattern result = this.lastPattern;
+    if (result == null || result.flags() != flags || !text.equals(this.lastText)) {
+      result = Misc.string2pattern(text, flags);
+      this.lastPattern = result;
+      this.lastText = text;
+    }
+    return result;
+  }
+}
@@ -0,0 +1,228 @@
+/*
+ * Copyright (C) 2015-2022 Igor A. Maznitsa
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.igormaznitsa.mindmap.ide.commons;
+
+import com.igormaznitsa.mindmap.model.Extra;
+import com.igormaznitsa.mindmap.model.MindMap;
+import com.igormaznitsa.mindmap.model.PatternPrefilter;
+import com.igormaznitsa.mindmap.model.Topic;
+import com.igormaznitsa.mindmap.model.TopicFinder;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Search session of an editor. Ordered list of all topics matching pattern is made once and then
+ * next and previous found topics are taken from the list without new scan of the mind map. If
+ * literal query is extended then only topics found for the previous query are checked. The session
+ * must be invalidated on any change of the mind map. It is not thread safe and should be used from
+ * the same thread which changes the mind map.
+ *
+ * @since 1.6.4
+ */
+public final class TopicSearchSession {
+
+  private static final Pattern ESCAPED_LITERAL = Pattern.compile("(?:\\\\u[0-9A-Fa-f]{4})+");
+
+  private MindMap map;
+  private File baseFolder;
+  private Pattern pattern;
+  private boolean inTopicText;
+  private Set<Extra.ExtraType> extras;
+  private Set<TopicFinder> topicFinders;
+
+  private Map<Topic, Integer> topicOrder;
+  private List<Topic> found;
+  private int[] foundOrder;
+
+  /**
+   * Check that pattern presents only literal text, for instance it is made by
+   * {@link Misc#string2pattern(String, int)}.
+   *
+   * @param pattern pattern to be checked, must not be null
+   * @return true if pattern matches only literal text
+   */
+  private static boolean isLiteral(final Pattern pattern) {
+    return (pattern.flags() & Pattern.LITERAL) != 0
+        || ESCAPED_LITERAL.matcher(pattern.pattern()).matches();
+  }
+
+  /**
+   * Check that new pattern can match only texts matched by old one, it is true for literal patterns
+   * where new literal starts with old one.
+   */
+  private static boolean isRefinement(final Pattern oldPattern, final Pattern newPattern) {
+    return oldPattern.flags() == newPattern.flags()
+        && newPattern.pattern().startsWith(oldPattern.pattern())
+        && isLiteral(oldPattern)
+        && isLiteral(newPattern);
+  }
+
+  /**
+   * Reset collected search results, must be called on any change of mind map.
+   */
+  public void invalidate() {
+    this.map = null;
+    this.pattern = null;
+    this.topicOrder = null;
+    this.found = null;
+    this.foundOrder = null;
+  }
+
+  /**
+   * Get number of found topics for current search.
+   *
+   * @return number of found topics, 0 if there is no active search
+   */
+  public int getFoundCount() {
+    return this.found == null ? 0 : this.found.size();
+  }
+
+  /**
+   * Find next topic matching pattern after start topic.
+   *
+   * @param map          mind map to search in, must not be null
+   * @param baseFolder   base folder for mind map, can be null
+   * @param start        start topic, can be null to get the first found topic
+   * @param pattern      pattern to be used for topic content, must not be null
+   * @param inTopicText  flag if true shows that topic title should be used for search
+   * @param extras       set of extra types to be included into search, can be null
+   * @param topicFinders custom finders to make extra search in topic, can be null
+   * @return found topic or null if not found
+   * @throws IllegalArgumentException if start topic doesn't belong to the mind map
+   */
+  public Topic findNext(final MindMap map, final File baseFolder, final Topic start,
+                        final Pattern pattern, final boolean inTopicText,
+                        final Set<Extra.ExtraType> extras,
+                        final Set<TopicFinder> topicFinders) {
+    this.prepare(map, baseFolder, start, pattern, inTopicText, extras, topicFinders);
+    final int index;
+    if (start == null) {
+      index = 0;
+    } else {
+      final int position = Arrays.binarySearch(this.foundOrder, this.topicOrder.get(start));
+      index = position < 0 ? -position - 1 : position + 1;
+    }
+    return index < this.found.size() ? this.found.get(index) : null;
+  }
+
+  /**
+   * Find previous topic matching pattern before start topic.
+   *
+   * @param map          mind map to search in, must not be null
+   * @param baseFolder   base folder for mind map, can be null
+   * @param start        start topic, can be null to get the last found topic
+   * @param pattern      pattern to be used for topic content, must not be null
+   * @param inTopicText  flag if true shows that topic title should be used for search
+   * @param extras       set of extra types to be included into search, can be null
+   * @param topicFinders custom finders to make extra search in topic, can be null
+   * @return found topic or null if not found
+   * @throws IllegalArgumentException if start topic doesn't belong to the mind map
+   */
+  public Topic findPrev(final MindMap map, final File baseFolder, final Topic start,
+                        final Pattern pattern, final boolean inTopicText,
+                        final Set<Extra.ExtraType> extras,
+                        final Set<TopicFinder> topicFinders) {
+    this.prepare(map, baseFolder, start, pattern, inTopicText, extras, topicFinders);
+    final int index;
+    if (start == null) {
+      index = this.found.size() - 1;
+    } else {
+      final int position = Arrays.binarySearch(this.foundOrder, this.topicOrder.get(start));
+      index = position < 0 ? -position - 2 : position - 1;
+    }
+    return index >= 0 ? this.found.get(index) : null;
+  }
+
+  private void prepare(final MindMap map, final File baseFolder, final Topic start,
+                       final Pattern pattern, final boolean inTopicText,
+                       final Set<Extra.ExtraType> extras,
+                       final Set<TopicFinder> topicFinders) {
+    final Set<Extra.ExtraType> extraSet =
+        extras == null || extras.isEmpty() ? Collections.emptySet() : EnumSet.copyOf(extras);
+
+    final boolean sameScope = this.map == map
+        && this.topicOrder != null
+        && (start == null || this.topicOrder.containsKey(start))
+        && Objects.equals(this.baseFolder, baseFolder)
+        && this.inTopicText == inTopicText
+        && this.extras.equals(extraSet)
+        && Objects.equals(this.topicFinders, topicFinders);
+
+    if (sameScope && this.pattern.flags() == pattern.flags()
+        && this.pattern.pattern().equals(pattern.pattern())) {
+      return;
+    }
+
+    final List<Topic> newFound;
+    if (sameScope && isRefinement(this.pattern, pattern)) {
+      final PatternPrefilter prefilter = PatternPrefilter.of(pattern);
+      newFound = new ArrayList<>();
+      for (final Topic t : this.found) {
+        if (t.containsPattern(baseFolder, pattern, prefilter, inTopicText, extraSet)
+            || isFoundByFinders(t, baseFolder, pattern, extraSet, topicFinders)) {
+          newFound.add(t);
+        }
+      }
+    } else {
+      this.topicOrder = new IdentityHashMap<>();
+      int order = 0;
+      for (final Topic t : map) {
+        this.topicOrder.put(t, order++);
+      }
+      if (start != null && !this.topicOrder.containsKey(start)) {
+        this.invalidate();
+        throw new IllegalArgumentException("Topic must belong to the mind map");
+      }
+      newFound = map.findAll(baseFolder, pattern, inTopicText, extraSet, topicFinders);
+    }
+
+    this.map = map;
+    this.baseFolder = baseFolder;
+    this.pattern = pattern;
+    this.inTopicText = inTopicText;
+    this.extras = extraSet;
+    this.topicFinders = topicFinders;
+    this.found = newFound;
+    this.foundOrder = new int[newFound.size()];
+    for (int i = 0; i < this.foundOrder.length; i++) {
+      this.foundOrder[i] = this.topicOrder.get(newFound.get(i));
+    }
+  }
+
+  private static boolean isFoundByFinders(final Topic topic, final File baseFolder,
+                                          final Pattern pattern,
+                                          final Set<Extra.ExtraType> extras,
+                                          final Set<TopicFinder> topicFinders) {
+    if (topicFinders != null) {
+      for (final TopicFinder f : topicFinders) {
+        if (f.doesTopicContentMatches(topic, baseFolder, pattern, extras)) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+}
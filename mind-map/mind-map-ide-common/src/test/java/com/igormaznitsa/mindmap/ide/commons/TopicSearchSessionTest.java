@@ -0,0 +1,87 @@
+/*
+ * Copyright (C) 2015-2022 Igor A. Maznitsa
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.igormaznitsa.mindmap.ide.commons;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import com.igormaznitsa.mindmap.model.MindMap;
+import com.igormaznitsa.mindmap.model.Topic;
+import java.io.StringReader;
+import java.util.regex.Pattern;
+import org.junit.Test;
+
+public class TopicSearchSessionTest {
+
+  private static final int FLAGS = Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE;
+
+  private static MindMap makeMap() throws Exception {
+    return new MindMap(new StringReader("test\n---\n# Solar\n## Mercury\n## Venus\n## Earth\n### Moon\n## Mars\n### Phobos\n### Deimos"));
+  }
+
+  private static Topic find(final MindMap map, final String text) {
+    return map.findNext(null, null, Pattern.compile(Pattern.quote(text)), true, null);
+  }
+
+  @Test
+  public void testNextAndPrev() throws Exception {
+    final MindMap map = makeMap();
+    final TopicSearchSession session = new TopicSearchSession();
+    final Pattern pattern = Misc.string2pattern("ar", FLAGS);
+
+    final Topic solar = session.findNext(map, null, null, pattern, true, null, null);
+    assertEquals("Solar", solar.getText());
+    assertEquals(3, session.getFoundCount());
+    final Topic earth = session.findNext(map, null, solar, pattern, true, null, null);
+    assertEquals("Earth", earth.getText());
+    final Topic mars = session.findNext(map, null, find(map, "Moon"), pattern, true, null, null);
+    assertEquals("Mars", mars.getText());
+    assertNull(session.findNext(map, null, mars, pattern, true, null, null));
+
+    assertSame(mars, session.findPrev(map, null, null, pattern, true, null, null));
+    assertSame(earth, session.findPrev(map, null, mars, pattern, true, null, null));
+    assertSame(solar, session.findPrev(map, null, find(map, "Mercury"), pattern, true, null, null));
+    assertNull(session.findPrev(map, null, solar, pattern, true, null, null));
+  }
+
+  @Test
+  public void testExtendedQuery() throws Exception {
+    final MindMap map = makeMap();
+    final TopicSearchSession session = new TopicSearchSession();
+
+    assertEquals("Mercury", session.findNext(map, null, null, Misc.string2pattern("m", FLAGS), true, null, null).getText());
+    assertEquals(4, session.getFoundCount());
+    assertEquals("Mars", session.findNext(map, null, null, Misc.string2pattern("ma", FLAGS), true, null, null).getText());
+    assertEquals(1, session.getFoundCount());
+    assertNull(session.findNext(map, null, null, Misc.string2pattern("mas", FLAGS), true, null, null));
+    assertEquals(0, session.getFoundCount());
+    assertEquals("Mars", session.findNext(map, null, null, Misc.string2pattern("mar", FLAGS), true, null, null).getText());
+  }
+
+  @Test
+  public void testInvalidate() throws Exception {
+    final MindMap map = makeMap();
+    final TopicSearchSession session = new TopicSearchSession();
+    final Pattern pattern = Misc.string2pattern("pluto", FLAGS);
+
+    assertNull(session.findNext(map, null, null, pattern, true, null, null));
+    map.setTopicTextWithEvent(find(map, "Deimos"), "Pluto");
+    assertNull(session.findNext(map, null, null, pattern, true, null, null));
+    session.invalidate();
+    assertEquals("Pluto", session.findNext(map, null, null, pattern, true, null, null).getText());
+  }
+}
@@ -109,6 +109,20 @@ public abstract class Extra<T> implements Serializable, Constants, Cloneable {
    */
   public abstract boolean containsPattern(File baseFolder, Pattern pattern);
 
+  /**
+   * Check content for pattern if allowed, content rejected by prefilter is not checked by pattern.
+   *
+   * @param baseFolder base folder for mind map file, can be null
+   * @param pattern    pattern to be tested, must not be null
+   * @param prefilter  prefilter made for the pattern, must not be null
+   * @return true if extra contains content matches with pattern, false otherwise
+   * @since 1.6.4
+   */
+  public boolean containsPattern(final File baseFolder, final Pattern pattern,
+                                 final PatternPrefilter prefilter) {
+    return this.containsPattern(baseFolder, pattern);
+  }
+
   /**
    * Write extra into writer.
    *
@@ -21,6 +21,7 @@ import static java.util.Objects.requireNonNull;
 import java.io.File;
 import java.net.URISyntaxException;
 import java.util.Locale;
+import java.util.Objects;
 import java.util.regex.Pattern;
 import org.apache.commons.io.FilenameUtils;
 
@@ -47,6 +48,10 @@ public class ExtraFile extends Extra<MMapURI> implements ExtraLinkable {
    * Internal cache to keep file path string
    */
   private volatile String cachedString;
+  /**
+   * Internal cache to keep absolute file path for search, it depends on base folder
+   */
+  private transient volatile SearchPath cachedSearchPath;
 
   private ExtraFile(
       final ExtraFile extraFile
@@ -94,9 +99,23 @@ public class ExtraFile extends Extra<MMapURI> implements ExtraLinkable {
 
   @Override
   public boolean containsPattern(final File baseFolder, final Pattern pattern) {
-    final String filePathAsText =
-        FilenameUtils.normalize(this.fileUri.asFile(baseFolder).getAbsolutePath());
-    return pattern.matcher(filePathAsText).find();
+    return pattern.matcher(this.findSearchPath(baseFolder)).find();
+  }
+
+  @Override
+  public boolean containsPattern(final File baseFolder, final Pattern pattern,
+                                 final PatternPrefilter prefilter) {
+    return prefilter.find(pattern, this.findSearchPath(baseFolder));
+  }
+
+  private String findSearchPath(final File baseFolder) {
+    SearchPath result = this.cachedSearchPath;
+    if (result == null || !Objects.equals(result.baseFolder, baseFolder)) {
+      result = new SearchPath(baseFolder,
+          FilenameUtils.normalize(this.fileUri.asFile(baseFolder).getAbsolutePath()));
+      this.cachedSearchPath = result;
+    }
+    return result.path;
   }
 
   @Override
@@ -270,4 +289,13 @@ public class ExtraFile extends Extra<MMapURI> implements ExtraLinkable {
     return theFilePath.equals(thatFilePath);
   }
 
+  private static final class SearchPath {
+    private final File baseFolder;
+    private final String path;
+
+    private SearchPath(final File baseFolder, final String path) {
+      this.baseFolder = baseFolder;
+      this.path = path;
+    }
+  }
 }
@@ -85,6 +85,12 @@ public class ExtraLink extends Extra<MMapURI> implements ExtraLinkable {
     return pattern.matcher(this.uri.toString()).find();
   }
 
+  @Override
+  public boolean containsPattern(final File baseFolder, final Pattern pattern,
+                                 final PatternPrefilter prefilter) {
+    return prefilter.find(pattern, this.uri.toString());
+  }
+
   @Override
   public MMapURI getValue() {
     return this.uri;
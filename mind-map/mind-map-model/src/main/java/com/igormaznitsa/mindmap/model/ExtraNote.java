@@ -129,6 +129,12 @@ public class ExtraNote extends Extra<String> {
     return !this.encrypted && pattern.matcher(this.text).find();
   }
 
+  @Override
+  public boolean containsPattern(final File baseFolder, final Pattern pattern,
+                                 final PatternPrefilter prefilter) {
+    return !this.encrypted && prefilter.find(pattern, this.text);
+  }
+
   @Override
   public boolean equals(final Object that) {
     if (that == null) {
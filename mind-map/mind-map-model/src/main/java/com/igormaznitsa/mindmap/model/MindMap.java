@@ -62,6 +62,7 @@ public class MindMap implements StandardMmdAttributes, Serializable, Constants,
       new CopyOnWriteArrayList<>();
 
   private Topic root;
+  private transient volatile long revision;
 
   /**
    * Create new container.
@@ -236,11 +237,12 @@ public class MindMap implements StandardMmdAttributes, Serializable, Constants,
     }
 
     Topic result = null;
+    final PatternPrefilter prefilter = PatternPrefilter.of(pattern);
 
     boolean startFound = start == null;
     for (final Topic t : this) {
       if (startFound) {
-        if (t.containsPattern(baseFolder, pattern, findInTopicText, extrasToFind)) {
+        if (t.containsPattern(baseFolder, pattern, prefilter, findInTopicText, extrasToFind)) {
           result = t;
         } else if (topicFinders != null) {
           for (final TopicFinder f : topicFinders) {
@@ -310,9 +312,11 @@ public class MindMap implements StandardMmdAttributes, Serializable, Constants,
           "It looks like that topic doesn't belong to the mind map");
     }
     if (startIndex > 0) {
+      final PatternPrefilter prefilter = PatternPrefilter.of(pattern);
       while (startIndex > 0 && result == null) {
         final Topic candidate = plain.get(--startIndex);
-        if (candidate.containsPattern(baseFolder, pattern, findInTopicText, extrasToFind)) {
+        if (candidate.containsPattern(baseFolder, pattern, prefilter, findInTopicText,
+            extrasToFind)) {
           result = candidate;
         } else if (topicFinders != null) {
           for (TopicFinder f : topicFinders) {
@@ -327,6 +331,41 @@ public class MindMap implements StandardMmdAttributes, Serializable, Constants,
     return result;
   }
 
+  /**
+   * Find all topics for content matches with pattern, the mind map is walked only once.
+   *
+   * @param baseFolder      base folder for mind map, can be null
+   * @param pattern         pattern to be used for topic content, must not be null
+   * @param findInTopicText flag if true shows that topic title should be used for search
+   * @param extrasToFind    set of extra types to be included into search, can be null
+   * @param topicFinders    custom finders to make extra search in topic if it doesn't match with pattern, can be null
+   * @return list of found topics in the mind map order, must not be null
+   * @since 1.6.4
+   */
+  public List<Topic> findAll(
+      final File baseFolder,
+      final Pattern pattern,
+      final boolean findInTopicText,
+      final Set<Extra.ExtraType> extrasToFind,
+      final Set<TopicFinder> topicFinders
+  ) {
+    final List<Topic> result = new ArrayList<>();
+    final PatternPrefilter prefilter = PatternPrefilter.of(pattern);
+    for (final Topic t : this) {
+      if (t.containsPattern(baseFolder, pattern, prefilter, findInTopicText, extrasToFind)) {
+        result.add(t);
+      } else if (topicFinders != null) {
+        for (final TopicFinder f : topicFinders) {
+          if (f.doesTopicContentMatches(t, baseFolder, pattern, extrasToFind)) {
+            result.add(t);
+            break;
+          }
+        }
+      }
+    }
+    return result;
+  }
+
   /**
    * Set root topic for mind map.
    *
@@ -341,6 +380,7 @@ public class MindMap implements StandardMmdAttributes, Serializable, Constants,
       }
     }
     this.root = newRoot;
+    this.markChanged();
     if (makeNotification) {
       this.fireModelChanged();
     }
@@ -395,6 +435,23 @@ public class MindMap implements StandardMmdAttributes, Serializable, Constants,
     return this.root == null;
   }
 
+  /**
+   * Get revision of the mind map content. The revision is changed by every change made through
+   * methods of the mind map and its topics, so that it can be used as a cheap key for data
+   * calculated from the content. Direct changes of collections returned by topics are not
+   * tracked.
+   *
+   * @return current revision
+   * @since 1.6.4
+   */
+  public long getRevision() {
+    return this.revision;
+  }
+
+  void markChanged() {
+    this.revision++;
+  }
+
   private void fireModelChanged() {
     final Topic rootTopic = this.root;
     final MindMapModelEvent event =
@@ -439,6 +496,7 @@ public class MindMap implements StandardMmdAttributes, Serializable, Constants,
    * @return previous value of attribute or null if there is not such one
    */
   public String putAttribute(final String name, final String value) {
+    this.markChanged();
     final String previous;
     if (value == null) {
       previous = this.attributes.remove(requireNonNull(name));
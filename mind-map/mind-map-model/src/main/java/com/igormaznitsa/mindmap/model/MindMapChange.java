@@ -0,0 +1,397 @@
+/*
+ * Copyright (C) 2015-2022 Igor A. Maznitsa
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.igormaznitsa.mindmap.model;
+
+import static java.util.Objects.requireNonNull;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Set of structural operations made over mind map between two states, every operation keeps both
+ * old and new values so that the change can be undone and redone in place without new parsing of
+ * the mind map. Changes are made by {@link MindMapChangeTracker}.
+ *
+ * @see MindMapChangeTracker
+ * @since 1.6.4
+ */
+public final class MindMapChange {
+
+  private static final int OBJECT_SIZE = 32;
+
+  private final MindMap map;
+  private final List<Operation> operations;
+  private final long sizeEstimation;
+
+  MindMapChange(final MindMap map, final List<Operation> operations) {
+    this.map = requireNonNull(map);
+    this.operations = Collections.unmodifiableList(new ArrayList<>(operations));
+    long size = OBJECT_SIZE;
+    for (final Operation o : this.operations) {
+      size += o.getSizeEstimation();
+    }
+    this.sizeEstimation = size;
+  }
+
+  private static long sizeOf(final String text) {
+    return text == null ? 0L : OBJECT_SIZE + text.length() * 2L;
+  }
+
+  private static long sizeOf(final Extra<?> extra) {
+    return extra == null ? 0L : OBJECT_SIZE + sizeOf(extra.getAsString());
+  }
+
+  private static long sizeOf(final Map<String, String> values) {
+    long size = 0L;
+    for (final Map.Entry<String, String> e : values.entrySet()) {
+      size += sizeOf(e.getKey()) + sizeOf(e.getValue());
+    }
+    return size;
+  }
+
+  private static long sizeOfSubtree(final Topic topic) {
+    long size = OBJECT_SIZE + sizeOf(topic.getText()) + sizeOf(topic.getAttributes())
+        + sizeOf(topic.getCodeSnippets());
+    for (final Extra<?> e : topic.getExtras().values()) {
+      size += sizeOf(e);
+    }
+    for (final Topic t : topic.getChildren()) {
+      size += sizeOfSubtree(t);
+    }
+    return size;
+  }
+
+  private static boolean isInTree(final Topic topic) {
+    Topic current = topic;
+    Topic parent = current.getParent();
+    while (parent != null) {
+      if (!parent.getChildren().contains(current)) {
+        return false;
+      }
+      current = parent;
+      parent = current.getParent();
+    }
+    return current == current.getMap().getRoot();
+  }
+
+  /**
+   * Get mind map which is the owner of the change.
+   *
+   * @return the mind map, must not be null
+   */
+  public MindMap getMap() {
+    return this.map;
+  }
+
+  /**
+   * Get operations of the change in order of their detection.
+   *
+   * @return unmodifiable list of operations, must not be null
+   */
+  public List<Operation> getOperations() {
+    return this.operations;
+  }
+
+  /**
+   * Approximate size of memory occupied by data of the change, it can be used to keep history in
+   * memory budget.
+   *
+   * @return approximate size in bytes
+   */
+  public long getSizeEstimation() {
+    return this.sizeEstimation;
+  }
+
+  /**
+   * Revert the change in the mind map, operations are reverted in backward order.
+   */
+  public void undo() {
+    for (int i = this.operations.size() - 1; i >= 0; i--) {
+      this.operations.get(i).apply(true);
+    }
+  }
+
+  /**
+   * Make the change again in the mind map after undo.
+   */
+  public void redo() {
+    for (final Operation o : this.operations) {
+      o.apply(false);
+    }
+  }
+
+  @Override
+  public String toString() {
+    return "MindMapChange" + this.operations;
+  }
+
+  /**
+   * Type of operation.
+   */
+  public enum OperationType {
+    /**
+     * Topic text changed.
+     */
+    TEXT,
+    /**
+     * Topic attribute added, removed or changed.
+     */
+    ATTRIBUTE,
+    /**
+     * Topic code snippet added, removed or changed.
+     */
+    CODE_SNIPPET,
+    /**
+     * Topic extra added, removed or changed.
+     */
+    EXTRA,
+    /**
+     * Topics inserted into, deleted from or moved inside list of children of topic.
+     */
+    CHILDREN,
+    /**
+     * Root topic of mind map changed.
+     */
+    ROOT,
+    /**
+     * Mind map attribute added, removed or changed.
+     */
+    MAP_ATTRIBUTE
+  }
+
+  /**
+   * Single operation which can be applied in both directions.
+   */
+  public abstract static class Operation {
+
+    private final OperationType type;
+    private final Topic topic;
+
+    private Operation(final OperationType type, final Topic topic) {
+      this.type = type;
+      this.topic = topic;
+    }
+
+    /**
+     * Get type of the operation.
+     *
+     * @return the type, must not be null
+     */
+    public OperationType getType() {
+      return this.type;
+    }
+
+    /**
+     * Get changed topic.
+     *
+     * @return changed topic, can be null for operations over mind map
+     */
+    public Topic getTopic() {
+      return this.topic;
+    }
+
+    abstract void apply(boolean undo);
+
+    abstract long getSizeEstimation();
+
+    @Override
+    public String toString() {
+      return this.type + "(" + this.topic + ')';
+    }
+  }
+
+  static final class TextOperation extends Operation {
+    private final String oldText;
+    private final String newText;
+
+    TextOperation(final Topic topic, final String oldText, final String newText) {
+      super(OperationType.TEXT, topic);
+      this.oldText = oldText;
+      this.newText = newText;
+    }
+
+    @Override
+    void apply(final boolean undo) {
+      this.getTopic().setText(undo ? this.oldText : this.newText);
+    }
+
+    @Override
+    long getSizeEstimation() {
+      return OBJECT_SIZE + sizeOf(this.oldText) + sizeOf(this.newText);
+    }
+  }
+
+  static final class AttributeOperation extends Operation {
+    private final String name;
+    private final String oldValue;
+    private final String newValue;
+
+    AttributeOperation(final OperationType type, final Topic topic, final String name,
+                       final String oldValue, final String newValue) {
+      super(type, topic);
+      this.name = name;
+      this.oldValue = oldValue;
+      this.newValue = newValue;
+    }
+
+    @Override
+    void apply(final boolean undo) {
+      final String value = undo ? this.oldValue : this.newValue;
+      switch (this.getType()) {
+        case ATTRIBUTE:
+          this.getTopic().putAttribute(this.name, value);
+          break;
+        case CODE_SNIPPET:
+          this.getTopic().putCodeSnippet(this.name, value);
+          break;
+        default:
+          throw new IllegalStateException("Unexpected type: " + this.getType());
+      }
+    }
+
+    @Override
+    long getSizeEstimation() {
+      return OBJECT_SIZE + sizeOf(this.name) + sizeOf(this.oldValue) + sizeOf(this.newValue);
+    }
+  }
+
+  static final class ExtraOperation extends Operation {
+    private final Extra.ExtraType extraType;
+    private final Extra<?> oldExtra;
+    private final Extra<?> newExtra;
+
+    ExtraOperation(final Topic topic, final Extra.ExtraType extraType, final Extra<?> oldExtra,
+                   final Extra<?> newExtra) {
+      super(OperationType.EXTRA, topic);
+      this.extraType = extraType;
+      this.oldExtra = oldExtra;
+      this.newExtra = newExtra;
+    }
+
+    @Override
+    void apply(final boolean undo) {
+      // attributes changed by extras are restored by their own operations
+      final Extra<?> extra = undo ? this.oldExtra : this.newExtra;
+      this.getTopic().getMap().markChanged();
+      if (extra == null) {
+        this.getTopic().getExtras().remove(this.extraType);
+      } else {
+        this.getTopic().getExtras().put(this.extraType, extra);
+      }
+    }
+
+    @Override
+    long getSizeEstimation() {
+      return OBJECT_SIZE + sizeOf(this.oldExtra) + sizeOf(this.newExtra);
+    }
+  }
+
+  static final class ChildrenOperation extends Operation {
+    private final Topic[] oldChildren;
+    private final Topic[] newChildren;
+    private final long detachedSize;
+
+    ChildrenOperation(final Topic topic, final Topic[] oldChildren, final Topic[] newChildren) {
+      super(OperationType.CHILDREN, topic);
+      this.oldChildren = oldChildren;
+      this.newChildren = newChildren;
+      // removed subtrees are kept alive only by history so their content must be counted,
+      // topics moved to other parents are still in the tree, path to root is walked once for
+      // children left under the topic
+      final boolean topicInTree = isInTree(topic);
+      final Set<Topic> kept = Collections.newSetFromMap(new IdentityHashMap<>());
+      Collections.addAll(kept, newChildren);
+      long size = 0L;
+      for (final Topic t : oldChildren) {
+        final boolean inTree;
+        if (t.getParent() == topic) {
+          inTree = topicInTree && kept.contains(t);
+        } else {
+          inTree = isInTree(t);
+        }
+        if (!inTree) {
+          size += sizeOfSubtree(t);
+        }
+      }
+      this.detachedSize = size;
+    }
+
+    @Override
+    void apply(final boolean undo) {
+      this.getTopic().replaceChildren(undo ? this.oldChildren : this.newChildren);
+    }
+
+    @Override
+    long getSizeEstimation() {
+      return OBJECT_SIZE + 8L * (this.oldChildren.length + this.newChildren.length)
+          + this.detachedSize;
+    }
+  }
+
+  static final class RootOperation extends Operation {
+    private final MindMap map;
+    private final Topic oldRoot;
+    private final Topic newRoot;
+
+    RootOperation(final MindMap map, final Topic oldRoot, final Topic newRoot) {
+      super(OperationType.ROOT, null);
+      this.map = map;
+      this.oldRoot = oldRoot;
+      this.newRoot = newRoot;
+    }
+
+    @Override
+    void apply(final boolean undo) {
+      this.map.setRoot(undo ? this.oldRoot : this.newRoot, false);
+    }
+
+    @Override
+    long getSizeEstimation() {
+      return OBJECT_SIZE;
+    }
+  }
+
+  static final class MapAttributeOperation extends Operation {
+    private final MindMap map;
+    private final String name;
+    private final String oldValue;
+    private final String newValue;
+
+    MapAttributeOperation(final MindMap map, final String name, final String oldValue,
+                          final String newValue) {
+      super(OperationType.MAP_ATTRIBUTE, null);
+      this.map = map;
+      this.name = name;
+      this.oldValue = oldValue;
+      this.newValue = newValue;
+    }
+
+    @Override
+    void apply(final boolean undo) {
+      this.map.putAttribute(this.name, undo ? this.oldValue : this.newValue);
+    }
+
+    @Override
+    long getSizeEstimation() {
+      return OBJECT_SIZE + sizeOf(this.name) + sizeOf(this.oldValue) + sizeOf(this.newValue);
+    }
+  }
+}
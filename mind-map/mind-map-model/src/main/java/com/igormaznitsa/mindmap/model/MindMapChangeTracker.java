@@ -0,0 +1,302 @@
+/*
+ * Copyright (C) 2015-2022 Igor A. Maznitsa
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.igormaznitsa.mindmap.model;
+
+import static java.util.Objects.requireNonNull;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+
+/**
+ * Tracker of changes in mind map. It keeps light structural state of every topic (references to
+ * text, attributes, extras and children) and on commit compares the state with the mind map to
+ * make list of operations with old and new values. Neither serialization nor parsing of the mind
+ * map is needed and only changed data is copied. The tracker should be used from the same thread
+ * which changes the mind map.
+ *
+ * @see MindMapChange
+ * @since 1.6.4
+ */
+public final class MindMapChangeTracker {
+
+  private static final String[] NO_STRINGS = new String[0];
+  private static final Topic[] NO_TOPICS = new Topic[0];
+  private static final Extra<?>[] NO_EXTRAS = new Extra<?>[0];
+
+  private final MindMap map;
+  private final Map<Topic, TopicState> states = new IdentityHashMap<>();
+  private Topic root;
+  private String[] mapAttributes = NO_STRINGS;
+  private int generation;
+
+  /**
+   * Constructor, current state of the mind map is remembered as the base one.
+   *
+   * @param map mind map to be tracked, must not be null
+   */
+  public MindMapChangeTracker(final MindMap map) {
+    this.map = requireNonNull(map);
+    this.reset();
+  }
+
+  private static String[] toArray(final Map<String, String> values) {
+    if (values.isEmpty()) {
+      return NO_STRINGS;
+    }
+    final String[] result = new String[values.size() * 2];
+    int index = 0;
+    for (final Map.Entry<String, String> e : values.entrySet()) {
+      result[index++] = e.getKey();
+      result[index++] = e.getValue();
+    }
+    return result;
+  }
+
+  private static boolean isSame(final String[] state, final Map<String, String> values) {
+    if (state.length != values.size() * 2) {
+      return false;
+    }
+    int index = 0;
+    for (final Map.Entry<String, String> e : values.entrySet()) {
+      if (!state[index++].equals(e.getKey()) || !state[index++].equals(e.getValue())) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static Topic[] toArray(final List<Topic> topics) {
+    return topics.isEmpty() ? NO_TOPICS : topics.toArray(NO_TOPICS);
+  }
+
+  private static boolean isSame(final Topic[] state, final List<Topic> topics) {
+    if (state.length != topics.size()) {
+      return false;
+    }
+    for (int i = 0; i < state.length; i++) {
+      if (state[i] != topics.get(i)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static Extra<?>[] toArray(final Topic topic) {
+    if (topic.getExtras().isEmpty()) {
+      return NO_EXTRAS;
+    }
+    final Extra<?>[] result = new Extra<?>[Extra.ExtraType.values().length];
+    for (final Extra<?> e : topic.getExtras().values()) {
+      result[e.getType().ordinal()] = e;
+    }
+    return result;
+  }
+
+  private static boolean isSame(final Extra<?>[] state, final Topic topic) {
+    final Map<Extra.ExtraType, Extra<?>> extras = topic.getExtras();
+    if (state.length == 0) {
+      return extras.isEmpty();
+    }
+    int count = 0;
+    for (final Extra<?> e : state) {
+      if (e != null) {
+        count++;
+        if (!e.equals(extras.get(e.getType()))) {
+          return false;
+        }
+      }
+    }
+    return count == extras.size();
+  }
+
+  private static Map<String, String> toMap(final String[] values) {
+    final Map<String, String> result = new TreeMap<>();
+    for (int i = 0; i < values.length; i += 2) {
+      result.put(values[i], values[i + 1]);
+    }
+    return result;
+  }
+
+  private static Map<String, String> mapAttributes(final MindMap map) {
+    final Map<String, String> result = new TreeMap<>();
+    for (final String name : map.getAttributeNames()) {
+      result.put(name, map.findAttribute(name));
+    }
+    return result;
+  }
+
+  /**
+   * Get tracked mind map.
+   *
+   * @return the mind map, must not be null
+   */
+  public MindMap getMap() {
+    return this.map;
+  }
+
+  /**
+   * Forget all changes made since the last commit and remember current state of the mind map as
+   * the base one.
+   */
+  public void reset() {
+    this.states.clear();
+    this.commit();
+  }
+
+  /**
+   * Find changes made in the mind map since the last commit and remember the current state as the
+   * base one.
+   *
+   * @return found change or null if there is no any change
+   */
+  public MindMapChange commit() {
+    final List<MindMapChange.Operation> operations = new ArrayList<>();
+
+    final Topic currentRoot = this.map.getRoot();
+    if (currentRoot != this.root) {
+      operations.add(new MindMapChange.RootOperation(this.map, this.root, currentRoot));
+      this.root = currentRoot;
+    }
+
+    final Map<String, String> currentMapAttributes = mapAttributes(this.map);
+    if (!isSame(this.mapAttributes, currentMapAttributes)) {
+      final Map<String, String> old = toMap(this.mapAttributes);
+      addAttributeOperations(old, currentMapAttributes, (name, oldValue, newValue) ->
+          operations.add(
+              new MindMapChange.MapAttributeOperation(this.map, name, oldValue, newValue)));
+      this.mapAttributes = toArray(currentMapAttributes);
+    }
+
+    final int currentGeneration = ++this.generation;
+    if (currentRoot != null) {
+      final Deque<Topic> stack = new ArrayDeque<>();
+      stack.push(currentRoot);
+      while (!stack.isEmpty()) {
+        final Topic topic = stack.pop();
+        TopicState state = this.states.get(topic);
+        if (state == null) {
+          state = new TopicState(topic);
+          this.states.put(topic, state);
+        } else {
+          state.collectChanges(topic, operations);
+        }
+        state.generation = currentGeneration;
+        final List<Topic> children = topic.getChildren();
+        for (int i = children.size() - 1; i >= 0; i--) {
+          stack.push(children.get(i));
+        }
+      }
+    }
+
+    final Iterator<TopicState> iterator = this.states.values().iterator();
+    while (iterator.hasNext()) {
+      if (iterator.next().generation != currentGeneration) {
+        iterator.remove();
+      }
+    }
+
+    return operations.isEmpty() ? null : new MindMapChange(this.map, operations);
+  }
+
+  private static void addAttributeOperations(final Map<String, String> oldValues,
+                                             final Map<String, String> newValues,
+                                             final AttributeOperationConsumer consumer) {
+    for (final Map.Entry<String, String> e : oldValues.entrySet()) {
+      final String newValue = newValues.get(e.getKey());
+      if (!e.getValue().equals(newValue)) {
+        consumer.accept(e.getKey(), e.getValue(), newValue);
+      }
+    }
+    for (final Map.Entry<String, String> e : newValues.entrySet()) {
+      if (!oldValues.containsKey(e.getKey())) {
+        consumer.accept(e.getKey(), null, e.getValue());
+      }
+    }
+  }
+
+  @FunctionalInterface
+  private interface AttributeOperationConsumer {
+    void accept(String name, String oldValue, String newValue);
+  }
+
+  private static final class TopicState {
+    private String text;
+    private String[] attributes;
+    private String[] codeSnippets;
+    private Extra<?>[] extras;
+    private Topic[] children;
+    private int generation;
+
+    private TopicState(final Topic topic) {
+      this.text = topic.getText();
+      this.attributes = toArray(topic.getAttributes());
+      this.codeSnippets = toArray(topic.getCodeSnippets());
+      this.extras = toArray(topic);
+      this.children = toArray(topic.getChildren());
+    }
+
+    private void collectChanges(final Topic topic,
+                                final List<MindMapChange.Operation> operations) {
+      final String currentText = topic.getText();
+      if (!Objects.equals(this.text, currentText)) {
+        operations.add(new MindMapChange.TextOperation(topic, this.text, currentText));
+        this.text = currentText;
+      }
+
+      if (!isSame(this.attributes, topic.getAttributes())) {
+        addAttributeOperations(toMap(this.attributes), topic.getAttributes(),
+            (name, oldValue, newValue) -> operations.add(
+                new MindMapChange.AttributeOperation(MindMapChange.OperationType.ATTRIBUTE,
+                    topic, name, oldValue, newValue)));
+        this.attributes = toArray(topic.getAttributes());
+      }
+
+      if (!isSame(this.codeSnippets, topic.getCodeSnippets())) {
+        addAttributeOperations(toMap(this.codeSnippets), topic.getCodeSnippets(),
+            (name, oldValue, newValue) -> operations.add(
+                new MindMapChange.AttributeOperation(MindMapChange.OperationType.CODE_SNIPPET,
+                    topic, name, oldValue, newValue)));
+        this.codeSnippets = toArray(topic.getCodeSnippets());
+      }
+
+      if (!isSame(this.extras, topic)) {
+        for (final Extra.ExtraType type : Extra.ExtraType.values()) {
+          final Extra<?> oldExtra = this.extras.length == 0 ? null : this.extras[type.ordinal()];
+          final Extra<?> newExtra = topic.getExtras().get(type);
+          if (!Objects.equals(oldExtra, newExtra)) {
+            operations.add(new MindMapChange.ExtraOperation(topic, type, oldExtra, newExtra));
+          }
+        }
+        this.extras = toArray(topic);
+      }
+
+      if (!isSame(this.children, topic.getChildren())) {
+        final Topic[] currentChildren = toArray(topic.getChildren());
+        operations.add(
+            new MindMapChange.ChildrenOperation(topic, this.children, currentChildren));
+        this.children = currentChildren;
+      }
+    }
+  }
+}
@@ -0,0 +1,404 @@
+/*
+ * Copyright (C) 2015-2022 Igor A. Maznitsa
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.igormaznitsa.mindmap.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Fast check of text before regular expression search. Literal substrings which must be presented
+ * in any text matching pattern are extracted from the pattern and text without them is rejected by
+ * simple search, so that regular expression engine is used only for candidates. Extraction is
+ * conservative, if structure of pattern is not recognized then no literal is extracted and all
+ * texts are candidates.
+ *
+ * @since 1.6.4
+ */
+public final class PatternPrefilter {
+
+  private static final PatternPrefilter ACCEPT_ALL =
+      new PatternPrefilter(Collections.emptyList(), false);
+
+  private final List<String> literals;
+  private final boolean caseInsensitive;
+
+  private PatternPrefilter(final List<String> literals, final boolean caseInsensitive) {
+    this.literals = literals;
+    this.caseInsensitive = caseInsensitive;
+  }
+
+  /**
+   * Make prefilter for pattern.
+   *
+   * @param pattern pattern to be checked, must not be null
+   * @return prefilter, must not be null
+   */
+  public static PatternPrefilter of(final Pattern pattern) {
+    final int flags = pattern.flags();
+    if ((flags & (Pattern.COMMENTS | Pattern.CANON_EQ)) != 0) {
+      return ACCEPT_ALL;
+    }
+    final boolean caseInsensitive = (flags & Pattern.CASE_INSENSITIVE) != 0;
+
+    final List<String> literals;
+    if ((flags & Pattern.LITERAL) != 0) {
+      literals = new ArrayList<>();
+      addLiteral(literals, new StringBuilder(pattern.pattern()), caseInsensitive);
+    } else {
+      literals = extractLiterals(pattern.pattern(), caseInsensitive);
+    }
+    return literals == null || literals.isEmpty() ? ACCEPT_ALL
+        : new PatternPrefilter(Collections.unmodifiableList(literals), caseInsensitive);
+  }
+
+  private static void addLiteral(final List<String> literals, final StringBuilder buffer,
+                                 final boolean caseInsensitive) {
+    if (buffer.length() > 0) {
+      if (caseInsensitive) {
+        // case of surrogate pairs is compared by code points, they are not folded here
+        int start = 0;
+        for (int i = 0; i <= buffer.length(); i++) {
+          if (i == buffer.length() || Character.isSurrogate(buffer.charAt(i))) {
+            if (i > start) {
+              literals.add(buffer.substring(start, i));
+            }
+            start = i + 1;
+          }
+        }
+      } else {
+        literals.add(buffer.toString());
+      }
+      buffer.setLength(0);
+    }
+  }
+
+  private static int skipGroup(final String pattern, final int start) {
+    int depth = 0;
+    int i = start;
+    while (i < pattern.length()) {
+      final char c = pattern.charAt(i);
+      if (c == '\\') {
+        if (i + 1 < pattern.length() && pattern.charAt(i + 1) == 'Q') {
+          final int end = pattern.indexOf("\\E", i + 2);
+          i = end < 0 ? pattern.length() : end + 2;
+          continue;
+        }
+        i += 2;
+        continue;
+      }
+      if (c == '[') {
+        i = skipClass(pattern, i);
+        continue;
+      }
+      if (c == '(') {
+        depth++;
+      } else if (c == ')') {
+        depth--;
+        if (depth == 0) {
+          return i + 1;
+        }
+      }
+      i++;
+    }
+    return -1;
+  }
+
+  private static int skipClass(final String pattern, final int start) {
+    int i = start + 1;
+    int depth = 1;
+    if (i < pattern.length() && pattern.charAt(i) == '^') {
+      i++;
+    }
+    if (i < pattern.length() && pattern.charAt(i) == ']') {
+      i++;
+    }
+    while (i < pattern.length() && depth > 0) {
+      final char c = pattern.charAt(i);
+      if (c == '\\') {
+        i += 2;
+        continue;
+      }
+      if (c == '[') {
+        depth++;
+      } else if (c == ']') {
+        depth--;
+      }
+      i++;
+    }
+    return i;
+  }
+
+  private static boolean hasTopLevelAlternation(final String pattern) {
+    int i = 0;
+    while (i < pattern.length()) {
+      final char c = pattern.charAt(i);
+      if (c == '\\') {
+        if (i + 1 < pattern.length() && pattern.charAt(i + 1) == 'Q') {
+          final int end = pattern.indexOf("\\E", i + 2);
+          i = end < 0 ? pattern.length() : end + 2;
+        } else {
+          i += 2;
+        }
+      } else if (c == '[') {
+        i = skipClass(pattern, i);
+      } else if (c == '(') {
+        final int end = skipGroup(pattern, i);
+        if (end < 0) {
+          return true;
+        }
+        i = end;
+      } else if (c == '|') {
+        return true;
+      } else {
+        i++;
+      }
+    }
+    return false;
+  }
+
+  private static List<String> extractLiterals(final String pattern,
+                                              final boolean caseInsensitive) {
+    if (hasTopLevelAlternation(pattern)) {
+      return null;
+    }
+
+    final List<String> result = new ArrayList<>();
+    final StringBuilder buffer = new StringBuilder();
+
+    int i = 0;
+    while (i < pattern.length()) {
+      final char c = pattern.charAt(i);
+      int literal = -1;
+      int next = i + 1;
+
+      switch (c) {
+        case '\\': {
+          if (i + 1 >= pattern.length()) {
+            return null;
+          }
+          final char e = pattern.charAt(i + 1);
+          next = i + 2;
+          if (e == 'Q') {
+            final int end = pattern.indexOf("\\E", i + 2);
+            final String quoted = pattern.substring(i + 2, end < 0 ? pattern.length() : end);
+            next = end < 0 ? pattern.length() : end + 2;
+            if (!quoted.isEmpty()) {
+              buffer.append(quoted, 0, quoted.length() - 1);
+              literal = quoted.charAt(quoted.length() - 1);
+            }
+          } else if (e == 'u') {
+            if (i + 6 > pattern.length()) {
+              return null;
+            }
+            try {
+              literal = Integer.parseInt(pattern.substring(i + 2, i + 6), 16);
+            } catch (NumberFormatException ex) {
+              return null;
+            }
+            next = i + 6;
+          } else if (e == 'x' && i + 4 <= pattern.length() && pattern.charAt(i + 2) != '{') {
+            try {
+              literal = Integer.parseInt(pattern.substring(i + 2, i + 4), 16);
+            } catch (NumberFormatException ex) {
+              return null;
+            }
+            next = i + 4;
+          } else if (e == 't') {
+            literal = '\t';
+          } else if (e == 'n') {
+            literal = '\n';
+          } else if (e == 'r') {
+            literal = '\r';
+          } else if (e == 'f') {
+            literal = '\f';
+          } else if (!Character.isLetterOrDigit(e)) {
+            literal = e;
+          } else {
+            // class, boundary, back reference or something else
+            addLiteral(result, buffer, caseInsensitive);
+            if (e == 'p' || e == 'P' || e == 'k') {
+              if (i + 2 < pattern.length() && (pattern.charAt(i + 2) == '{' || pattern.charAt(i + 2) == '<')) {
+                final int end = pattern.indexOf(pattern.charAt(i + 2) == '{' ? '}' : '>', i + 2);
+                if (end < 0) {
+                  return null;
+                }
+                next = end + 1;
+              } else {
+                next = Math.min(pattern.length(), i + 3);
+              }
+            } else if (e == 'x') {
+              final int end = pattern.indexOf('}', i + 2);
+              if (end < 0) {
+                return null;
+              }
+              next = end + 1;
+            } else if (e == 'c') {
+              next = Math.min(pattern.length(), i + 3);
+            } else if (Character.isDigit(e)) {
+              // octal code or back reference
+              while (next < pattern.length() && Character.isDigit(pattern.charAt(next))) {
+                next++;
+              }
+            }
+          }
+        }
+        break;
+        case '[': {
+          addLiteral(result, buffer, caseInsensitive);
+          next = skipClass(pattern, i);
+        }
+        break;
+        case '(': {
+          if (i + 2 < pattern.length() && pattern.charAt(i + 1) == '?'
+              && ":=!<>".indexOf(pattern.charAt(i + 2)) < 0) {
+            // embedded flags can change case sensitivity
+            return null;
+          }
+          addLiteral(result, buffer, caseInsensitive);
+          next = skipGroup(pattern, i);
+          if (next < 0) {
+            return null;
+          }
+        }
+        break;
+        case '.':
+        case '^':
+        case '$': {
+          addLiteral(result, buffer, caseInsensitive);
+        }
+        break;
+        case '?':
+        case '*':
+        case '+':
+        case '{':
+        case ')':
+        case '|': {
+          // quantifier without literal before it
+          addLiteral(result, buffer, caseInsensitive);
+          next = i + 1;
+          if (c == '{') {
+            final int end = pattern.indexOf('}', i);
+            next = end < 0 ? pattern.length() : end + 1;
+          }
+        }
+        break;
+        default: {
+          literal = c;
+        }
+        break;
+      }
+
+      if (literal >= 0) {
+        // check quantifier after the literal char
+        final char quantifier = next < pattern.length() ? pattern.charAt(next) : 0;
+        if (quantifier == '?' || quantifier == '*' || quantifier == '{') {
+          // the char is optional or counted, it is not required as part of literal
+          addLiteral(result, buffer, caseInsensitive);
+        } else if (quantifier == '+') {
+          buffer.appendCodePoint(literal);
+          addLiteral(result, buffer, caseInsensitive);
+        } else {
+          buffer.appendCodePoint(literal);
+        }
+      }
+      i = next;
+    }
+    addLiteral(result, buffer, caseInsensitive);
+    return result;
+  }
+
+  private static boolean isSameChar(final char a, final char b) {
+    if (a == b) {
+      return true;
+    }
+    final char upperA = Character.toUpperCase(a);
+    final char upperB = Character.toUpperCase(b);
+    return upperA == upperB
+        || Character.toLowerCase(a) == Character.toLowerCase(b)
+        || Character.toLowerCase(upperA) == Character.toLowerCase(upperB);
+  }
+
+  private static boolean containsIgnoreCase(final CharSequence text, final String literal) {
+    final int max = text.length() - literal.length();
+    final char first = literal.charAt(0);
+    for (int i = 0; i <= max; i++) {
+      if (isSameChar(text.charAt(i), first)) {
+        int j = 1;
+        while (j < literal.length() && isSameChar(text.charAt(i + j), literal.charAt(j))) {
+          j++;
+        }
+        if (j == literal.length()) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Check that prefilter doesn't reject any text.
+   *
+   * @return true if there are no extracted literals
+   */
+  public boolean isAcceptAll() {
+    return this.literals.isEmpty();
+  }
+
+  /**
+   * Get extracted literals which must be presented in any text matching pattern.
+   *
+   * @return unmodifiable list of literals, must not be null
+   */
+  public List<String> getLiterals() {
+    return this.literals;
+  }
+
+  /**
+   * Check that text can match pattern.
+   *
+   * @param text text to be checked, can be null
+   * @return false if text can't match pattern, true if it should be checked by pattern
+   */
+  public boolean mayMatch(final CharSequence text) {
+    if (text == null) {
+      return this.literals.isEmpty();
+    }
+    for (final String literal : this.literals) {
+      if (this.caseInsensitive) {
+        if (!containsIgnoreCase(text, literal)) {
+          return false;
+        }
+      } else if (text.toString().indexOf(literal) < 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Check that text contains pattern, the pattern is used only if prefilter accepts text.
+   *
+   * @param pattern pattern the prefilter is made for, must not be null
+   * @param text    text to be checked, can be null
+   * @return true if pattern found in text
+   */
+  public boolean find(final Pattern pattern, final CharSequence text) {
+    return text != null && this.mayMatch(text) && pattern.matcher(text).find();
+  }
+}
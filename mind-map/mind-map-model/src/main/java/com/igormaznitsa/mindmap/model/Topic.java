@@ -97,6 +97,7 @@ public final class Topic implements Serializable, Constants, Iterable<Topic> {
                final Extra<?>... extras) {
     this.map = requireNonNull(map);
     this.text = requireNonNull(text);
+    map.markChanged();
 
     for (final Extra<?> e : extras) {
       if (e != null) {
@@ -285,13 +286,34 @@ public final class Topic implements Serializable, Constants, Iterable<Topic> {
   public boolean containsPattern(final File baseFolder, final Pattern pattern,
                                  final boolean findInTopicText,
                                  final Set<Extra.ExtraType> extrasForSearch) {
+    return this.containsPattern(baseFolder, pattern, PatternPrefilter.of(pattern),
+        findInTopicText, extrasForSearch);
+  }
+
+  /**
+   * Check that topic text or extras contain pattern, texts rejected by prefilter are not checked
+   * by pattern.
+   *
+   * @param baseFolder      base folder for mind map, can be null
+   * @param pattern         pattern to be found, must not be null
+   * @param prefilter       prefilter made for the pattern, must not be null
+   * @param findInTopicText flag if true shows that topic title should be used for search
+   * @param extrasForSearch set of extra types to be included into search, can be null
+   * @return true if pattern found, false otherwise
+   * @since 1.6.4
+   */
+  public boolean containsPattern(final File baseFolder, final Pattern pattern,
+                                 final PatternPrefilter prefilter,
+                                 final boolean findInTopicText,
+                                 final Set<Extra.ExtraType> extrasForSearch) {
     boolean result = false;
 
-    if (findInTopicText && pattern.matcher(this.text).find()) {
+    if (findInTopicText && prefilter.find(pattern, this.text)) {
       result = true;
     } else if (extrasForSearch != null && !extrasForSearch.isEmpty()) {
       for (final Extra<?> e : this.extras.values()) {
-        if (extrasForSearch.contains(e.getType()) && e.containsPattern(baseFolder, pattern)) {
+        if (extrasForSearch.contains(e.getType())
+            && e.containsPattern(baseFolder, pattern, prefilter)) {
           result = true;
           break;
         }
@@ -380,6 +402,7 @@ public final class Topic implements Serializable, Constants, Iterable<Topic> {
   }
 
   public boolean putAttribute(final String name, final String value) {
+    this.map.markChanged();
     if (value == null) {
       return this.attributes.remove(name) != null;
     } else {
@@ -388,6 +411,7 @@ public final class Topic implements Serializable, Constants, Iterable<Topic> {
   }
 
   public boolean putCodeSnippet(final String language, final String text) {
+    this.map.markChanged();
     if (text == null) {
       return this.codeSnippets.remove(language) != null;
     } else {
@@ -404,6 +428,7 @@ public final class Topic implements Serializable, Constants, Iterable<Topic> {
   }
 
   public void delete() {
+    this.map.markChanged();
     final Topic theParent = this.parent;
     if (theParent != null) {
       theParent.children.remove(this);
@@ -419,6 +444,7 @@ public final class Topic implements Serializable, Constants, Iterable<Topic> {
   }
 
   public void setText(final String text) {
+    this.map.markChanged();
     this.text = requireNonNull(text);
   }
 
@@ -431,6 +457,7 @@ public final class Topic implements Serializable, Constants, Iterable<Topic> {
   }
 
   public boolean removeExtra(final Extra.ExtraType... types) {
+    this.map.markChanged();
     boolean result = false;
     for (final Extra.ExtraType e : ensureNoNullElement(types)) {
       final Extra<?> removed = this.extras.remove(e);
@@ -443,6 +470,7 @@ public final class Topic implements Serializable, Constants, Iterable<Topic> {
   }
 
   public void setExtra(final Extra<?>... extras) {
+    this.map.markChanged();
     for (final Extra<?> e : ensureNoNullElement(extras)) {
       this.extras.put(e.getType(), e);
       e.attachedToTopic(this);
@@ -450,6 +478,7 @@ public final class Topic implements Serializable, Constants, Iterable<Topic> {
   }
 
   public boolean makeFirst() {
+    this.map.markChanged();
     final Topic theParent = this.parent;
     if (theParent != null) {
       int thatIndex = theParent.children.indexOf(this);
@@ -474,6 +503,7 @@ public final class Topic implements Serializable, Constants, Iterable<Topic> {
   }
 
   public boolean makeLast() {
+    this.map.markChanged();
     final Topic theParent = this.parent;
     if (theParent != null) {
       int thatIndex = theParent.children.indexOf(this);
@@ -487,6 +517,7 @@ public final class Topic implements Serializable, Constants, Iterable<Topic> {
   }
 
   public void moveBefore(final Topic topic) {
+    this.map.markChanged();
     final Topic theParent = this.parent;
     if (theParent != null) {
       int thatIndex = theParent.children.indexOf(topic);
@@ -514,6 +545,7 @@ public final class Topic implements Serializable, Constants, Iterable<Topic> {
   }
 
   public void moveAfter(final Topic topic) {
+    this.map.markChanged();
     final Topic theParent = this.parent;
     if (theParent != null) {
       int thatIndex = theParent.children.indexOf(topic);
@@ -588,6 +620,7 @@ public final class Topic implements Serializable, Constants, Iterable<Topic> {
    * @since 1.6.0
    */
   public void sortChildren(final Comparator<Topic> topicComparator, final boolean sortChildren) {
+    this.map.markChanged();
     this.children.sort(topicComparator);
     if (sortChildren) {
       this.children.forEach(x -> x.sortChildren(topicComparator, true));
@@ -661,10 +694,21 @@ public final class Topic implements Serializable, Constants, Iterable<Topic> {
   }
 
   public void removeAllChildren() {
+    this.map.markChanged();
+    this.children.clear();
+  }
+
+  void replaceChildren(final Topic[] newChildren) {
+    this.map.markChanged();
     this.children.clear();
+    for (final Topic t : newChildren) {
+      t.parent = this;
+      this.children.add(t);
+    }
   }
 
   public boolean moveToNewParent(final Topic newParent) {
+    this.map.markChanged();
     if (newParent == null || this == newParent || this.getParent() == newParent ||
         this.children.contains(newParent)) {
       return false;
@@ -728,6 +772,7 @@ public final class Topic implements Serializable, Constants, Iterable<Topic> {
   }
 
   public void removeExtras(final Extra<?>... extras) {
+    this.map.markChanged();
     if (extras == null || extras.length == 0) {
       this.extras.clear();
     } else {
@@ -862,6 +907,7 @@ public final class Topic implements Serializable, Constants, Iterable<Topic> {
   public boolean removeAllExtras(
       final boolean includeSubtree,
       final Extra.ExtraType... types) {
+    this.map.markChanged();
     boolean result = false;
 
     for (final Extra.ExtraType t : types) {
@@ -879,6 +925,7 @@ public final class Topic implements Serializable, Constants, Iterable<Topic> {
    * Clear all attributes of the topic.
    */
   public void clearAttributes() {
+    this.map.markChanged();
     this.attributes.clear();
   }
 
@@ -893,6 +940,7 @@ public final class Topic implements Serializable, Constants, Iterable<Topic> {
       final boolean includeSubtree,
       final String... attributeNames
   ) {
+    this.map.markChanged();
     boolean result = false;
 
     for (final String name : attributeNames) {
@@ -915,6 +963,7 @@ public final class Topic implements Serializable, Constants, Iterable<Topic> {
    */
   public boolean deleteFileLinkIfPresented(final File baseFolder,
                                            final MMapURI fileUri) {
+    this.map.markChanged();
     boolean result = false;
     if (this.extras.containsKey(Extra.ExtraType.FILE)) {
       final ExtraFile fileLink = (ExtraFile) this.extras.get(Extra.ExtraType.FILE);
@@ -939,6 +988,7 @@ public final class Topic implements Serializable, Constants, Iterable<Topic> {
   public boolean replaceFileLinkIfPresented(final File baseFolder,
                                             final MMapURI oldFileUri,
                                             final MMapURI newFileUri) {
+    this.map.markChanged();
     boolean result = false;
     if (this.extras.containsKey(Extra.ExtraType.FILE)) {
       final ExtraFile fileLink = (ExtraFile) this.extras.get(Extra.ExtraType.FILE);
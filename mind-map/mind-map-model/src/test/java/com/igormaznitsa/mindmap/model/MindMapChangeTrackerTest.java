@@ -0,0 +1,165 @@
+/*
+ * Copyright (C) 2015-2022 Igor A. Maznitsa
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.igormaznitsa.mindmap.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.Test;
+
+public class MindMapChangeTrackerTest {
+
+  private static MindMap makeMap() throws Exception {
+    return new MindMap(new StringReader("Mind Map generated by NB MindMap plugin   \n"
+        + "> __version__=`1.1`\n---\n# Solar\n## Mercury\n## Venus\n> fillColor=`#FF0000`\n\n"
+        + "## Earth\n### Moon\n- NOTE\n<pre>Satellite</pre>\n## Mars\n### Phobos\n### Deimos\n"));
+  }
+
+  private static Topic find(final MindMap map, final String text) {
+    return map.findNext(null, null, java.util.regex.Pattern.compile(text), true, null);
+  }
+
+  @Test
+  public void testNoChanges() throws Exception {
+    final MindMap map = makeMap();
+    final MindMapChangeTracker tracker = new MindMapChangeTracker(map);
+    assertNull(tracker.commit());
+    assertSame(map, tracker.getMap());
+  }
+
+  @Test
+  public void testUndoRedo() throws Exception {
+    final MindMap map = makeMap();
+    final MindMapChangeTracker tracker = new MindMapChangeTracker(map);
+    final String initial = map.asString();
+
+    find(map, "Venus").setText("Hot Venus");
+    find(map, "Venus").putAttribute("fillColor", null);
+    find(map, "Earth").setExtra(new ExtraLink("http://earth.com"));
+    find(map, "Moon").removeExtra(Extra.ExtraType.NOTE);
+    find(map, "Phobos").moveToNewParent(find(map, "Earth"));
+    find(map, "Mercury").delete();
+    find(map, "Mars").makeChild("Curiosity", null).putCodeSnippet("java", "int a;");
+    find(map, "Solar").makeFirst();
+    find(map, "Deimos").makeFirst();
+    map.putAttribute("showJumps", "true");
+
+    final String changed = map.asString();
+    final MindMapChange change = tracker.commit();
+    assertNotNull(change);
+    assertNull(tracker.commit());
+
+    change.undo();
+    assertEquals(initial, map.asString());
+    assertNull(find(map, "Curiosity"));
+    assertSame(find(map, "Solar"), find(map, "Phobos").getParent().getParent());
+
+    change.redo();
+    assertEquals(changed, map.asString());
+    assertSame(find(map, "Earth"), find(map, "Phobos").getParent());
+  }
+
+  @Test
+  public void testRandomChanges() throws Exception {
+    final Random rnd = new Random(12345L);
+    final MindMap map = makeMap();
+    final MindMapChangeTracker tracker = new MindMapChangeTracker(map);
+
+    final List<String> states = new ArrayList<>();
+    final List<MindMapChange> changes = new ArrayList<>();
+    states.add(map.asString());
+
+    for (int i = 0; i < 200; i++) {
+      final List<Topic> topics = map.asList();
+      final Topic topic = topics.get(rnd.nextInt(topics.size()));
+      switch (rnd.nextInt(6)) {
+        case 0:
+          topic.setText("text" + i);
+          break;
+        case 1:
+          topic.makeChild("child" + i, null);
+          break;
+        case 2:
+          if (!topic.isRoot()) {
+            topic.delete();
+          }
+          break;
+        case 3: {
+          final Topic target = topics.get(rnd.nextInt(topics.size()));
+          if (!topic.isRoot() && target != topic && !target.hasAncestor(topic)) {
+            topic.moveToNewParent(target);
+          }
+        }
+        break;
+        case 4:
+          topic.putAttribute("attr" + rnd.nextInt(3), rnd.nextBoolean() ? null : "v" + i);
+          break;
+        default:
+          if (rnd.nextBoolean()) {
+            topic.setExtra(new ExtraNote("note" + i));
+          } else {
+            topic.removeExtra(Extra.ExtraType.NOTE);
+          }
+          break;
+      }
+      final MindMapChange change = tracker.commit();
+      if (change != null) {
+        changes.add(change);
+        states.add(map.asString());
+      }
+    }
+
+    for (int i = changes.size() - 1; i >= 0; i--) {
+      changes.get(i).undo();
+      tracker.commit();
+      assertEquals(states.get(i), map.asString());
+    }
+    for (int i = 0; i < changes.size(); i++) {
+      changes.get(i).redo();
+      tracker.commit();
+      assertEquals(states.get(i + 1), map.asString());
+    }
+  }
+
+  @Test
+  public void testSizeEstimationCountsRemovedSubtree() throws Exception {
+    final MindMap map = makeMap();
+    final StringBuilder buffer = new StringBuilder();
+    for (int i = 0; i < 100000; i++) {
+      buffer.append('a');
+    }
+    find(map, "Moon").putAttribute("image", buffer.toString());
+    final MindMapChangeTracker tracker = new MindMapChangeTracker(map);
+
+    find(map, "Phobos").moveToNewParent(find(map, "Earth"));
+    final MindMapChange move = tracker.commit();
+    assertNotNull(move);
+    assertTrue(move.getSizeEstimation() < 1024L);
+
+    find(map, "Earth").delete();
+    final MindMapChange delete = tracker.commit();
+    assertNotNull(delete);
+    assertTrue(delete.getSizeEstimation() > buffer.length() * 2L);
+  }
+}
@@ -28,7 +28,9 @@ import java.io.ObjectOutputStream;
 import java.io.StringReader;
 import java.io.StringWriter;
 import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
 import java.util.regex.Pattern;
 import org.junit.Test;
 
@@ -98,6 +100,28 @@ public class MindMapTest {
     assertEquals("Solar", solar.getText());
     assertNull(map.findPrev(null, solar, Pattern.compile(Pattern.quote("ar")),true, null));
   }
+
+  @Test
+  public void testFindAll() throws Exception {
+    final MindMap map = new MindMap(new StringReader("test\n---\n# Solar\n## Mercury\n## Venus\n## Earth\n### Moon\n## Mars\n### Phobos\n### Deimos"));
+    final List<Topic> found = map.findAll(null, Pattern.compile("a[rn]", Pattern.CASE_INSENSITIVE), true, null, null);
+    assertEquals(3, found.size());
+    assertEquals("Solar", found.get(0).getText());
+    assertEquals("Earth", found.get(1).getText());
+    assertEquals("Mars", found.get(2).getText());
+    assertTrue(map.findAll(null, Pattern.compile("Pluto"), true, null, null).isEmpty());
+  }
+
+  @Test
+  public void testFindAll_Extras() throws Exception {
+    final MindMap map = new MindMap(new StringReader("test\n---\n# Solar\n## Mercury\n## Venus\n## Earth\n### Moon\n## Mars\n### Phobos\n### Deimos"));
+    map.findNext(null, null, Pattern.compile("Venus"), true, null).setExtra(new ExtraNote("Hot planet"));
+    map.findNext(null, null, Pattern.compile("Moon"), true, null).setExtra(new ExtraNote("Satellite", true, null));
+    final Set<Extra.ExtraType> extras = EnumSet.of(Extra.ExtraType.NOTE);
+    final List<Topic> found = map.findAll(null, Pattern.compile("(?i)hot|sat"), false, extras, null);
+    assertEquals(1, found.size());
+    assertEquals("Venus", found.get(0).getText());
+  }
   
   @Test
   public void testMindMapParse_NoAttributes() throws Exception {
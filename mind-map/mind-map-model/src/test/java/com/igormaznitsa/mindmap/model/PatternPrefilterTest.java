@@ -0,0 +1,92 @@
+/*
+ * Copyright (C) 2015-2022 Igor A. Maznitsa
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.igormaznitsa.mindmap.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.regex.Pattern;
+import org.junit.Test;
+
+public class PatternPrefilterTest {
+
+  private static PatternPrefilter make(final String pattern, final int flags) {
+    return PatternPrefilter.of(Pattern.compile(pattern, flags));
+  }
+
+  @Test
+  public void testLiterals() {
+    assertEquals(Collections.singletonList("hello"), make("hello", 0).getLiterals());
+    assertEquals(Arrays.asList("ab", "cd"), make("ab.cd", 0).getLiterals());
+    assertEquals(Arrays.asList("ab", "d"), make("abc?d", 0).getLiterals());
+    assertEquals(Arrays.asList("abc", "d"), make("abc+d", 0).getLiterals());
+    assertEquals(Arrays.asList("a", "d"), make("a[bc]d", 0).getLiterals());
+    assertEquals(Arrays.asList("a", "d"), make("a(b|c)d", 0).getLiterals());
+    assertEquals(Collections.singletonList("a.b"), make("a\\.b", 0).getLiterals());
+    assertEquals(Collections.singletonList("a.b*"), make("\\Qa.b*\\E", 0).getLiterals());
+    assertEquals(Collections.singletonList("a.b"), make("a.b", Pattern.LITERAL).getLiterals());
+    assertEquals(Arrays.asList("a", "b"), make("a\\sb", 0).getLiterals());
+    assertEquals(Collections.singletonList("AB"), make("\\u0041\\x42", 0).getLiterals());
+  }
+
+  @Test
+  public void testAcceptAll() {
+    assertTrue(make("a|b", 0).isAcceptAll());
+    assertTrue(make("(?i)abc", 0).isAcceptAll());
+    assertTrue(make("a b", Pattern.COMMENTS).isAcceptAll());
+    assertTrue(make(".*", 0).isAcceptAll());
+    assertTrue(make("a?", 0).isAcceptAll());
+    assertFalse(make("a", 0).mayMatch(""));
+    assertTrue(make(".*", 0).mayMatch(null));
+    assertFalse(make("a", 0).mayMatch(null));
+  }
+
+  @Test
+  public void testMayMatch() {
+    assertTrue(make("wor.d", 0).mayMatch("hello world"));
+    assertFalse(make("wor.d", 0).mayMatch("hello WORLD"));
+    assertTrue(make("wor.d", Pattern.CASE_INSENSITIVE).mayMatch("hello WORLD"));
+    assertFalse(make("wor.d", Pattern.CASE_INSENSITIVE).mayMatch("hello there"));
+    assertTrue(make("файл", Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE)
+        .mayMatch("ФАЙЛ"));
+  }
+
+  @Test
+  public void testNoFalseNegatives() {
+    final String[] patterns = {"ab", "a.c", "a+b", "a*b", "x{2}y", "(ab)+c", "[a-c]d", "a\\d+",
+        "\\bword\\b", "a(?=b)", "a(?:b|c)d", "^ab$", "a\\Q.*\\E", "A\\sB", "(?<n>a)\\k<n>b",
+        "ab??c", "a{1,}?b", "\\p{Lu}x", "\\x{41}b", "\\tA"};
+    final String[] texts = {"", "ab", "abc", "aab", "b", "xxy", "ababc", "cd", "a123",
+        "a word here", "ab", "acd", "ab", "a.*", "a b", "aab", "abc", "ac", "Bx", "Ab", "\tA",
+        "AB", "A\nB", "XXY", "WORD", "Abc"};
+    final int[] flags = {0, Pattern.CASE_INSENSITIVE,
+        Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE, Pattern.MULTILINE | Pattern.DOTALL};
+    for (final String p : patterns) {
+      for (final int f : flags) {
+        final Pattern pattern = Pattern.compile(p, f);
+        final PatternPrefilter prefilter = PatternPrefilter.of(pattern);
+        for (final String t : texts) {
+          assertEquals(p + " / " + f + " / " + t, pattern.matcher(t).find(),
+              prefilter.find(pattern, t));
+        }
+      }
+    }
+  }
+}
@@ -25,4 +25,26 @@ public interface Renderable {
   int getHeight(double scale);
 
   void renderAt(MMGraphics gfx, MindMapPanelConfig config, int x, int y);
+
+  /**
+   * Check that content is ready to be rendered. Content which is still prepared in background is
+   * rendered on screen as placeholder of the same size.
+   *
+   * @return true if content is ready
+   * @since 1.6.4
+   */
+  default boolean isReady() {
+    return true;
+  }
+
+  /**
+   * Register action to be called once when content becomes ready. The action is called
+   * immediately if content is already ready, otherwise it can be called from any thread.
+   *
+   * @param action action to be called, must not be null
+   * @since 1.6.4
+   */
+  default void whenReady(final Runnable action) {
+    action.run();
+  }
 }
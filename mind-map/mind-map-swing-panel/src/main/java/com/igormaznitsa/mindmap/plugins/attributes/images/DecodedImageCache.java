@@ -0,0 +1,132 @@
+/*
+ * Copyright (C) 2015-2022 Igor A. Maznitsa
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.igormaznitsa.mindmap.plugins.attributes.images;
+
+import com.igormaznitsa.mindmap.swing.panel.utils.CryptoUtils;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.function.Function;
+
+/**
+ * Cache of decoded topic images shared between all topics and mind maps. Images are identified
+ * by hash of their encoded data so that copies of topics and different topics with the same image
+ * use the same decoded image together with its scaled versions. The cache is limited by memory
+ * occupied by decoded images, the least recently used images are removed.
+ *
+ * @since 1.6.4
+ */
+final class DecodedImageCache {
+
+  static final long DEFAULT_MAX_BYTES = 64L * 1024L * 1024L;
+
+  private static final DecodedImageCache INSTANCE = new DecodedImageCache(DEFAULT_MAX_BYTES);
+
+  private final long maxBytes;
+  private final Map<String, DataKey> dataKeys = new WeakHashMap<>();
+  private final Map<DataKey, ScalableRenderableImage> images =
+      new LinkedHashMap<>(64, 0.75f, true);
+  private long bytes;
+
+  DecodedImageCache(final long maxBytes) {
+    this.maxBytes = maxBytes;
+  }
+
+  static DecodedImageCache getInstance() {
+    return INSTANCE;
+  }
+
+  private static long sizeOf(final ScalableRenderableImage image) {
+    return image == null ? 0L : image.getSizeEstimation();
+  }
+
+  /**
+   * Find decoded image for encoded data or decode and cache it.
+   *
+   * @param encodedData encoded image data, must not be null
+   * @param decoder     decoder to be called if there is no cached image
+   * @return decoded image or null if data can't be decoded
+   */
+  ScalableRenderableImage find(final String encodedData,
+                               final Function<String, ScalableRenderableImage> decoder) {
+    DataKey key;
+    synchronized (this) {
+      key = this.dataKeys.get(encodedData);
+      if (key != null && this.images.containsKey(key)) {
+        return this.images.get(key);
+      }
+    }
+
+    if (key == null) {
+      key = new DataKey(encodedData);
+    }
+    final ScalableRenderableImage result = decoder.apply(encodedData);
+
+    synchronized (this) {
+      this.dataKeys.put(encodedData, key);
+      final ScalableRenderableImage prev = this.images.put(key, result);
+      this.bytes += sizeOf(result) - sizeOf(prev);
+      final Iterator<ScalableRenderableImage> iterator = this.images.values().iterator();
+      while (this.bytes > this.maxBytes && this.images.size() > 1) {
+        this.bytes -= sizeOf(iterator.next());
+        iterator.remove();
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Remove all cached images.
+   */
+  synchronized void clear() {
+    this.dataKeys.clear();
+    this.images.clear();
+    this.bytes = 0L;
+  }
+
+  private static final class DataKey {
+    private final int length;
+    private final byte[] hash;
+    private final int hashCode;
+
+    private DataKey(final String encodedData) {
+      this.length = encodedData.length();
+      this.hash = CryptoUtils.sha256(encodedData.getBytes(StandardCharsets.ISO_8859_1));
+      this.hashCode = Arrays.hashCode(this.hash);
+    }
+
+    @Override
+    public int hashCode() {
+      return this.hashCode;
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+      if (this == obj) {
+        return true;
+      }
+      if (obj instanceof DataKey) {
+        final DataKey that = (DataKey) obj;
+        return this.length == that.length && Arrays.equals(this.hash, that.hash);
+      }
+      return false;
+    }
+  }
+}
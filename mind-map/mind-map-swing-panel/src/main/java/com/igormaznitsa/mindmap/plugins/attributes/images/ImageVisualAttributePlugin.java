@@ -29,25 +29,28 @@ import com.igormaznitsa.mindmap.swing.i18n.MmdI18n;
 import com.igormaznitsa.mindmap.swing.ide.IDEBridgeFactory;
 import com.igormaznitsa.mindmap.swing.panel.MindMapPanelConfig;
 import com.igormaznitsa.mindmap.swing.panel.utils.Utils;
+import java.awt.Dimension;
 import java.awt.Image;
 import java.io.ByteArrayInputStream;
 import java.io.File;
+import java.io.IOException;
 import java.net.URISyntaxException;
-import java.util.Map;
+import java.util.Iterator;
 import java.util.ResourceBundle;
 import java.util.Set;
-import java.util.WeakHashMap;
 import java.util.regex.Pattern;
 import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
 
 public class ImageVisualAttributePlugin implements VisualAttributePlugin {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(ImageVisualAttributePlugin.class);
-  private static final Map<Topic, Renderable> CACHED_IMAGES = new WeakHashMap<>();
+  private static final int MAX_HEADER_CHARS = 64 * 1024;
   private final ResourceBundle resourceBundle = MmdI18n.getInstance().findBundle();
 
   public static void clearCachedImages() {
-    CACHED_IMAGES.clear();
+    DecodedImageCache.getInstance().clear();
   }
 
   @Override
@@ -85,23 +88,50 @@ public class ImageVisualAttributePlugin implements VisualAttributePlugin {
   @Override
   public Renderable getScaledImage(final MindMapPanelConfig config,
                                    final Topic activeTopic) {
-    Renderable result = CACHED_IMAGES.get(activeTopic);
-    if (result == null) {
-      result = new ScalableRenderableImage(extractImage(activeTopic));
-      CACHED_IMAGES.put(activeTopic, result);
+    final String encoded = activeTopic.getAttribute(MMD_TOPIC_ATTRIBUTE_IMAGE_DATA);
+    return encoded == null ? null
+        : DecodedImageCache.getInstance().find(encoded, ImageVisualAttributePlugin::decodeImage);
+  }
+
+  static Dimension readImageSize(final String encoded) {
+    // only head of data is decoded, it is enough for header of image
+    final int length = Math.min(encoded.length(), MAX_HEADER_CHARS) & ~3;
+    try (final ImageInputStream stream = ImageIO.createImageInputStream(
+        new ByteArrayInputStream(Utils.base64decode(encoded.substring(0, length))))) {
+      final Iterator<ImageReader> readers = ImageIO.getImageReaders(stream);
+      if (readers.hasNext()) {
+        final ImageReader reader = readers.next();
+        try {
+          reader.setInput(stream, true, true);
+          return new Dimension(reader.getWidth(0), reader.getHeight(0));
+        } finally {
+          reader.dispose();
+        }
+      }
+    } catch (Exception ex) {
+      // size is unknown, image will be decoded synchronously
     }
-    return result;
+    return null;
+  }
+
+  private static Image readImage(final String encoded) throws IOException {
+    return ImageIO.read(new ByteArrayInputStream(Utils.base64decode(encoded)));
   }
 
-  private Image extractImage(final Topic topic) {
-    Image result = null;
-    final String encoded = topic.getAttribute(MMD_TOPIC_ATTRIBUTE_IMAGE_DATA);
-    if (encoded != null) {
-      try {
-        result = ImageIO.read(new ByteArrayInputStream(Utils.base64decode(encoded)));
-      } catch (Exception ex) {
-        LOGGER.error("Can't extract image", ex);
+  private static ScalableRenderableImage decodeImage(final String encoded) {
+    final Dimension size = readImageSize(encoded);
+    if (size != null && size.width > 0 && size.height > 0) {
+      return new ScalableRenderableImage(size.width, size.height, () -> readImage(encoded));
+    }
+
+    ScalableRenderableImage result = null;
+    try {
+      final Image image = readImage(encoded);
+      if (image != null) {
+        result = new ScalableRenderableImage(image);
       }
+    } catch (Exception ex) {
+      LOGGER.error("Can't extract image", ex);
     }
     return result;
   }
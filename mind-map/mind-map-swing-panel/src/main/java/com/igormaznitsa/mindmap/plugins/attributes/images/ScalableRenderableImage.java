@@ -16,40 +16,179 @@
 
 package com.igormaznitsa.mindmap.plugins.attributes.images;
 
+import com.igormaznitsa.mindmap.model.logger.Logger;
+import com.igormaznitsa.mindmap.model.logger.LoggerFactory;
 import com.igormaznitsa.mindmap.plugins.api.Renderable;
 import com.igormaznitsa.mindmap.swing.panel.MindMapPanelConfig;
 import com.igormaznitsa.mindmap.swing.panel.ui.gfx.MMGraphics;
+import java.awt.Color;
 import java.awt.Graphics2D;
 import java.awt.Image;
 import java.awt.RenderingHints;
 import java.awt.geom.AffineTransform;
 import java.awt.image.BufferedImage;
 import java.lang.ref.SoftReference;
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 final class ScalableRenderableImage implements Renderable {
 
-  private final Image baseImage;
+  private static final Logger LOGGER = LoggerFactory.getLogger(ScalableRenderableImage.class);
+
+  private static final int MAX_CACHED_SCALES = 4;
+  private static final int MAX_THREADS =
+      Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors()));
+  private static final AtomicInteger THREAD_COUNTER = new AtomicInteger();
+  private static final ExecutorService DECODER = makeExecutor();
+
+  private static final Color PLACEHOLDER_BORDER = new Color(0x80808080, true);
+  private static final Color PLACEHOLDER_FILL = new Color(0x30808080, true);
+
   private final int width;
   private final int height;
-  private final Map<Double, SoftReference<Image>> cache = new HashMap<>();
-  private double cachedScale = Double.MIN_VALUE;
+  private final FutureTask<Image> decoding;
+  private final List<Runnable> readyActions = new ArrayList<>();
+  private final Map<Double, SoftReference<Image>> cache =
+      new LinkedHashMap<Double, SoftReference<Image>>(8, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(
+            final Map.Entry<Double, SoftReference<Image>> eldest) {
+          return this.size() > MAX_CACHED_SCALES;
+        }
+      };
+  private volatile Image baseImage;
+  private volatile boolean ready;
+  private volatile boolean failed;
+  private volatile double lastScale = 1.0d;
 
   public ScalableRenderableImage(final Image baseImage) {
     this.baseImage = baseImage;
     this.width = baseImage.getWidth(null);
     this.height = baseImage.getHeight(null);
+    this.decoding = null;
+    this.ready = true;
+  }
+
+  /**
+   * Make image which is decoded in background, its size must be known before decoding to make
+   * layout without waiting for decoding.
+   *
+   * @param width   width of image
+   * @param height  height of image
+   * @param decoder decoder of image, it can return null if image can't be decoded
+   * @since 1.6.4
+   */
+  ScalableRenderableImage(final int width, final int height, final Callable<Image> decoder) {
+    this.width = width;
+    this.height = height;
+    this.decoding = new FutureTask<Image>(decoder) {
+      @Override
+      protected void done() {
+        onDecoded(this);
+      }
+    };
+    DECODER.execute(this.decoding);
+  }
+
+  private static ExecutorService makeExecutor() {
+    final ThreadPoolExecutor result = new ThreadPoolExecutor(MAX_THREADS, MAX_THREADS,
+        5L, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), r -> {
+      final Thread thread =
+          new Thread(r, "mmd-image-decoder-" + THREAD_COUNTER.incrementAndGet());
+      thread.setDaemon(true);
+      thread.setPriority(Thread.MIN_PRIORITY);
+      return thread;
+    });
+    result.allowCoreThreadTimeOut(true);
+    return result;
+  }
+
+  private void onDecoded(final FutureTask<Image> task) {
+    Image decoded = null;
+    try {
+      decoded = task.get();
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+    } catch (ExecutionException ex) {
+      LOGGER.error("Can't extract image", ex.getCause());
+    }
+    this.baseImage = decoded;
+    if (decoded == null) {
+      // image is removed from layout as if it could not be decoded synchronously
+      this.failed = true;
+    } else {
+      // prepare image for current scale to not make it during paint
+      this.getCached(this.lastScale);
+    }
+
+    final List<Runnable> actions;
+    synchronized (this.readyActions) {
+      this.ready = true;
+      actions = new ArrayList<>(this.readyActions);
+      this.readyActions.clear();
+    }
+    actions.forEach(Runnable::run);
+  }
+
+  @Override
+  public boolean isReady() {
+    return this.ready;
+  }
+
+  @Override
+  public void whenReady(final Runnable action) {
+    synchronized (this.readyActions) {
+      if (!this.ready) {
+        this.readyActions.add(action);
+        return;
+      }
+    }
+    action.run();
   }
 
   @Override
   public int getWidth(final double scale) {
-    return (int) Math.round(this.width * scale);
+    return this.failed ? 0 : (int) Math.round(this.width * scale);
   }
 
   @Override
   public int getHeight(final double scale) {
-    return (int) Math.round(this.height * scale);
+    return this.failed ? 0 : (int) Math.round(this.height * scale);
+  }
+
+  /**
+   * Approximate size of memory occupied by decoded base image.
+   *
+   * @return size in bytes
+   */
+  long getSizeEstimation() {
+    return (long) this.width * this.height * 4L;
+  }
+
+  private Image findBaseImage() {
+    if (this.ready || this.decoding == null) {
+      return this.baseImage;
+    }
+    // decode in current thread if decoding has not been started yet
+    this.decoding.run();
+    try {
+      return this.decoding.get();
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      return null;
+    } catch (ExecutionException ex) {
+      return null;
+    }
   }
 
   private Image getCached(final double scale) {
@@ -57,28 +196,28 @@ final class ScalableRenderableImage implements Renderable {
     synchronized (this.cache) {
       final SoftReference<Image> cachedImage = this.cache.get(scale);
       result = cachedImage == null ? null : cachedImage.get();
-      if (result == null || Double.compare(this.cachedScale, scale) != 0) {
-        final int sw = getWidth(scale);
-        final int sh = getHeight(scale);
-
-        if (sw != 0 && sh != 0) {
-          final BufferedImage scaled = new BufferedImage(sw, sh, BufferedImage.TYPE_INT_ARGB);
-          final Graphics2D gfx = scaled.createGraphics();
-
-          gfx.setRenderingHint(RenderingHints.KEY_ALPHA_INTERPOLATION, RenderingHints.VALUE_ALPHA_INTERPOLATION_QUALITY);
-          gfx.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
-          gfx.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
-          gfx.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BICUBIC);
-          gfx.setRenderingHint(RenderingHints.KEY_COLOR_RENDERING, RenderingHints.VALUE_COLOR_RENDER_QUALITY);
-
-          gfx.drawImage(this.baseImage, AffineTransform.getScaleInstance(scale, scale), null);
-          gfx.dispose();
-          result = scaled;
+    }
+    if (result == null) {
+      final Image base = this.findBaseImage();
+      final int sw = getWidth(scale);
+      final int sh = getHeight(scale);
+
+      if (base != null && sw != 0 && sh != 0) {
+        final BufferedImage scaled = new BufferedImage(sw, sh, BufferedImage.TYPE_INT_ARGB);
+        final Graphics2D gfx = scaled.createGraphics();
+
+        gfx.setRenderingHint(RenderingHints.KEY_ALPHA_INTERPOLATION, RenderingHints.VALUE_ALPHA_INTERPOLATION_QUALITY);
+        gfx.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        gfx.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+        gfx.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BICUBIC);
+        gfx.setRenderingHint(RenderingHints.KEY_COLOR_RENDERING, RenderingHints.VALUE_COLOR_RENDER_QUALITY);
+
+        gfx.drawImage(base, AffineTransform.getScaleInstance(scale, scale), null);
+        gfx.dispose();
+        result = scaled;
+        synchronized (this.cache) {
           this.cache.put(scale, new SoftReference<>(result));
-        } else {
-          result = null;
         }
-        this.cachedScale = scale;
       }
     }
     return result;
@@ -87,8 +226,15 @@ final class ScalableRenderableImage implements Renderable {
   @Override
   public void renderAt(final MMGraphics gfx, final MindMapPanelConfig config, final int x,
                        final int y) {
-    final Image image = getCached(config.getScale());
-    gfx.drawImage(image, x, y);
+    final double scale = config.getScale();
+    this.lastScale = scale;
+    if (!this.ready && gfx.isOnScreen()) {
+      gfx.drawRect(x, y, getWidth(scale), getHeight(scale), PLACEHOLDER_BORDER,
+          PLACEHOLDER_FILL);
+    } else {
+      final Image image = getCached(scale);
+      gfx.drawImage(image, x, y);
+    }
   }
 
 }
@@ -16,13 +16,9 @@
 
 package com.igormaznitsa.mindmap.plugins.exporters;
 
-import static com.igormaznitsa.mindmap.swing.panel.MindMapPanel.calculateSizeOfMapInPixels;
-import static com.igormaznitsa.mindmap.swing.panel.MindMapPanel.drawOnGraphicsForConfiguration;
-import static com.igormaznitsa.mindmap.swing.panel.MindMapPanel.layoutFullDiagramWithCenteringToPaper;
 import static java.lang.Long.toHexString;
 import static java.util.Objects.requireNonNull;
 
-import com.igormaznitsa.mindmap.model.MindMap;
 import com.igormaznitsa.mindmap.model.Topic;
 import com.igormaznitsa.mindmap.model.logger.Logger;
 import com.igormaznitsa.mindmap.model.logger.LoggerFactory;
@@ -34,6 +30,7 @@ import com.igormaznitsa.mindmap.plugins.api.parameters.FileParameter;
 import com.igormaznitsa.mindmap.plugins.api.parameters.Importance;
 import com.igormaznitsa.mindmap.swing.i18n.MmdI18n;
 import com.igormaznitsa.mindmap.swing.ide.IDEBridgeFactory;
+import com.igormaznitsa.mindmap.swing.panel.MindMapLayoutSnapshot;
 import com.igormaznitsa.mindmap.swing.panel.MindMapPanelConfig;
 import com.igormaznitsa.mindmap.swing.panel.ui.gfx.MMGraphics;
 import com.igormaznitsa.mindmap.swing.panel.ui.gfx.StrokeType;
@@ -107,6 +104,7 @@ public class SVGImageExporter extends AbstractExporter {
   private static final Logger LOGGER = LoggerFactory.getLogger(SVGImageExporter.class);
   private static final Icon ICO =
       ImageIconServiceProvider.findInstance().getIconForId(IconID.POPUP_EXPORT_SVG);
+  private static final String GRAPHICS_SVG = "svg";
   private static final String NEXT_LINE = "\n";
   private static final String SVG_HEADER =
       "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>" + NEXT_LINE + "<!-- " +
@@ -241,13 +239,6 @@ public class SVGImageExporter extends AbstractExporter {
         .map(x -> ((BooleanParameter) x).getValue())
         .orElse(true);
 
-    final MindMap workMap = context.getPanel().getModel().makeCopy();
-    workMap.clearAllPayloads();
-
-    if (flagExpandAllNodes) {
-      MindMapUtils.removeCollapseAttr(workMap);
-    }
-
     final File customPreferencesFile = options.stream()
         .filter(x -> KEY_PARAMETER_CUSTOM_CONFIG_FILE.equals(x.getId()))
         .findFirst()
@@ -274,9 +265,11 @@ public class SVGImageExporter extends AbstractExporter {
     drawConfig.setDrawBackground(flagDrawBackground);
     drawConfig.setScale(1.0f);
 
-    final Dimension2D blockSize =
-        calculateSizeOfMapInPixels(workMap, null, drawConfig, flagExpandAllNodes,
-            RenderQuality.DEFAULT);
+    final MindMapLayoutSnapshot snapshot =
+        MindMapLayoutSnapshot.find(context.getPanel().getModel(), drawConfig, flagExpandAllNodes,
+            RenderQuality.DEFAULT, GRAPHICS_SVG,
+            g -> new SVGMMGraphics(new StringBuilder(), g, new ImageCache()));
+    final Dimension2D blockSize = snapshot.getPaperSize();
     if (blockSize == null) {
       return SVG_HEADER + "</svg>";
     }
@@ -290,8 +283,7 @@ public class SVGImageExporter extends AbstractExporter {
     gfx.setClip(0, 0, (int) Math.round(blockSize.getWidth()),
         (int) Math.round(blockSize.getHeight()));
     try {
-      layoutFullDiagramWithCenteringToPaper(gfx, workMap, drawConfig, blockSize);
-      drawOnGraphicsForConfiguration(gfx, drawConfig, workMap, false, null);
+      snapshot.render(gfx);
       buffer.insert(0, imageCache.asString(prepareStylePart(drawConfig)));
     } finally {
       gfx.dispose();
@@ -40,10 +40,13 @@ import java.awt.Color;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.ArrayList;
+import java.util.ArrayDeque;
 import java.util.Arrays;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -51,6 +54,9 @@ import java.util.Map;
 import java.util.Set;
 import javax.swing.Icon;
 import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 import javax.xml.xpath.XPath;
 import javax.xml.xpath.XPathConstants;
 import javax.xml.xpath.XPathExpressionException;
@@ -169,6 +175,125 @@ public class Freemind2MindMapImporter extends AbstractImporter {
     return result;
   }
 
+  private static RichContent readRichContent(final XMLStreamReader reader)
+      throws XMLStreamException {
+    final String textType = Utils.findXmlAttribute(reader, "type");
+    final StringBuilder buffer = new StringBuilder();
+    final List<String> foundImageUrls = new ArrayList<>();
+
+    int level = 1;
+    while (level > 0) {
+      switch (reader.next()) {
+        case XMLStreamConstants.START_ELEMENT: {
+          level++;
+          final String tag = reader.getLocalName();
+          if ("img".equals(tag)) {
+            final String source = Utils.findXmlAttribute(reader, "src");
+            if (!source.isEmpty()) {
+              foundImageUrls.add(source);
+            }
+          }
+          if (TOKEN_NEEDS_NEXT_LINE.contains(tag)) {
+            buffer.append('\n');
+          }
+        }
+        break;
+        case XMLStreamConstants.END_ELEMENT: {
+          level--;
+        }
+        break;
+        case XMLStreamConstants.CHARACTERS:
+        case XMLStreamConstants.CDATA:
+        case XMLStreamConstants.SPACE: {
+          buffer.append(reader.getText());
+        }
+        break;
+        case XMLStreamConstants.END_DOCUMENT:
+          throw new XMLStreamException("Unexpected end of document", reader.getLocation());
+        default: {
+          // just ignoring  other events
+        }
+        break;
+      }
+    }
+
+    try {
+      return new RichContent(RichContentType.valueOf(textType),
+          buffer.toString().replace("\r", ""), foundImageUrls);
+    } catch (IllegalArgumentException ex) {
+      LOGGER.warn("Unknown node type : " + textType);
+      return null;
+    }
+  }
+
+  private static void processColors(final Topic topic, final String color,
+                                    final String backgroundColor) {
+    if (!color.isEmpty()) {
+      final Color colorConverted = Utils.html2color(color, false);
+      final Color backgroundColorConverted = Utils.html2color(backgroundColor, false);
+
+      if (colorConverted != null) {
+        topic.putAttribute(ATTR_TEXT_COLOR.getText(),
+            Utils.color2html(colorConverted, false));
+      }
+
+      if (backgroundColorConverted != null) {
+        topic.putAttribute(ATTR_FILL_COLOR.getText(),
+            Utils.color2html(backgroundColorConverted, false));
+      } else {
+        if (colorConverted != null) {
+          topic.putAttribute(ATTR_FILL_COLOR.getText(),
+              Utils.color2html(Utils.makeContrastColor(colorConverted), false));
+        }
+      }
+    }
+  }
+
+  private static void processRichContent(final File rootFolder, final Topic topic,
+                                         final RichContent richContent) {
+    switch (richContent.getType()) {
+      case NODE: {
+        if (!richContent.getText().isEmpty()) {
+          topic.setText(richContent.getText().trim());
+        }
+      }
+      break;
+      case NOTE: {
+        if (!richContent.getText().isEmpty()) {
+          topic.setExtra(new ExtraNote(richContent.getText().trim()));
+        }
+      }
+      break;
+    }
+    processImageLinkForTopic(rootFolder, topic, richContent.getFoundImageURLs());
+  }
+
+  private static void processLinks(final Topic topic, final String id, final String link,
+                                   final String arrowDestination,
+                                   final Map<String, Topic> idTopicMap,
+                                   final Map<String, String> linksMap) {
+    if (!link.isEmpty()) {
+      if (link.startsWith("#")) {
+        if (!id.isEmpty()) {
+          linksMap.put(id, link.substring(1));
+        }
+      } else {
+        try {
+          topic.setExtra(new ExtraLink(link));
+        } catch (URISyntaxException ex) {
+          LOGGER.warn("Can't convert link: " + link);
+        }
+      }
+    }
+
+    if (!id.isEmpty()) {
+      idTopicMap.put(id, topic);
+      if (!arrowDestination.isEmpty()) {
+        linksMap.put(id, arrowDestination);
+      }
+    }
+  }
+
   private static String findAttribute(final Element element,
                                       final String attribute) {
     final NamedNodeMap map = element.getAttributes();
@@ -200,6 +325,148 @@ public class Freemind2MindMapImporter extends AbstractImporter {
   MindMap extractTopics(final File rootFolder,
                         final FileInputStream inputStream)
       throws ParserConfigurationException, IOException, XPathExpressionException {
+    final long startPosition = inputStream.getChannel().position();
+    try {
+      return this.extractTopicsFromStream(rootFolder, inputStream);
+    } catch (XMLStreamException ex) {
+      // FreeMind rich content can contain non-XML HTML, so tolerant DOM parser is used for such files
+      LOGGER.warn("Can't parse freemind file as XML stream, tolerant parser will be used: "
+          + ex.getMessage());
+      inputStream.getChannel().position(startPosition);
+      return this.extractTopicsFromDocument(rootFolder, inputStream);
+    }
+  }
+
+  private MindMap makeResultMap() {
+    final MindMap resultedMap = new MindMap(true);
+    resultedMap.putAttribute(StandardMmdAttributes.MMD_ATTRIBUTE_GENERATOR_ID, IDEBridgeFactory.findInstance()
+        .getIDEGeneratorId());
+    resultedMap.putAttribute(StandardMmdAttributes.MMD_ATTRIBUTE_SHOW_JUMPS, "true");
+    return resultedMap;
+  }
+
+  private static void processTopicLinks(final MindMap map, final Map<String, Topic> idTopicMap,
+                                        final Map<String, String> linksMap) {
+    for (final Map.Entry<String, String> l : linksMap.entrySet()) {
+      final Topic start = idTopicMap.get(l.getKey());
+      final Topic end = idTopicMap.get(l.getValue());
+      if (start != null && end != null) {
+        start.setExtra(ExtraTopic.makeLinkTo(map, end));
+      }
+    }
+  }
+
+  private MindMap extractTopicsFromStream(final File rootFolder,
+                                          final InputStream inputStream)
+      throws XMLStreamException {
+    final XMLStreamReader reader = Utils.makeXmlStreamReader(inputStream, "UTF-8");
+    try {
+      int event = reader.next();
+      while (event != XMLStreamConstants.START_ELEMENT) {
+        if (event == XMLStreamConstants.END_DOCUMENT) {
+          throw new IllegalArgumentException("Can't parse freemind file as xhtml");
+        }
+        event = reader.next();
+      }
+      if (!"map".equals(reader.getLocalName())) {
+        throw new IllegalArgumentException("Can't parse freemind file as xhtml");
+      }
+
+      final Map<String, Topic> idTopicMap = new HashMap<>();
+      final Map<String, String> linksMap = new HashMap<>();
+      final MindMap resultedMap = this.makeResultMap();
+
+      // only path from the root to the current node is kept, all completed topics already in the map
+      final Deque<StreamedNode> path = new ArrayDeque<>();
+      boolean rootFound = false;
+
+      boolean inMap = true;
+      while (inMap) {
+        switch (reader.next()) {
+          case XMLStreamConstants.START_ELEMENT: {
+            final String tag = reader.getLocalName();
+            final StreamedNode current = path.peek();
+            if ("node".equals(tag)) {
+              if (current == null && rootFound) {
+                Utils.skipXmlElement(reader);
+              } else {
+                rootFound = true;
+                path.push(startStreamedNode(reader,
+                    current == null ? null : current.topic,
+                    current == null ? resultedMap.getRoot() : null));
+              }
+            } else if (current != null && "richcontent".equals(tag)) {
+              final RichContent richContent = readRichContent(reader);
+              if (richContent != null) {
+                processRichContent(rootFolder, current.topic, richContent);
+              }
+            } else if (current != null && "arrowlink".equals(tag)) {
+              if (current.arrowDestination.isEmpty()) {
+                current.arrowDestination = Utils.findXmlAttribute(reader, "destination");
+              }
+              Utils.skipXmlElement(reader);
+            } else {
+              Utils.skipXmlElement(reader);
+            }
+          }
+          break;
+          case XMLStreamConstants.END_ELEMENT: {
+            final StreamedNode completed = path.poll();
+            if (completed == null) {
+              inMap = false;
+            } else {
+              processLinks(completed.topic, completed.id, completed.link,
+                  completed.arrowDestination, idTopicMap, linksMap);
+            }
+          }
+          break;
+          case XMLStreamConstants.END_DOCUMENT:
+            throw new XMLStreamException("Unexpected end of document", reader.getLocation());
+          default: {
+            // just ignoring  other events
+          }
+          break;
+        }
+      }
+
+      if (!rootFound) {
+        requireNonNull(resultedMap.getRoot()).setText("Empty");
+      }
+
+      processTopicLinks(resultedMap, idTopicMap, linksMap);
+      return resultedMap;
+    } finally {
+      reader.close();
+    }
+  }
+
+  private static StreamedNode startStreamedNode(final XMLStreamReader reader,
+                                                final Topic parent,
+                                                final Topic preGeneratedTopic) {
+    final String text = Utils.findXmlAttribute(reader, "text");
+    final String position = Utils.findXmlAttribute(reader, "position");
+
+    final Topic topicToProcess;
+    if (preGeneratedTopic == null) {
+      topicToProcess = requireNonNull(parent).makeChild(text, null);
+      if (parent.isRoot() && "left".equalsIgnoreCase(position)) {
+        AbstractCollapsableElement.makeTopicLeftSided(topicToProcess, true);
+      }
+    } else {
+      topicToProcess = preGeneratedTopic;
+    }
+
+    processColors(topicToProcess, Utils.findXmlAttribute(reader, "color"),
+        Utils.findXmlAttribute(reader, "background_color"));
+    topicToProcess.setText(text);
+
+    return new StreamedNode(topicToProcess, Utils.findXmlAttribute(reader, "id"),
+        Utils.findXmlAttribute(reader, "link"));
+  }
+
+  private MindMap extractTopicsFromDocument(final File rootFolder,
+                                            final InputStream inputStream)
+      throws ParserConfigurationException, IOException, XPathExpressionException {
     final Document document = Utils.load(inputStream, "UTF-8", Parser.xmlParser(), true);
 
     final XPath xpath = XPathFactory.newInstance().newXPath();
@@ -212,10 +479,7 @@ public class Freemind2MindMapImporter extends AbstractImporter {
 
     final Map<String, Topic> idTopicMap = new HashMap<>();
     final Map<String, String> linksMap = new HashMap<>();
-    final MindMap resultedMap = new MindMap(true);
-    resultedMap.putAttribute(StandardMmdAttributes.MMD_ATTRIBUTE_GENERATOR_ID, IDEBridgeFactory.findInstance()
-        .getIDEGeneratorId());
-    resultedMap.putAttribute(StandardMmdAttributes.MMD_ATTRIBUTE_SHOW_JUMPS, "true");
+    final MindMap resultedMap = this.makeResultMap();
 
     final List<Element> list = Utils.findDirectChildrenForName(rootElement, "node");
     if (list.isEmpty()) {
@@ -225,13 +489,7 @@ public class Freemind2MindMapImporter extends AbstractImporter {
           linksMap);
     }
 
-    for (final Map.Entry<String, String> l : linksMap.entrySet()) {
-      final Topic start = idTopicMap.get(l.getKey());
-      final Topic end = idTopicMap.get(l.getValue());
-      if (start != null && end != null) {
-        start.setExtra(ExtraTopic.makeLinkTo(resultedMap, end));
-      }
-    }
+    processTopicLinks(resultedMap, idTopicMap, linksMap);
 
     return resultedMap;
   }
@@ -263,66 +521,15 @@ public class Freemind2MindMapImporter extends AbstractImporter {
       topicToProcess = preGeneratedTopic;
     }
 
-    if (!color.isEmpty()) {
-      final Color colorConverted = Utils.html2color(color, false);
-      final Color backgroundColorConverted = Utils.html2color(backgroundColor, false);
-
-      if (colorConverted != null) {
-        topicToProcess.putAttribute(ATTR_TEXT_COLOR.getText(),
-            Utils.color2html(colorConverted, false));
-      }
-
-      if (backgroundColorConverted != null) {
-        topicToProcess.putAttribute(ATTR_FILL_COLOR.getText(),
-            Utils.color2html(backgroundColorConverted, false));
-      } else {
-        if (colorConverted != null) {
-          topicToProcess.putAttribute(ATTR_FILL_COLOR.getText(),
-              Utils.color2html(Utils.makeContrastColor(colorConverted), false));
-        }
-      }
-    }
+    processColors(topicToProcess, color, backgroundColor);
 
     topicToProcess.setText(text);
 
     for (final RichContent r : foundRichContent) {
-      switch (r.getType()) {
-        case NODE: {
-          if (!r.getText().isEmpty()) {
-            topicToProcess.setText(r.getText().trim());
-          }
-        }
-        break;
-        case NOTE: {
-          if (!r.getText().isEmpty()) {
-            topicToProcess.setExtra(new ExtraNote(r.getText().trim()));
-          }
-        }
-        break;
-      }
-      processImageLinkForTopic(rootFolder, topicToProcess, r.getFoundImageURLs());
-    }
-
-    if (!link.isEmpty()) {
-      if (link.startsWith("#")) {
-        if (!id.isEmpty()) {
-          linksMap.put(id, link.substring(1));
-        }
-      } else {
-        try {
-          topicToProcess.setExtra(new ExtraLink(link));
-        } catch (URISyntaxException ex) {
-          LOGGER.warn("Can't convert link: " + link);
-        }
-      }
+      processRichContent(rootFolder, topicToProcess, r);
     }
 
-    if (!id.isEmpty()) {
-      idTopicMap.put(id, topicToProcess);
-      if (!arrowDestination.isEmpty()) {
-        linksMap.put(id, arrowDestination);
-      }
-    }
+    processLinks(topicToProcess, id, link, arrowDestination, idTopicMap, linksMap);
 
     for (final Element e : Utils.findDirectChildrenForName(element, "node")) {
       parseTopic(rootFolder, map, topicToProcess, null, e, idTopicMap, linksMap);
@@ -363,6 +570,20 @@ public class Freemind2MindMapImporter extends AbstractImporter {
     NODE, NOTE
   }
 
+  private static final class StreamedNode {
+
+    private final Topic topic;
+    private final String id;
+    private final String link;
+    private String arrowDestination = "";
+
+    private StreamedNode(final Topic topic, final String id, final String link) {
+      this.topic = topic;
+      this.id = id;
+      this.link = link;
+    }
+  }
+
   private static final class RichContent {
 
     private final RichContentType type;
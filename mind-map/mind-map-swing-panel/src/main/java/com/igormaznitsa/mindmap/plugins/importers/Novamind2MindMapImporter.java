@@ -50,10 +50,9 @@ import java.util.List;
 import java.util.Map;
 import java.util.zip.ZipFile;
 import javax.swing.Icon;
-import org.w3c.dom.Document;
-import org.w3c.dom.Element;
-import org.w3c.dom.Node;
-import org.w3c.dom.NodeList;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 
 public class Novamind2MindMapImporter extends AbstractImporter {
 
@@ -61,6 +60,57 @@ public class Novamind2MindMapImporter extends AbstractImporter {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(Novamind2MindMapImporter.class);
 
+  /**
+   * Read all direct child elements of current element. The reader must be on START_ELEMENT and
+   * it will be on the paired END_ELEMENT after call.
+   *
+   * @param reader  streaming reader
+   * @param visitor visitor to process child elements, must read each child element completely
+   * @throws XMLStreamException thrown if parsing error
+   */
+  private static void readChildren(final XMLStreamReader reader, final ChildVisitor visitor)
+      throws XMLStreamException {
+    while (true) {
+      switch (reader.next()) {
+        case XMLStreamConstants.START_ELEMENT: {
+          if (!visitor.visit(reader.getLocalName())) {
+            Utils.skipXmlElement(reader);
+          }
+        }
+        break;
+        case XMLStreamConstants.END_ELEMENT:
+          return;
+        case XMLStreamConstants.END_DOCUMENT:
+          throw new XMLStreamException("Unexpected end of document", reader.getLocation());
+        default: {
+          // ignore other events
+        }
+        break;
+      }
+    }
+  }
+
+  /**
+   * Open streaming reader and move it to the document element.
+   *
+   * @param stream stream to read document
+   * @return reader on START_ELEMENT of the document element
+   * @throws XMLStreamException thrown if parsing error
+   */
+  private static XMLStreamReader openDocumentElement(final InputStream stream)
+      throws XMLStreamException {
+    final XMLStreamReader reader = Utils.makeXmlStreamReader(stream, null);
+    int event = reader.next();
+    while (event != XMLStreamConstants.START_ELEMENT) {
+      if (event == XMLStreamConstants.END_DOCUMENT) {
+        reader.close();
+        throw new XMLStreamException("Can't find document element");
+      }
+      event = reader.next();
+    }
+    return reader;
+  }
+
   private static void processURLLinks(final MindMap map, final ParsedContent model,
                                       final ParsedContent.TopicReference topicRef,
                                       final Map<String, Topic> mapTopicRefToTopics) {
@@ -274,23 +324,34 @@ public class Novamind2MindMapImporter extends AbstractImporter {
 
     private Manifest(final ZipFile zipFile, final String manifestPath) {
       this.zipFile = zipFile;
-      try {
-        final InputStream resourceIn = Utils.findInputStreamForResource(zipFile, manifestPath);
+      try (final InputStream resourceIn = Utils.findInputStreamForResource(zipFile, manifestPath)) {
         if (resourceIn != null) {
-          final Document document = Utils.loadXmlDocument(resourceIn, null, true);
-          final Element main = document.getDocumentElement();
-          if ("manifest".equals(main.getTagName())) {
-            for (final Element e : Utils.findDirectChildrenForName(main, "resources")) {
-              for (final Element r : Utils.findDirectChildrenForName(e, "resource")) {
-                final String id = r.getAttribute("id");
-                final String url = r.getAttribute("url");
-                if (!id.isEmpty() && !url.isEmpty()) {
-                  resourceMap.put(id, new Resource(url));
+          final XMLStreamReader reader = openDocumentElement(resourceIn);
+          try {
+            if ("manifest".equals(reader.getLocalName())) {
+              readChildren(reader, resources -> {
+                if (!"resources".equals(resources)) {
+                  return false;
                 }
-              }
+                readChildren(reader, resource -> {
+                  if (!"resource".equals(resource)) {
+                    return false;
+                  }
+                  final String id = Utils.findXmlAttribute(reader, "id");
+                  final String url = Utils.findXmlAttribute(reader, "url");
+                  if (!id.isEmpty() && !url.isEmpty()) {
+                    resourceMap.put(id, new Resource(url));
+                  }
+                  Utils.skipXmlElement(reader);
+                  return true;
+                });
+                return true;
+              });
+            } else {
+              LOGGER.warn("Can't find manifest tag, looks like that format changed");
             }
-          } else {
-            LOGGER.warn("Can't find manifest tag, looks like that format changed");
+          } finally {
+            reader.close();
           }
         }
       } catch (final Exception ex) {
@@ -357,45 +418,17 @@ public class Novamind2MindMapImporter extends AbstractImporter {
     ParsedContent(final ZipFile file, final String path) {
       TopicReference mapRoot = null;
 
-      try {
-        final InputStream resourceIn = Utils.findInputStreamForResource(file, path);
+      try (final InputStream resourceIn = Utils.findInputStreamForResource(file, path)) {
         if (resourceIn != null) {
-          final Document document = Utils.loadXmlDocument(resourceIn, null, true);
-          final Element main = document.getDocumentElement();
-          if ("document".equals(main.getTagName())) {
-            for (final Element e : Utils.findDirectChildrenForName(main, "topics")) {
-              for (final Element r : Utils.findDirectChildrenForName(e, "topic")) {
-                final String id = r.getAttribute("id");
-                this.topicsMap.put(id, new ContentTopic(id, r));
-              }
-            }
-
-            final Element maps = Utils.findFirstElement(main, "maps");
-            if (maps != null) {
-              final Element firstMap = Utils.findFirstElement(maps, "map");
-              if (firstMap != null) {
-                final Element rootTopicNode = Utils.findFirstElement(firstMap, "topic-node");
-                if (rootTopicNode != null) {
-                  mapRoot = new TopicReference(rootTopicNode, this.topicsMap);
-                }
-
-                for (final Element l : Utils.findDirectChildrenForName(firstMap, "link-lines")) {
-                  for (final Element tn : Utils.findDirectChildrenForName(l, "topic-node")) {
-                    for (final Element lld : Utils.findDirectChildrenForName(tn, "link-line-data")) {
-                      this.linksBetweenTopics.put(lld.getAttribute("start-topic-node-ref"), lld.getAttribute("end-topic-node-ref"));
-                    }
-                  }
-                }
-
-              } else {
-                mapRoot = null;
-              }
+          final XMLStreamReader reader = openDocumentElement(resourceIn);
+          try {
+            if ("document".equals(reader.getLocalName())) {
+              mapRoot = this.readDocument(reader);
             } else {
-              mapRoot = null;
+              LOGGER.warn("Can't find document, looks like that format changed");
             }
-
-          } else {
-            LOGGER.warn("Can't find document, looks like that format changed");
+          } finally {
+            reader.close();
           }
         }
       } catch (final Exception ex) {
@@ -405,6 +438,69 @@ public class Novamind2MindMapImporter extends AbstractImporter {
       this.rootRef = mapRoot;
     }
 
+    private TopicReference readDocument(final XMLStreamReader reader) throws XMLStreamException {
+      final TopicReference[] mapRoot = new TopicReference[1];
+      final boolean[] mapsFound = new boolean[1];
+
+      readChildren(reader, element -> {
+        if ("topics".equals(element)) {
+          readChildren(reader, topic -> {
+            if (!"topic".equals(topic)) {
+              return false;
+            }
+            final ContentTopic contentTopic = ContentTopic.read(reader);
+            this.topicsMap.put(contentTopic.getId(), contentTopic);
+            return true;
+          });
+          return true;
+        } else if ("maps".equals(element) && !mapsFound[0]) {
+          mapsFound[0] = true;
+          final boolean[] mapFound = new boolean[1];
+          readChildren(reader, map -> {
+            if (!"map".equals(map) || mapFound[0]) {
+              return false;
+            }
+            mapFound[0] = true;
+            mapRoot[0] = this.readMap(reader);
+            return true;
+          });
+          return true;
+        }
+        return false;
+      });
+
+      return mapRoot[0];
+    }
+
+    private TopicReference readMap(final XMLStreamReader reader) throws XMLStreamException {
+      final TopicReference[] rootTopicNode = new TopicReference[1];
+      readChildren(reader, element -> {
+        if ("topic-node".equals(element) && rootTopicNode[0] == null) {
+          rootTopicNode[0] = new TopicReference(reader, this.topicsMap);
+          return true;
+        } else if ("link-lines".equals(element)) {
+          readChildren(reader, topicNode -> {
+            if (!"topic-node".equals(topicNode)) {
+              return false;
+            }
+            readChildren(reader, linkLineData -> {
+              if (!"link-line-data".equals(linkLineData)) {
+                return false;
+              }
+              this.linksBetweenTopics.put(Utils.findXmlAttribute(reader, "start-topic-node-ref"),
+                  Utils.findXmlAttribute(reader, "end-topic-node-ref"));
+              Utils.skipXmlElement(reader);
+              return true;
+            });
+            return true;
+          });
+          return true;
+        }
+        return false;
+      });
+      return rootTopicNode[0];
+    }
+
     TopicReference findForTopicId(final TopicReference startTopicRef, final String contentTopicId) {
       TopicReference result = null;
 
@@ -433,56 +529,83 @@ public class Novamind2MindMapImporter extends AbstractImporter {
     private static final class TopicReference {
 
       private final String id;
-      private final ContentTopic linkedTopic;
+      private final String topicRef;
+      private final Map<String, ContentTopic> topicMap;
 
-      private final Color colorBorder;
-      private final Color colorText;
-      private final Color colorFill;
+      private Color colorBorder;
+      private Color colorText;
+      private Color colorFill;
 
       private final List<TopicReference> children = new ArrayList<>();
 
-      private TopicReference(final Element topicNode, final Map<String, ContentTopic> topicMap) {
-        this.id = topicNode.getAttribute("id");
-        this.linkedTopic = topicMap.get(topicNode.getAttribute("topic-ref"));
-
-        final Element subTopics = Utils.findFirstElement(topicNode, "sub-topics");
-        if (subTopics != null) {
-          for (final Element t : Utils.findDirectChildrenForName(subTopics, "topic-node")) {
-            this.children.add(new TopicReference(t, topicMap));
+      private TopicReference(final XMLStreamReader reader,
+                             final Map<String, ContentTopic> topicMap)
+          throws XMLStreamException {
+        this.id = Utils.findXmlAttribute(reader, "id");
+        // topics can be placed after maps in document so that resolved lazily
+        this.topicRef = Utils.findXmlAttribute(reader, "topic-ref");
+        this.topicMap = topicMap;
+
+        final boolean[] subTopicsFound = new boolean[1];
+        final boolean[] topicNodeViewFound = new boolean[1];
+
+        readChildren(reader, element -> {
+          if ("sub-topics".equals(element) && !subTopicsFound[0]) {
+            subTopicsFound[0] = true;
+            readChildren(reader, topicNode -> {
+              if (!"topic-node".equals(topicNode)) {
+                return false;
+              }
+              this.children.add(new TopicReference(reader, topicMap));
+              return true;
+            });
+            return true;
+          } else if ("topic-node-view".equals(element) && !topicNodeViewFound[0]) {
+            topicNodeViewFound[0] = true;
+            this.readTopicNodeView(reader);
+            return true;
           }
-        }
+          return false;
+        });
+      }
 
-        Color tmpColorBackground = null;
-        Color tmpColorText = null;
-        Color tmpColorBorder = null;
-
-        final Element topicNodeView = Utils.findFirstElement(topicNode, "topic-node-view");
-        if (topicNodeView != null) {
-          final Element style = Utils.findFirstElement(topicNodeView, "topic-node-style");
-          if (style != null) {
-            final Element fillStyle = Utils.findFirstElement(style, "fill-style");
-            final Element lineStyle = Utils.findFirstElement(style, "line-style");
-
-            if (fillStyle != null) {
-              final Element solidColor = Utils.findFirstElement(fillStyle, "solid-color");
-              if (solidColor != null) {
-                tmpColorBackground = Utils.html2color(solidColor.getAttribute("color"), false);
-                if (tmpColorBackground != null) {
-                  tmpColorText = Utils.makeContrastColor(tmpColorBackground);
+      private void readTopicNodeView(final XMLStreamReader reader) throws XMLStreamException {
+        final boolean[] styleFound = new boolean[1];
+        readChildren(reader, style -> {
+          if (!"topic-node-style".equals(style) || styleFound[0]) {
+            return false;
+          }
+          styleFound[0] = true;
+
+          final boolean[] fillStyleFound = new boolean[1];
+          final boolean[] lineStyleFound = new boolean[1];
+          readChildren(reader, element -> {
+            if ("fill-style".equals(element) && !fillStyleFound[0]) {
+              fillStyleFound[0] = true;
+              final boolean[] solidColorFound = new boolean[1];
+              readChildren(reader, solidColor -> {
+                if (!"solid-color".equals(solidColor) || solidColorFound[0]) {
+                  return false;
                 }
-              }
-            }
-
-            if (lineStyle != null) {
-              tmpColorBorder = Utils.html2color(lineStyle.getAttribute("color"), false);
+                solidColorFound[0] = true;
+                this.colorFill = Utils.html2color(Utils.findXmlAttribute(reader, "color"), false);
+                if (this.colorFill != null) {
+                  this.colorText = Utils.makeContrastColor(this.colorFill);
+                }
+                Utils.skipXmlElement(reader);
+                return true;
+              });
+              return true;
+            } else if ("line-style".equals(element) && !lineStyleFound[0]) {
+              lineStyleFound[0] = true;
+              this.colorBorder = Utils.html2color(Utils.findXmlAttribute(reader, "color"), false);
+              Utils.skipXmlElement(reader);
+              return true;
             }
-
-          }
-        }
-
-        this.colorBorder = tmpColorBorder;
-        this.colorText = tmpColorText;
-        this.colorFill = tmpColorBackground;
+            return false;
+          });
+          return true;
+        });
       }
 
       Color getColorBorder() {
@@ -502,7 +625,7 @@ public class Novamind2MindMapImporter extends AbstractImporter {
       }
 
       ContentTopic getContentTopic() {
-        return this.linkedTopic;
+        return this.topicMap.get(this.topicRef);
       }
 
       public List<TopicReference> getChildren() {
@@ -518,74 +641,117 @@ public class Novamind2MindMapImporter extends AbstractImporter {
       private final List<String> linkUrls;
       private final String imageResourceId;
 
-      private ContentTopic(final String id, final Element nodeElement) {
+      private ContentTopic(final String id, final String imageResourceId, final String notes,
+                           final List<String> linkUrls, final String richText) {
         this.id = id;
-        this.imageResourceId = extractImageId(nodeElement);
-        this.notes = extractNotes(nodeElement);
-        this.linkUrls = extractLinkUrls(nodeElement);
-        this.richText = extractRichTextBlock(nodeElement);
+        this.imageResourceId = imageResourceId;
+        this.notes = notes;
+        this.linkUrls = linkUrls;
+        this.richText = richText;
       }
 
-      private static String extractRichText(final Element richText) {
-        final StringBuilder result = new StringBuilder();
-
-        for (final Element r : Utils.findDirectChildrenForName(richText, "text-run")) {
-          NodeList list = r.getChildNodes();
-          for (int i = 0; i < list.getLength(); i++) {
-            final Node n = list.item(i);
-
-            if (n.getNodeType() == Node.ELEMENT_NODE) {
-              if (n.getNodeName().equals("br")) {
-                result.append('\n');
-              } else {
-                result.append(n.getTextContent());
+      private static ContentTopic read(final XMLStreamReader reader) throws XMLStreamException {
+        final String id = Utils.findXmlAttribute(reader, "id");
+        final String[] imageResourceId = new String[1];
+        final StringBuilder notes = new StringBuilder();
+        final List<String> linkUrls = new ArrayList<>();
+        final StringBuilder richText = new StringBuilder();
+        final boolean[] topImageFound = new boolean[1];
+
+        readChildren(reader, element -> {
+          switch (element) {
+            case "top-image": {
+              if (topImageFound[0]) {
+                return false;
               }
-            } else if (n.getNodeType() == Node.TEXT_NODE) {
-              result.append(n.getTextContent());
+              topImageFound[0] = true;
+              final String resourceRef = Utils.findXmlAttribute(reader, "resource-ref");
+              imageResourceId[0] = resourceRef.isEmpty() ? null : resourceRef;
+              Utils.skipXmlElement(reader);
+            }
+            break;
+            case "notes": {
+              readRichTextBlock(reader, notes);
+            }
+            break;
+            case "links": {
+              readChildren(reader, link -> {
+                if (!"link".equals(link)) {
+                  return false;
+                }
+                final String url = Utils.findXmlAttribute(reader, "url");
+                if (!url.isEmpty()) {
+                  linkUrls.add(url);
+                }
+                Utils.skipXmlElement(reader);
+                return true;
+              });
+            }
+            break;
+            case "rich-text": {
+              readRichText(reader, richText);
             }
+            break;
+            default:
+              return false;
           }
-        }
+          return true;
+        });
 
-        return result.toString();
+        return new ContentTopic(id, imageResourceId[0],
+            notes.length() == 0 ? null : notes.toString(),
+            linkUrls,
+            richText.length() == 0 ? null : richText.toString());
       }
 
-      private static String extractImageId(final Element node) {
-        final Element imageElement = Utils.findFirstElement(node, "top-image");
-        final String resourceRef =
-            imageElement == null ? "" : imageElement.getAttribute("resource-ref");
-        return resourceRef.isEmpty() ? null : resourceRef;
-      }
-
-      private static String extractNotes(final Element node) {
-        final StringBuilder result = new StringBuilder();
-        for (final Element e : Utils.findDirectChildrenForName(node, "notes")) {
-          final String rtext = extractRichTextBlock(e);
-          if (rtext != null) {
-            result.append(rtext);
+      private static void readRichText(final XMLStreamReader reader, final StringBuilder result)
+          throws XMLStreamException {
+        readChildren(reader, textRun -> {
+          if (!"text-run".equals(textRun)) {
+            return false;
           }
-        }
-        return result.length() == 0 ? null : result.toString();
-      }
-
-      private static String extractRichTextBlock(final Element element) {
-        final StringBuilder result = new StringBuilder();
-        for (final Element rc : Utils.findDirectChildrenForName(element, "rich-text")) {
-          result.append(extractRichText(rc));
-        }
-        return result.length() == 0 ? null : result.toString();
+          int level = 1;
+          while (level > 0) {
+            switch (reader.next()) {
+              case XMLStreamConstants.START_ELEMENT: {
+                if (level == 1 && "br".equals(reader.getLocalName())) {
+                  result.append('\n');
+                }
+                level++;
+              }
+              break;
+              case XMLStreamConstants.END_ELEMENT: {
+                level--;
+              }
+              break;
+              case XMLStreamConstants.CHARACTERS:
+              case XMLStreamConstants.CDATA:
+              case XMLStreamConstants.SPACE: {
+                result.append(reader.getText());
+              }
+              break;
+              case XMLStreamConstants.END_DOCUMENT:
+                throw new XMLStreamException("Unexpected end of document", reader.getLocation());
+              default: {
+                // ignore other events
+              }
+              break;
+            }
+          }
+          return true;
+        });
       }
 
-      private static List<String> extractLinkUrls(final Element node) {
-        final List<String> result = new ArrayList<>();
-        for (final Element links : Utils.findDirectChildrenForName(node, "links")) {
-          for (final Element l : Utils.findDirectChildrenForName(links, "link")) {
-            final String url = l.getAttribute("url");
-            if (!url.isEmpty()) {
-              result.add(url);
-            }
+      private static void readRichTextBlock(final XMLStreamReader reader,
+                                            final StringBuilder result)
+          throws XMLStreamException {
+        readChildren(reader, element -> {
+          if (!"rich-text".equals(element)) {
+            return false;
           }
-        }
-        return result;
+          readRichText(reader, result);
+          return true;
+        });
       }
 
       String getId() {
@@ -611,4 +777,16 @@ public class Novamind2MindMapImporter extends AbstractImporter {
     }
 
   }
+
+  @FunctionalInterface
+  private interface ChildVisitor {
+    /**
+     * Process child element, reader is on its START_ELEMENT.
+     *
+     * @param name name of the child element
+     * @return true if the element has been read completely, false if it should be skipped
+     * @throws XMLStreamException thrown if parsing error
+     */
+    boolean visit(String name) throws XMLStreamException;
+  }
 }
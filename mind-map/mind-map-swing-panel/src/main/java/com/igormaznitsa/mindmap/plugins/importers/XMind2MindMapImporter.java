@@ -45,10 +45,17 @@ import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.zip.ZipFile;
 import javax.swing.Icon;
 import org.apache.commons.io.IOUtils;
@@ -86,7 +93,7 @@ public class XMind2MindMapImporter extends AbstractImporter {
   }
 
   private static void convertTopic(
-      final ZipFile zipFile,
+      final AttachedImages attachedImages,
       final XMindStyles styles,
       final MindMap map,
       final Topic parent,
@@ -113,11 +120,7 @@ public class XMind2MindMapImporter extends AbstractImporter {
       styles.setStyle(styleId, topicToProcess);
     }
 
-    final String attachedImage = extractFirstAttachedImageAsBase64(zipFile, topicElement);
-    if (attachedImage != null && !attachedImage.isEmpty()) {
-      topicToProcess.putAttribute(ImageVisualAttributePlugin.MMD_TOPIC_ATTRIBUTE_IMAGE_DATA,
-          attachedImage);
-    }
+    registerAttachedImages(attachedImages, topicToProcess, topicElement);
 
     final String xlink = topicElement.getAttribute("xlink:href");
     if (!xlink.isEmpty()) {
@@ -145,60 +148,30 @@ public class XMind2MindMapImporter extends AbstractImporter {
     }
 
     for (final Element c : getChildTopics(topicElement)) {
-      convertTopic(zipFile, styles, map, topicToProcess, null, c, idTopicMap, linksBetweenTopics);
+      convertTopic(attachedImages, styles, map, topicToProcess, null, c, idTopicMap,
+          linksBetweenTopics);
     }
   }
 
-  private static String extractFirstAttachedImageAsBase64(final ZipFile file,
-                                                          final Element topic) {
-    String result = null;
-
-    for (final Element e : Utils.findDirectChildrenForName(topic, "xhtml:img")) {
-      final String link = e.getAttribute("xhtml:src");
-      if (!link.isEmpty()) {
-        if (link.startsWith("xap:")) {
-          InputStream inStream = null;
-          try {
-            inStream = Utils.findInputStreamForResource(file, link.substring(4));
-            if (inStream != null) {
-              result = Utils.rescaleImageAndEncodeAsBase64(inStream, -1);
-              if (result != null) {
-                break;
-              }
-            }
-          } catch (final Exception ex) {
-            LOGGER.error("Can't decode attached image : " + link, ex);
-          } finally {
-            IOUtils.closeQuietly(inStream);
-          }
-        }
-      }
+  private static void registerAttachedImages(final AttachedImages attachedImages,
+                                             final Topic topic,
+                                             final Element topicElement) {
+    final List<String> links = new ArrayList<>();
+    for (final Element e : Utils.findDirectChildrenForName(topicElement, "xhtml:img")) {
+      links.add(e.getAttribute("xhtml:src"));
     }
-    return result;
+    attachedImages.register(topic, links);
   }
 
-  private static String extractFirstAttachedImageAsBase64(final ZipFile file,
-                                                          final JSONObject topic) {
-
-    String result = null;
-    JSONObject image = topic.has("image") ? topic.getJSONObject("image") : null;
+  private static void registerAttachedImages(final AttachedImages attachedImages,
+                                             final Topic topic,
+                                             final JSONObject topicElement) {
+    final JSONObject image =
+        topicElement.has("image") ? topicElement.getJSONObject("image") : null;
     if (image != null) {
-      final String link = requireNonNull(image.getString("src"));
-      if (link.startsWith("xap:")) {
-        InputStream inStream = null;
-        try {
-          inStream = Utils.findInputStreamForResource(file, link.substring(4));
-          if (inStream != null) {
-            result = Utils.rescaleImageAndEncodeAsBase64(inStream, -1);
-          }
-        } catch (final Exception ex) {
-          LOGGER.error("Can't decode attached image : " + link, ex);
-        } finally {
-          IOUtils.closeQuietly(inStream);
-        }
-      }
+      attachedImages.register(topic,
+          Collections.singletonList(requireNonNull(image.getString("src"))));
     }
-    return result;
   }
 
   private static String extractNote(final Element topic) {
@@ -275,7 +248,7 @@ public class XMind2MindMapImporter extends AbstractImporter {
     return align;
   }
 
-  private static void convertTopic(final ZipFile zipFile,
+  private static void convertTopic(final AttachedImages attachedImages,
                                    final Map<String, XMindStyle> theme,
                                    final MindMap map,
                                    final Topic parent,
@@ -364,11 +337,7 @@ public class XMind2MindMapImporter extends AbstractImporter {
     }
 
 
-    final String attachedImage = extractFirstAttachedImageAsBase64(zipFile, topicElement);
-    if (attachedImage != null && !attachedImage.isEmpty()) {
-      topicToProcess.putAttribute(ImageVisualAttributePlugin.MMD_TOPIC_ATTRIBUTE_IMAGE_DATA,
-          attachedImage);
-    }
+    registerAttachedImages(attachedImages, topicToProcess, topicElement);
 
     final String xlink = topicElement.has("href") ? topicElement.getString("href") : null;
     if (xlink != null && !xlink.isEmpty()) {
@@ -410,7 +379,7 @@ public class XMind2MindMapImporter extends AbstractImporter {
       if (attached != null) {
         for (final Object c : attached) {
           final JSONObject child = (JSONObject) c;
-          convertTopic(zipFile, theme, map, topicToProcess, null, child, idTopicMap,
+          convertTopic(attachedImages, theme, map, topicToProcess, null, child, idTopicMap,
               linksBetweenTopics);
         }
       }
@@ -419,7 +388,7 @@ public class XMind2MindMapImporter extends AbstractImporter {
       if (detached != null) {
         for (final Object c : detached) {
           final JSONObject child = (JSONObject) c;
-          convertTopic(zipFile, theme, map, topicToProcess, null, child, idTopicMap,
+          convertTopic(attachedImages, theme, map, topicToProcess, null, child, idTopicMap,
               linksBetweenTopics);
         }
       }
@@ -520,11 +489,13 @@ public class XMind2MindMapImporter extends AbstractImporter {
     final Map<String, Topic> topicIdMap = new HashMap<>();
     final Map<String, String> linksBetweenTopics = new HashMap<>();
 
+    final AttachedImages attachedImages = new AttachedImages(file);
     final JSONObject rootTopicObj = sheet.getJSONObject("rootTopic");
     if (rootTopicObj != null) {
-      convertTopic(file, theme, resultedMap, null, rootTopic, rootTopicObj, topicIdMap,
+      convertTopic(attachedImages, theme, resultedMap, null, rootTopic, rootTopicObj, topicIdMap,
           linksBetweenTopics);
     }
+    attachedImages.attachToTopics();
 
     if (sheet.has("relationships")) {
       for (final Object l : sheet.getJSONArray("relationships")) {
@@ -595,11 +566,13 @@ public class XMind2MindMapImporter extends AbstractImporter {
     final Map<String, Topic> topicIdMap = new HashMap<>();
     final Map<String, String> linksBetweenTopics = new HashMap<>();
 
+    final AttachedImages attachedImages = new AttachedImages(file);
     final List<Element> rootTopics = Utils.findDirectChildrenForName(sheet, "topic");
     if (!rootTopics.isEmpty()) {
-      convertTopic(file, styles, resultedMap, null, rootTopic, rootTopics.get(0), topicIdMap,
-          linksBetweenTopics);
+      convertTopic(attachedImages, styles, resultedMap, null, rootTopic, rootTopics.get(0),
+          topicIdMap, linksBetweenTopics);
     }
+    attachedImages.attachToTopics();
 
     for (final Element l : Utils.findDirectChildrenForName(sheet, "relationships")) {
       for (final Element r : Utils.findDirectChildrenForName(l, "relationship")) {
@@ -651,6 +624,104 @@ public class XMind2MindMapImporter extends AbstractImporter {
     return 4;
   }
 
+  /**
+   * Collects images attached to topics during import and decodes them after the topic tree is
+   * built. Every zip entry is decoded only once and decoding of different entries is made in
+   * parallel on bounded thread pool.
+   */
+  private static final class AttachedImages {
+
+    private static final int MAX_THREADS = Math.max(1, Runtime.getRuntime().availableProcessors());
+    private static final AtomicInteger THREAD_COUNTER = new AtomicInteger();
+
+    private final ZipFile zipFile;
+    private final List<TopicImages> topicImages = new ArrayList<>();
+    private final Map<String, Future<String>> decodedEntries = new LinkedHashMap<>();
+
+    private AttachedImages(final ZipFile zipFile) {
+      this.zipFile = zipFile;
+    }
+
+    private void register(final Topic topic, final List<String> links) {
+      final List<String> entries = new ArrayList<>();
+      for (final String link : links) {
+        if (link.startsWith("xap:")) {
+          final String entry = link.substring(4);
+          entries.add(entry);
+          this.decodedEntries.putIfAbsent(entry, null);
+        }
+      }
+      if (!entries.isEmpty()) {
+        this.topicImages.add(new TopicImages(topic, entries));
+      }
+    }
+
+    private String decode(final String entry) {
+      try (final InputStream inStream = Utils.findInputStreamForResource(this.zipFile, entry)) {
+        return inStream == null ? null : Utils.rescaleImageAndEncodeAsBase64(inStream, -1);
+      } catch (final Exception ex) {
+        LOGGER.error("Can't decode attached image : xap:" + entry, ex);
+        return null;
+      }
+    }
+
+    private String findDecoded(final String entry) {
+      try {
+        return this.decodedEntries.get(entry).get();
+      } catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
+        return null;
+      } catch (ExecutionException ex) {
+        LOGGER.error("Can't decode attached image : xap:" + entry, ex.getCause());
+        return null;
+      }
+    }
+
+    private void attachToTopics() {
+      if (this.decodedEntries.isEmpty()) {
+        return;
+      }
+
+      final ExecutorService executor =
+          Executors.newFixedThreadPool(Math.min(MAX_THREADS, this.decodedEntries.size()), r -> {
+            final Thread thread =
+                new Thread(r, "mmd-xmind-image-decoder-" + THREAD_COUNTER.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+          });
+      try {
+        for (final Map.Entry<String, Future<String>> e : this.decodedEntries.entrySet()) {
+          final String entry = e.getKey();
+          e.setValue(executor.submit(() -> this.decode(entry)));
+        }
+
+        for (final TopicImages images : this.topicImages) {
+          for (final String entry : images.entries) {
+            final String decoded = this.findDecoded(entry);
+            if (decoded != null && !decoded.isEmpty()) {
+              images.topic.putAttribute(ImageVisualAttributePlugin.MMD_TOPIC_ATTRIBUTE_IMAGE_DATA,
+                  decoded);
+              break;
+            }
+          }
+        }
+      } finally {
+        executor.shutdownNow();
+      }
+    }
+
+    private static final class TopicImages {
+
+      private final Topic topic;
+      private final List<String> entries;
+
+      private TopicImages(final Topic topic, final List<String> entries) {
+        this.topic = topic;
+        this.entries = entries;
+      }
+    }
+  }
+
   private static final class XMindStyle {
 
     private final Color foreground;
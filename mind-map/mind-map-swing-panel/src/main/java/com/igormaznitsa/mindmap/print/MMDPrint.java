@@ -39,6 +39,9 @@ import java.awt.geom.Dimension2D;
 import java.awt.image.BufferedImage;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Predicate;
 
 public class MMDPrint {
 
@@ -46,6 +49,10 @@ public class MMDPrint {
 
   private static final PrintPage[][] NO_PAGES = new PrintPage[0][0];
 
+  private static final double SCALE_STEP = 0.01d;
+
+  private static final int MAX_FIT_ITERATIONS = 8;
+
   private final PrintPage[][] pages;
 
   public MMDPrint(final PrintableObject printableObject, final int paperWidthInPixels,
@@ -96,30 +103,23 @@ public class MMDPrint {
 
       final Image imageToDraw;
 
-      final double SCALE_STEP = 0.01d;
-
       final Point offsetOfImage;
 
+      Dimension2D fittedMapSize = null;
+
       switch (options.getScaleType()) {
         case FIT_HEIGHT_TO_PAGES: {
           if (printableObject.isMmdPanel()) {
-            Dimension2D calculatedSize = requireNonNull(
-                calculateSizeOfMapInPixels(theModel, null, cfg, false, RenderQuality.QUALITY));
-            scale = (double) (options.getPagesInColumn() * paperHeightInPixels) /
-                (int) Math.round(calculatedSize.getHeight());
-            cfg.setScale(scale);
-            calculatedSize = requireNonNull(
-                calculateSizeOfMapInPixels(theModel, null, cfg, false, RenderQuality.QUALITY));
-            int pvert =
-                1 + (int) Math.round(calculatedSize.getHeight()) / (paperHeightInPixels + 1);
-
-            while (pvert > options.getPagesInColumn() && scale > SCALE_STEP) {
-              scale -= SCALE_STEP;
-              cfg.setScale(scale);
-              calculatedSize = requireNonNull(
-                  calculateSizeOfMapInPixels(theModel, null, cfg, false, RenderQuality.QUALITY));
-              pvert = 1 + (int) Math.round(calculatedSize.getHeight()) / (paperHeightInPixels + 1);
-            }
+            final Dimension2D sizeForScale1 = measureMap(theModel, cfg, 1.0d);
+            final FitResult fit = findFitScale(theModel, cfg,
+                (double) (options.getPagesInColumn() * paperHeightInPixels) /
+                    (int) Math.round(sizeForScale1.getHeight()),
+                size -> countPages(size.getHeight(), paperHeightInPixels) <=
+                    options.getPagesInColumn());
+            scale = fit.scale;
+            final Dimension2D calculatedSize = fit.size;
+            fittedMapSize = calculatedSize;
+            int pvert = countPages(calculatedSize.getHeight(), paperHeightInPixels);
 
             if (drawAsImage) {
               imageToDraw = requireNonNull(
@@ -151,22 +151,16 @@ public class MMDPrint {
         break;
         case FIT_WIDTH_TO_PAGES: {
           if (printableObject.isMmdPanel()) {
-            Dimension2D calculatedSize = requireNonNull(
-                calculateSizeOfMapInPixels(theModel, null, cfg, false, RenderQuality.QUALITY));
-            scale = (double) (options.getPagesInRow() * paperWidthInPixels) /
-                (int) Math.round(calculatedSize.getWidth());
-            cfg.setScale(scale);
-            calculatedSize = requireNonNull(
-                calculateSizeOfMapInPixels(theModel, null, cfg, false, RenderQuality.QUALITY));
-            int phorz = 1 + (int) Math.round(calculatedSize.getWidth()) / (paperWidthInPixels + 1);
-
-            while (phorz > options.getPagesInRow() && scale > SCALE_STEP) {
-              scale -= SCALE_STEP;
-              cfg.setScale(scale);
-              calculatedSize = requireNonNull(
-                  calculateSizeOfMapInPixels(theModel, null, cfg, false, RenderQuality.QUALITY));
-              phorz = 1 + (int) Math.round(calculatedSize.getWidth()) / (paperWidthInPixels + 1);
-            }
+            final Dimension2D sizeForScale1 = measureMap(theModel, cfg, 1.0d);
+            final FitResult fit = findFitScale(theModel, cfg,
+                (double) (options.getPagesInRow() * paperWidthInPixels) /
+                    (int) Math.round(sizeForScale1.getWidth()),
+                size -> countPages(size.getWidth(), paperWidthInPixels) <=
+                    options.getPagesInRow());
+            scale = fit.scale;
+            final Dimension2D calculatedSize = fit.size;
+            fittedMapSize = calculatedSize;
+            int phorz = countPages(calculatedSize.getWidth(), paperWidthInPixels);
 
             if (drawAsImage) {
               imageToDraw = requireNonNull(
@@ -198,27 +192,19 @@ public class MMDPrint {
         break;
         case FIT_TO_SINGLE_PAGE: {
           if (printableObject.isMmdPanel()) {
-            Dimension2D calculatedSize = requireNonNull(
-                calculateSizeOfMapInPixels(theModel, null, cfg, false, RenderQuality.QUALITY));
-            scale = (double) (options.getPagesInRow() * paperWidthInPixels) /
-                (int) Math.round(calculatedSize.getWidth());
-            scale = Math.min(scale, (double) (options.getPagesInColumn() * paperHeightInPixels) /
-                (int) Math.round(calculatedSize.getHeight()));
-            cfg.setScale(scale);
-            calculatedSize = requireNonNull(
-                calculateSizeOfMapInPixels(theModel, null, cfg, false, RenderQuality.QUALITY));
-            int phorz = 1 + (int) Math.round(calculatedSize.getWidth()) / (paperWidthInPixels + 1);
-            int pvert =
-                1 + (int) Math.round(calculatedSize.getHeight()) / (paperHeightInPixels + 1);
-
-            while ((phorz > 1 || pvert > 1) && scale > SCALE_STEP) {
-              scale -= SCALE_STEP;
-              cfg.setScale(scale);
-              calculatedSize = requireNonNull(
-                  calculateSizeOfMapInPixels(theModel, null, cfg, false, RenderQuality.QUALITY));
-              phorz = 1 + (int) Math.round(calculatedSize.getWidth()) / (paperWidthInPixels + 1);
-              pvert = 1 + (int) Math.round(calculatedSize.getHeight()) / (paperHeightInPixels + 1);
-            }
+            final Dimension2D sizeForScale1 = measureMap(theModel, cfg, 1.0d);
+            final FitResult fit = findFitScale(theModel, cfg,
+                Math.min((double) (options.getPagesInRow() * paperWidthInPixels) /
+                        (int) Math.round(sizeForScale1.getWidth()),
+                    (double) (options.getPagesInColumn() * paperHeightInPixels) /
+                        (int) Math.round(sizeForScale1.getHeight())),
+                size -> countPages(size.getWidth(), paperWidthInPixels) <= 1
+                    && countPages(size.getHeight(), paperHeightInPixels) <= 1);
+            scale = fit.scale;
+            final Dimension2D calculatedSize = fit.size;
+            fittedMapSize = calculatedSize;
+            final int phorz = countPages(calculatedSize.getWidth(), paperWidthInPixels);
+            final int pvert = countPages(calculatedSize.getHeight(), paperHeightInPixels);
 
             if (phorz > 1 || pvert > 1) {
               // we have to scale to fit only page
@@ -283,10 +269,8 @@ public class MMDPrint {
         case ZOOM: {
           scale = options.getScale();
           if (printableObject.isMmdPanel()) {
-            cfg.setScale(scale);
-            final Dimension2D calculatedSize = requireNonNull(
-                calculateSizeOfMapInPixels(theModel, null, cfg, false, RenderQuality.QUALITY),
-                "Must not be null");
+            final Dimension2D calculatedSize = measureMap(theModel, cfg, scale);
+            fittedMapSize = calculatedSize;
             final int phorz =
                 1 + (int) Math.round(calculatedSize.getWidth()) / (paperWidthInPixels + 1);
             final int pvert =
@@ -340,8 +324,9 @@ public class MMDPrint {
 
         cfg.setScale(scale);
 
-        final Dimension2D modelImageSize =
-            calculateSizeOfMapInPixels(theModel, null, cfg, false, RenderQuality.QUALITY);
+        final Dimension2D modelImageSize = fittedMapSize == null
+            ? calculateSizeOfMapInPixels(theModel, null, cfg, false, RenderQuality.QUALITY)
+            : fittedMapSize;
 
         if (theModel.getRoot() != null && modelImageSize != null) {
           final int modelWidth = (int) Math.round(modelImageSize.getWidth());
@@ -349,6 +334,9 @@ public class MMDPrint {
           int pagesHorz = 1 + modelWidth / (paperWidthInPixels + 1);
           int pagesVert = 1 + modelHeight / (paperHeightInPixels + 1);
 
+          // every page makes layout of model so that pages printed concurrently use own copies
+          final Queue<MindMap> freeModels = new ConcurrentLinkedQueue<>();
+
           pgs = new PrintPage[pagesVert][pagesHorz];
           for (int y = 0; y < pagesVert; y++) {
             for (int x = 0; x < pagesHorz; x++) {
@@ -361,19 +349,26 @@ public class MMDPrint {
                   return;
                 }
 
+                MindMap pageModel = freeModels.poll();
+                if (pageModel == null) {
+                  pageModel = theModel.makeCopy();
+                  pageModel.clearAllPayloads();
+                }
+
                 final Graphics2D gfx = (Graphics2D) g.create();
-                RenderQuality.QUALITY.prepare(gfx);
+                try {
+                  RenderQuality.QUALITY.prepare(gfx);
 
-                MindMapPanel.layoutFullDiagramWithCenteringToPaper(new MMGraphics2DWrapper(gfx),
-                    theModel, cfg, modelImageSize);
+                  MindMapPanel.layoutFullDiagramWithCenteringToPaper(new MMGraphics2DWrapper(gfx),
+                      pageModel, cfg, modelImageSize);
 
-                gfx.translate(offsetOfImage.x - pageX * paperWidthInPixels,
-                    offsetOfImage.y - pageY * paperHeightInPixels);
-                try {
-                  drawOnGraphicsForConfiguration(new MMGraphics2DWrapper(gfx), cfg, theModel, false,
-                      null);
+                  gfx.translate(offsetOfImage.x - pageX * paperWidthInPixels,
+                      offsetOfImage.y - pageY * paperHeightInPixels);
+                  drawOnGraphicsForConfiguration(new MMGraphics2DWrapper(gfx), cfg, pageModel,
+                      false, null);
                 } finally {
                   gfx.dispose();
+                  freeModels.offer(pageModel);
                 }
               };
             }
@@ -384,6 +379,61 @@ public class MMDPrint {
     this.pages = pgs;
   }
 
+  private static int countPages(final double sizeInPixels, final int paperSizeInPixels) {
+    return 1 + (int) Math.round(sizeInPixels) / (paperSizeInPixels + 1);
+  }
+
+  private static Dimension2D measureMap(final MindMap model, final MindMapPanelConfig cfg,
+                                        final double scale) {
+    cfg.setScale(scale);
+    return requireNonNull(
+        calculateSizeOfMapInPixels(model, null, cfg, false, RenderQuality.QUALITY),
+        "Must not be null");
+  }
+
+  /**
+   * Find scale to fit map into pages. Map size is almost proportional to scale so that the
+   * estimated scale usually fits at once, otherwise bounded bisection is used instead of step by
+   * step decreasing of scale with full layout for every step.
+   *
+   * @param model          model to be measured
+   * @param cfg            configuration, its scale will be changed to found one
+   * @param estimatedScale scale estimated from map size for scale 1.0
+   * @param fits           predicate to check that map size fits pages
+   * @return found scale and map size for it, the size can be out of pages if even minimal scale
+   * doesn't fit
+   */
+  private static FitResult findFitScale(final MindMap model, final MindMapPanelConfig cfg,
+                                        final double estimatedScale,
+                                        final Predicate<Dimension2D> fits) {
+    final Dimension2D estimatedSize = measureMap(model, cfg, estimatedScale);
+    if (fits.test(estimatedSize) || estimatedScale <= SCALE_STEP) {
+      return new FitResult(estimatedScale, estimatedSize);
+    }
+
+    double low = SCALE_STEP;
+    Dimension2D lowSize = null;
+    double high = estimatedScale;
+
+    for (int i = 0; i < MAX_FIT_ITERATIONS && high - low > SCALE_STEP; i++) {
+      final double middle = (low + high) / 2;
+      final Dimension2D size = measureMap(model, cfg, middle);
+      if (fits.test(size)) {
+        low = middle;
+        lowSize = size;
+      } else {
+        high = middle;
+      }
+    }
+
+    if (lowSize == null) {
+      lowSize = measureMap(model, cfg, low);
+    } else {
+      cfg.setScale(low);
+    }
+    return new FitResult(low, lowSize);
+  }
+
   private static Point calcOffsetImage(final int pagesHorz, final int pagesVert,
                                        final int paperWidthInPixels, final int paperHeighInPixels,
                                        final Dimension2D calculatedSize) {
@@ -437,4 +487,15 @@ public class MMDPrint {
   public PrintPage[][] getPages() {
     return this.pages.clone();
   }
+
+  private static final class FitResult {
+
+    private final double scale;
+    private final Dimension2D size;
+
+    private FitResult(final double scale, final Dimension2D size) {
+      this.scale = scale;
+      this.size = size;
+    }
+  }
 }
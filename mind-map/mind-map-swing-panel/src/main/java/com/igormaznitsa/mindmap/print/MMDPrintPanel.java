@@ -229,7 +229,6 @@ public class MMDPrintPanel extends JPanel implements HasPreferredFocusComponent
       final int percent =
           Integer.parseInt(comboBoxScale.getSelectedItem().toString().split("\\s")[0]);
       pageZoomFactor = (double) percent / 100d;
-      splitToPagesForCurrentFormat();
       scrollPane.revalidate();
       scrollPane.getViewport().revalidate();
       scrollPane.repaint();
@@ -326,6 +325,9 @@ public class MMDPrintPanel extends JPanel implements HasPreferredFocusComponent
     final MMDPrint printer = new MMDPrint(this.printableObject, (int) this.pageFormat.getImageableWidth(),
         (int) this.pageFormat.getImageableHeight(), this.options);
     this.pages = printer.getPages();
+    if (this.previewContainer != null) {
+      this.previewContainer.resetPageImages();
+    }
   }
 
   boolean isDrawBorder() {
@@ -0,0 +1,212 @@
+/*
+ * Copyright (C) 2015-2022 Igor A. Maznitsa
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.igormaznitsa.mindmap.print;
+
+import com.igormaznitsa.mindmap.model.logger.Logger;
+import com.igormaznitsa.mindmap.model.logger.LoggerFactory;
+import java.awt.Graphics2D;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.lang.ref.SoftReference;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.swing.SwingUtilities;
+
+/**
+ * Cache of rasterized print pages for preview. Pages are rendered in background on bounded thread
+ * pool and kept through soft references for every page and zoom, so that the preview shows
+ * ready pages at once and renders only requested ones.
+ */
+final class PageImageCache {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(PageImageCache.class);
+
+  private static final int MAX_THREADS =
+      Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors()));
+  private static final AtomicInteger THREAD_COUNTER = new AtomicInteger();
+
+  private final Map<PageKey, SoftReference<BufferedImage>> images = new ConcurrentHashMap<>();
+  private final Map<PageKey, Future<?>> inProgress = new ConcurrentHashMap<>();
+  private final PageListener listener;
+  private final AtomicInteger generation = new AtomicInteger();
+  private ExecutorService executor;
+
+  PageImageCache(final PageListener listener) {
+    this.listener = listener;
+  }
+
+  private static ExecutorService makeExecutor() {
+    final ThreadPoolExecutor result = new ThreadPoolExecutor(MAX_THREADS, MAX_THREADS,
+        5L, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), r -> {
+      final Thread thread =
+          new Thread(r, "mmd-print-preview-" + THREAD_COUNTER.incrementAndGet());
+      thread.setDaemon(true);
+      thread.setPriority(Thread.MIN_PRIORITY);
+      return thread;
+    });
+    result.allowCoreThreadTimeOut(true);
+    return result;
+  }
+
+  /**
+   * Find rendered image for page or start its rendering if not found.
+   *
+   * @param page        page to be rendered
+   * @param row         page row
+   * @param column      page column
+   * @param zoom        zoom of preview
+   * @param areaWidth   width of printable area of page
+   * @param areaHeight  height of printable area of page
+   * @return rendered image or null if rendering is in progress
+   */
+  BufferedImage findOrRender(final PrintPage page, final int row, final int column,
+                             final double zoom, final double areaWidth, final double areaHeight) {
+    final PageKey key = new PageKey(this.generation.get(), row, column, zoom);
+    final SoftReference<BufferedImage> ref = this.images.get(key);
+    final BufferedImage image = ref == null ? null : ref.get();
+    if (image == null) {
+      if (ref != null) {
+        this.images.remove(key, ref);
+      }
+      this.inProgress.computeIfAbsent(key,
+          k -> this.getExecutor().submit(() -> this.render(k, page, areaWidth, areaHeight)));
+    }
+    return image;
+  }
+
+  /**
+   * Cancel rendering of pages which have not been started yet and not among provided ones.
+   *
+   * @param visibleKeys keys of pages which are still needed
+   */
+  void cancelAllExcept(final Set<PageKey> visibleKeys) {
+    this.inProgress.forEach((key, future) -> {
+      if (!visibleKeys.contains(key) && future.cancel(false)) {
+        this.inProgress.remove(key, future);
+      }
+    });
+  }
+
+  PageKey makeKey(final int row, final int column, final double zoom) {
+    return new PageKey(this.generation.get(), row, column, zoom);
+  }
+
+  /**
+   * Drop all cached images and cancel rendering, must be called when pages changed.
+   */
+  void reset() {
+    this.generation.incrementAndGet();
+    this.inProgress.values().forEach(f -> f.cancel(false));
+    this.inProgress.clear();
+    this.images.clear();
+  }
+
+  /**
+   * Stop all background rendering and release threads.
+   */
+  synchronized void dispose() {
+    this.reset();
+    if (this.executor != null) {
+      this.executor.shutdownNow();
+      this.executor = null;
+    }
+  }
+
+  private synchronized ExecutorService getExecutor() {
+    if (this.executor == null) {
+      this.executor = makeExecutor();
+    }
+    return this.executor;
+  }
+
+  private void render(final PageKey key, final PrintPage page, final double areaWidth,
+                      final double areaHeight) {
+    try {
+      final BufferedImage image =
+          new BufferedImage(Math.max(1, (int) Math.ceil(areaWidth * key.zoom)),
+              Math.max(1, (int) Math.ceil(areaHeight * key.zoom)), BufferedImage.TYPE_INT_ARGB);
+      final Graphics2D gfx = image.createGraphics();
+      try {
+        gfx.scale(key.zoom, key.zoom);
+        gfx.clip(new Rectangle2D.Double(0.0d, 0.0d, areaWidth, areaHeight));
+        page.print(gfx);
+      } finally {
+        gfx.dispose();
+      }
+      if (key.generation == this.generation.get()) {
+        this.images.put(key, new SoftReference<>(image));
+        SwingUtilities.invokeLater(() -> this.listener.onPageRendered(key.row, key.column));
+      }
+    } catch (Exception ex) {
+      LOGGER.error("Can't render preview of page " + key.row + ':' + key.column, ex);
+    } finally {
+      this.inProgress.remove(key);
+    }
+  }
+
+  interface PageListener {
+
+    /**
+     * Called on Swing dispatch thread when page image is ready.
+     *
+     * @param row    page row
+     * @param column page column
+     */
+    void onPageRendered(int row, int column);
+  }
+
+  static final class PageKey {
+
+    private final int generation;
+    private final int row;
+    private final int column;
+    private final double zoom;
+
+    private PageKey(final int generation, final int row, final int column, final double zoom) {
+      this.generation = generation;
+      this.row = row;
+      this.column = column;
+      this.zoom = zoom;
+    }
+
+    @Override
+    public boolean equals(final Object that) {
+      if (this == that) {
+        return true;
+      }
+      if (that == null || this.getClass() != that.getClass()) {
+        return false;
+      }
+      final PageKey key = (PageKey) that;
+      return this.generation == key.generation && this.row == key.row
+          && this.column == key.column && Double.compare(this.zoom, key.zoom) == 0;
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(this.generation, this.row, this.column, this.zoom);
+    }
+  }
+}
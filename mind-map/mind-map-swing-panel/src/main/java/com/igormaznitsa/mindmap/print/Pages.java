@@ -20,9 +20,14 @@ import java.awt.Color;
 import java.awt.Dimension;
 import java.awt.Graphics;
 import java.awt.Graphics2D;
+import java.awt.Rectangle;
 import java.awt.Stroke;
+import java.awt.geom.AffineTransform;
 import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
 import java.awt.print.PageFormat;
+import java.util.HashSet;
+import java.util.Set;
 import javax.swing.JPanel;
 
 class Pages extends JPanel {
@@ -33,9 +38,31 @@ class Pages extends JPanel {
   private static final int SHADOW_X = 10;
   private static final int SHADOW_Y = 10;
   private final MMDPrintPanel parent;
+  private final PageImageCache pageImageCache;
 
   public Pages(final MMDPrintPanel parent) {
     this.parent = parent;
+    this.pageImageCache = new PageImageCache(this::repaintPage);
+  }
+
+  void resetPageImages() {
+    this.pageImageCache.reset();
+  }
+
+  @Override
+  public void removeNotify() {
+    this.pageImageCache.dispose();
+    super.removeNotify();
+  }
+
+  private void repaintPage(final int row, final int column) {
+    final PageFormat thePageFormat = this.parent.getPageFormat();
+    final double scale = this.parent.getScale();
+    final double x = INTERVAL_X + column * (INTERVAL_X + thePageFormat.getWidth());
+    final double y = INTERVAL_Y + row * (INTERVAL_Y + thePageFormat.getHeight());
+    this.repaint(new Rectangle2D.Double(x * scale, y * scale,
+        (thePageFormat.getWidth() + SHADOW_X) * scale + 1,
+        (thePageFormat.getHeight() + SHADOW_Y) * scale + 1).getBounds());
   }
 
   @Override
@@ -100,10 +127,31 @@ class Pages extends JPanel {
 
     final boolean drawBorder = this.parent.isDrawBorder();
 
+    final Rectangle clip = g.getClipBounds() == null ? new Rectangle(size) : g.getClipBounds();
+    final Rectangle2D paintArea = new Rectangle2D.Double(clip.getX() / scale,
+        clip.getY() / scale, clip.getWidth() / scale, clip.getHeight() / scale);
+    final Rectangle visible = this.getVisibleRect();
+    final Rectangle2D visibleArea = new Rectangle2D.Double(visible.getX() / scale,
+        visible.getY() / scale, visible.getWidth() / scale, visible.getHeight() / scale);
+    final Rectangle2D pageWithShadow =
+        new Rectangle2D.Double(0.0d, 0.0d, PAGE_WIDTH + SHADOW_X, PAGE_HEIGHT + SHADOW_Y);
+    final Set<PageImageCache.PageKey> visiblePages = new HashSet<>();
+
     gfx.scale(scale, scale);
-    for (final PrintPage[] pages : allPages) {
+    for (int row = 0; row < allPages.length; row++) {
+      final PrintPage[] pages = allPages[row];
       int x = INTERVAL_X;
-      for (final PrintPage p : pages) {
+      for (int column = 0; column < pages.length; column++) {
+        final PrintPage p = pages[column];
+        pageWithShadow.setRect(x, y, pageWithShadow.getWidth(), pageWithShadow.getHeight());
+        if (visibleArea.intersects(pageWithShadow)) {
+          visiblePages.add(this.pageImageCache.makeKey(row, column, scale));
+        }
+        if (!paintArea.intersects(pageWithShadow)) {
+          x += INTERVAL_X + PAGE_WIDTH;
+          continue;
+        }
+
         gfx.translate(x, y);
 
         gfx.setColor(SHADOW);
@@ -115,10 +163,12 @@ class Pages extends JPanel {
 
         gfx.translate(AREA_X, AREA_Y);
 
-        final Graphics2D gfxCopy = (Graphics2D) gfx.create();
-        gfxCopy.clip(pageArea);
-        p.print(gfxCopy);
-        gfxCopy.dispose();
+        final BufferedImage pageImage =
+            this.pageImageCache.findOrRender(p, row, column, scale, AREA_WIDTH, AREA_HEIGHT);
+        if (pageImage != null) {
+          gfx.drawImage(pageImage, AffineTransform.getScaleInstance(1.0d / scale, 1.0d / scale),
+              null);
+        }
 
         if (drawBorder) {
           final Stroke oldStroke = gfx.getStroke();
@@ -137,6 +187,8 @@ class Pages extends JPanel {
     }
     gfx.scale(1.0d, 1.0d);
 
+    this.pageImageCache.cancelAllExcept(visiblePages);
+
     paintBorder(g);
   }
 }
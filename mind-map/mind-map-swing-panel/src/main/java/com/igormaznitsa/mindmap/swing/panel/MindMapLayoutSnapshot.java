@@ -0,0 +1,254 @@
+/*
+ * Copyright (C) 2015-2023 Igor A. Maznitsa
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.igormaznitsa.mindmap.swing.panel;
+
+import static java.util.Objects.requireNonNull;
+
+import com.igormaznitsa.mindmap.model.MindMap;
+import com.igormaznitsa.mindmap.swing.panel.ui.AbstractElement;
+import com.igormaznitsa.mindmap.swing.panel.ui.gfx.MMGraphics;
+import com.igormaznitsa.mindmap.swing.panel.ui.gfx.MMGraphics2DWrapper;
+import com.igormaznitsa.mindmap.swing.panel.utils.MindMapUtils;
+import com.igormaznitsa.mindmap.swing.panel.utils.RenderQuality;
+import java.awt.Dimension;
+import java.awt.Graphics2D;
+import java.awt.geom.Dimension2D;
+import java.awt.image.BufferedImage;
+import java.lang.ref.SoftReference;
+import java.lang.ref.WeakReference;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * Laid out copy of mind map centered on its paper, computed once for model revision,
+ * configuration, expand flag and render quality. Snapshots are cached so that repeated export or print of
+ * unchanged map doesn't make layout again. Content of snapshot is never changed after creation.
+ *
+ * @since 1.6.4
+ */
+public final class MindMapLayoutSnapshot {
+
+  /**
+   * Identifier of standard graphics used to measure elements.
+   */
+  public static final String GRAPHICS_STANDARD = "standard";
+
+  private static final int MAX_CACHED_SNAPSHOTS = 8;
+
+  private static final Map<Key, SoftReference<MindMapLayoutSnapshot>> CACHE =
+      new LinkedHashMap<Key, SoftReference<MindMapLayoutSnapshot>>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(
+            final Map.Entry<Key, SoftReference<MindMapLayoutSnapshot>> eldest) {
+          return this.size() > MAX_CACHED_SNAPSHOTS;
+        }
+      };
+
+  private final MindMap map;
+  private final MindMapPanelConfig config;
+  private final Dimension2D paperSize;
+
+  private MindMapLayoutSnapshot(final MindMap map, final MindMapPanelConfig config,
+                                final Dimension2D paperSize) {
+    this.map = map;
+    this.config = config;
+    this.paperSize = paperSize;
+  }
+
+  /**
+   * Find cached or make new snapshot measured by standard graphics.
+   *
+   * @param model     source model, must not be null
+   * @param cfg       configuration to be used for layout, must not be null
+   * @param expandAll true if all collapsed topics must be expanded
+   * @param quality   render quality to be used for measurement, must not be null
+   * @return snapshot, must not be null
+   */
+  public static MindMapLayoutSnapshot find(final MindMap model, final MindMapPanelConfig cfg,
+                                           final boolean expandAll,
+                                           final RenderQuality quality) {
+    return find(model, cfg, expandAll, quality, GRAPHICS_STANDARD, MMGraphics2DWrapper::new);
+  }
+
+  /**
+   * Find cached or make new snapshot measured by custom graphics. Renderer which measures text in
+   * its own way (like SVG exporter) must provide its own graphics to get the same layout as it
+   * would make itself.
+   *
+   * @param model           source model, must not be null
+   * @param cfg             configuration to be used for layout, must not be null
+   * @param expandAll       true if all collapsed topics must be expanded
+   * @param quality         render quality to be used for measurement, must not be null
+   * @param graphicsId      identifier of graphics type, used as part of cache key
+   * @param graphicsFactory factory to make measuring graphics over AWT graphics
+   * @return snapshot, must not be null
+   */
+  public static MindMapLayoutSnapshot find(final MindMap model, final MindMapPanelConfig cfg,
+                                           final boolean expandAll,
+                                           final RenderQuality quality,
+                                           final String graphicsId,
+                                           final Function<Graphics2D, MMGraphics> graphicsFactory) {
+    final Key key = new Key(model, new MindMapPanelConfig(cfg, false), expandAll,
+        quality, graphicsId);
+
+    MindMapLayoutSnapshot result;
+    synchronized (CACHE) {
+      final SoftReference<MindMapLayoutSnapshot> ref = CACHE.get(key);
+      result = ref == null ? null : ref.get();
+    }
+
+    if (result == null) {
+      result = make(model, key.config, expandAll, quality, graphicsFactory);
+      synchronized (CACHE) {
+        CACHE.put(key, new SoftReference<>(result));
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Remove all cached snapshots.
+   */
+  public static void clearCache() {
+    synchronized (CACHE) {
+      CACHE.clear();
+    }
+  }
+
+  private static MindMapLayoutSnapshot make(final MindMap model, final MindMapPanelConfig cfg,
+                                            final boolean expandAll,
+                                            final RenderQuality quality,
+                                            final Function<Graphics2D, MMGraphics> graphicsFactory) {
+    final MindMap workMap = model.makeCopy();
+    workMap.clearAllPayloads();
+
+    if (expandAll) {
+      MindMapUtils.removeCollapseAttr(workMap);
+    }
+
+    final BufferedImage img = new BufferedImage(32, 32,
+        cfg.isDrawBackground() ? BufferedImage.TYPE_INT_RGB : BufferedImage.TYPE_INT_ARGB);
+    final Graphics2D g = img.createGraphics();
+    quality.prepare(g);
+    final MMGraphics gfx = graphicsFactory.apply(g);
+
+    Dimension2D paperSize = null;
+    try {
+      if (MindMapPanel.calculateElementSizes(gfx, workMap, cfg)) {
+        if (expandAll) {
+          final AbstractElement root =
+              requireNonNull((AbstractElement) requireNonNull(workMap.getRoot()).getPayload());
+          root.collapseOrExpandAllChildren(false);
+          MindMapPanel.calculateElementSizes(gfx, workMap, cfg);
+        }
+        final Dimension2D blockSize =
+            requireNonNull(MindMapPanel.layoutModelElements(workMap, cfg));
+        final double paperMargin = cfg.getPaperMargins() * cfg.getScale();
+        paperSize = new Dimension((int) Math.round(blockSize.getWidth() + paperMargin * 2),
+            (int) Math.round(blockSize.getHeight() + paperMargin * 2));
+        MindMapPanel.centerDiagramOnPaper(workMap, cfg, blockSize, paperSize);
+      }
+    } finally {
+      gfx.dispose();
+      g.dispose();
+    }
+    return new MindMapLayoutSnapshot(workMap, cfg, paperSize);
+  }
+
+  /**
+   * Check that snapshot has content.
+   *
+   * @return true if there is no laid out topic in snapshot
+   */
+  public boolean isEmpty() {
+    return this.paperSize == null;
+  }
+
+  /**
+   * Get size of paper which contains whole diagram with margins.
+   *
+   * @return copy of paper size or null if snapshot is empty
+   */
+  public Dimension2D getPaperSize() {
+    if (this.paperSize == null) {
+      return null;
+    }
+    final Dimension result = new Dimension();
+    result.setSize(this.paperSize);
+    return result;
+  }
+
+  /**
+   * Draw snapshot content on graphics. Drawing doesn't make any layout.
+   *
+   * @param gfx graphics to draw, must not be null
+   */
+  public void render(final MMGraphics gfx) {
+    synchronized (this.map) {
+      MindMapPanel.drawOnGraphicsForConfiguration(gfx, this.config, this.map, false, null);
+    }
+  }
+
+  private static final class Key {
+
+    private final WeakReference<MindMap> model;
+    private final long revision;
+    private final MindMapPanelConfig config;
+    private final boolean expandAll;
+    private final RenderQuality quality;
+    private final String graphicsId;
+    private final int hash;
+
+    private Key(final MindMap model, final MindMapPanelConfig config, final boolean expandAll,
+                final RenderQuality quality, final String graphicsId) {
+      this.model = new WeakReference<>(model);
+      this.revision = model.getRevision();
+      this.config = config;
+      this.expandAll = expandAll;
+      this.quality = quality;
+      this.graphicsId = graphicsId;
+      this.hash = Objects.hash(System.identityHashCode(model), this.revision, config.getScale(),
+          expandAll, quality, graphicsId);
+    }
+
+    @Override
+    public boolean equals(final Object that) {
+      if (this == that) {
+        return true;
+      }
+      if (that == null || this.getClass() != that.getClass()) {
+        return false;
+      }
+      final Key key = (Key) that;
+      return this.hash == key.hash
+          && this.expandAll == key.expandAll
+          && this.quality == key.quality
+          && this.revision == key.revision
+          && this.graphicsId.equals(key.graphicsId)
+          && this.model.get() != null
+          && this.model.get() == key.model.get()
+          && !this.config.hasDifferenceInParameters(key.config);
+    }
+
+    @Override
+    public int hashCode() {
+      return this.hash;
+    }
+  }
+}
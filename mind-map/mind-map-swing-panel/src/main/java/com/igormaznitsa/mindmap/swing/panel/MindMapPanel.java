@@ -1168,33 +1168,39 @@ public class MindMapPanel extends JComponent implements ClipboardOwner {
                                                                 final Dimension2D paperSize) {
     Dimension resultSize = null;
     if (calculateElementSizes(gfx, map, cfg)) {
-      Dimension2D rootBlockSize = layoutModelElements(map, cfg);
-      final double paperMargin = cfg.getPaperMargins() * cfg.getScale();
-
+      final Dimension2D rootBlockSize = layoutModelElements(map, cfg);
       if (rootBlockSize != null) {
-        final ElementRoot rootElement =
-            requireNonNull((ElementRoot) requireNonNull(map.getRoot()).getPayload());
-
-        double rootOffsetXInBlock = rootElement.getLeftBlockSize().getWidth();
-        double rootOffsetYInBlock =
-            (rootBlockSize.getHeight() - rootElement.getBounds().getHeight()) / 2;
-
-        rootOffsetXInBlock +=
-            (paperSize.getWidth() - rootBlockSize.getWidth()) <= paperMargin ? paperMargin :
-                (paperSize.getWidth() - rootBlockSize.getWidth()) / 2;
-        rootOffsetYInBlock +=
-            (paperSize.getHeight() - rootBlockSize.getHeight()) <= paperMargin ? paperMargin :
-                (paperSize.getHeight() - rootBlockSize.getHeight()) / 2;
-
-        moveDiagram(map, rootOffsetXInBlock, rootOffsetYInBlock);
-        resultSize = new Dimension((int) Math.round(rootBlockSize.getWidth() + paperMargin * 2),
-            (int) Math.round(rootBlockSize.getHeight() + paperMargin * 2));
+        resultSize = centerDiagramOnPaper(map, cfg, rootBlockSize, paperSize);
       }
     }
 
     return resultSize;
   }
 
+  static Dimension centerDiagramOnPaper(final MindMap map,
+                                        final MindMapPanelConfig cfg,
+                                        final Dimension2D rootBlockSize,
+                                        final Dimension2D paperSize) {
+    final double paperMargin = cfg.getPaperMargins() * cfg.getScale();
+    final ElementRoot rootElement =
+        requireNonNull((ElementRoot) requireNonNull(map.getRoot()).getPayload());
+
+    double rootOffsetXInBlock = rootElement.getLeftBlockSize().getWidth();
+    double rootOffsetYInBlock =
+        (rootBlockSize.getHeight() - rootElement.getBounds().getHeight()) / 2;
+
+    rootOffsetXInBlock +=
+        (paperSize.getWidth() - rootBlockSize.getWidth()) <= paperMargin ? paperMargin :
+            (paperSize.getWidth() - rootBlockSize.getWidth()) / 2;
+    rootOffsetYInBlock +=
+        (paperSize.getHeight() - rootBlockSize.getHeight()) <= paperMargin ? paperMargin :
+            (paperSize.getHeight() - rootBlockSize.getHeight()) / 2;
+
+    moveDiagram(map, rootOffsetXInBlock, rootOffsetYInBlock);
+    return new Dimension((int) Math.round(rootBlockSize.getWidth() + paperMargin * 2),
+        (int) Math.round(rootBlockSize.getHeight() + paperMargin * 2));
+  }
+
   private static void drawErrorText(final Graphics2D gfx, final Dimension fullSize,
                                     final String error) {
     final Font font = new Font(Font.DIALOG, Font.BOLD, 24);
@@ -1216,19 +1222,16 @@ public class MindMapPanel extends JComponent implements ClipboardOwner {
                                                        final MindMapPanelConfig cfg,
                                                        final boolean expandAll,
                                                        final RenderQuality quality) {
+    if (graphicsContext == null) {
+      return MindMapLayoutSnapshot.find(model, cfg, expandAll, quality).getPaperSize();
+    }
+
     final MindMap workMap = model.makeCopy();
     workMap.clearAllPayloads();
 
-    Graphics2D g = graphicsContext;
+    final MMGraphics gfx = new MMGraphics2DWrapper(graphicsContext);
 
-    if (g == null) {
-      BufferedImage img = new BufferedImage(32, 32,
-          cfg.isDrawBackground() ? BufferedImage.TYPE_INT_RGB : BufferedImage.TYPE_INT_ARGB);
-      g = img.createGraphics();
-    }
-    final MMGraphics gfx = new MMGraphics2DWrapper(g);
-
-    quality.prepare(g);
+    quality.prepare(graphicsContext);
 
     Dimension2D blockSize = null;
     try {
@@ -1255,15 +1258,9 @@ public class MindMapPanel extends JComponent implements ClipboardOwner {
                                                    final MindMapPanelConfig cfg,
                                                    final boolean expandAll,
                                                    final RenderQuality quality) {
-    final MindMap workMap = model.makeCopy();
-    workMap.clearAllPayloads();
-
-    if (expandAll) {
-      MindMapUtils.removeCollapseAttr(workMap);
-    }
-
-    final Dimension2D blockSize =
-        calculateSizeOfMapInPixels(workMap, null, cfg, expandAll, quality);
+    final MindMapLayoutSnapshot snapshot =
+        MindMapLayoutSnapshot.find(model, cfg, expandAll, quality);
+    final Dimension2D blockSize = snapshot.getPaperSize();
     if (blockSize == null) {
       return null;
     }
@@ -1276,8 +1273,7 @@ public class MindMapPanel extends JComponent implements ClipboardOwner {
     try {
       quality.prepare(g);
       gfx.setClip(0, 0, img.getWidth(), img.getHeight());
-      layoutFullDiagramWithCenteringToPaper(gfx, workMap, cfg, blockSize);
-      drawOnGraphicsForConfiguration(gfx, cfg, workMap, false, null);
+      snapshot.render(gfx);
     } finally {
       gfx.dispose();
     }
@@ -2463,9 +2459,10 @@ public class MindMapPanel extends JComponent implements ClipboardOwner {
         if (this.model.getRoot().getPayload() == null) {
           updateElementsAndSizeForGraphics(gfx, true, false);
         }
-        drawOnGraphicsForConfiguration(new MMGraphics2DWrapper(gfx), this.config, this.model,
-            true, this.selectedTopics);
+        drawOnGraphicsForConfiguration(new MMGraphics2DWrapper(gfx, true), this.config,
+            this.model, true, this.selectedTopics);
         drawDestinationElement(gfx, this.config);
+        repaintTopicsWhenImagesReady(this.model.getRoot());
       }
 
       paintChildren(g);
@@ -2485,6 +2482,44 @@ public class MindMapPanel extends JComponent implements ClipboardOwner {
     }
   }
 
+  private void repaintTopicsWhenImagesReady(final Topic topic) {
+    final AbstractElement element = topic == null ? null : (AbstractElement) topic.getPayload();
+    if (element == null) {
+      return;
+    }
+    // images are decoded in background and painted as placeholders, their size is known
+    // so that only the topic area must be repainted when decoding is completed
+    element.getVisualAttributeImageBlock()
+        .whenImagesReady(() -> SwingUtilities.invokeLater(() -> onTopicImagesReady(topic)));
+    if (!element.isCollapsed()) {
+      for (final Topic t : topic.getChildren()) {
+        repaintTopicsWhenImagesReady(t);
+      }
+    }
+  }
+
+  private void onTopicImagesReady(final Topic topic) {
+    final AbstractElement element = (AbstractElement) topic.getPayload();
+    if (!isDisposed() && element != null
+        && element.getVisualAttributeImageBlock().isLayoutChanged()) {
+      // image could not be decoded and removed, so that its place must be taken back
+      doLayout();
+    } else {
+      repaintTopic(topic);
+    }
+  }
+
+  private void repaintTopic(final Topic topic) {
+    final AbstractElement element = (AbstractElement) topic.getPayload();
+    if (!isDisposed() && element != null) {
+      final Rectangle2D bounds = element.getBounds();
+      this.repaint(new Rectangle((int) Math.floor(bounds.getX()) - 1,
+          (int) Math.floor(bounds.getY()) - 1,
+          (int) Math.ceil(bounds.getWidth()) + 2,
+          (int) Math.ceil(bounds.getHeight()) + 2));
+    }
+  }
+
   public AbstractElement findTopicForContextMenu() {
     assertNotDisposed();
     AbstractElement result = null;
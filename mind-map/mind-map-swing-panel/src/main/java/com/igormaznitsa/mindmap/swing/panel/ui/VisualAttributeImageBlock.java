@@ -137,6 +137,42 @@ public class VisualAttributeImageBlock {
     return this.bounds;
   }
 
+  /**
+   * Register action to be called when images of the block which are still in decoding become
+   * ready. The action is registered only once for every image, so that the method can be called
+   * for every paint.
+   *
+   * @param action action to be called, it can be called from any thread
+   * @return true if some image of the block is not ready yet, false otherwise
+   * @since 1.6.4
+   */
+  public boolean whenImagesReady(final Runnable action) {
+    boolean result = false;
+    if (this.items != null) {
+      for (final VisualItem i : this.items) {
+        result |= i.whenReady(action);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Check that size of some image differs from the size used for layout of the block. It happens
+   * if an image decoded in background could not be decoded and it has been removed.
+   *
+   * @return true if the block must be laid out again, false otherwise
+   * @since 1.6.4
+   */
+  public boolean isLayoutChanged() {
+    boolean result = false;
+    if (this.items != null) {
+      for (final VisualItem i : this.items) {
+        result |= i.isSizeChanged();
+      }
+    }
+    return result;
+  }
+
   private static final class VisualItem {
 
     private static final VisualItem[] EMPTY = new VisualItem[0];
@@ -145,6 +181,7 @@ public class VisualAttributeImageBlock {
     private final VisualAttributePlugin plugin;
     private final int relx;
     private Renderable image;
+    private Renderable awaitedImage;
     private int rely;
     private int width;
     private int height;
@@ -206,6 +243,24 @@ public class VisualAttributeImageBlock {
       return this.image != null;
     }
 
+    boolean whenReady(final Runnable action) {
+      final Renderable current = this.image;
+      if (current == null || current.isReady()) {
+        return false;
+      }
+      if (this.awaitedImage != current) {
+        this.awaitedImage = current;
+        current.whenReady(action);
+      }
+      return true;
+    }
+
+    boolean isSizeChanged() {
+      final Renderable current = this.image;
+      return current != null && (current.getWidth(this.lastScale) != this.width
+          || current.getHeight(this.lastScale) != this.height);
+    }
+
     boolean containsPoint(final int relativeX, final int relativeY) {
       return relativeX >= this.relx && relativeY >= this.rely && relativeX < this.relx + this.width && relativeY < this.rely + this.height;
     }
@@ -174,4 +174,15 @@ public interface MMGraphics {
    */
   void drawString(String text, int x, int y, Color fill);
 
+  /**
+   * Check that graphics paints on screen component, content which is not ready yet can be painted
+   * as placeholder for such graphics.
+   *
+   * @return true if graphics paints on screen, false for export, print or other off-screen targets
+   * @since 1.6.4
+   */
+  default boolean isOnScreen() {
+    return false;
+  }
+
 }
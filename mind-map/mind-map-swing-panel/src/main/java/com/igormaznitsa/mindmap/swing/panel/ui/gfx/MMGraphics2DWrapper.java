@@ -30,11 +30,24 @@ import java.awt.geom.Rectangle2D;
 public class MMGraphics2DWrapper implements MMGraphics {
 
   private final Graphics2D delegate;
+  private final boolean onScreen;
   private StrokeType strokeType = StrokeType.SOLID;
   private float strokeWidth = 1.0f;
 
   public MMGraphics2DWrapper(final Graphics2D delegate) {
+    this(delegate, false);
+  }
+
+  /**
+   * Constructor.
+   *
+   * @param delegate wrapped graphics, must not be null
+   * @param onScreen true if graphics paints on screen component
+   * @since 1.6.4
+   */
+  public MMGraphics2DWrapper(final Graphics2D delegate, final boolean onScreen) {
     this.delegate = delegate;
+    this.onScreen = onScreen;
     this.delegate.setStroke(new BasicStroke(this.strokeWidth));
   }
 
@@ -63,7 +76,7 @@ public class MMGraphics2DWrapper implements MMGraphics {
 
   @Override
   public MMGraphics copy() {
-    final MMGraphics2DWrapper result = new MMGraphics2DWrapper((Graphics2D) delegate.create());
+    final MMGraphics2DWrapper result = new MMGraphics2DWrapper((Graphics2D) delegate.create(), this.onScreen);
     result.strokeType = this.strokeType;
     result.strokeWidth = this.strokeWidth;
     return result;
@@ -157,6 +170,11 @@ public class MMGraphics2DWrapper implements MMGraphics {
     }
   }
 
+  @Override
+  public boolean isOnScreen() {
+    return this.onScreen;
+  }
+
   @Override
   public void drawImage(final Image image, final int x, final int y) {
     if (image != null) {
@@ -94,6 +94,10 @@ import javax.xml.XMLConstants;
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.SystemUtils;
 import org.jsoup.Jsoup;
@@ -244,6 +248,67 @@ public final class Utils {
     return document;
   }
 
+  /**
+   * Make streaming XML reader for input stream. DTD processing and external
+   * entities are disabled, text blocks are coalesced.
+   *
+   * @param inStream stream to read document, must not be null and it is not closed by reader
+   * @param charset  charset to be used for reading, can be null for auto-detection
+   * @return created stream reader, must be closed after use
+   * @throws XMLStreamException will be thrown if reader can't be created
+   * @since 1.6.4
+   */
+  public static XMLStreamReader makeXmlStreamReader(final InputStream inStream,
+                                                    final String charset)
+      throws XMLStreamException {
+    final XMLInputFactory factory = XMLInputFactory.newInstance();
+    factory.setProperty(XMLInputFactory.SUPPORT_DTD, Boolean.FALSE);
+    factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, Boolean.FALSE);
+    factory.setProperty(XMLInputFactory.IS_COALESCING, Boolean.TRUE);
+    factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, Boolean.FALSE);
+    return charset == null ? factory.createXMLStreamReader(inStream)
+        : factory.createXMLStreamReader(inStream, charset);
+  }
+
+  /**
+   * Skip current element of streaming XML reader with all its content.
+   * The reader must be on START_ELEMENT and it will be on the paired END_ELEMENT after call.
+   *
+   * @param reader streaming reader, must not be null
+   * @throws XMLStreamException will be thrown if parsing error
+   * @since 1.6.4
+   */
+  public static void skipXmlElement(final XMLStreamReader reader) throws XMLStreamException {
+    int level = 1;
+    while (level > 0) {
+      final int event = reader.next();
+      if (event == XMLStreamConstants.START_ELEMENT) {
+        level++;
+      } else if (event == XMLStreamConstants.END_ELEMENT) {
+        level--;
+      } else if (event == XMLStreamConstants.END_DOCUMENT) {
+        throw new XMLStreamException("Unexpected end of document", reader.getLocation());
+      }
+    }
+  }
+
+  /**
+   * Find attribute of current element in streaming XML reader, attribute name case is ignored.
+   *
+   * @param reader    streaming reader positioned on START_ELEMENT, must not be null
+   * @param attribute attribute name, must not be null
+   * @return attribute value or empty string if not found
+   * @since 1.6.4
+   */
+  public static String findXmlAttribute(final XMLStreamReader reader, final String attribute) {
+    for (int i = 0; i < reader.getAttributeCount(); i++) {
+      if (attribute.equalsIgnoreCase(reader.getAttributeLocalName(i))) {
+        return reader.getAttributeValue(i);
+      }
+    }
+    return "";
+  }
+
   /**
    * Get first direct child for name.
    *
@@ -0,0 +1,71 @@
+package com.igormaznitsa.mindmap.plugins.attributes.images;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+
+import java.awt.image.BufferedImage;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import org.junit.Test;
+
+public class DecodedImageCacheTest {
+
+  private static Function<String, ScalableRenderableImage> makeDecoder(
+      final AtomicInteger counter, final int size) {
+    return data -> {
+      counter.incrementAndGet();
+      return new ScalableRenderableImage(
+          new BufferedImage(size, size, BufferedImage.TYPE_INT_ARGB));
+    };
+  }
+
+  @Test
+  public void testSameContentDecodedOnce() {
+    final DecodedImageCache cache = new DecodedImageCache(DecodedImageCache.DEFAULT_MAX_BYTES);
+    final AtomicInteger counter = new AtomicInteger();
+    final Function<String, ScalableRenderableImage> decoder = makeDecoder(counter, 16);
+
+    final ScalableRenderableImage first = cache.find(new String("AAAABBBB"), decoder);
+    final ScalableRenderableImage second = cache.find(new String("AAAABBBB"), decoder);
+    final ScalableRenderableImage other = cache.find("CCCCDDDD", decoder);
+
+    assertSame(first, second);
+    assertNotSame(first, other);
+    assertEquals(2, counter.get());
+  }
+
+  @Test
+  public void testLeastRecentlyUsedRemoved() {
+    final DecodedImageCache cache = new DecodedImageCache(2L * 16L * 16L * 4L);
+    final AtomicInteger counter = new AtomicInteger();
+    final Function<String, ScalableRenderableImage> decoder = makeDecoder(counter, 16);
+
+    final ScalableRenderableImage first = cache.find("AAAA", decoder);
+    cache.find("BBBB", decoder);
+    assertSame(first, cache.find("AAAA", decoder));
+    cache.find("CCCC", decoder);
+    assertEquals(3, counter.get());
+
+    assertSame(first, cache.find("AAAA", decoder));
+    assertEquals(3, counter.get());
+    cache.find("BBBB", decoder);
+    assertEquals(4, counter.get());
+  }
+
+  @Test
+  public void testWrongDataNotDecodedTwice() {
+    final DecodedImageCache cache = new DecodedImageCache(DecodedImageCache.DEFAULT_MAX_BYTES);
+    final AtomicInteger counter = new AtomicInteger();
+    final Function<String, ScalableRenderableImage> decoder = data -> {
+      counter.incrementAndGet();
+      return null;
+    };
+
+    assertNull(cache.find("wrong", decoder));
+    assertNull(cache.find("wrong", decoder));
+    assertEquals(1, counter.get());
+  }
+}
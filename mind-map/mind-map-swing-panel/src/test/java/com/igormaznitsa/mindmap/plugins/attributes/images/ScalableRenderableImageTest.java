@@ -0,0 +1,76 @@
+package com.igormaznitsa.mindmap.plugins.attributes.images;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import com.igormaznitsa.mindmap.swing.panel.utils.Utils;
+import java.awt.Dimension;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import javax.imageio.ImageIO;
+import org.junit.Test;
+
+public class ScalableRenderableImageTest {
+
+  private static String makeEncodedPng(final int width, final int height) throws Exception {
+    final ByteArrayOutputStream bos = new ByteArrayOutputStream();
+    ImageIO.write(new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB), "png", bos);
+    return Utils.base64encode(bos.toByteArray());
+  }
+
+  @Test
+  public void testReadImageSizeFromHeader() throws Exception {
+    final Dimension size = ImageVisualAttributePlugin.readImageSize(makeEncodedPng(17, 9));
+    assertNotNull(size);
+    assertEquals(17, size.width);
+    assertEquals(9, size.height);
+  }
+
+  @Test
+  public void testReadImageSizeForWrongData() {
+    assertNull(ImageVisualAttributePlugin.readImageSize(Utils.base64encode(new byte[64])));
+  }
+
+  @Test(timeout = 10000L)
+  public void testWhenReadyCalledAfterDecoding() throws Exception {
+    final CountDownLatch decodingAllowed = new CountDownLatch(1);
+    final CountDownLatch readyCalled = new CountDownLatch(1);
+    final ScalableRenderableImage image = new ScalableRenderableImage(20, 10, () -> {
+      decodingAllowed.await();
+      return new BufferedImage(20, 10, BufferedImage.TYPE_INT_ARGB);
+    });
+
+    assertFalse(image.isReady());
+    assertEquals(40, image.getWidth(2.0d));
+    assertEquals(20, image.getHeight(2.0d));
+
+    image.whenReady(readyCalled::countDown);
+    assertEquals(1L, readyCalled.getCount());
+
+    decodingAllowed.countDown();
+    assertTrue(readyCalled.await(5L, TimeUnit.SECONDS));
+    assertTrue(image.isReady());
+    assertEquals(40, image.getWidth(2.0d));
+
+    final CountDownLatch readyCalledForReadyImage = new CountDownLatch(1);
+    image.whenReady(readyCalledForReadyImage::countDown);
+    assertEquals(0L, readyCalledForReadyImage.getCount());
+  }
+
+  @Test(timeout = 10000L)
+  public void testFailedDecodingRemovesImageFromLayout() throws Exception {
+    final CountDownLatch readyCalled = new CountDownLatch(1);
+    final ScalableRenderableImage image = new ScalableRenderableImage(20, 10, () -> null);
+    image.whenReady(readyCalled::countDown);
+
+    assertTrue(readyCalled.await(5L, TimeUnit.SECONDS));
+    assertTrue(image.isReady());
+    assertEquals(0, image.getWidth(1.0d));
+    assertEquals(0, image.getHeight(1.0d));
+  }
+}
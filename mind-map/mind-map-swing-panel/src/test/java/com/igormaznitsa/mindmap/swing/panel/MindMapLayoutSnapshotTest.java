@@ -0,0 +1,85 @@
+/*
+ * Copyright (C) 2015-2023 Igor A. Maznitsa
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.igormaznitsa.mindmap.swing.panel;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import com.igormaznitsa.mindmap.model.MindMap;
+import com.igormaznitsa.mindmap.model.Topic;
+import com.igormaznitsa.mindmap.swing.panel.utils.RenderQuality;
+import org.junit.After;
+import org.junit.Test;
+
+public class MindMapLayoutSnapshotTest {
+
+  private static MindMap makeMap() {
+    final MindMap map = new MindMap(true);
+    final Topic root = map.getRoot();
+    root.setText("root");
+    new Topic(map, root, "first");
+    new Topic(map, root, "second");
+    return map;
+  }
+
+  @After
+  public void cleanCache() {
+    MindMapLayoutSnapshot.clearCache();
+  }
+
+  @Test
+  public void testFindReturnsCachedSnapshotForEqualConfig() {
+    final MindMap map = makeMap();
+    final MindMapPanelConfig config = new MindMapPanelConfig();
+
+    final MindMapLayoutSnapshot first =
+        MindMapLayoutSnapshot.find(map, config, false, RenderQuality.DEFAULT);
+    assertFalse(first.isEmpty());
+
+    final MindMapLayoutSnapshot second =
+        MindMapLayoutSnapshot.find(map, new MindMapPanelConfig(config, false), false,
+            RenderQuality.DEFAULT);
+    assertSame(first, second);
+  }
+
+  @Test
+  public void testFindMakesNewSnapshotForChangedModel() {
+    final MindMap map = makeMap();
+    final MindMapPanelConfig config = new MindMapPanelConfig();
+
+    final MindMapLayoutSnapshot first =
+        MindMapLayoutSnapshot.find(map, config, false, RenderQuality.DEFAULT);
+    map.getRoot().getFirst().setText("changed");
+    final MindMapLayoutSnapshot second =
+        MindMapLayoutSnapshot.find(map, config, false, RenderQuality.DEFAULT);
+    assertNotSame(first, second);
+  }
+
+  @Test
+  public void testFindMakesNewSnapshotForChangedConfig() {
+    final MindMap map = makeMap();
+    final MindMapPanelConfig config = new MindMapPanelConfig();
+
+    final MindMapLayoutSnapshot first =
+        MindMapLayoutSnapshot.find(map, config, false, RenderQuality.DEFAULT);
+    config.setScale(2.0d);
+    final MindMapLayoutSnapshot second =
+        MindMapLayoutSnapshot.find(map, config, false, RenderQuality.DEFAULT);
+    assertNotSame(first, second);
+  }
+}
@@ -29,6 +29,7 @@ import static org.openide.windows.TopComponent.PERSISTENCE_NEVER;
 import com.igormaznitsa.mindmap.ide.commons.DnDUtils;
 import com.igormaznitsa.mindmap.ide.commons.FilePathWithLine;
 import com.igormaznitsa.mindmap.ide.commons.Misc;
+import com.igormaznitsa.mindmap.ide.commons.TopicSearchSession;
 import com.igormaznitsa.mindmap.ide.commons.editors.AbstractNoteEditorData;
 import com.igormaznitsa.mindmap.ide.commons.editors.ColorAttributePanel;
 import com.igormaznitsa.mindmap.ide.commons.preferences.ColorSelectButton;
@@ -202,6 +203,7 @@ public final class MMDGraphEditor extends CloneableEditor
 
   private final JScrollPane mainScrollPane;
   private final MindMapPanel mindMapPanel;
+  private final TopicSearchSession searchSession = new TopicSearchSession();
   private final FindTextPanel findTextPanel;
 
   private boolean dragAcceptableType = false;
@@ -401,11 +403,11 @@ public final class MMDGraphEditor extends CloneableEditor
     final boolean inTopicText =
         provider.toSearchIn(FindTextScopeProvider.SearchTextScope.IN_TOPIC_TEXT);
 
-    Topic found = this.mindMapPanel.getModel()
-        .findNext(projectBaseFolder, startTopic, pattern, inTopicText, extras, TOPIC_FINDERS);
+    Topic found = this.searchSession.findNext(this.mindMapPanel.getModel(),
+        projectBaseFolder, startTopic, pattern, inTopicText, extras, TOPIC_FINDERS);
     if (found == null && startTopic != null) {
-      found = this.mindMapPanel.getModel()
-          .findNext(projectBaseFolder, null, pattern, inTopicText, extras, TOPIC_FINDERS);
+      found = this.searchSession.findNext(this.mindMapPanel.getModel(),
+          projectBaseFolder, null, pattern, inTopicText, extras, TOPIC_FINDERS);
     }
 
     if (found != null) {
@@ -439,11 +441,11 @@ public final class MMDGraphEditor extends CloneableEditor
     final boolean inTopicText =
         provider.toSearchIn(FindTextScopeProvider.SearchTextScope.IN_TOPIC_TEXT);
 
-    Topic found = this.mindMapPanel.getModel()
-        .findPrev(projectBaseFolder, startTopic, pattern, inTopicText, extras, TOPIC_FINDERS);
+    Topic found = this.searchSession.findPrev(this.mindMapPanel.getModel(),
+        projectBaseFolder, startTopic, pattern, inTopicText, extras, TOPIC_FINDERS);
     if (found == null && startTopic != null) {
-      found = this.mindMapPanel.getModel()
-          .findPrev(projectBaseFolder, null, pattern, inTopicText, extras, TOPIC_FINDERS);
+      found = this.searchSession.findPrev(this.mindMapPanel.getModel(),
+          projectBaseFolder, null, pattern, inTopicText, extras, TOPIC_FINDERS);
     }
 
     if (found != null) {
@@ -675,6 +677,7 @@ public final class MMDGraphEditor extends CloneableEditor
 
   @Override
   public void onMindMapModelChanged(final MindMapPanel source, final boolean saveToHistory) {
+    this.searchSession.invalidate();
     try {
       final StringWriter writer = new StringWriter(16384);
 
@@ -15,7 +15,7 @@
  */
 package com.igormaznitsa.nbmindmap.nb.swing;
 
-import static com.igormaznitsa.mindmap.ide.commons.Misc.string2pattern;
+import com.igormaznitsa.mindmap.ide.commons.SearchPatternCache;
 import com.igormaznitsa.nbmindmap.nb.editor.MMDGraphEditor;
 import java.awt.Component;
 import java.awt.Container;
@@ -42,6 +42,8 @@ public final class FindTextPanel extends javax.swing.JPanel implements FindTextS
 
   private final MMDGraphEditor baseEditor;
 
+  private final SearchPatternCache patternCache = new SearchPatternCache();
+
   public FindTextPanel(@Nonnull final MMDGraphEditor editor, @Nullable final String text) {
     initComponents();
     this.setVisible(false);
@@ -315,17 +317,22 @@ public final class FindTextPanel extends javax.swing.JPanel implements FindTextS
     }
   }//GEN-LAST:event_textFieldSearchTextKeyPressed
 
+  @Nonnull
+  private Pattern makePattern(@Nonnull final String text) {
+    return this.patternCache.get(text, this.toggleButtonCaseSensitive.isSelected());
+  }
+
   private void findNext() {
     final String text = this.textFieldSearchText.getText();
     if (!text.isEmpty()) {
-      this.baseEditor.findNext(string2pattern(text, this.toggleButtonCaseSensitive.isSelected() ? Pattern.UNICODE_CASE : (Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE)), this);
+      this.baseEditor.findNext(makePattern(text), this);
     }
   }
 
   private void findPrev() {
     final String text = this.textFieldSearchText.getText();
     if (!text.isEmpty()) {
-      this.baseEditor.findPrev(string2pattern(text, this.toggleButtonCaseSensitive.isSelected() ? Pattern.UNICODE_CASE : (Pattern.UNICODE_CASE | Pattern.CASE_INSENSITIVE)), this);
+      this.baseEditor.findPrev(makePattern(text), this);
     }
   }
 
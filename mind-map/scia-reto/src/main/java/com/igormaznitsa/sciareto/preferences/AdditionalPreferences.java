@@ -18,4 +18,8 @@ public interface AdditionalPreferences {
   String PROPERTY_BACKUP_LAST_EDIT_BEFORE_SAVE = "backup_last_edit_before_save";
 
   String PROPERTY_EXTENSIONS_TO_BE_OPENED_IN_SYSTEM = "extensions_open_in_system";
+
+  String PROPERTY_PROJECT_TEXT_INDEX = "project_text_index";
+
+  String PROPERTY_LAZY_PROJECT_LOADING = "lazy_project_loading";
 }
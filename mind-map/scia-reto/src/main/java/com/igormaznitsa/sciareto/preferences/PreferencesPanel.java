@@ -72,6 +72,8 @@ public final class PreferencesPanel extends AbstractPreferencesPanel
   private JCheckBox checkBoxUnfoldCollapsedTarget;
   private JCheckBox checkBoxCopyColorInfoToNewAllowed;
   private JCheckBox checkBoxKnowledgeFolderAutogenerationAllowed;
+  private JCheckBox checkBoxProjectTextIndex;
+  private JCheckBox checkBoxLazyProjectLoading;
   private JTextField textFieldGraphvizDotPath;
 
   private String systemFileExtensions;
@@ -145,6 +147,14 @@ public final class PreferencesPanel extends AbstractPreferencesPanel
     this.checkBoxKnowledgeFolderAutogenerationAllowed = uiComponentFactory.makeCheckBox();
     this.checkBoxKnowledgeFolderAutogenerationAllowed.setText(
         bundle.getString("PreferencesPanel.checkEnableAutocreationKnowledgeFolder"));
+
+    this.checkBoxProjectTextIndex = uiComponentFactory.makeCheckBox();
+    this.checkBoxProjectTextIndex.setText(
+        bundle.getString("PreferencesPanel.checkProjectTextIndex"));
+
+    this.checkBoxLazyProjectLoading = uiComponentFactory.makeCheckBox();
+    this.checkBoxLazyProjectLoading.setText(
+        bundle.getString("PreferencesPanel.checkLazyProjectLoading"));
   }
 
   @Nonnull
@@ -290,6 +300,8 @@ public final class PreferencesPanel extends AbstractPreferencesPanel
     components.add(this.checkBoxUnfoldCollapsedTarget);
     components.add(this.checkBoxCopyColorInfoToNewAllowed);
     components.add(this.checkBoxKnowledgeFolderAutogenerationAllowed);
+    components.add(this.checkBoxProjectTextIndex);
+    components.add(this.checkBoxLazyProjectLoading);
 
     return components;
   }
@@ -318,6 +330,10 @@ public final class PreferencesPanel extends AbstractPreferencesPanel
         this.checkBoxCopyColorInfoToNewAllowed.isSelected());
     config.setOptionalProperty(PROPERTY_KNOWLEDGE_FOLDER_ALLOWED,
         this.checkBoxKnowledgeFolderAutogenerationAllowed.isSelected());
+    config.setOptionalProperty(PROPERTY_PROJECT_TEXT_INDEX,
+        this.checkBoxProjectTextIndex.isSelected());
+    config.setOptionalProperty(PROPERTY_LAZY_PROJECT_LOADING,
+        this.checkBoxLazyProjectLoading.isSelected());
 
     config.setOptionalProperty(PROPERTY_EXTENSIONS_TO_BE_OPENED_IN_SYSTEM,
         this.systemFileExtensions);
@@ -361,6 +377,10 @@ public final class PreferencesPanel extends AbstractPreferencesPanel
         config.getOptionalProperty(PROPERTY_COPY_PARENT_COLORS_TO_NEW_CHILD, true));
     this.checkBoxKnowledgeFolderAutogenerationAllowed.setSelected(
         config.getOptionalProperty(PROPERTY_KNOWLEDGE_FOLDER_ALLOWED, false));
+    this.checkBoxProjectTextIndex.setSelected(
+        config.getOptionalProperty(PROPERTY_PROJECT_TEXT_INDEX, false));
+    this.checkBoxLazyProjectLoading.setSelected(
+        config.getOptionalProperty(PROPERTY_LAZY_PROJECT_LOADING, false));
 
     this.systemFileExtensions =
         config.getOptionalProperty(PROPERTY_EXTENSIONS_TO_BE_OPENED_IN_SYSTEM,
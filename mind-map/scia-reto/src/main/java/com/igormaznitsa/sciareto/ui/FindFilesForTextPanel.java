@@ -26,7 +26,10 @@ import com.igormaznitsa.mindmap.swing.panel.utils.Focuser;
 import com.igormaznitsa.sciareto.Context;
 import com.igormaznitsa.sciareto.ui.misc.FileExaminator;
 import com.igormaznitsa.sciareto.ui.misc.NodeListRenderer;
+import com.igormaznitsa.sciareto.ui.misc.ParallelFileSearch;
 import com.igormaznitsa.sciareto.ui.tree.NodeFileOrFolder;
+import com.igormaznitsa.sciareto.ui.tree.NodeProject;
+import com.igormaznitsa.sciareto.ui.tree.ProjectTextIndex;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import org.apache.commons.io.FilenameUtils;
@@ -45,6 +48,7 @@ import java.io.*;
 import java.nio.charset.Charset;
 import java.util.*;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Predicate;
 import java.util.regex.Pattern;
 import org.apache.commons.lang3.StringUtils;
 
@@ -234,13 +238,14 @@ public final class FindFilesForTextPanel extends javax.swing.JPanel {
         }
     }
 
-    private void addFileIntoList(@Nonnull final NodeFileOrFolder file) {
+    private void addFilesIntoList(@Nonnull @MustNotContainNull final List<NodeFileOrFolder> files) {
         SwingUtilities.invokeLater(() -> {
             final boolean first = foundFiles.isEmpty();
 
-            foundFiles.add(file);
+            final int start = foundFiles.size();
+            foundFiles.addAll(files);
             listListeners.forEach((l) -> {
-                l.intervalAdded(new ListDataEvent(listOfFoundElements, ListDataEvent.INTERVAL_ADDED, foundFiles.size() - 1, foundFiles.size() - 1));
+                l.intervalAdded(new ListDataEvent(listOfFoundElements, ListDataEvent.INTERVAL_ADDED, start, foundFiles.size() - 1));
             });
 
             if (first) {
@@ -249,111 +254,100 @@ public final class FindFilesForTextPanel extends javax.swing.JPanel {
         });
     }
 
-    private void startSearchThread(@Nonnull @MustNotContainNull final List<NodeFileOrFolder> scope, 
+    private static boolean isFileMatches(@Nonnull final NodeFileOrFolder file,
             final boolean findInFilenames,
-            @Nullable final Pattern searchPatternForMmd, 
-            @Nonnull final byte[] dataToFindVariant1, 
+            @Nullable final Pattern searchPatternForMmd,
+            @Nullable final Predicate<File> candidateFilter,
+            @Nonnull final byte[] fileOpBuffer,
+            @Nonnull final byte[] dataToFindVariant1,
             @Nonnull final byte[] dataToFindVariant2
     ) {
-        int size = 0;
-        size = scope.stream().map((p) -> p.size()).reduce(size, Integer::sum);
+        final File f = file.makeFileForNode();
 
-        final byte[] fileOpBuffer = new byte[1024 * 1024];
+        if (f == null) {
+            return false;
+        }
 
-        final Runnable runnable = new Runnable() {
-            int value = 0;
+        if (findInFilenames
+                && f.isFile()
+                && (searchPatternForMmd == null || searchPatternForMmd.matcher(f.getName()).find())) {
+            return true;
+        }
 
-            private void processFile(final NodeFileOrFolder file) {
-                value++;
-                final File f = file.makeFileForNode();
-                boolean alreadyProcessed = false;
+        if (candidateFilter != null && !candidateFilter.test(f)) {
+            return false;
+        }
 
-                if (f == null) {
-                    return;
-                }
+        if (searchPatternForMmd != null
+                && f.isFile() && f.length() > 0L
+                && "mmd".equalsIgnoreCase(FilenameUtils.getExtension(f.getName()))
+                ) {
+            MindMap mindMap;
+            try (Reader reader = new InputStreamReader(Files.newInputStream(f.toPath()), StandardCharsets.UTF_8)) {
+                mindMap = new MindMap(reader);
+            } catch (Exception ex) {
+                mindMap = null;
+            }
+            if (mindMap != null) {
+                return mindMap.findNext(f.getParentFile(), mindMap.getRoot(), searchPatternForMmd, true, SEARCH_SCOPE_FOR_MMD_FILE) != null;
+            }
+        }
 
-                if (findInFilenames
-                        && f.isFile() 
-                        && (searchPatternForMmd == null || searchPatternForMmd.matcher(f.getName()).find())) {
-                    alreadyProcessed = true;
-                    addFileIntoList(file);
-                }
-                
-                if (!alreadyProcessed 
-                        && searchPatternForMmd != null 
-                        && f.isFile() && f.length() > 0L 
-                        && "mmd".equalsIgnoreCase(FilenameUtils.getExtension(f.getName()))
-                        ) {
-                    MindMap mindMap;
-                    try (Reader reader = new InputStreamReader(Files.newInputStream(f.toPath()), StandardCharsets.UTF_8)) {
-                        mindMap = new MindMap(reader);
-                    } catch (Exception ex) {
-                        mindMap = null;
-                    }
-                    if (mindMap != null) {
-                        if (mindMap.findNext(f.getParentFile(), mindMap.getRoot(), searchPatternForMmd, true, SEARCH_SCOPE_FOR_MMD_FILE) != null) {
-                            addFileIntoList(file);
-                        }
-                        alreadyProcessed = true;
-                    }
-                }
+        try {
+            return new FileExaminator(f).doesContainData(fileOpBuffer, dataToFindVariant1, dataToFindVariant2);
+        } catch (Exception ex) {
+            LOGGER.error("Error during text search in '" + f + '\'', ex);
+            return false;
+        }
+    }
 
-                if (!alreadyProcessed) {
-                    try {
-                        if (new FileExaminator(f).doesContainData(fileOpBuffer, dataToFindVariant1, dataToFindVariant2)) {
-                            addFileIntoList(file);
-                        }
-                    } catch (Exception ex) {
-                        LOGGER.error("Error during text search in '" + f + '\'', ex);
-                    }
-                }
+    private void startSearchThread(@Nonnull @MustNotContainNull final List<NodeFileOrFolder> scope, 
+            final boolean findInFilenames,
+            @Nullable final Pattern searchPatternForMmd, 
+            @Nullable final Predicate<File> candidateFilter,
+            @Nonnull final byte[] dataToFindVariant1, 
+            @Nonnull final byte[] dataToFindVariant2
+    ) {
+        int size = 0;
+        size = scope.stream().map((p) -> p.size()).reduce(size, Integer::sum);
 
-                if (!Thread.currentThread().isInterrupted()) {
-                    safeSetProgressValue(value);
-                }
+        final ThreadLocal<byte[]> fileOpBuffers = ThreadLocal.withInitial(() -> new byte[1024 * 1024]);
+
+        final ParallelFileSearch search = new ParallelFileSearch(
+                file -> isFileMatches(file, findInFilenames, searchPatternForMmd, candidateFilter, fileOpBuffers.get(), dataToFindVariant1, dataToFindVariant2),
+                new ParallelFileSearch.SearchListener() {
+            @Override
+            public void onStart(final int total) {
+                SwingUtilities.invokeLater(() -> progressBarSearch.setMaximum(total));
             }
 
-            private void processFolder(final NodeFileOrFolder folder) {
-                value++;
-                for (final NodeFileOrFolder f : folder) {
-                    if (f.isLeaf()) {
-                        processFile(f);
-                    } else {
-                        processFolder(f);
-                    }
-                }
-                if (!Thread.currentThread().isInterrupted()) {
-                    safeSetProgressValue(value);
-                }
+            @Override
+            public void onFound(@Nonnull @MustNotContainNull final List<NodeFileOrFolder> files) {
+                addFilesIntoList(files);
             }
 
             @Override
-            public void run() {
-                for (final NodeFileOrFolder p : scope) {
-                    for (final NodeFileOrFolder f : p) {
-                        if (Thread.currentThread().isInterrupted()) {
-                            return;
-                        }
-                        if (f.isLeaf()) {
-                            processFile(f);
-                        } else {
-                            processFolder(f);
-                        }
-                    }
-                }
-                safeSetProgressValue(Integer.MAX_VALUE);
-                SwingUtilities.invokeLater(() -> {
-                    buttonFind.setEnabled(true);
-                    fieldText.setEnabled(true);
-                    comboCharsets.setEnabled(true);
-                    comboLocale.setEnabled(true);
-                    if (foundFiles.isEmpty()) {
-                        fieldText.requestFocus();
-                    } else {
-                        listOfFoundElements.requestFocus();
-                    }
-                });
+            public void onProgress(final int value) {
+                safeSetProgressValue(value);
             }
+        });
+
+        final Runnable runnable = () -> {
+            if (!search.search(scope)) {
+                return;
+            }
+            safeSetProgressValue(Integer.MAX_VALUE);
+            SwingUtilities.invokeLater(() -> {
+                buttonFind.setEnabled(true);
+                fieldText.setEnabled(true);
+                comboCharsets.setEnabled(true);
+                comboLocale.setEnabled(true);
+                if (foundFiles.isEmpty()) {
+                    fieldText.requestFocus();
+                } else {
+                    listOfFoundElements.requestFocus();
+                }
+            });
         };
 
         final Thread thread = new Thread(runnable, "SciaRetoSearchUsage"); //NOI18N
@@ -527,7 +521,13 @@ public final class FindFilesForTextPanel extends javax.swing.JPanel {
           final Pattern pattern = Pattern.compile(Pattern.quote(textToSearch), Pattern.CASE_INSENSITIVE);
           final boolean findInFileNames = this.checkboxFindInFilenames.isSelected();
           LOGGER.info("Start find byte patterns: " + SystemUtils.toString(str1) + ", " + SystemUtils.toString(str2));
-          startSearchThread(folders, findInFileNames, pattern, str1, str2);
+          final NodeProject project = this.folder.findProject();
+          final ProjectTextIndex textIndex = project == null ? null : project.getTextIndex();
+          final Predicate<File> candidateFilter = textIndex == null ? null : textIndex.makeCandidateFilter(str1, str2, textToSearch);
+          if (candidateFilter != null) {
+              LOGGER.info("Project text index is used to select candidate files");
+          }
+          startSearchThread(folders, findInFileNames, pattern, candidateFilter, str1, str2);
       } catch (UnsupportedEncodingException ex) {
           JOptionPane.showMessageDialog(this, ex, "Error", JOptionPane.ERROR_MESSAGE);
       }
@@ -17,7 +17,7 @@
  */
 package com.igormaznitsa.sciareto.ui;
 
-import static com.igormaznitsa.mindmap.ide.commons.Misc.string2pattern;
+import com.igormaznitsa.mindmap.ide.commons.SearchPatternCache;
 import java.awt.Component;
 import java.awt.Container;
 import java.awt.Dimension;
@@ -36,6 +36,8 @@ public final class FindTextPanel extends javax.swing.JPanel implements FindTextS
   private static final long serialVersionUID = -2286996344502363552L;
 
   private final Context context;
+
+  private final SearchPatternCache patternCache = new SearchPatternCache();
   
   private static final int TEXT_FIELD_WIDTH = 300;
   
@@ -352,17 +354,22 @@ public final class FindTextPanel extends javax.swing.JPanel implements FindTextS
     }
   }//GEN-LAST:event_textFieldSearchTextKeyPressed
 
+  @Nonnull
+  private Pattern makePattern(@Nonnull final String text) {
+    return this.patternCache.get(text, this.toggleButtonCaseSensitive.isSelected());
+  }
+
   private void findNext(){
     final String text = this.textFieldSearchText.getText();
     if (!text.isEmpty()){
-      this.context.getFocusedTab().getProvider().findNext(string2pattern(text, this.toggleButtonCaseSensitive.isSelected() ? Pattern.UNICODE_CASE : (Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE)),this);
+      this.context.getFocusedTab().getProvider().findNext(makePattern(text),this);
     }
   }
   
   private void findPrev(){
     final String text = this.textFieldSearchText.getText();
     if (!text.isEmpty()) {
-      this.context.getFocusedTab().getProvider().findPrev(string2pattern(text,this.toggleButtonCaseSensitive.isSelected() ? Pattern.UNICODE_CASE : (Pattern.UNICODE_CASE | Pattern.CASE_INSENSITIVE)),this);
+      this.context.getFocusedTab().getProvider().findPrev(makePattern(text),this);
     }
   }
   
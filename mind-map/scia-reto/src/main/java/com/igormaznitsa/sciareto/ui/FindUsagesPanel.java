@@ -23,6 +23,7 @@ import com.igormaznitsa.mindmap.model.logger.Logger;
 import com.igormaznitsa.mindmap.model.logger.LoggerFactory;
 import com.igormaznitsa.sciareto.Context;
 import com.igormaznitsa.sciareto.ui.misc.NodeListRenderer;
+import com.igormaznitsa.sciareto.ui.misc.ParallelFileSearch;
 import com.igormaznitsa.sciareto.ui.tree.NodeFileOrFolder;
 import com.igormaznitsa.sciareto.ui.tree.NodeProject;
 import java.io.BufferedReader;
@@ -116,15 +117,16 @@ public class FindUsagesPanel extends javax.swing.JPanel {
     return this.listOfFoundElements.getSelectedValue();
   }
 
-  private void addFileIntoList(@Nonnull final NodeFileOrFolder file) {
+  private void addFilesIntoList(@Nonnull @MustNotContainNull final List<NodeFileOrFolder> files) {
     SwingUtilities.invokeLater(new Runnable() {
       @Override
       public void run() {
         final boolean first = foundFiles.isEmpty();
         
-        foundFiles.add(file);
+        final int start = foundFiles.size();
+        foundFiles.addAll(files);
         for (final ListDataListener l : listListeners) {
-          l.intervalAdded(new ListDataEvent(listOfFoundElements, ListDataEvent.INTERVAL_ADDED, foundFiles.size() - 1, foundFiles.size() - 1));
+          l.intervalAdded(new ListDataEvent(listOfFoundElements, ListDataEvent.INTERVAL_ADDED, start, foundFiles.size() - 1));
         }
         
         if (first){
@@ -135,6 +137,48 @@ public class FindUsagesPanel extends javax.swing.JPanel {
     });
   }
 
+  private boolean isFileUsesTarget(@Nonnull final NodeFileOrFolder file, @Nonnull final File nodeFileToSearch) {
+    final File f = file.makeFileForNode();
+    final NodeProject project = file.findProject();
+    if (f == null || project == null) {
+      return false;
+    }
+
+    final String extension = FilenameUtils.getExtension(f.getName()).toLowerCase(Locale.ENGLISH);
+    if ("mmd".equals(extension)) { //NOI18N
+      Reader reader = null;
+      try {
+        reader = new BufferedReader(new InputStreamReader(new FileInputStream(f), "UTF-8")); //NOI18N
+        final MindMap map = new MindMap(reader);
+        return !MapUtils.findTopicsRelatedToFile(project.getFolder(), nodeFileToSearch, map).isEmpty();
+      } catch (Exception ex) {
+        LOGGER.error("Can't parse map", ex); //NOI18N
+      } finally {
+        IOUtils.closeQuietly(reader);
+      }
+    } else if (this.findEverywhere) {
+      try {
+        final LineIterator lineIterator = org.apache.commons.io.FileUtils.lineIterator(f, "UTF-8"); //NOI18N
+        try {
+          while (lineIterator.hasNext()) {
+            if (Thread.currentThread().isInterrupted()) {
+              return false;
+            }
+            final String lineFromFile = lineIterator.nextLine();
+            if (lineFromFile.contains(this.fullNormalizedPath)) {
+              return true;
+            }
+          }
+        } finally {
+          LineIterator.closeQuietly(lineIterator);
+        }
+      } catch (Exception ex) {
+        LOGGER.error("Error during text search in file : " + f); //NOI18N
+      }
+    }
+    return false;
+  }
+
   private void startSearchThread(@Nonnull @MustNotContainNull final List<NodeProject> scope, @Nonnull final NodeFileOrFolder itemToFind) {
     int size = 0;
     for (final NodeProject p : scope) {
@@ -147,87 +191,31 @@ public class FindUsagesPanel extends javax.swing.JPanel {
       safeSetProgressValue(Integer.MAX_VALUE);
     } else {
 
-      final Runnable runnable = new Runnable() {
-
-        int value = 0;
-
-        private void processFile(final NodeFileOrFolder file) {
-          value++;
-
-          final File f = file.makeFileForNode();
-          final NodeProject project = file.findProject();
-          if (project != null) {
-            final String extension = FilenameUtils.getExtension(f.getName()).toLowerCase(Locale.ENGLISH);
-            if ("mmd".equals(extension)) { //NOI18N
-              Reader reader = null;
-              try {
-                reader = new BufferedReader(new InputStreamReader(new FileInputStream(f), "UTF-8")); //NOI18N
-                final MindMap map = new MindMap(reader);
-                if (!MapUtils.findTopicsRelatedToFile(project.getFolder(), nodeFileToSearch, map).isEmpty()) {
-                  addFileIntoList(file);
-                }
-              } catch (Exception ex) {
-                LOGGER.error("Can't parse map", ex); //NOI18N
-              } finally {
-                IOUtils.closeQuietly(reader);
-              }
-            } else if (findEverywhere){
-              try {
-                final LineIterator lineIterator = org.apache.commons.io.FileUtils.lineIterator(f, "UTF-8"); //NOI18N
-                try {
-                  while (lineIterator.hasNext()) {
-                    if (Thread.currentThread().isInterrupted()) {
-                      return;
-                    }
-                    final String lineFromFile = lineIterator.nextLine();
-                    if (lineFromFile.contains(fullNormalizedPath)) {
-                      addFileIntoList(file);
-                      break;
-                    }
-                  }
-                } finally {
-                  LineIterator.closeQuietly(lineIterator);
-                }
-              } catch (Exception ex) {
-                LOGGER.error("Error during text search in file : " + f); //NOI18N
-              }
+      final ParallelFileSearch search = new ParallelFileSearch(
+          file -> isFileUsesTarget(file, nodeFileToSearch),
+          new ParallelFileSearch.SearchListener() {
+            @Override
+            public void onStart(final int total) {
+              SwingUtilities.invokeLater(() -> progressBarSearch.setMaximum(total));
             }
-          }
 
-          if (!Thread.currentThread().isInterrupted()) {
-            safeSetProgressValue(value);
-          }
-        }
+            @Override
+            public void onFound(@Nonnull @MustNotContainNull final List<NodeFileOrFolder> files) {
+              addFilesIntoList(files);
+            }
 
-        private void processFolder(final NodeFileOrFolder folder) {
-          value++;
-          for (final NodeFileOrFolder f : folder) {
-            if (f.isLeaf()) {
-              processFile(f);
-            } else {
-              processFolder(f);
+            @Override
+            public void onProgress(final int value) {
+              safeSetProgressValue(value);
             }
-          }
-          if (!Thread.currentThread().isInterrupted()) {
-            safeSetProgressValue(value);
-          }
-        }
+          });
 
+      final Runnable runnable = new Runnable() {
         @Override
         public void run() {
-          for (final NodeProject p : scope) {
-            for (final NodeFileOrFolder f : p) {
-              if (Thread.currentThread().isInterrupted()) {
-                return;
-              }
-              if (f.isLeaf()) {
-                processFile(f);
-              } else {
-                processFolder(f);
-              }
-            }
+          if (search.search(scope)) {
+            safeSetProgressValue(Integer.MAX_VALUE);
           }
-          safeSetProgressValue(Integer.MAX_VALUE);
         }
       };
 
@@ -688,6 +688,13 @@ public final class MainFrame extends javax.swing.JFrame implements Context, Plat
   @Override
   public void notifyFileRenamed(@Nullable @MustNotContainNull final List<File> affectedFiles, @Nonnull final File oldFile, @Nonnull final File newFile) {
     this.tabPane.replaceFileLink(oldFile, newFile);
+    final NodeProject project = findProjectForFile(newFile);
+    if (project != null) {
+      project.notifyFileRenamed(oldFile, newFile);
+      if (affectedFiles != null) {
+        affectedFiles.forEach(project::notifyFileChanged);
+      }
+    }
     if (affectedFiles != null) {
       for (final TabTitle t : this.tabPane) {
         final File tabFile = t.getAssociatedFile();
@@ -1583,6 +1590,9 @@ public final class MainFrame extends javax.swing.JFrame implements Context, Plat
 
     LOGGER.info("Starting async loading of " + project.toString());
 
+    project.setTextIndexEnabled(this.mindMapPanelConfig.getOptionalProperty(AdditionalPreferences.PROPERTY_PROJECT_TEXT_INDEX, false));
+    project.setLazyLoading(this.mindMapPanelConfig.getOptionalProperty(AdditionalPreferences.PROPERTY_LAZY_PROJECT_LOADING, false));
+
     project.initLoading(Mono.just(project)
             .map(proj -> {
               SwingUtilities.invokeLater(() -> ProjectLoadingIconAnimationController.getInstance().registerLoadingProject(this.explorerTree.getProjectTree(), proj));
@@ -1657,6 +1667,12 @@ public final class MainFrame extends javax.swing.JFrame implements Context, Plat
       this.mindMapPanelConfig.loadFrom(PreferencesManager.getInstance().getPreferences());
       SystemFileExtensionManager.getInstance().setExtensionsAsCommaSeparatedString(this.mindMapPanelConfig.getOptionalProperty(AdditionalPreferences.PROPERTY_EXTENSIONS_TO_BE_OPENED_IN_SYSTEM,null));
       MetricsService.getInstance().refreshConfig();
+      if (this.explorerTree != null) {
+        final boolean textIndex = this.mindMapPanelConfig.getOptionalProperty(AdditionalPreferences.PROPERTY_PROJECT_TEXT_INDEX, false);
+        for (final NodeFileOrFolder p : this.explorerTree.getCurrentGroup()) {
+          ((NodeProject) p).setTextIndexEnabled(textIndex);
+        }
+      }
     } catch (Exception ex) {
       LOGGER.error("Can't refresh configuration for error", ex);
     }
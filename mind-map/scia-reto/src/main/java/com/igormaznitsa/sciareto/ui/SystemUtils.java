@@ -25,12 +25,16 @@ import com.igormaznitsa.mindmap.model.logger.Logger;
 import com.igormaznitsa.mindmap.model.logger.LoggerFactory;
 import java.util.Arrays;
 import java.util.Locale;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 public final class SystemUtils {
   
   private static final Logger LOGGER = LoggerFactory.getLogger(SystemUtils.class);
+  private static final AtomicInteger POOL_COUNTER = new AtomicInteger();
 
   private SystemUtils(){
   }
@@ -44,6 +48,25 @@ public final class SystemUtils {
     }
   }
   
+  /**
+   * Make work-stealing pool of daemon threads for one parallel job, the pool must be shut down by
+   * caller when the job is completed.
+   *
+   * @param name        prefix of thread names
+   * @param parallelism number of threads
+   * @return new pool
+   */
+  @Nonnull
+  public static ForkJoinPool makeDaemonForkJoinPool(@Nonnull final String name, final int parallelism) {
+    final int poolIndex = POOL_COUNTER.incrementAndGet();
+    return new ForkJoinPool(parallelism, pool -> {
+      final ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+      thread.setName(name + '-' + poolIndex + '-' + thread.getPoolIndex()); //NOI18N
+      thread.setDaemon(true);
+      return thread;
+    }, null, false);
+  }
+
   public static boolean isMac(){
     return org.apache.commons.lang3.SystemUtils.IS_OS_MAC;
   }
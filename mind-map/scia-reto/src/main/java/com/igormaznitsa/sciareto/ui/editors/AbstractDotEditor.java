@@ -18,19 +18,19 @@
 
 package com.igormaznitsa.sciareto.ui.editors;
 
-import com.igormaznitsa.meta.common.utils.IOUtils;
 import com.igormaznitsa.mindmap.model.logger.Logger;
 import com.igormaznitsa.mindmap.model.logger.LoggerFactory;
 import com.igormaznitsa.sciareto.Context;
 import com.igormaznitsa.sciareto.ui.SrI18n;
 import java.awt.image.BufferedImage;
 import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.Collections;
 import java.util.EnumSet;
 import java.util.Set;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.atomic.AtomicReference;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
@@ -38,7 +38,7 @@ import javax.imageio.ImageIO;
 import net.sourceforge.plantuml.dot.ExeState;
 import net.sourceforge.plantuml.dot.Graphviz;
 import net.sourceforge.plantuml.dot.GraphvizUtils;
-import net.sourceforge.plantuml.dot.ProcessState;
+import org.apache.commons.io.FileUtils;
 
 public abstract class AbstractDotEditor extends AbstractPlUmlEditor {
 
@@ -99,23 +99,56 @@ public abstract class AbstractDotEditor extends AbstractPlUmlEditor {
     return this.executeDot(text, format);
   }
 
+  /**
+   * Render script by Graphviz dot. The dot process is started directly so that it is destroyed if
+   * the calling thread is interrupted, for instance if rendering is cancelled for newer text.
+   *
+   * @param script script to be rendered
+   * @param type   output format of dot
+   * @return rendered content
+   * @throws CancellationException if thread is interrupted during rendering
+   */
   @Nonnull
   protected byte[] executeDot(@Nonnull final String script, @Nonnull final String type) {
     final Graphviz wizard = GraphvizUtils.create(null, script, type);
 
     final ExeState state = wizard.getExeState();
     if (state == ExeState.OK) {
-      final ByteArrayOutputStream bos = new ByteArrayOutputStream();
-      final ProcessState processState = wizard.createFile3(bos);
-      IOUtils.closeQuetly(bos);
-      final byte[] formedContent = bos.toByteArray();
-
-      if (processState.differs(ProcessState.TERMINATED_OK())) {
-        throw new IllegalStateException(String.format(SrI18n.getInstance().findBundle().getString("editorDot.cantRenderImage"),processState));
-      } else if (formedContent.length == 0) {
-        throw new IllegalArgumentException(SrI18n.getInstance().findBundle().getString("editorDot.cantRenderSyntaxError"));
-      } else {
-        return formedContent;
+      File scriptFile = null;
+      File resultFile = null;
+      Process process = null;
+      try {
+        scriptFile = File.createTempFile("sr-dot-script", ".dot"); //NOI18N
+        resultFile = File.createTempFile("sr-dot-result", "." + type); //NOI18N
+        FileUtils.writeStringToFile(scriptFile, script, StandardCharsets.UTF_8);
+
+        process = new ProcessBuilder(wizard.getDotExe().getAbsolutePath(), "-T" + type) //NOI18N
+            .redirectInput(scriptFile)
+            .redirectOutput(resultFile)
+            .redirectError(ProcessBuilder.Redirect.DISCARD)
+            .start();
+        final int exitCode = process.waitFor();
+        process = null;
+
+        final byte[] formedContent = FileUtils.readFileToByteArray(resultFile);
+        if (formedContent.length == 0) {
+          throw new IllegalArgumentException(SrI18n.getInstance().findBundle().getString("editorDot.cantRenderSyntaxError"));
+        } else if (exitCode != 0) {
+          throw new IllegalStateException(String.format(SrI18n.getInstance().findBundle().getString("editorDot.cantRenderImage"), "exit code " + exitCode));
+        } else {
+          return formedContent;
+        }
+      } catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
+        throw new CancellationException("Rendering of DOT script is interrupted");
+      } catch (IOException ex) {
+        throw new IllegalStateException(String.format(SrI18n.getInstance().findBundle().getString("editorDot.cantRenderImage"), ex.getMessage()), ex);
+      } finally {
+        if (process != null) {
+          process.destroyForcibly();
+        }
+        FileUtils.deleteQuietly(scriptFile);
+        FileUtils.deleteQuietly(resultFile);
       }
     } else {
       throw new IllegalStateException(String.format(SrI18n.getInstance().findBundle().getString("editorDot.cantRenderStatusNotOk"),state.getTextMessage()));
@@ -137,6 +170,8 @@ public abstract class AbstractDotEditor extends AbstractPlUmlEditor {
     try {
       final byte[] image = this.executeDot(text, "png");
       renderedImage.set(ImageIO.read(new ByteArrayInputStream(image)));
+    } catch (CancellationException ex) {
+      error.set(ex);
     } catch (Exception ex) {
       LOGGER.error("Can't render DOT script as PNG", ex);
       error.set(ex);
@@ -68,7 +68,6 @@ import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
-import java.lang.reflect.InvocationTargetException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.nio.charset.StandardCharsets;
@@ -76,13 +75,17 @@ import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.EnumSet;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Objects;
 import java.util.ResourceBundle;
 import java.util.Set;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -126,6 +129,8 @@ import org.fife.ui.rsyntaxtextarea.TokenMakerFactory;
 import org.fife.ui.rtextarea.RTextScrollPane;
 import reactor.core.Disposable;
 import reactor.core.publisher.DirectProcessor;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
 
 public abstract class AbstractPlUmlEditor extends AbstractTextEditor {
 
@@ -136,6 +141,13 @@ public abstract class AbstractPlUmlEditor extends AbstractTextEditor {
       Pattern.compile("^\\s*newpage($|\\s.*$)", Pattern.MULTILINE);
 
   private static final int DELAY_AUTOREFRESH_SECONDS = 5;
+  private static final String RENDER_FORMAT = "png";
+  private static final long RENDER_DELAY_MS = 250L;
+  private static final int PRERENDER_ALL_PAGES_LIMIT = 16;
+  private static final int PRERENDER_PAGE_DISTANCE = 2;
+  private static final Scheduler PRERENDER_SCHEDULER = Schedulers
+      .newBoundedElastic(Math.max(1, Runtime.getRuntime().availableProcessors() / 2), 256,
+          "sr-plantuml-prerender", 15, true);
   private static final Set<ExportType> DEFAULT_EXPORT_TYPES =
       Collections.unmodifiableSet(EnumSet.allOf(ExportType.class));
   protected final ScalableRsyntaxTextArea editor;
@@ -159,6 +171,14 @@ public abstract class AbstractPlUmlEditor extends AbstractTextEditor {
   private File lastExportedFile = null;
   private boolean ignoreChange;
   private int pageNumberToRender = 0;
+  private final AtomicLong renderGeneration = new AtomicLong();
+  private final AtomicInteger renderDividerLocation = new AtomicInteger();
+  private Disposable renderTask;
+  private PropertyChangeListener renderDividerListener;
+  private final AtomicLong prerenderGeneration = new AtomicLong();
+  private final List<Disposable> prerenderTasks = new ArrayList<>();
+  private final Set<Integer> prerenderPages = new HashSet<>();
+  private PlantUmlRenderCache.ScriptKey prerenderScript;
 
   public AbstractPlUmlEditor(@Nonnull final Context context, @Nonnull File file)
       throws IOException {
@@ -247,7 +267,7 @@ public abstract class AbstractPlUmlEditor extends AbstractTextEditor {
     buttonRefresh.setToolTipText(
         this.bundle.getString("editorAbstractPlUml.buttonRefresh.tooltip"));
     buttonRefresh.addActionListener((ActionEvent e) -> {
-      startRenderScript();
+      startRenderScript(true);
     });
 
     final JButton buttonEditScript = new JButton(loadMenuIcon("edit_script")) {
@@ -697,6 +717,9 @@ public abstract class AbstractPlUmlEditor extends AbstractTextEditor {
   protected void doDispose() {
     eventProcessor.onComplete();
     eventChain.dispose();
+    this.cancelRenderingTask();
+    this.cancelPrerendering();
+    BigLoaderIconAnimationConroller.getInstance().unregisterLabel(this.progressLabel);
   }
 
   protected int countNewPages(@Nonnull final String text) {
@@ -999,6 +1022,9 @@ public abstract class AbstractPlUmlEditor extends AbstractTextEditor {
 
   @Override
   public void doUpdateConfiguration() {
+    // pages pre-rendered with old configuration must not get into cleared cache
+    this.cancelPrerendering();
+    PlantUmlRenderCache.getInstance().clear();
     initPlantUml();
     updateGraphvizLabelVisibility();
     this.imageComponent.updateConfig(this.mindMapPanelConfig);
@@ -1115,128 +1141,342 @@ public abstract class AbstractPlUmlEditor extends AbstractTextEditor {
   }
 
   protected final void startRenderScript() {
+    this.startRenderScript(false);
+  }
+
+  private void removeErrorLabel() {
+    for (final Component c : this.renderedPanel.getComponents()) {
+      if ("ERROR_LABEL".equals(c.getName())) {
+        this.renderedPanel.remove(c);
+        break;
+      }
+    }
+  }
+
+  @UiThread
+  private void showRenderedImage(@Nonnull final LastRendered renderedText,
+                                 @Nonnull final BufferedImage image) {
+    this.lastSuccessfullyRenderedText = renderedText;
+    this.imageComponent.setImage(image, false);
+    this.showRenderedView();
+  }
+
+  @UiThread
+  private void showRenderedView() {
+    this.renderedScrollPane.revalidate();
+    this.renderedPanel.remove(this.progressLabel);
+    this.removeErrorLabel();
+    this.renderedPanel.add(this.renderedScrollPane, BorderLayout.CENTER);
+    this.setMenuItemsEnable(true);
+    this.renderedPanel.revalidate();
+    this.renderedPanel.repaint();
+  }
+
+  private static int findPageIndex(final int page, final int totalPages) {
+    return Math.max(1, Math.min(page, totalPages));
+  }
+
+  private void startRenderScript(final boolean force) {
     try {
       final String editorText = this.editor.getText();
       final String theText = this.preprocessEditorText(editorText);
 
       final boolean customRendering = this.isCustomRendering();
+      final PlantUmlRenderCache renderCache = PlantUmlRenderCache.getInstance();
+      final PlantUmlRenderCache.ScriptKey scriptKey =
+          PlantUmlRenderCache.makeKey(this.getClass().getName(), theText);
+      if (force) {
+        renderCache.remove(scriptKey);
+      }
+      if (force || !scriptKey.equals(this.prerenderScript)) {
+        this.cancelPrerendering();
+      }
 
-      final SourceStringReader reader;
-      final int totalPages;
-      final int imageIndex;
+      final Integer cachedPages = renderCache.findPageCount(scriptKey);
+      final int requestedPage = cachedPages == null ? this.pageNumberToRender
+          : findPageIndex(this.pageNumberToRender, cachedPages);
+      final LastRendered requestedText = new LastRendered(requestedPage, editorText);
 
-      if (customRendering) {
-        reader = null;
-        totalPages = countNewPages(theText);
-      } else {
-        reader = new SourceStringReader(theText, "UTF-8");
-        totalPages = Math.max(countNewPages(theText), reader.getBlocks().size());
+      if (!force && requestedText.equals(this.lastSuccessfullyRenderedText)) {
+        if (this.cancelRenderingTask()) {
+          this.finishRenderingUi();
+          this.showRenderedView();
+        }
+        return;
+      }
+
+      if (cachedPages != null) {
+        final BufferedImage cachedImage =
+            renderCache.findImage(scriptKey, requestedPage - 1, RENDER_FORMAT);
+        if (cachedImage != null) {
+          if (this.cancelRenderingTask()) {
+            this.finishRenderingUi();
+          }
+          if (this.labelPageNumber != null) {
+            updatePageNumberInfo(requestedPage, cachedPages);
+          }
+          this.showRenderedImage(requestedText, cachedImage);
+          this.schedulePrerendering(scriptKey, editorText, theText, customRendering,
+              requestedPage, cachedPages);
+          return;
+        }
+      }
+
+      final boolean renderingInProgress = this.cancelRenderingTask();
+      final long generation = this.renderGeneration.get();
+      if (!renderingInProgress) {
+        this.startRenderingUi();
       }
-      imageIndex = Math.max(1, Math.min(this.pageNumberToRender, totalPages));
 
-      if (imageIndex != this.pageNumberToRender) {
-        this.pageNumberToRender = imageIndex;
+      // new request during the delay cancels the task so that only the last text is rendered
+      this.renderTask = MainFrame.REACTOR_SCHEDULER.schedule(
+          () -> this.renderPage(generation, scriptKey, editorText, theText, customRendering,
+              requestedPage, cachedPages), RENDER_DELAY_MS, TimeUnit.MILLISECONDS);
+    } catch (final Exception ex) {
+      logger.error("Error of script rendering:" + ex);
+      if (this.cancelRenderingTask()) {
+        this.finishRenderingUi();
       }
+      this.showRenderError(ex.getMessage());
+    }
+  }
+
+  @UiThread
+  private boolean cancelRenderingTask() {
+    this.renderGeneration.incrementAndGet();
+    final Disposable task = this.renderTask;
+    this.renderTask = null;
+    if (task != null) {
+      task.dispose();
+    }
+    return task != null;
+  }
+
+  @UiThread
+  private void startRenderingUi() {
+    this.renderDividerLocation.set(Math.max(0, this.mainPanel.getDividerLocation()));
+    this.renderDividerListener =
+        evt -> this.renderDividerLocation.set(Math.max(0, this.mainPanel.getDividerLocation()));
+    this.mainPanel.addPropertyChangeListener(JSplitPane.DIVIDER_LOCATION_PROPERTY,
+        this.renderDividerListener);
+    BigLoaderIconAnimationConroller.getInstance().registerLabel(this.progressLabel);
+
+    this.setMenuItemsEnable(false);
+    this.renderedPanel.remove(this.renderedScrollPane);
+    this.removeErrorLabel();
+    this.renderedPanel.add(this.progressLabel, BorderLayout.CENTER);
+    this.renderedPanel.revalidate();
+    this.renderedPanel.repaint();
+    this.mainPanel.setDividerLocation(this.renderDividerLocation.get());
+  }
+
+  @UiThread
+  private void finishRenderingUi() {
+    BigLoaderIconAnimationConroller.getInstance().unregisterLabel(this.progressLabel);
+    if (this.renderDividerListener != null) {
+      this.mainPanel.removePropertyChangeListener(JSplitPane.DIVIDER_LOCATION_PROPERTY,
+          this.renderDividerListener);
+      this.renderDividerListener = null;
+      this.mainPanel.setDividerLocation(this.renderDividerLocation.get());
+    }
+  }
+
+  private boolean isRenderingCancelled(final long generation) {
+    return generation != this.renderGeneration.get() || Thread.currentThread().isInterrupted();
+  }
 
-      final LastRendered currentText = new LastRendered(imageIndex, editorText);
+  private void renderPage(
+      final long generation,
+      @Nonnull final PlantUmlRenderCache.ScriptKey scriptKey,
+      @Nonnull final String editorText,
+      @Nonnull final String theText,
+      final boolean customRendering,
+      final int requestedPage,
+      @Nullable final Integer cachedPages
+  ) {
+    if (this.isRenderingCancelled(generation)) {
+      return;
+    }
+    final PlantUmlRenderCache renderCache = PlantUmlRenderCache.getInstance();
+    final AtomicReference<Exception> detectedError = new AtomicReference<>();
+    final AtomicReference<BufferedImage> generatedImage = new AtomicReference<>();
 
-      if (!currentText.equals(this.lastSuccessfullyRenderedText)) {
-        if (this.labelPageNumber != null) {
-          updatePageNumberInfo(currentText.page, totalPages);
+    SourceStringReader reader = null;
+    int totalPages = 1;
+    int imageIndex = 1;
+    try {
+      if (cachedPages == null) {
+        if (customRendering) {
+          totalPages = countNewPages(theText);
+        } else {
+          reader = new SourceStringReader(theText, "UTF-8");
+          totalPages = Math.max(countNewPages(theText), reader.getBlocks().size());
+        }
+        renderCache.putPageCount(scriptKey, totalPages);
+      } else {
+        totalPages = cachedPages;
+      }
+      imageIndex = findPageIndex(requestedPage, totalPages);
+
+      final BufferedImage cachedImage =
+          renderCache.findImage(scriptKey, imageIndex - 1, RENDER_FORMAT);
+      if (cachedImage != null) {
+        generatedImage.set(cachedImage);
+      } else if (this.isRenderingCancelled(generation)) {
+        return;
+      } else if (customRendering) {
+        this.doCustomRendering(editorText, imageIndex - 1, generatedImage, detectedError);
+      } else {
+        if (reader == null) {
+          reader = new SourceStringReader(theText, "UTF-8");
         }
+        final ByteArrayOutputStream buffer = new ByteArrayOutputStream(131072);
+        reader.outputImage(buffer, imageIndex - 1,
+            new FileFormatOption(FileFormat.PNG, false));
+        generatedImage.set(ImageIO.read(new ByteArrayInputStream(buffer.toByteArray())));
+      }
+    } catch (Exception ex) {
+      detectedError.set(ex);
+    }
 
-        final AtomicInteger dividerLocation =
-            new AtomicInteger(Math.max(0, this.mainPanel.getDividerLocation()));
-        final PropertyChangeListener dividerListener =
-            evt -> dividerLocation.set(Math.max(0, mainPanel.getDividerLocation()));
+    if (this.isRenderingCancelled(generation)) {
+      return;
+    }
+
+    final BufferedImage image = generatedImage.get();
+    if (detectedError.get() == null && image == null) {
+      detectedError.set(new IOException("Can't decode rendered image"));
+    }
+    if (detectedError.get() == null) {
+      renderCache.putImage(scriptKey, imageIndex - 1, RENDER_FORMAT, image);
+    }
+
+    final LastRendered renderedText = new LastRendered(imageIndex, editorText);
+    final int pages = totalPages;
+    SwingUtilities.invokeLater(() -> {
+      if (generation != this.renderGeneration.get()) {
+        // newer rendering has been requested
+        return;
+      }
+      this.renderTask = null;
+      this.finishRenderingUi();
 
-        this.mainPanel
-            .addPropertyChangeListener(JSplitPane.DIVIDER_LOCATION_PROPERTY, dividerListener);
+      if (this.labelPageNumber != null) {
+        updatePageNumberInfo(renderedText.page, pages);
+      }
+
+      final Exception error = detectedError.get();
+      if (error == null) {
+        this.showRenderedImage(renderedText, image);
+        this.schedulePrerendering(scriptKey, editorText, theText, customRendering,
+            renderedText.page, pages);
+      } else {
+        this.showRenderError(error.getMessage());
+      }
+    });
+  }
 
-        MainFrame.REACTOR_SCHEDULER.schedule(() -> {
-          BigLoaderIconAnimationConroller.getInstance().registerLabel(progressLabel);
+  @UiThread
+  private void cancelPrerendering() {
+    this.prerenderGeneration.incrementAndGet();
+    this.prerenderTasks.forEach(Disposable::dispose);
+    this.prerenderTasks.clear();
+    this.prerenderPages.clear();
+    this.prerenderScript = null;
+  }
+
+  /**
+   * Start background rendering of pages around shown page so that page switching takes rendered
+   * pages from cache. All pages are rendered for short documents.
+   */
+  @UiThread
+  private void schedulePrerendering(
+      @Nonnull final PlantUmlRenderCache.ScriptKey scriptKey,
+      @Nonnull final String editorText,
+      @Nonnull final String theText,
+      final boolean customRendering,
+      final int page,
+      final int totalPages
+  ) {
+    if (totalPages < 2 || this.isDisposed()) {
+      return;
+    }
+    if (!scriptKey.equals(this.prerenderScript)) {
+      this.cancelPrerendering();
+      this.prerenderScript = scriptKey;
+    }
+    this.prerenderTasks.removeIf(Disposable::isDisposed);
+
+    final long generation = this.prerenderGeneration.get();
+    final PlantUmlRenderCache renderCache = PlantUmlRenderCache.getInstance();
+    final int distance =
+        totalPages <= PRERENDER_ALL_PAGES_LIMIT ? totalPages : PRERENDER_PAGE_DISTANCE;
+    for (int d = 1; d <= distance; d++) {
+      for (final int p : new int[] {page + d, page - d}) {
+        if (p >= 1 && p <= totalPages && !this.prerenderPages.contains(p)
+            && renderCache.findImage(scriptKey, p - 1, RENDER_FORMAT) == null) {
           try {
-            try {
-              SwingUtilities.invokeAndWait(() -> {
-                setMenuItemsEnable(false);
-                renderedPanel.remove(renderedScrollPane);
-                for (final Component c : renderedPanel.getComponents()) {
-                  if ("ERROR_LABEL".equals(c.getName())) {
-                    renderedPanel.remove(c);
-                    break;
-                  }
-                }
-                renderedPanel.add(progressLabel, BorderLayout.CENTER);
-                mainPanel.setDividerLocation(dividerLocation.get());
-              });
-            } catch (InterruptedException ex) {
-              Thread.currentThread().interrupt();
-              return;
-            } catch (InvocationTargetException ex) {
-              throw new RuntimeException(ex);
-            }
-
-            final AtomicReference<Exception> detectedError = new AtomicReference<>();
-            final AtomicReference<BufferedImage> generatedImage = new AtomicReference<>();
-
-            if (customRendering) {
-              this.doCustomRendering(currentText.editorText, imageIndex - 1, generatedImage,
-                  detectedError);
-            } else {
-              final ByteArrayOutputStream buffer = new ByteArrayOutputStream(131072);
-              try {
-                final DiagramDescription description = reader.outputImage(buffer, imageIndex - 1,
-                    new FileFormatOption(FileFormat.PNG, false));
-                generatedImage.set(ImageIO.read(new ByteArrayInputStream(buffer.toByteArray())));
-              } catch (Exception ex) {
-                detectedError.set(ex);
-              }
-            }
-
-            SwingUtilities.invokeLater(() -> {
-              mainPanel.removePropertyChangeListener(dividerListener);
-
-              final Exception error = detectedError.get();
-              if (error == null) {
-                lastSuccessfullyRenderedText = currentText;
-                imageComponent.setImage(generatedImage.get(), false);
-                renderedScrollPane.revalidate();
-                renderedPanel.remove(progressLabel);
-                renderedPanel.add(renderedScrollPane, BorderLayout.CENTER);
-                setMenuItemsEnable(true);
-              } else {
-                final JLabel errorLabel = new JLabel(
-                    "<html><h1>ERROR: " + escapeHtml3(error.getMessage()) + "</h1></html>",
-                    JLabel.CENTER);
-                errorLabel.setName("ERROR_LABEL");
-                renderedPanel.remove(progressLabel);
-                renderedPanel.add(errorLabel, BorderLayout.CENTER);
-              }
-
-              mainPanel.setDividerLocation(dividerLocation.get());
-            });
-
-          } finally {
-            this.lastSuccessfullyRenderedText = null;
-            BigLoaderIconAnimationConroller.getInstance().unregisterLabel(progressLabel);
+            this.prerenderTasks.add(PRERENDER_SCHEDULER.schedule(
+                () -> this.prerenderPage(generation, scriptKey, editorText, theText,
+                    customRendering, p)));
+            this.prerenderPages.add(p);
+          } catch (RejectedExecutionException ex) {
+            // queue of the pool is full, pages will be rendered on request
+            return;
           }
-        });
+        }
       }
-    } catch (final Exception ex) {
-      logger.error("Error of script rendering:" + ex);
-      SwingUtilities.invokeLater(() -> {
-        final JLabel errorLabel =
-            new JLabel("<html><h1>ERROR: " + escapeHtml3(ex.getMessage()) + "</h1></html>",
-                JLabel.CENTER);
-        errorLabel.setName("ERROR_LABEL");
-        renderedPanel.remove(progressLabel);
-        renderedPanel.add(errorLabel, BorderLayout.CENTER);
-        renderedPanel.revalidate();
-        renderedPanel.repaint();
-      });
     }
   }
 
+  private void prerenderPage(
+      final long generation,
+      @Nonnull final PlantUmlRenderCache.ScriptKey scriptKey,
+      @Nonnull final String editorText,
+      @Nonnull final String theText,
+      final boolean customRendering,
+      final int page
+  ) {
+    final PlantUmlRenderCache renderCache = PlantUmlRenderCache.getInstance();
+    if (generation != this.prerenderGeneration.get()
+        || renderCache.findImage(scriptKey, page - 1, RENDER_FORMAT) != null) {
+      return;
+    }
+    try {
+      final BufferedImage image;
+      if (customRendering) {
+        final AtomicReference<BufferedImage> renderedImage = new AtomicReference<>();
+        final AtomicReference<Exception> error = new AtomicReference<>();
+        this.doCustomRendering(editorText, page - 1, renderedImage, error);
+        image = error.get() == null ? renderedImage.get() : null;
+      } else {
+        final ByteArrayOutputStream buffer = new ByteArrayOutputStream(131072);
+        new SourceStringReader(theText, "UTF-8")
+            .outputImage(buffer, page - 1, new FileFormatOption(FileFormat.PNG, false));
+        image = ImageIO.read(new ByteArrayInputStream(buffer.toByteArray()));
+      }
+      if (image != null && generation == this.prerenderGeneration.get()) {
+        renderCache.putImage(scriptKey, page - 1, RENDER_FORMAT, image);
+      }
+    } catch (Exception ex) {
+      logger.warn("Can't pre-render page " + page + ": " + ex.getMessage());
+    }
+  }
+
+  @UiThread
+  private void showRenderError(@Nullable final String message) {
+    final JLabel errorLabel =
+        new JLabel("<html><h1>ERROR: " + escapeHtml3(message) + "</h1></html>",
+            JLabel.CENTER);
+    errorLabel.setName("ERROR_LABEL");
+    this.renderedPanel.remove(this.progressLabel);
+    this.renderedPanel.remove(this.renderedScrollPane);
+    this.removeErrorLabel();
+    this.renderedPanel.add(errorLabel, BorderLayout.CENTER);
+    this.renderedPanel.revalidate();
+    this.renderedPanel.repaint();
+  }
+
   @Nullable
   @UiThread
   private String renderPageAsAscII() {
@@ -0,0 +1,116 @@
+/*
+ * Copyright (C) 2015-2022 Igor A. Maznitsa
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package com.igormaznitsa.sciareto.ui.editors;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+import javax.annotation.Nonnull;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.UndoableEditEvent;
+import javax.swing.undo.UndoableEdit;
+import org.fife.ui.rtextarea.RTextArea;
+import org.fife.ui.rtextarea.RUndoManager;
+
+/**
+ * Undo manager of text editor which is limited by approximate size of changed text instead of
+ * number of edits. Document edits keep only inserted and removed text so that hundreds of steps
+ * of big documents take small memory, the oldest edits are dropped when the budget is exceeded.
+ *
+ * @since 1.6.4
+ */
+public class BudgetUndoManager extends RUndoManager {
+
+  public static final int DEFAULT_MAX_EDITS = 10000;
+  public static final long DEFAULT_MAX_BYTES = 8L * 1024L * 1024L;
+
+  private static final long EDIT_SIZE = 64L;
+
+  private final long maxBytes;
+  private final Map<UndoableEdit, Long> editSizes = new IdentityHashMap<>();
+  private long bytes;
+
+  public BudgetUndoManager(@Nonnull final RTextArea textArea) {
+    this(textArea, DEFAULT_MAX_EDITS, DEFAULT_MAX_BYTES);
+  }
+
+  public BudgetUndoManager(@Nonnull final RTextArea textArea, final int maxEdits,
+                           final long maxBytes) {
+    super(textArea);
+    this.maxBytes = maxBytes;
+    this.setLimit(maxEdits);
+  }
+
+  private static long estimateSize(@Nonnull final UndoableEdit edit) {
+    return edit instanceof DocumentEvent ? EDIT_SIZE + ((DocumentEvent) edit).getLength() * 2L
+        : EDIT_SIZE;
+  }
+
+  @Override
+  public void undoableEditHappened(@Nonnull final UndoableEditEvent e) {
+    super.undoableEditHappened(e);
+    this.registerEdit(e.getEdit());
+  }
+
+  /**
+   * Take into account size of edit which has been just added into the manager, directly or as a
+   * part of the last compound edit.
+   *
+   * @param edit added edit
+   */
+  protected synchronized void registerEdit(@Nonnull final UndoableEdit edit) {
+    final UndoableEdit last = this.lastEdit();
+    if (last == null) {
+      return;
+    }
+    final long size = estimateSize(edit);
+    this.editSizes.merge(last, size, Long::sum);
+    this.bytes += size;
+    // new edit has just removed all redo edits so the first edit is always an undo one
+    while (this.bytes > this.maxBytes && this.edits.size() > 1) {
+      this.trimEdits(0, 0);
+    }
+  }
+
+  /**
+   * Get approximate size of text kept by edits.
+   *
+   * @return size in bytes
+   */
+  public synchronized long getSizeEstimation() {
+    return this.bytes;
+  }
+
+  @Override
+  protected void trimEdits(final int from, final int to) {
+    for (int i = from; i <= to; i++) {
+      final Long size = this.editSizes.remove(this.edits.elementAt(i));
+      if (size != null) {
+        this.bytes -= size;
+      }
+    }
+    super.trimEdits(from, to);
+  }
+
+  @Override
+  public synchronized void discardAllEdits() {
+    this.editSizes.clear();
+    this.bytes = 0L;
+    super.discardAllEdits();
+  }
+}
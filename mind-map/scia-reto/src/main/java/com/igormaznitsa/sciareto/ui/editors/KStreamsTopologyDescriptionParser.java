@@ -21,12 +21,14 @@ package com.igormaznitsa.sciareto.ui.editors;
 import com.igormaznitsa.meta.annotation.MustNotContainNull;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
-import java.util.Objects;
 import java.util.Optional;
 import java.util.Properties;
+import java.util.Set;
 import java.util.TreeMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -48,95 +50,122 @@ public class KStreamsTopologyDescriptionParser {
   private static final String PROPERTIES_PREFIX = "//properties ";
   private final List<Topologies> topologies = new ArrayList<>();
   private final Properties properties = new Properties();
+  private final Map<String, Block> blocks = new HashMap<>();
+  private int parsedBlocks;
 
   public KStreamsTopologyDescriptionParser(@Nonnull final String script) {
-    final List<ParsedItem> foundItems = new ArrayList<>();
-    for (final String s : script.split("\\n")) {
-      String lineText = s.trim();
-
-      if (lineText.startsWith(PROPERTIES_PREFIX)) {
-        final String propertiesStr = lineText.substring(PROPERTIES_PREFIX.length()).trim();
-        for (final String p : propertiesStr.split("\\;")) {
-          final String[] parsed = p.split("\\=");
-          if (parsed.length == 2) {
-            this.properties.setProperty(parsed[0].trim(), parsed[1].trim());
-          }
-        }
-        lineText = "";
-      }
-
-      if ("topology".equalsIgnoreCase(lineText) || "topology:".equalsIgnoreCase(lineText)) {
-        lineText = "Topologies:";
-      }
-      if ("sub-topologies:".equalsIgnoreCase(lineText)) {
-        lineText = "";
-      }
+    this(script, null);
+  }
 
-      if (lineText.isEmpty() || NONE.equalsIgnoreCase(lineText)) {
-        continue;
+  /**
+   * Parse script with reuse of result of previous parsing. The script is split into blocks started
+   * by topology and sub-topology headers, only blocks which text is not found among blocks of the
+   * previous parser are parsed, elements of other blocks are made from already parsed items. Links
+   * between elements are made for whole script.
+   *
+   * @param script   script to be parsed
+   * @param previous result of previous parsing of the same document, can be null
+   * @since 1.6.4
+   */
+  public KStreamsTopologyDescriptionParser(@Nonnull final String script,
+                                           @Nullable final KStreamsTopologyDescriptionParser previous) {
+    final List<Block> foundBlocks = new ArrayList<>();
+    for (final String blockText : splitBlocks(script)) {
+      Block block = previous == null ? null : previous.blocks.get(blockText);
+      if (block == null) {
+        block = new Block(blockText);
+        this.parsedBlocks++;
       }
-      final Matcher matcher = MAIN_PATTERN.matcher(lineText);
-      if (matcher.find()) {
-        final String srcDst = matcher.group(1);
-        final String itemName = matcher.group(2);
-        final String tail = matcher.group(3);
-
-        if (srcDst != null) {
-          if (foundItems.isEmpty()) {
-            throw new IllegalArgumentException(String.format("Found '%s' without element", srcDst));
-          } else {
-            final List<String> identifiers = Arrays.stream(tail.split(","))
-                .map(String::trim)
-                .filter(x -> !x.isEmpty())
-                .collect(Collectors.toList());
+      this.blocks.put(blockText, block);
+      foundBlocks.add(block);
+    }
 
-            if (srcDst.endsWith(">")) {
-              foundItems.get(foundItems.size() - 1).to.addAll(identifiers);
-            } else {
-              foundItems.get(foundItems.size() - 1).from.addAll(identifiers);
-            }
+    final Map<String, TopologyElement> topologyElementMaps = new HashMap<>();
+    for (final Block block : foundBlocks) {
+      block.properties.forEach(p -> this.properties.setProperty(p[0], p[1]));
+      for (final ParsedItem i : block.items) {
+        final String lcName = i.name.toLowerCase(Locale.ENGLISH);
+        if ("topologies".equals(lcName)) {
+          this.topologies.add(new Topologies(i.tail));
+        } else if (isSubTopology(lcName)) {
+          if (this.topologies.isEmpty()) {
+            this.topologies.add(new Topologies(null));
           }
+          final Topologies curTop = this.topologies.get(this.topologies.size() - 1);
+          curTop.subTopologies.add(new SubTopology(i, block.text));
         } else {
-          foundItems.add(new ParsedItem(lineText, itemName, tail));
+          if (this.topologies.isEmpty()) {
+            this.topologies.add(new Topologies(null));
+          }
+          final TopologyElement newElement = new TopologyElement(i);
+          final Topologies curTop = this.topologies.get(this.topologies.size() - 1);
+          if (curTop.subTopologies.isEmpty()) {
+            curTop.orphans.add(newElement);
+          } else {
+            curTop.subTopologies.get(curTop.subTopologies.size() - 1).children
+                .put(newElement.id, newElement);
+          }
+          topologyElementMaps.put(newElement.id, newElement);
         }
-      } else {
-        throw new IllegalArgumentException("Can't parse line: " + lineText);
       }
     }
-    final Map<String, TopologyElement> topologyElementMaps = new TreeMap<>();
-    foundItems.stream().map(i -> {
-      final String lcName = i.name.toLowerCase(Locale.ENGLISH);
-      final TopologyElement newElement;
-      if ("topologies".equals(lcName)) {
-        this.topologies.add(new Topologies(i.tail));
-        newElement = null;
-      } else if (lcName.startsWith("sub") && lcName.endsWith("topology")) {
-        if (this.topologies.isEmpty()) {
-          this.topologies.add(new Topologies(null));
-        }
-        final Topologies curTop = this.topologies.get(this.topologies.size() - 1);
-        curTop.subTopologies.add(new SubTopology(i));
-        newElement = null;
-      } else {
-        if (this.topologies.isEmpty()) {
-          this.topologies.add(new Topologies(null));
-        }
-        newElement = new TopologyElement(i);
-        final Topologies curTop = this.topologies.get(this.topologies.size() - 1);
-        if (curTop.subTopologies.isEmpty()) {
-          curTop.orphans.add(newElement);
-        } else {
-          curTop.subTopologies.get(curTop.subTopologies.size() - 1).children
-              .put(newElement.id, newElement);
-        }
-      }
-      return newElement;
-    }).filter(Objects::nonNull)
-        .forEachOrdered(newElement -> topologyElementMaps.put(newElement.id, newElement));
 
     this.topologies.forEach(x -> x.link(topologyElementMaps));
   }
 
+  private static boolean isSubTopology(@Nonnull final String lcName) {
+    return lcName.startsWith("sub") && lcName.endsWith("topology");
+  }
+
+  @Nonnull
+  private static String normalizeLine(@Nonnull final String line) {
+    final String lineText = line.trim();
+    if ("topology".equalsIgnoreCase(lineText) || "topology:".equalsIgnoreCase(lineText)) {
+      return "Topologies:";
+    }
+    if ("sub-topologies:".equalsIgnoreCase(lineText)) {
+      return "";
+    }
+    return lineText;
+  }
+
+  private static boolean isBlockStart(@Nonnull final String lineText) {
+    final String lcLine = lineText.toLowerCase(Locale.ENGLISH);
+    if (!lcLine.startsWith("sub") && !lcLine.startsWith("topologies")) {
+      return false;
+    }
+    final Matcher matcher = MAIN_PATTERN.matcher(lineText);
+    if (matcher.find() && matcher.group(2) != null) {
+      final String lcName = matcher.group(2).toLowerCase(Locale.ENGLISH);
+      return "topologies".equals(lcName) || isSubTopology(lcName);
+    }
+    return false;
+  }
+
+  @Nonnull
+  @MustNotContainNull
+  private static List<String> splitBlocks(@Nonnull final String script) {
+    final List<String> result = new ArrayList<>();
+    int blockStart = 0;
+    int lineStart = 0;
+    while (lineStart < script.length()) {
+      int lineEnd = script.indexOf('\n', lineStart);
+      if (lineEnd < 0) {
+        lineEnd = script.length();
+      }
+      if (lineStart > blockStart
+          && isBlockStart(normalizeLine(script.substring(lineStart, lineEnd)))) {
+        result.add(script.substring(blockStart, lineStart));
+        blockStart = lineStart;
+      }
+      lineStart = lineEnd + 1;
+    }
+    if (blockStart < script.length()) {
+      result.add(script.substring(blockStart));
+    }
+    return result;
+  }
+
   @Nonnull
   public static String replaceProperties(@Nonnull final String script,
                                          @Nonnull final Properties properties) {
@@ -195,6 +224,122 @@ public class KStreamsTopologyDescriptionParser {
     return this.topologies;
   }
 
+  /**
+   * Find sub-topologies which have been added, removed or changed in comparison with another
+   * parsed script. Sub-topologies are compared by text of their blocks so that a sub-topology is
+   * unchanged if neither its header nor its elements are changed. Sub-topologies with duplicated
+   * identifiers are always reported as changed.
+   *
+   * @param other another parsed script, can be null
+   * @return identifiers of changed sub-topologies
+   * @since 1.6.4
+   */
+  @Nonnull
+  @MustNotContainNull
+  public Set<String> findChangedSubTopologies(
+      @Nullable final KStreamsTopologyDescriptionParser other) {
+    final Map<String, String> thisSources = this.makeSubTopologySources();
+    if (other == null) {
+      return new HashSet<>(thisSources.keySet());
+    }
+    final Map<String, String> otherSources = other.makeSubTopologySources();
+    final Set<String> result = new HashSet<>();
+    thisSources.forEach((id, source) -> {
+      if (source == null || !source.equals(otherSources.get(id))) {
+        result.add(id);
+      }
+    });
+    otherSources.keySet().stream()
+        .filter(id -> !thisSources.containsKey(id))
+        .forEach(result::add);
+    return result;
+  }
+
+  @Nonnull
+  private Map<String, String> makeSubTopologySources() {
+    final Map<String, String> result = new HashMap<>();
+    this.topologies.stream().flatMap(t -> t.subTopologies.stream()).forEach(st -> {
+      if (result.containsKey(st.id)) {
+        result.put(st.id, null);
+      } else {
+        result.put(st.id, st.source);
+      }
+    });
+    return result;
+  }
+
+  /**
+   * Get number of blocks parsed during creation, blocks reused from previous parsing are not
+   * counted.
+   *
+   * @return number of parsed blocks
+   */
+  int getParsedBlocks() {
+    return this.parsedBlocks;
+  }
+
+  private static final class Block {
+
+    final String text;
+    final List<ParsedItem> items = new ArrayList<>();
+    final List<String[]> properties = new ArrayList<>();
+
+    Block(@Nonnull final String text) {
+      this.text = text;
+      for (final String s : text.split("\\n")) {
+        String lineText = s.trim();
+
+        if (lineText.startsWith(PROPERTIES_PREFIX)) {
+          final String propertiesStr = lineText.substring(PROPERTIES_PREFIX.length()).trim();
+          for (final String p : propertiesStr.split("\\;")) {
+            final String[] parsed = p.split("\\=");
+            if (parsed.length == 2) {
+              this.properties.add(new String[] {parsed[0].trim(), parsed[1].trim()});
+            }
+          }
+          lineText = "";
+        }
+
+        lineText = normalizeLine(lineText);
+
+        if (lineText.isEmpty() || NONE.equalsIgnoreCase(lineText)) {
+          continue;
+        }
+        final Matcher matcher = MAIN_PATTERN.matcher(lineText);
+        if (matcher.find()) {
+          final String srcDst = matcher.group(1);
+          final String itemName = matcher.group(2);
+          final String tail = matcher.group(3);
+
+          if (srcDst != null) {
+            if (this.items.isEmpty()) {
+              throw new IllegalArgumentException(
+                  String.format("Found '%s' without element", srcDst));
+            } else {
+              final List<String> identifiers = Arrays.stream(tail.split(","))
+                  .map(String::trim)
+                  .filter(x -> !x.isEmpty())
+                  .collect(Collectors.toList());
+
+              if (srcDst.endsWith(">")) {
+                this.items.get(this.items.size() - 1).to.addAll(identifiers);
+              } else {
+                this.items.get(this.items.size() - 1).from.addAll(identifiers);
+              }
+            }
+          } else {
+            this.items.add(new ParsedItem(lineText, itemName, tail));
+          }
+        } else {
+          throw new IllegalArgumentException("Can't parse line: " + lineText);
+        }
+      }
+      this.items.stream()
+          .filter(x -> !"topologies".equalsIgnoreCase(x.name))
+          .forEach(ParsedItem::decode);
+    }
+  }
+
   private static final class ParsedItem {
 
     final String name;
@@ -202,6 +347,9 @@ public class KStreamsTopologyDescriptionParser {
     final List<String> from;
     final List<String> to;
     final String orig;
+    final Map<String, List<String>> dataItems = new TreeMap<>();
+    String id;
+    String comment;
 
     public ParsedItem(@Nonnull final String orig, @Nonnull final String name,
                       @Nonnull final String tail) {
@@ -211,22 +359,9 @@ public class KStreamsTopologyDescriptionParser {
       this.from = new ArrayList<>();
       this.to = new ArrayList<>();
     }
-  }
-
-  public static class TopologyElement {
 
-    public final String type;
-    public final String id;
-    public final String comment;
-    public final Map<String, List<String>> dataItems = new TreeMap<>();
-    public final List<TopologyElement> to = new ArrayList<>();
-    public final List<TopologyElement> from = new ArrayList<>();
-    public final ParsedItem parsedItem;
-
-    public TopologyElement(@Nonnull final ParsedItem parsedItem) {
-      this.parsedItem = parsedItem;
-      this.type = parsedItem.name;
-      final Matcher idtail = ID_TAIL_PATTERN.matcher(parsedItem.tail);
+    void decode() {
+      final Matcher idtail = ID_TAIL_PATTERN.matcher(this.tail);
       if (idtail.find()) {
         this.id = idtail.group(1);
         final String tail = idtail.group(2);
@@ -261,9 +396,28 @@ public class KStreamsTopologyDescriptionParser {
           }
         }
       } else {
-        throw new IllegalArgumentException("Can't extract ID from line: " + parsedItem.orig);
+        throw new IllegalArgumentException("Can't extract ID from line: " + this.orig);
       }
     }
+  }
+
+  public static class TopologyElement {
+
+    public final String type;
+    public final String id;
+    public final String comment;
+    public final Map<String, List<String>> dataItems = new TreeMap<>();
+    public final List<TopologyElement> to = new ArrayList<>();
+    public final List<TopologyElement> from = new ArrayList<>();
+    public final ParsedItem parsedItem;
+
+    public TopologyElement(@Nonnull final ParsedItem parsedItem) {
+      this.parsedItem = parsedItem;
+      this.type = parsedItem.name;
+      this.id = parsedItem.id;
+      this.comment = parsedItem.comment;
+      parsedItem.dataItems.forEach((k, v) -> this.dataItems.put(k, new ArrayList<>(v)));
+    }
 
     void link(@Nonnull final Map<String, TopologyElement> map) {
       this.from.clear();
@@ -302,9 +456,11 @@ public class KStreamsTopologyDescriptionParser {
   public static final class SubTopology extends TopologyElement implements Comparable<SubTopology> {
 
     final Map<String, TopologyElement> children = new TreeMap<>();
+    final String source;
 
-    SubTopology(@Nonnull final ParsedItem parsedItem) {
+    SubTopology(@Nonnull final ParsedItem parsedItem, @Nonnull final String source) {
       super(parsedItem);
+      this.source = source;
     }
 
     @Override
@@ -33,11 +33,11 @@ import java.io.IOException;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
-import java.util.concurrent.atomic.AtomicInteger;
 import java.util.regex.Pattern;
 import java.util.stream.Stream;
 import javax.annotation.Nonnull;
@@ -75,6 +75,11 @@ public final class KsTplTextEditor extends AbstractPlUmlEditor {
   private JCheckBox checkBoxGroupStores;
   private JCheckBox checkBoxOrtho;
   private JCheckBox checkBoxHorizontal;
+  private final Object incrementalStateLock = new Object();
+  private KStreamsTopologyDescriptionParser lastParser;
+  private Map<String, String> elementKeys = new HashMap<>();
+  private Map<String, String> subTopologyClusters = new HashMap<>();
+  private int elementKeyCounter;
 
   public KsTplTextEditor(@Nonnull final Context context, @Nonnull File file) throws IOException {
     super(context, file);
@@ -148,39 +153,42 @@ public final class KsTplTextEditor extends AbstractPlUmlEditor {
     return result.toString();
   }
 
+  /**
+   * Make aliases of elements for PlantUML script. Aliases of elements presented in previous
+   * parsed text are kept so that generated clusters of unchanged sub-topologies stay valid.
+   *
+   * @param parser parsed text
+   * @return map of aliases for element identifiers
+   */
   @Nonnull
-  private Map<String, String> generateKeyMap(
+  private Map<String, String> updateKeyMap(
       @Nonnull final KStreamsTopologyDescriptionParser parser) {
-    final AtomicInteger counter = new AtomicInteger(0);
+    final Map<String, String> previous = this.elementKeys;
     final Map<String, String> result = new HashMap<>();
     parser.getTopologies().forEach(x -> {
-      x.orphans.forEach(z -> {
-        if (!result.containsKey(z.id)) {
-          result.put(z.id, "__orph_" + counter.incrementAndGet());
-        }
-      });
+      x.orphans.forEach(z -> this.putElementKey(result, previous, z.id, "__orph_"));
 
       x.subTopologies.stream().flatMap(a -> a.children.values().stream())
           .forEach(e -> {
-            if (!result.containsKey(e.id)) {
-              result.put(e.id, "__tel_" + counter.incrementAndGet());
-            }
-            e.dataItems.forEach((k, v) -> v.forEach(z -> {
-              if (!result.containsKey(z)) {
-                result.put(z,
-                    "__dta_" + (k.hashCode() & 0x7FFFFFFF) + "_" + counter.incrementAndGet());
-              }
-            }));
+            this.putElementKey(result, previous, e.id, "__tel_");
+            e.dataItems.forEach((k, v) -> v.forEach(
+                z -> this.putElementKey(result, previous, z,
+                    "__dta_" + (k.hashCode() & 0x7FFFFFFF) + "_")));
           });
-      x.orphans.forEach(a -> {
-        if (!result.containsKey(a.id)) {
-          result.put(a.id, "__tel_" + counter.incrementAndGet());
-        }
-      });
     });
+    this.elementKeys = result;
     return result;
   }
 
+  private void putElementKey(@Nonnull final Map<String, String> keys,
+                             @Nonnull final Map<String, String> previous,
+                             @Nonnull final String id, @Nonnull final String prefix) {
+    if (!keys.containsKey(id)) {
+      final String key = previous.get(id);
+      keys.put(id, key == null ? prefix + (++this.elementKeyCounter) : key);
+    }
+  }
+
   @Override
   protected boolean isCopyAsAscIIImageInClipboardAllowed() {
     return false;
@@ -192,8 +200,11 @@ public final class KsTplTextEditor extends AbstractPlUmlEditor {
     if (element.comment == null || element.comment.isEmpty()) {
       return "";
     }
-    final String noteId = "nte_" + Integer.toHexString(element.id.hashCode()) + '_' +
-        Long.toHexString(System.nanoTime());
+    // identifier must not be changed between renderings to keep cached clusters valid
+    final String noteId = componentId == null
+        ? "nte_" + element.id.replaceAll("\\W", "_") + '_'
+        + Integer.toHexString(element.id.hashCode())
+        : "nte" + componentId;
     return format("note \"%s\" as %s%n%s%n", unicode(element.comment), noteId,
         componentId == null ? "" : componentId + " --> " + noteId);
   }
@@ -229,11 +240,32 @@ public final class KsTplTextEditor extends AbstractPlUmlEditor {
     return GLOBAL_STORAGE_SUBTOPOLOGY.matcher(comment).matches();
   }
 
+  @Nonnull
+  private String makeSubTopologyCluster(
+      @Nonnull final KStreamsTopologyDescriptionParser.SubTopology subTopology,
+      @Nonnull final Map<String, String> keys) {
+    final StringBuilder builder = new StringBuilder();
+    builder.append(format("package \"Sub-topology %s\" %s {%n", unicode(subTopology.id),
+        isGlobalStorageSubTopology(subTopology) ? "#FFDFFF" : "#DFDFFF"));
+    builder.append(makeCommentNote(null, subTopology));
+    subTopology.children.values().forEach(elem -> {
+      final String elemKey = keys.get(elem.id);
+      final String element = KStreamType.find(elem).makePuml(elem, elemKey);
+      final String elementComment = makeCommentNote(elemKey, elem);
+      builder.append(element).append('\n');
+      if (!elementComment.isEmpty()) {
+        builder.append(elementComment).append('\n');
+      }
+    });
+    builder.append("}\n");
+    return builder.toString();
+  }
+
   @Override
   @Nonnull
   protected String preprocessEditorText(@Nonnull final String text) {
     try {
-      final KStreamsTopologyDescriptionParser parser = new KStreamsTopologyDescriptionParser(text);
+      final KStreamsTopologyDescriptionParser parser;
       final StringBuilder builder = new StringBuilder();
 
       builder.append("@startuml\n")
@@ -250,25 +282,32 @@ public final class KsTplTextEditor extends AbstractPlUmlEditor {
           .append("title ").append(unicode("KStreams topology \""
               + (this.getTabTitle().getAssociatedFile() == null ? "none" :
               this.getTabTitle().getAssociatedFile().getName()) + '\"')).append('\n');
-      final Map<String, String> keys = generateKeyMap(parser);
+      final Map<String, String> keys;
+      final Map<KStreamsTopologyDescriptionParser.SubTopology, String> clusters =
+          new IdentityHashMap<>();
+      synchronized (this.incrementalStateLock) {
+        parser = new KStreamsTopologyDescriptionParser(text, this.lastParser);
+        final Set<String> changedSubTopologies = parser.findChangedSubTopologies(this.lastParser);
+        keys = this.updateKeyMap(parser);
+        final Map<String, String> cachedClusters = new HashMap<>();
+        parser.getTopologies().stream().flatMap(t -> t.getSubTopologies().stream())
+            .forEach(subTopology -> {
+              String cluster = changedSubTopologies.contains(subTopology.id) ? null
+                  : this.subTopologyClusters.get(subTopology.id);
+              if (cluster == null) {
+                cluster = this.makeSubTopologyCluster(subTopology, keys);
+              }
+              clusters.put(subTopology, cluster);
+              cachedClusters.put(subTopology.id, cluster);
+            });
+        this.lastParser = parser;
+        this.subTopologyClusters = cachedClusters;
+      }
 
       for (final KStreamsTopologyDescriptionParser.Topologies t : parser.getTopologies()) {
         builder.append("rectangle \"Sub-topologies\" <<Sub-Topologies>> {\n");
-        t.getSubTopologies().stream().sorted().forEach(subTopology -> {
-          builder.append(format("package \"Sub-topology %s\" %s {%n", unicode(subTopology.id),
-              isGlobalStorageSubTopology(subTopology) ? "#FFDFFF" : "#DFDFFF"));
-          builder.append(makeCommentNote(null, subTopology));
-          subTopology.children.values().forEach(elem -> {
-            final String elemKey = keys.get(elem.id);
-            final String element = KStreamType.find(elem).makePuml(elem, elemKey);
-            final String elementComment = makeCommentNote(elemKey, elem);
-            builder.append(element).append('\n');
-            if (!elementComment.isEmpty()) {
-              builder.append(elementComment).append('\n');
-            }
-          });
-          builder.append("}\n");
-        });
+        t.getSubTopologies().stream().sorted()
+            .forEach(subTopology -> builder.append(clusters.get(subTopology)));
         builder.append("}\n");
 
         t.orphans.forEach(elem -> {
@@ -33,6 +33,7 @@ import com.igormaznitsa.meta.common.utils.Assertions;
 import com.igormaznitsa.mindmap.ide.commons.DnDUtils;
 import com.igormaznitsa.mindmap.ide.commons.FilePathWithLine;
 import com.igormaznitsa.mindmap.ide.commons.Misc;
+import com.igormaznitsa.mindmap.ide.commons.TopicSearchSession;
 import com.igormaznitsa.mindmap.ide.commons.editors.AbstractNoteEditorData;
 import com.igormaznitsa.mindmap.ide.commons.editors.ColorAttributePanel;
 import com.igormaznitsa.mindmap.ide.commons.preferences.ColorSelectButton;
@@ -43,6 +44,8 @@ import com.igormaznitsa.mindmap.model.ExtraNote;
 import com.igormaznitsa.mindmap.model.ExtraTopic;
 import com.igormaznitsa.mindmap.model.MMapURI;
 import com.igormaznitsa.mindmap.model.MindMap;
+import com.igormaznitsa.mindmap.model.MindMapChange;
+import com.igormaznitsa.mindmap.model.MindMapChangeTracker;
 import com.igormaznitsa.mindmap.model.StandardMmdAttributes;
 import com.igormaznitsa.mindmap.model.Topic;
 import com.igormaznitsa.mindmap.model.TopicFinder;
@@ -123,7 +126,6 @@ import java.util.Objects;
 import java.util.Properties;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicBoolean;
-import java.util.concurrent.atomic.AtomicReference;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 import javax.annotation.Nonnull;
@@ -137,6 +139,7 @@ import javax.swing.JPopupMenu;
 import javax.swing.JScrollPane;
 import javax.swing.JViewport;
 import javax.swing.SwingUtilities;
+import javax.swing.Timer;
 import javax.swing.filechooser.FileFilter;
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.FilenameUtils;
@@ -151,13 +154,19 @@ public final class MMDEditor extends AbstractTextEditor
   private static final double SCALE_STEP = 0.3d;
   private static final Set<TopicFinder> TOPIC_FINDERS = MindMapPluginRegistry.getInstance()
       .findAllTopicFinders();
+  private static final int UNDO_MAX_STEPS = 1000;
+  private static final long UNDO_MAX_BYTES = 16L * 1024L * 1024L;
+  private static final int BACKUP_DELAY_MS = 1500;
   private final JPanel mainPanel;
   private final MindMapPanel mindMapPanel;
+  private final TopicSearchSession searchSession = new TopicSearchSession();
   private final TabTitle title;
   private final Context context;
-  private final transient UndoRedoStorage<String> undoStorage = new UndoRedoStorage<>(5);
+  private final transient UndoRedoStorage<MindMapChange> undoStorage =
+      new UndoRedoStorage<>(UNDO_MAX_STEPS, UNDO_MAX_BYTES, MindMapChange::getSizeEstimation);
   private final AtomicBoolean preventAddUndo = new AtomicBoolean();
-  private final AtomicReference<String> currentModelState = new AtomicReference<>();
+  private final Timer backupTimer;
+  private transient MindMapChangeTracker changeTracker;
   private final JScrollPane scrollPane;
   private final FileFilter fileFilter = makeFileFilter();
   private boolean dragAcceptableType;
@@ -203,8 +212,11 @@ public final class MMDEditor extends AbstractTextEditor
 
     this.mindMapPanel.setModel(Assertions.assertNotNull(map), false);
 
+    this.backupTimer = new Timer(BACKUP_DELAY_MS, e -> this.backup());
+    this.backupTimer.setRepeats(false);
+
     loadContent(file);
-    this.currentModelState.set(this.mindMapPanel.getModel().asString());
+    this.changeTracker = new MindMapChangeTracker(this.mindMapPanel.getModel());
   }
 
   @Override
@@ -391,6 +403,12 @@ public final class MMDEditor extends AbstractTextEditor
     return true;
   }
 
+  @Override
+  protected void doDispose() {
+    this.backupTimer.stop();
+    super.doDispose();
+  }
+
   @Override
   public boolean isRedo() {
     return this.undoStorage.hasRedo();
@@ -411,6 +429,7 @@ public final class MMDEditor extends AbstractTextEditor
   protected void onLoadContent(@Nonnull final TextFile textFile) throws IOException {
     final MindMap map = new MindMap(new StringReader(textFile.readContentAsUtf8()));
     this.mindMapPanel.setModel(Assertions.assertNotNull(map), false);
+    this.changeTracker = new MindMapChangeTracker(map);
 
     this.undoStorage.clearRedo();
     this.undoStorage.clearUndo();
@@ -438,6 +457,7 @@ public final class MMDEditor extends AbstractTextEditor
         FileUtils.writeByteArrayToFile(file, content);
         this.currentTextFile.set(new TextFile(file, false, content));
         this.title.setChanged(false);
+        this.backupTimer.stop();
         this.deleteBackup();
         result = true;
         this.undoStorage.setFlagThatSomeStateLost();
@@ -552,16 +572,30 @@ public final class MMDEditor extends AbstractTextEditor
   @Override
   public void onMindMapModelChanged(@Nonnull final MindMapPanel source,
                                     final boolean addToHistory) {
-    if (addToHistory && !this.preventAddUndo.get() && this.currentModelState.get() != null) {
-      final String state = this.currentModelState.getAndSet(source.getModel().asString());
-      backup(state);
-      this.undoStorage.addToUndo(state);
+    this.searchSession.invalidate();
+    final MindMap model = source.getModel();
+    if (this.changeTracker == null || this.changeTracker.getMap() != model) {
+      // changes of another model instance can't be applied to the current one
+      this.changeTracker = new MindMapChangeTracker(model);
       this.undoStorage.clearRedo();
+      this.undoStorage.clearUndo();
+      this.undoStorage.setFlagThatSomeStateLost();
       if (addToHistory) {
         this.title.setChanged(true);
       }
     } else {
-      this.currentModelState.set(source.getModel().asString());
+      final MindMapChange change = this.changeTracker.commit();
+      if (addToHistory && !this.preventAddUndo.get()) {
+        if (change != null) {
+          this.undoStorage.addToUndo(change);
+          this.undoStorage.clearRedo();
+        }
+        this.title.setChanged(true);
+      }
+    }
+
+    if (addToHistory) {
+      this.backupTimer.restart();
     }
 
     try {
@@ -572,22 +606,45 @@ public final class MMDEditor extends AbstractTextEditor
     }
   }
 
+  private static boolean isAttachedToRoot(@Nonnull final Topic topic, @Nullable final Topic root) {
+    Topic current = topic;
+    while (current.getParent() != null) {
+      if (!current.getParent().getChildren().contains(current)) {
+        return false;
+      }
+      current = current.getParent();
+    }
+    return current == root;
+  }
+
+  private void onHistoryChangeApplied() {
+    final Topic root = this.mindMapPanel.getModel().getRoot();
+    final Topic[] selected = this.mindMapPanel.getSelectedTopics();
+    this.mindMapPanel.removeAllSelection();
+    for (final Topic t : selected) {
+      if (isAttachedToRoot(t, root) && !MindMapUtils.isHidden(t)) {
+        this.mindMapPanel.select(t, false);
+      }
+    }
+
+    this.preventAddUndo.set(true);
+    try {
+      this.mindMapPanel.doNotifyModelChanged(true);
+    } finally {
+      this.preventAddUndo.set(false);
+    }
+    this.title.setChanged(
+        this.undoStorage.hasUndo() || this.undoStorage.hasRemovedUndoStateForFullBuffer());
+  }
+
   @Override
   public boolean redo() {
     if (!this.mindMapPanel.endEdit(false)) {
-      if (this.undoStorage.hasRedo()) {
-        this.undoStorage.addToUndo(this.currentModelState.getAndSet(this.undoStorage.fromRedo()));
-        this.preventAddUndo.set(true);
-        try {
-          this.mindMapPanel
-              .setModel(new MindMap(new StringReader(this.currentModelState.get())), true);
-          this.title.setChanged(
-              this.undoStorage.hasUndo() || this.undoStorage.hasRemovedUndoStateForFullBuffer());
-        } catch (IOException ex) {
-          logger.error("Can't redo mind map", ex); //NOI18N
-        } finally {
-          this.preventAddUndo.set(false);
-        }
+      final MindMapChange change = this.undoStorage.fromRedo();
+      if (change != null) {
+        change.redo();
+        this.undoStorage.addToUndo(change);
+        this.onHistoryChangeApplied();
       }
     }
     return this.undoStorage.hasRedo();
@@ -596,19 +653,11 @@ public final class MMDEditor extends AbstractTextEditor
   @Override
   public boolean undo() {
     if (!this.mindMapPanel.endEdit(false)) {
-      if (this.undoStorage.hasUndo()) {
-        this.undoStorage.addToRedo(this.currentModelState.getAndSet(this.undoStorage.fromUndo()));
-        this.preventAddUndo.set(true);
-        try {
-          this.mindMapPanel
-              .setModel(new MindMap(new StringReader(this.currentModelState.get())), true);
-          this.title.setChanged(
-              this.undoStorage.hasUndo() || this.undoStorage.hasRemovedUndoStateForFullBuffer());
-        } catch (IOException ex) {
-          logger.error("Can't redo mind map", ex); //NOI18N
-        } finally {
-          this.preventAddUndo.set(false);
-        }
+      final MindMapChange change = this.undoStorage.fromUndo();
+      if (change != null) {
+        change.undo();
+        this.undoStorage.addToRedo(change);
+        this.onHistoryChangeApplied();
       }
     }
     return this.undoStorage.hasUndo();
@@ -1490,13 +1539,11 @@ public final class MMDEditor extends AbstractTextEditor
     final boolean inTopicText =
         provider.toSearchIn(FindTextScopeProvider.SearchTextScope.IN_TOPIC_TEXT);
 
-    Topic found = this.mindMapPanel.getModel()
-        .findNext(projectBaseFolder, startTopic, pattern, inTopicText, extras,
-            TOPIC_FINDERS);
+    Topic found = this.searchSession.findNext(this.mindMapPanel.getModel(),
+        projectBaseFolder, startTopic, pattern, inTopicText, extras, TOPIC_FINDERS);
     if (found == null && startTopic != null) {
-      found = this.mindMapPanel.getModel()
-          .findNext(projectBaseFolder, null, pattern, inTopicText, extras,
-              TOPIC_FINDERS);
+      found = this.searchSession.findNext(this.mindMapPanel.getModel(),
+          projectBaseFolder, null, pattern, inTopicText, extras, TOPIC_FINDERS);
     }
 
     if (found != null) {
@@ -1531,11 +1578,11 @@ public final class MMDEditor extends AbstractTextEditor
     final boolean inTopicText =
         provider.toSearchIn(FindTextScopeProvider.SearchTextScope.IN_TOPIC_TEXT);
 
-    Topic found = this.mindMapPanel.getModel()
-        .findPrev(projectBaseFolder, startTopic, pattern, inTopicText, extras, TOPIC_FINDERS);
+    Topic found = this.searchSession.findPrev(this.mindMapPanel.getModel(),
+        projectBaseFolder, startTopic, pattern, inTopicText, extras, TOPIC_FINDERS);
     if (found == null && startTopic != null) {
-      found = this.mindMapPanel.getModel()
-          .findPrev(projectBaseFolder, null, pattern, inTopicText, extras, TOPIC_FINDERS);
+      found = this.searchSession.findPrev(this.mindMapPanel.getModel(),
+          projectBaseFolder, null, pattern, inTopicText, extras, TOPIC_FINDERS);
     }
 
     if (found != null) {
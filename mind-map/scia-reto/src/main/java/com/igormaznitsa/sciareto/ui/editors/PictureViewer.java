@@ -27,10 +27,12 @@ import com.igormaznitsa.sciareto.Context;
 import com.igormaznitsa.sciareto.SciaRetoStarter;
 import com.igormaznitsa.sciareto.ui.DialogProviderManager;
 import com.igormaznitsa.sciareto.ui.FindTextScopeProvider;
+import com.igormaznitsa.sciareto.ui.MainFrame;
 import com.igormaznitsa.sciareto.ui.ScaleStatusIndicator;
 import com.igormaznitsa.sciareto.ui.UiUtils;
 import com.igormaznitsa.sciareto.ui.tabs.TabTitle;
 import java.awt.BorderLayout;
+import java.awt.Dimension;
 import java.awt.GridBagConstraints;
 import java.awt.GridBagLayout;
 import java.awt.Insets;
@@ -40,6 +42,7 @@ import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.file.Files;
+import java.util.Iterator;
 import java.util.Locale;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicReference;
@@ -47,6 +50,11 @@ import java.util.regex.Pattern;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageTypeSpecifier;
+import javax.imageio.event.IIOReadUpdateListener;
+import javax.imageio.stream.ImageInputStream;
 import javax.swing.Box;
 import javax.swing.JButton;
 import javax.swing.JComponent;
@@ -54,6 +62,8 @@ import javax.swing.JLabel;
 import javax.swing.JOptionPane;
 import javax.swing.JPanel;
 import javax.swing.JScrollPane;
+import javax.swing.SwingUtilities;
+import javax.swing.Timer;
 import javax.swing.filechooser.FileFilter;
 import org.apache.batik.anim.dom.SVGDOMImplementation;
 import org.apache.batik.transcoder.TranscoderException;
@@ -63,6 +73,8 @@ import org.apache.batik.transcoder.TranscodingHints;
 import org.apache.batik.transcoder.image.ImageTranscoder;
 import org.apache.batik.util.SVGConstants;
 import org.apache.commons.io.FilenameUtils;
+import org.apache.commons.io.IOUtils;
+import reactor.core.Disposable;
 
 public final class PictureViewer extends AbstractEditor {
 
@@ -97,8 +109,23 @@ public final class PictureViewer extends AbstractEditor {
   private final ScalableImage imageViewer;
   private final ScaleStatusIndicator scaleLabel;
   private final JLabel imageInfoLabel;
+  private final JButton buttonPrintImage;
+  private final JButton buttonClipboardImage;
   private transient BufferedImage image;
 
+  private static final long MAX_DECODED_PIXELS = 32L * 1024L * 1024L;
+  private static final int PROGRESS_REFRESH_DELAY_MS = 250;
+
+  private final Timer progressTimer;
+  private final Object changedRowsLock = new Object();
+  private int changedFromRow = Integer.MAX_VALUE;
+  private int changedToRow = -1;
+  private volatile ImageReader loadingReader;
+  private Dimension sourceImageSize;
+  private int subsampling = 1;
+  private boolean imageComplete;
+  private Disposable loadingTask;
+
   public PictureViewer(@Nonnull final Context context, @Nonnull final File file)
       throws IOException {
     super();
@@ -115,10 +142,10 @@ public final class PictureViewer extends AbstractEditor {
 
     final JPanel toolbar = new JPanel(new GridBagLayout());
 
-    final JButton buttonPrintImage = new JButton(loadMenuIcon("printer"));
-    buttonPrintImage.setToolTipText("Print image");
-    buttonPrintImage.setFocusPainted(false);
-    buttonPrintImage.addActionListener(e -> {
+    this.buttonPrintImage = new JButton(loadMenuIcon("printer"));
+    this.buttonPrintImage.setToolTipText("Print image");
+    this.buttonPrintImage.setFocusPainted(false);
+    this.buttonPrintImage.addActionListener(e -> {
       SciaRetoStarter.getApplicationFrame().endFullScreenIfActive();
       final MMDPrintPanel printPanel =
           new MMDPrintPanel(UIComponentFactoryProvider.findInstance(), DialogProviderManager.getInstance().getDialogProvider(), null,
@@ -128,11 +155,11 @@ public final class PictureViewer extends AbstractEditor {
           .showMessageDialog(mainPanel, printPanel, "Print image", JOptionPane.PLAIN_MESSAGE);
     });
 
-    final JButton buttonClipboardImage = new JButton(loadMenuIcon("clipboard_image"));
-    buttonClipboardImage.setToolTipText(
+    this.buttonClipboardImage = new JButton(loadMenuIcon("clipboard_image"));
+    this.buttonClipboardImage.setToolTipText(
         this.bundle.getString("editorPictureViewer.buttonClipboardImage.tooltip"));
 
-    buttonClipboardImage.addActionListener(e -> {
+    this.buttonClipboardImage.addActionListener(e -> {
       final BufferedImage image = imageViewer.getImage();
       if (image != null) {
         Toolkit.getDefaultToolkit().getSystemClipboard()
@@ -143,8 +170,8 @@ public final class PictureViewer extends AbstractEditor {
     final GridBagConstraints bc = new GridBagConstraints(GridBagConstraints.RELATIVE, 0, 1, 1, 1, 1,
         GridBagConstraints.CENTER, GridBagConstraints.BOTH, new Insets(0, 0, 0, 0), 0, 0);
 
-    toolbar.add(buttonClipboardImage, bc);
-    toolbar.add(buttonPrintImage, bc);
+    toolbar.add(this.buttonClipboardImage, bc);
+    toolbar.add(this.buttonPrintImage, bc);
     this.imageInfoLabel = new JLabel();
     toolbar.add(this.imageInfoLabel, bc);
     bc.weightx = 1000.0d;
@@ -155,6 +182,20 @@ public final class PictureViewer extends AbstractEditor {
     this.mainPanel.add(toolbar, BorderLayout.NORTH);
     this.mainPanel.add(this.scrollPane, BorderLayout.CENTER);
 
+    this.progressTimer = new Timer(PROGRESS_REFRESH_DELAY_MS, e -> {
+      final int fromRow;
+      final int toRow;
+      synchronized (this.changedRowsLock) {
+        fromRow = this.changedFromRow;
+        toRow = this.changedToRow;
+        this.changedFromRow = Integer.MAX_VALUE;
+        this.changedToRow = -1;
+      }
+      if (fromRow < toRow) {
+        this.imageViewer.refreshRows(fromRow, toRow);
+      }
+    });
+
     loadContent(file);
   }
 
@@ -231,15 +272,147 @@ public final class PictureViewer extends AbstractEditor {
     return fileFilterImage;
   }
 
+  private static int findSubsampling(final int width, final int height) {
+    int result = 1;
+    while (((long) width / result) * ((long) height / result) > MAX_DECODED_PIXELS) {
+      result++;
+    }
+    return result;
+  }
+
+  private void markRowsChanged(final int fromRow, final int toRow) {
+    synchronized (this.changedRowsLock) {
+      this.changedFromRow = Math.min(this.changedFromRow, fromRow);
+      this.changedToRow = Math.max(this.changedToRow, toRow);
+    }
+  }
+
+  private void updateImageActions() {
+    // partly decoded image must not be printed or copied
+    final boolean enabled = this.image != null && this.imageComplete;
+    this.buttonPrintImage.setEnabled(enabled);
+    this.buttonClipboardImage.setEnabled(enabled);
+  }
+
+  private void cancelLoading() {
+    final ImageReader reader = this.loadingReader;
+    if (reader != null) {
+      reader.abort();
+    }
+    if (this.loadingTask != null) {
+      this.loadingTask.dispose();
+      this.loadingTask = null;
+    }
+    this.progressTimer.stop();
+  }
+
+  /**
+   * Start decoding of raster image in background. Decoded rows are written directly into returned
+   * image which is shown and refreshed periodically while decoding. Too big images are decoded
+   * with subsampling to keep memory bounded.
+   *
+   * @param file image file
+   * @return image to be filled by decoder or null if there is no reader for the file
+   * @throws IOException if image header can't be read
+   */
+  @Nullable
+  private BufferedImage startImageLoading(@Nonnull final File file) throws IOException {
+    final ImageInputStream inputStream = ImageIO.createImageInputStream(file);
+    if (inputStream == null) {
+      return null;
+    }
+    boolean started = false;
+    try {
+      final Iterator<ImageReader> readers = ImageIO.getImageReaders(inputStream);
+      if (!readers.hasNext()) {
+        return null;
+      }
+      final ImageReader reader = readers.next();
+      try {
+        reader.setInput(inputStream, true, true);
+        final int width = reader.getWidth(0);
+        final int height = reader.getHeight(0);
+        final int subsampling = findSubsampling(width, height);
+        this.sourceImageSize = new Dimension(width, height);
+        this.subsampling = subsampling;
+
+        ImageTypeSpecifier imageType = reader.getRawImageType(0);
+        if (imageType == null) {
+          imageType = reader.getImageTypes(0).next();
+        }
+        final BufferedImage result = imageType.createBufferedImage(
+            (width + subsampling - 1) / subsampling, (height + subsampling - 1) / subsampling);
+        if (subsampling > 1) {
+          logger.warn(String.format("Image %dx%d is decoded with subsampling %d", width, height,
+              subsampling)); //NOI18N
+        }
+
+        final ImageReadParam readParam = reader.getDefaultReadParam();
+        readParam.setSourceSubsampling(subsampling, subsampling, 0, 0);
+        readParam.setDestination(result);
+        reader.addIIOReadUpdateListener(new ImageChangeListener());
+
+        this.loadingReader = reader;
+        this.progressTimer.start();
+        this.loadingTask = MainFrame.REACTOR_SCHEDULER.schedule(() -> {
+          boolean decoded = false;
+          try {
+            reader.read(0, readParam);
+            decoded = true;
+          } catch (Exception ex) {
+            if (this.loadingReader == reader) {
+              logger.error("Can't decode image", ex); //NOI18N
+            }
+          } finally {
+            reader.dispose();
+            IOUtils.closeQuietly(inputStream);
+            final boolean completed = decoded;
+            SwingUtilities.invokeLater(() -> {
+              if (this.loadingReader == reader) {
+                this.loadingReader = null;
+                this.progressTimer.stop();
+                synchronized (this.changedRowsLock) {
+                  this.changedFromRow = Integer.MAX_VALUE;
+                  this.changedToRow = -1;
+                }
+                this.imageComplete = completed;
+                this.imageViewer.setImageComplete(true);
+                this.updateImageActions();
+              }
+            });
+          }
+        });
+        started = true;
+        return result;
+      } finally {
+        if (!started) {
+          reader.dispose();
+        }
+      }
+    } finally {
+      if (!started) {
+        inputStream.close();
+      }
+    }
+  }
+
   @Override
   public void loadContent(@Nullable final File file) throws IOException {
+    this.cancelLoading();
+    this.loadingReader = null;
+    this.sourceImageSize = null;
+    this.subsampling = 1;
+
     BufferedImage loaded = null;
     if (file != null) {
       try {
         if (file.getName().toLowerCase(Locale.ENGLISH).endsWith(".svg")) {
           loaded = renderSvg(file);
         } else {
-          loaded = ImageIO.read(file);
+          loaded = this.startImageLoading(file);
+          if (loaded == null) {
+            loaded = ImageIO.read(file);
+          }
         }
       } catch (Exception ex) {
         logger.error("Can't load image", ex); //NOI18N
@@ -247,17 +420,35 @@ public final class PictureViewer extends AbstractEditor {
     }
 
     this.image = loaded;
-
-    this.imageInfoLabel.setText(String
-        .format(
-            this.bundle.getString("editorPictureViewer.buttonClipboardImage.imageInfoLabel"),
-            this.image.getWidth(null), this.image.getHeight(null)));
+    this.imageComplete = this.loadingReader == null;
+
+    if (this.subsampling > 1) {
+      this.imageInfoLabel.setText(String
+          .format(
+              this.bundle.getString("editorPictureViewer.imageInfoLabel.subsampled"),
+              this.sourceImageSize.width, this.sourceImageSize.height, this.subsampling));
+    } else {
+      this.imageInfoLabel.setText(String
+          .format(
+              this.bundle.getString("editorPictureViewer.buttonClipboardImage.imageInfoLabel"),
+              this.sourceImageSize == null ? this.image.getWidth(null) : this.sourceImageSize.width,
+              this.sourceImageSize == null ? this.image.getHeight(null)
+                  : this.sourceImageSize.height));
+    }
 
     this.imageViewer.setImage(this.image, true);
+    this.imageViewer.setImageComplete(this.imageComplete);
+    this.updateImageActions();
     this.scrollPane.setViewportView(this.imageViewer);
     this.scrollPane.revalidate();
   }
 
+  @Override
+  protected void doDispose() {
+    this.cancelLoading();
+    this.loadingReader = null;
+  }
+
   @Override
   public boolean saveDocument() throws IOException {
     boolean result = false;
@@ -417,4 +608,49 @@ public final class PictureViewer extends AbstractEditor {
   public boolean doPaste() {
     return false;
   }
+
+  private final class ImageChangeListener implements IIOReadUpdateListener {
+
+    @Override
+    public void passStarted(@Nonnull final ImageReader source, @Nonnull final BufferedImage theImage,
+                            final int pass, final int minPass, final int maxPass,
+                            final int minX, final int minY, final int periodX, final int periodY,
+                            @Nullable final int[] bands) {
+    }
+
+    @Override
+    public void imageUpdate(@Nonnull final ImageReader source, @Nonnull final BufferedImage theImage,
+                            final int minX, final int minY, final int width, final int height,
+                            final int periodX, final int periodY, @Nullable final int[] bands) {
+      markRowsChanged(minY, minY + (height - 1) * periodY + 1);
+    }
+
+    @Override
+    public void passComplete(@Nonnull final ImageReader source,
+                             @Nonnull final BufferedImage theImage) {
+      markRowsChanged(0, theImage.getHeight());
+    }
+
+    @Override
+    public void thumbnailPassStarted(@Nonnull final ImageReader source,
+                                     @Nonnull final BufferedImage theThumbnail,
+                                     final int pass, final int minPass, final int maxPass,
+                                     final int minX, final int minY,
+                                     final int periodX, final int periodY,
+                                     @Nullable final int[] bands) {
+    }
+
+    @Override
+    public void thumbnailUpdate(@Nonnull final ImageReader source,
+                                @Nonnull final BufferedImage theThumbnail,
+                                final int minX, final int minY, final int width, final int height,
+                                final int periodX, final int periodY,
+                                @Nullable final int[] bands) {
+    }
+
+    @Override
+    public void thumbnailPassComplete(@Nonnull final ImageReader source,
+                                      @Nonnull final BufferedImage theThumbnail) {
+    }
+  }
 }
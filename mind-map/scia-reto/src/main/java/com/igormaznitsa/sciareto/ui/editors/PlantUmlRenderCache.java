@@ -0,0 +1,208 @@
+/*
+ * Copyright (C) 2015-2022 Igor A. Maznitsa
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package com.igormaznitsa.sciareto.ui.editors;
+
+import java.awt.image.BufferedImage;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import org.apache.commons.codec.digest.DigestUtils;
+
+/**
+ * Cache of rendered diagram pages shared between all editors. Pages are identified by hash of
+ * preprocessed script, renderer, page index and format. Number of pages of script is cached too
+ * so that page switching doesn't need new parsing of the script. The cache is limited by memory
+ * occupied by decoded images, the least recently used images are removed.
+ */
+public final class PlantUmlRenderCache {
+
+  public static final long DEFAULT_MAX_BYTES = 96L * 1024L * 1024L;
+  private static final int MAX_SCRIPTS = 256;
+
+  private static final PlantUmlRenderCache INSTANCE = new PlantUmlRenderCache(DEFAULT_MAX_BYTES);
+
+  private final long maxBytes;
+  private final Map<PageKey, BufferedImage> images = new LinkedHashMap<>(64, 0.75f, true);
+  private final Map<ScriptKey, Integer> pageCounters =
+      new LinkedHashMap<ScriptKey, Integer>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(@Nonnull final Map.Entry<ScriptKey, Integer> eldest) {
+          return this.size() > MAX_SCRIPTS;
+        }
+      };
+  private long bytes;
+
+  PlantUmlRenderCache(final long maxBytes) {
+    this.maxBytes = maxBytes;
+  }
+
+  @Nonnull
+  public static PlantUmlRenderCache getInstance() {
+    return INSTANCE;
+  }
+
+  private static long sizeOf(@Nonnull final BufferedImage image) {
+    return (long) image.getWidth() * image.getHeight() * 4L;
+  }
+
+  /**
+   * Make key for script.
+   *
+   * @param renderer identifier of renderer, different renderers make different images for the
+   *                 same script
+   * @param script   preprocessed script text
+   * @return key of the script
+   */
+  @Nonnull
+  public static ScriptKey makeKey(@Nonnull final String renderer, @Nonnull final String script) {
+    return new ScriptKey(renderer, script.length(),
+        DigestUtils.digest(DigestUtils.getSha256Digest(), script.getBytes(StandardCharsets.UTF_8)));
+  }
+
+  @Nullable
+  public synchronized Integer findPageCount(@Nonnull final ScriptKey script) {
+    return this.pageCounters.get(script);
+  }
+
+  public synchronized void putPageCount(@Nonnull final ScriptKey script, final int pages) {
+    this.pageCounters.put(script, pages);
+  }
+
+  @Nullable
+  public synchronized BufferedImage findImage(@Nonnull final ScriptKey script, final int pageIndex,
+                                              @Nonnull final String format) {
+    return this.images.get(new PageKey(script, pageIndex, format));
+  }
+
+  public synchronized void putImage(@Nonnull final ScriptKey script, final int pageIndex,
+                                    @Nonnull final String format,
+                                    @Nonnull final BufferedImage image) {
+    final long size = sizeOf(image);
+    if (size > this.maxBytes) {
+      return;
+    }
+    final BufferedImage prev = this.images.put(new PageKey(script, pageIndex, format), image);
+    if (prev != null) {
+      this.bytes -= sizeOf(prev);
+    }
+    this.bytes += size;
+    final Iterator<BufferedImage> iterator = this.images.values().iterator();
+    while (this.bytes > this.maxBytes && iterator.hasNext()) {
+      this.bytes -= sizeOf(iterator.next());
+      iterator.remove();
+    }
+  }
+
+  /**
+   * Remove all cached data for script, for instance if user requests new rendering.
+   *
+   * @param script key of script
+   */
+  public synchronized void remove(@Nonnull final ScriptKey script) {
+    this.pageCounters.remove(script);
+    final Iterator<Map.Entry<PageKey, BufferedImage>> iterator = this.images.entrySet().iterator();
+    while (iterator.hasNext()) {
+      final Map.Entry<PageKey, BufferedImage> entry = iterator.next();
+      if (entry.getKey().script.equals(script)) {
+        this.bytes -= sizeOf(entry.getValue());
+        iterator.remove();
+      }
+    }
+  }
+
+  /**
+   * Remove all cached data, must be called if rendering configuration is changed.
+   */
+  public synchronized void clear() {
+    this.pageCounters.clear();
+    this.images.clear();
+    this.bytes = 0L;
+  }
+
+  public static final class ScriptKey {
+    private final String renderer;
+    private final int length;
+    private final byte[] hash;
+    private final int hashCode;
+
+    private ScriptKey(@Nonnull final String renderer, final int length,
+                      @Nonnull final byte[] hash) {
+      this.renderer = renderer;
+      this.length = length;
+      this.hash = hash;
+      this.hashCode = Arrays.hashCode(hash) ^ renderer.hashCode();
+    }
+
+    @Override
+    public int hashCode() {
+      return this.hashCode;
+    }
+
+    @Override
+    public boolean equals(@Nullable final Object obj) {
+      if (this == obj) {
+        return true;
+      }
+      if (obj instanceof ScriptKey) {
+        final ScriptKey that = (ScriptKey) obj;
+        return this.length == that.length
+            && this.renderer.equals(that.renderer)
+            && Arrays.equals(this.hash, that.hash);
+      }
+      return false;
+    }
+  }
+
+  private static final class PageKey {
+    private final ScriptKey script;
+    private final int pageIndex;
+    private final String format;
+
+    private PageKey(@Nonnull final ScriptKey script, final int pageIndex,
+                    @Nonnull final String format) {
+      this.script = script;
+      this.pageIndex = pageIndex;
+      this.format = format;
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(this.script, this.pageIndex, this.format);
+    }
+
+    @Override
+    public boolean equals(@Nullable final Object obj) {
+      if (this == obj) {
+        return true;
+      }
+      if (obj instanceof PageKey) {
+        final PageKey that = (PageKey) obj;
+        return this.pageIndex == that.pageIndex
+            && this.script.equals(that.script)
+            && this.format.equals(that.format);
+      }
+      return false;
+    }
+  }
+}
@@ -28,12 +28,17 @@ import java.awt.Graphics;
 import java.awt.Graphics2D;
 import java.awt.Point;
 import java.awt.Rectangle;
+import java.awt.RenderingHints;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
 import java.awt.event.MouseWheelEvent;
 import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.concurrent.CopyOnWriteArrayList;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
@@ -58,8 +63,17 @@ final class ScalableImage extends JComponent implements ScaleStatusIndicator.Sca
 
   private final java.util.List<ActionListener> scalableListeners = new CopyOnWriteArrayList<>();
 
+  private static final int TILE_SIZE = 256;
+  private static final long MAX_TILE_CACHE_BYTES = 32L * 1024L * 1024L;
+
   private MindMapPanelConfig config;
 
+  private final java.util.List<BufferedImage> mipLevels = new ArrayList<>();
+  private final Map<Long, BufferedImage> tiles = new LinkedHashMap<>(64, 0.75f, true);
+  private long tileBytes;
+  private float tilesScale = -1.0f;
+  private boolean imageComplete = true;
+
   public ScalableImage(@Nonnull final MindMapPanelConfig config) {
     super();
     this.config = config;
@@ -201,6 +215,7 @@ final class ScalableImage extends JComponent implements ScaleStatusIndicator.Sca
 
   public void updateConfig(@Nonnull final MindMapPanelConfig config) {
     this.config = config;
+    this.resetTiles();
     this.repaint();
   }
 
@@ -265,7 +280,181 @@ final class ScalableImage extends JComponent implements ScaleStatusIndicator.Sca
       gfx.drawString(text, (bounds.width - gfx.getFontMetrics().stringWidth(text)) / 2, (bounds.height - gfx.getFontMetrics().getMaxAscent()) / 2);
     } else {
       final Dimension size = getPreferredSize();
-      gfx.drawImage(this.image, Math.max(0, (bounds.width - size.width) / 2), Math.max(0, (bounds.height - size.height) / 2), size.width, size.height, null);
+      final int offsetX = Math.max(0, (bounds.width - size.width) / 2);
+      final int offsetY = Math.max(0, (bounds.height - size.height) / 2);
+      if (size.width == this.image.getWidth() && size.height == this.image.getHeight()) {
+        gfx.drawImage(this.image, offsetX, offsetY, null);
+        return;
+      }
+
+      Rectangle clip = gfx.getClipBounds();
+      if (clip == null) {
+        clip = new Rectangle(0, 0, bounds.width, bounds.height);
+      }
+
+      if (this.tilesScale != this.scale) {
+        this.resetTiles();
+        this.tilesScale = this.scale;
+      }
+
+      final int lastTileX = (size.width - 1) / TILE_SIZE;
+      final int lastTileY = (size.height - 1) / TILE_SIZE;
+      final int fromX = Math.max(0, Math.floorDiv(clip.x - offsetX, TILE_SIZE));
+      final int fromY = Math.max(0, Math.floorDiv(clip.y - offsetY, TILE_SIZE));
+      final int toX = Math.min(lastTileX, Math.floorDiv(clip.x + clip.width - 1 - offsetX, TILE_SIZE));
+      final int toY = Math.min(lastTileY, Math.floorDiv(clip.y + clip.height - 1 - offsetY, TILE_SIZE));
+
+      for (int tileY = fromY; tileY <= toY; tileY++) {
+        for (int tileX = fromX; tileX <= toX; tileX++) {
+          gfx.drawImage(this.findTile(tileX, tileY, size), offsetX + tileX * TILE_SIZE,
+              offsetY + tileY * TILE_SIZE, null);
+        }
+      }
+    }
+  }
+
+  /**
+   * Get tile of scaled image, tiles are cached for current scale and made from the nearest
+   * mip level which is not smaller than the scaled image.
+   *
+   * @param tileX tile column
+   * @param tileY tile row
+   * @param size  scaled image size
+   * @return tile image
+   */
+  @Nonnull
+  private BufferedImage findTile(final int tileX, final int tileY,
+                                 @Nonnull final Dimension size) {
+    final Long key = ((long) tileY << 32) | (tileX & 0xFFFFFFFFL);
+    BufferedImage tile = this.tiles.get(key);
+    if (tile == null) {
+      final BufferedImage level = this.findMipLevel(size);
+      tile = new BufferedImage(Math.min(TILE_SIZE, size.width - tileX * TILE_SIZE),
+          Math.min(TILE_SIZE, size.height - tileY * TILE_SIZE), BufferedImage.TYPE_INT_ARGB);
+      final Graphics2D tileGfx = tile.createGraphics();
+      try {
+        this.config.getRenderQuality().prepare(tileGfx);
+        tileGfx.translate(-tileX * TILE_SIZE, -tileY * TILE_SIZE);
+        tileGfx.scale((double) size.width / level.getWidth(),
+            (double) size.height / level.getHeight());
+        tileGfx.drawImage(level, 0, 0, null);
+      } finally {
+        tileGfx.dispose();
+      }
+
+      this.tiles.put(key, tile);
+      this.tileBytes += (long) tile.getWidth() * tile.getHeight() * 4L;
+      final Iterator<BufferedImage> iterator = this.tiles.values().iterator();
+      while (this.tileBytes > MAX_TILE_CACHE_BYTES && this.tiles.size() > 1) {
+        final BufferedImage removed = iterator.next();
+        this.tileBytes -= (long) removed.getWidth() * removed.getHeight() * 4L;
+        iterator.remove();
+      }
+    }
+    return tile;
+  }
+
+  /**
+   * Find the smallest mip level which is not smaller than required size, levels are made by
+   * halving of previous level on the first request. Levels are not made until image is complete,
+   * the image itself is used instead.
+   *
+   * @param size required image size
+   * @return image of mip level
+   */
+  @Nonnull
+  private BufferedImage findMipLevel(@Nonnull final Dimension size) {
+    if (!this.imageComplete) {
+      return this.image;
+    }
+    if (this.mipLevels.isEmpty()) {
+      this.mipLevels.add(this.image);
+    }
+    BufferedImage result = this.mipLevels.get(0);
+    int index = 1;
+    while (result.getWidth() / 2 >= size.width && result.getHeight() / 2 >= size.height) {
+      if (index < this.mipLevels.size()) {
+        result = this.mipLevels.get(index);
+      } else {
+        final BufferedImage level = new BufferedImage(result.getWidth() / 2,
+            result.getHeight() / 2, BufferedImage.TYPE_INT_ARGB);
+        final Graphics2D levelGfx = level.createGraphics();
+        try {
+          levelGfx.setRenderingHint(RenderingHints.KEY_INTERPOLATION,
+              RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+          levelGfx.drawImage(result, 0, 0, level.getWidth(), level.getHeight(), null);
+        } finally {
+          levelGfx.dispose();
+        }
+        this.mipLevels.add(level);
+        result = level;
+      }
+      index++;
+    }
+    return result;
+  }
+
+  private void resetTiles() {
+    this.tiles.clear();
+    this.tileBytes = 0L;
+  }
+
+  /**
+   * Notify that pixels of current image have been changed, all cached scaled data is dropped.
+   */
+  public void refreshImage() {
+    this.mipLevels.clear();
+    this.resetTiles();
+    repaint();
+  }
+
+  /**
+   * Notify that rows of current image have been changed by decoder, only tiles containing the rows
+   * are dropped.
+   *
+   * @param fromRow first changed row, inclusive
+   * @param toRow   last changed row, exclusive
+   */
+  public void refreshRows(final int fromRow, final int toRow) {
+    if (this.image == null) {
+      return;
+    }
+    if (this.imageComplete) {
+      this.refreshImage();
+      return;
+    }
+    final int imageHeight = this.image.getHeight();
+    final int scaledHeight = this.getPreferredSize().height;
+    // one row more from both sides because of interpolation
+    final long fromScaledRow = (long) Math.max(0, fromRow - 1) * scaledHeight / imageHeight;
+    final long toScaledRow =
+        ((long) Math.min(imageHeight, toRow + 1) * scaledHeight + imageHeight - 1) / imageHeight;
+    final long fromTile = fromScaledRow / TILE_SIZE;
+    final long toTile = toScaledRow / TILE_SIZE;
+
+    final Iterator<Map.Entry<Long, BufferedImage>> iterator = this.tiles.entrySet().iterator();
+    while (iterator.hasNext()) {
+      final Map.Entry<Long, BufferedImage> entry = iterator.next();
+      final long tileY = entry.getKey() >>> 32;
+      if (tileY >= fromTile && tileY <= toTile) {
+        final BufferedImage removed = entry.getValue();
+        this.tileBytes -= (long) removed.getWidth() * removed.getHeight() * 4L;
+        iterator.remove();
+      }
+    }
+    repaint();
+  }
+
+  /**
+   * Set flag that image is completely decoded. Mip levels are made only for complete image, so that
+   * they are made once when decoding is completed.
+   *
+   * @param complete true if image is completely decoded
+   */
+  public void setImageComplete(final boolean complete) {
+    if (this.imageComplete != complete) {
+      this.imageComplete = complete;
+      this.refreshImage();
     }
   }
 
@@ -276,6 +465,9 @@ final class ScalableImage extends JComponent implements ScaleStatusIndicator.Sca
 
   public void setImage(@Nullable final BufferedImage image, final boolean resetZoom) {
     this.image = image;
+    this.imageComplete = true;
+    this.mipLevels.clear();
+    this.resetTiles();
     if (resetZoom) {
       setScale(1.0f);
     }
@@ -119,10 +119,11 @@ public final class ScalableRsyntaxTextArea extends RSyntaxTextArea {
   @Nonnull
   @Override
   protected RUndoManager createUndoManager() {
-    return new RUndoManager(this) {
+    return new BudgetUndoManager(this) {
       @Override
       public void undoableEditHappened(@Nonnull final UndoableEditEvent e) {
         this.addEdit(e.getEdit());
+        this.registerEdit(e.getEdit());
         this.updateActions();
       }
 
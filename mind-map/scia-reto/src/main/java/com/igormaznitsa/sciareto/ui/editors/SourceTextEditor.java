@@ -300,7 +300,7 @@ public final class SourceTextEditor extends AbstractTextEditor {
       }
     });
 
-    this.undoManager = new RUndoManager(this.editor);
+    this.undoManager = new BudgetUndoManager(this.editor);
 
     loadContent(file);
 
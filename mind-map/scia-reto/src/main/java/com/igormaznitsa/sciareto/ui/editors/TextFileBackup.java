@@ -20,17 +20,23 @@ package com.igormaznitsa.sciareto.ui.editors;
 
 import com.igormaznitsa.mindmap.model.logger.Logger;
 import com.igormaznitsa.mindmap.model.logger.LoggerFactory;
-import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Files;
-import java.util.concurrent.ArrayBlockingQueue;
-import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.TimeUnit;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.zip.CRC32;
 import java.util.zip.Deflater;
@@ -41,14 +47,24 @@ import javax.annotation.Nullable;
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.IOUtils;
 
+/**
+ * Background backup of edited texts. Only the last queued content of every file is written, the
+ * backup is an append-only journal where the first record contains full text and every next
+ * record contains only changed part of text against the previous record. The journal is
+ * compacted into single full record periodically.
+ */
 public class TextFileBackup {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(TextFileBackup.class);
 
-  private static final BackupContent END_WORK =
-      new BackupContent(new File("/some/non-existing/fake/file"), null);
+  private static final byte[] JOURNAL_MAGIC = "ABKJRNL1".getBytes(StandardCharsets.US_ASCII);
+  private static final int RECORD_MARKER = 0x5A;
+  private static final int MAX_JOURNAL_RECORDS = 64;
+  private static final long MIN_JOURNAL_SIZE_FOR_COMPACTION = 64L * 1024L;
+
   private static final AtomicReference<TextFileBackup> instance = new AtomicReference<>();
-  private final BlockingQueue<BackupContent> contentQueue = new ArrayBlockingQueue<>(32);
+  private final Map<File, BackupContent> pendingContent = new LinkedHashMap<>();
+  private boolean finished;
 
   private TextFileBackup() {
 
@@ -97,36 +113,65 @@ public class TextFileBackup {
     return instance.get();
   }
 
-  public void finish() {
-    this.add(END_WORK);
+  private static long crc32(@Nonnull final byte[] data) {
+    final CRC32 crc32 = new CRC32();
+    crc32.update(data);
+    return crc32.getValue();
   }
 
+  /**
+   * Make journal record which turns previous content into new one.
+   *
+   * @param previous previous content, empty array for full record
+   * @param content  new content
+   * @return record bytes
+   * @throws IOException it should not be thrown
+   */
   @Nonnull
-  private byte[] prepareContent(@Nonnull final String content) {
-    final ByteArrayOutputStream bao = new ByteArrayOutputStream(content.length() << 1);
-    final byte[] textAsBytes = content.getBytes(StandardCharsets.UTF_8);
-    final CRC32 crc32 = new CRC32();
-    crc32.update(textAsBytes);
-    final long crc32value = crc32.getValue();
-    final long timestamp = System.currentTimeMillis();
+  private static byte[] makeRecord(@Nonnull final byte[] previous, @Nonnull final byte[] content)
+      throws IOException {
+    final int maxCommon = Math.min(previous.length, content.length);
+    int prefix = 0;
+    while (prefix < maxCommon && previous[prefix] == content[prefix]) {
+      prefix++;
+    }
+    int suffix = 0;
+    while (suffix < maxCommon - prefix
+        && previous[previous.length - 1 - suffix] == content[content.length - 1 - suffix]) {
+      suffix++;
+    }
 
-    try {
-      writeLong(timestamp, bao);
-      writeLong(crc32value, bao);
-      final ByteArrayOutputStream packedDataBuffer = new ByteArrayOutputStream(content.length());
-      final DeflaterOutputStream zos = new DeflaterOutputStream(packedDataBuffer, new Deflater(2));
-      IOUtils.write(textAsBytes, zos);
-      zos.flush();
-      zos.finish();
-      final byte[] packedContent = packedDataBuffer.toByteArray();
-      writeLong(textAsBytes.length, bao);
-      writeLong(packedContent.length, bao);
-      IOUtils.write(packedContent, bao);
-      bao.flush();
-      return bao.toByteArray();
+    final ByteArrayOutputStream packedDataBuffer =
+        new ByteArrayOutputStream(Math.max(32, (content.length - prefix - suffix) >> 1));
+    final DeflaterOutputStream zos = new DeflaterOutputStream(packedDataBuffer, new Deflater(2));
+    zos.write(content, prefix, content.length - prefix - suffix);
+    zos.finish();
+    final byte[] packedChange = packedDataBuffer.toByteArray();
+
+    final ByteArrayOutputStream bao = new ByteArrayOutputStream(packedChange.length + 64);
+    bao.write(RECORD_MARKER);
+    writeLong(System.currentTimeMillis(), bao);
+    writeLong(crc32(content), bao);
+    writeLong(content.length, bao);
+    writeLong(prefix, bao);
+    writeLong(suffix, bao);
+    writeLong(packedChange.length, bao);
+    IOUtils.write(packedChange, bao);
+    return bao.toByteArray();
+  }
+
+  private static void syncFolder(@Nonnull final File folder) {
+    try (final FileChannel channel = FileChannel.open(folder.toPath(), StandardOpenOption.READ)) {
+      channel.force(true);
     } catch (IOException ex) {
-      LOGGER.error("Unexpected situation, can't pack array");
-      return new byte[0];
+      // some platforms don't allow to open folder, renaming is flushed by file system then
+    }
+  }
+
+  public void finish() {
+    synchronized (this.pendingContent) {
+      this.finished = true;
+      this.pendingContent.notifyAll();
     }
   }
 
@@ -144,63 +189,121 @@ public class TextFileBackup {
     FileUtils.deleteQuietly(backup1);
   }
 
-  private void backup(@Nonnull final File file, @Nonnull final byte[] data) {
-    if (data.length > 0) {
-      final File root = file.getParentFile();
-      final File backup0 = new File(root, makeBackupFileName(file, 0));
-      final File backup1 = new File(root, makeBackupFileName(file, 1));
+  private void compactJournal(@Nonnull final File file, @Nonnull final JournalState state,
+                              @Nonnull final byte[] content) throws IOException {
+    final File root = file.getParentFile();
+    final File backup0 = new File(root, makeBackupFileName(file, 0));
+    final File backup1 = new File(root, makeBackupFileName(file, 1));
 
-      try {
-        if (backup1.isFile()) {
-          FileUtils.forceDelete(backup1);
-        }
-        FileUtils.writeByteArrayToFile(backup1, data, false);
-        if (backup0.isFile()) {
-          FileUtils.forceDelete(backup0);
-        }
-        if (!backup1.renameTo(backup0)) {
-          LOGGER.error("Can't rename backup file " + backup1 + " to " + backup0);
+    final byte[] record = makeRecord(new byte[0], content);
+    // new journal must be on disk before it replaces the old one
+    try (final FileOutputStream out = new FileOutputStream(backup1, false)) {
+      out.write(JOURNAL_MAGIC);
+      out.write(record);
+      out.getChannel().force(true);
+    }
+    try {
+      Files.move(backup1.toPath(), backup0.toPath(), StandardCopyOption.REPLACE_EXISTING,
+          StandardCopyOption.ATOMIC_MOVE);
+    } catch (AtomicMoveNotSupportedException ex) {
+      Files.move(backup1.toPath(), backup0.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    }
+    syncFolder(root);
+
+    state.content = content;
+    state.records = 1;
+    state.compactedLength = JOURNAL_MAGIC.length + record.length;
+    state.length = state.compactedLength;
+  }
+
+  private void appendJournal(@Nonnull final File file, @Nonnull final JournalState state,
+                             @Nonnull final byte[] content) throws IOException {
+    final File backup0 = new File(file.getParentFile(), makeBackupFileName(file, 0));
+    final byte[] record = makeRecord(state.content, content);
+    try (final FileOutputStream out = new FileOutputStream(backup0, true)) {
+      out.write(record);
+      out.getChannel().force(false);
+    }
+    state.content = content;
+    state.records++;
+    state.length += record.length;
+  }
+
+  private void backup(@Nonnull final File file, @Nonnull final String text,
+                      @Nonnull final Map<File, JournalState> journals) {
+    final byte[] content = text.getBytes(StandardCharsets.UTF_8);
+    JournalState state = journals.get(file);
+    if (state != null && Arrays.equals(state.content, content)) {
+      return;
+    }
+    try {
+      final File backup0 = new File(file.getParentFile(), makeBackupFileName(file, 0));
+      if (state == null
+          || state.records >= MAX_JOURNAL_RECORDS
+          || state.length > Math.max(MIN_JOURNAL_SIZE_FOR_COMPACTION, state.compactedLength * 4L)
+          || backup0.length() != state.length) {
+        if (state == null) {
+          state = new JournalState();
+          journals.put(file, state);
         }
-      } catch (IOException ex) {
-        LOGGER.error("Can't save backup file: " + file, ex);
+        compactJournal(file, state, content);
+      } else {
+        appendJournal(file, state, content);
       }
-
+    } catch (IOException ex) {
+      journals.remove(file);
+      LOGGER.error("Can't save backup file: " + file, ex);
     }
   }
 
   private void run() {
-    while (!Thread.currentThread().isInterrupted()) {
-      try {
-        final BackupContent item = this.contentQueue.poll(5, TimeUnit.SECONDS);
-        if (item != null) {
-          if (item == END_WORK) {
-            break;
-          }
-          if (item.content == null) {
-            removeBackup(item.originalFile);
-          } else {
-            backup(item.originalFile, prepareContent(item.content));
+    final Map<File, JournalState> journals = new HashMap<>();
+    boolean completed = false;
+    while (!completed && !Thread.currentThread().isInterrupted()) {
+      final BackupContent[] items;
+      synchronized (this.pendingContent) {
+        try {
+          if (this.pendingContent.isEmpty() && !this.finished) {
+            this.pendingContent.wait(5000L);
           }
+        } catch (InterruptedException ex) {
+          Thread.currentThread().interrupt();
+        }
+        items = this.pendingContent.values().toArray(new BackupContent[0]);
+        this.pendingContent.clear();
+        completed = this.finished;
+      }
+      for (final BackupContent item : items) {
+        if (item.content == null) {
+          journals.remove(item.originalFile);
+          removeBackup(item.originalFile);
+        } else {
+          backup(item.originalFile, item.content, journals);
         }
-      } catch (InterruptedException ex) {
-        Thread.currentThread().interrupt();
       }
     }
-
   }
 
   public void add(@Nonnull final BackupContent content) {
-    try {
-      final boolean placed = this.contentQueue.offer(content, 1, TimeUnit.SECONDS);
-      if (!placed) {
-        LOGGER.error("Can't place content into queue for timeout, content is " + content);
+    synchronized (this.pendingContent) {
+      if (this.finished) {
+        LOGGER.error("Backup is finished, content is ignored: " + content);
+      } else {
+        // only the last content is needed if previous one has not been written yet
+        this.pendingContent.remove(content.originalFile);
+        this.pendingContent.put(content.originalFile, content);
+        this.pendingContent.notifyAll();
       }
-    } catch (InterruptedException ex) {
-      LOGGER.error("Can't place content into queue for interruption, content is " + content);
-      Thread.currentThread().interrupt();
     }
   }
 
+  private static final class JournalState {
+    private byte[] content;
+    private int records;
+    private long length;
+    private long compactedLength;
+  }
+
   public static class Restored {
     private final long timestamp;
     private final long crc32;
@@ -209,18 +312,79 @@ public class TextFileBackup {
     private final byte[] content;
 
     public Restored(@Nonnull final File file) throws IOException {
-      try (final InputStream inStream = new BufferedInputStream(Files.newInputStream(file.toPath()))) {
+      final byte[] data = FileUtils.readFileToByteArray(file);
+      this.packedSize = data.length;
+      if (data.length >= JOURNAL_MAGIC.length
+          && Arrays.equals(JOURNAL_MAGIC, Arrays.copyOf(data, JOURNAL_MAGIC.length))) {
+        final InputStream inStream = new ByteArrayInputStream(data, JOURNAL_MAGIC.length,
+            data.length - JOURNAL_MAGIC.length);
+        byte[] restored = null;
+        long restoredTimestamp = 0L;
+        long restoredCrc32 = 0L;
+        try {
+          while (inStream.available() > 0) {
+            if (inStream.read() != RECORD_MARKER) {
+              throw new IOException("Wrong record marker");
+            }
+            final long recordTimestamp = readLong(inStream);
+            final long recordCrc32 = readLong(inStream);
+            final long size = readLong(inStream);
+            final long prefix = readLong(inStream);
+            final long suffix = readLong(inStream);
+            final long packedChangeSize = readLong(inStream);
+            final int previousSize = restored == null ? 0 : restored.length;
+            if (size < 0 || size > Integer.MAX_VALUE || prefix < 0 || suffix < 0
+                || prefix + suffix > Math.min(previousSize, size)
+                || packedChangeSize < 0 || packedChangeSize > inStream.available()) {
+              throw new IOException("Wrong record header");
+            }
+            final byte[] packedChange = new byte[(int) packedChangeSize];
+            IOUtils.readFully(inStream, packedChange);
+
+            final byte[] next = new byte[(int) size];
+            if (prefix > 0) {
+              System.arraycopy(restored, 0, next, 0, (int) prefix);
+            }
+            if (suffix > 0) {
+              System.arraycopy(restored, previousSize - (int) suffix, next,
+                  next.length - (int) suffix, (int) suffix);
+            }
+            try (final InflaterInputStream zipIn =
+                     new InflaterInputStream(new ByteArrayInputStream(packedChange))) {
+              IOUtils.readFully(zipIn, next, (int) prefix, next.length - (int) (prefix + suffix));
+            }
+            if (crc32(next) != recordCrc32) {
+              throw new IOException("CRC32 error");
+            }
+            restored = next;
+            restoredTimestamp = recordTimestamp;
+            restoredCrc32 = recordCrc32;
+          }
+        } catch (IOException ex) {
+          // the last record can be broken if writing was interrupted
+          if (restored == null) {
+            throw ex;
+          }
+          LOGGER.warn("Backup journal is restored till broken record: " + ex.getMessage());
+        }
+        if (restored == null) {
+          throw new IOException("Backup journal is empty");
+        }
+        this.timestamp = restoredTimestamp;
+        this.crc32 = restoredCrc32;
+        this.unpackedSize = restored.length;
+        this.content = restored;
+      } else {
+        final InputStream inStream = new ByteArrayInputStream(data);
         this.timestamp = readLong(inStream);
         this.crc32 = readLong(inStream);
         this.unpackedSize = (int) readLong(inStream);
-        this.packedSize = (int) readLong(inStream);
+        readLong(inStream);
         this.content = new byte[unpackedSize];
         try (final InflaterInputStream zipIn = new InflaterInputStream(inStream)) {
           IOUtils.readFully(zipIn, this.content);
         }
-        final CRC32 calcCrc32 = new CRC32();
-        calcCrc32.update(content);
-        if (crc32 != calcCrc32.getValue()) {
+        if (crc32 != crc32(this.content)) {
           throw new IOException("CRC32 error");
         }
       }
@@ -19,6 +19,7 @@ package com.igormaznitsa.sciareto.ui.editors;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.ToLongFunction;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
@@ -27,11 +28,32 @@ public final class UndoRedoStorage<T> {
   private final List<T> undoItems = new ArrayList<>();
   private final List<T> redoItems = new ArrayList<>();
   private final int maxSize;
+  private final long maxBytes;
+  private final ToLongFunction<T> sizeEstimator;
+
+  private long undoBytes;
+  private long redoBytes;
 
   private boolean hasUndoStateRemovedForFullBuffer = false;
 
   public UndoRedoStorage(final int max) {
+    this(max, Long.MAX_VALUE, x -> 0L);
+  }
+
+  /**
+   * Constructor of storage limited by both number of items and memory budget.
+   *
+   * @param max           max number of items in undo and redo lists
+   * @param maxBytes      max summary size of items in undo and redo lists, the last added item
+   *                      is kept even if it is bigger
+   * @param sizeEstimator function to estimate size of item in bytes
+   * @since 1.6.4
+   */
+  public UndoRedoStorage(final int max, final long maxBytes,
+                         @Nonnull final ToLongFunction<T> sizeEstimator) {
     this.maxSize = max;
+    this.maxBytes = maxBytes;
+    this.sizeEstimator = sizeEstimator;
   }
 
   public boolean hasUndo() {
@@ -44,28 +66,42 @@ public final class UndoRedoStorage<T> {
 
   @Nullable
   public T fromUndo() {
-    return this.undoItems.isEmpty() ? null : this.undoItems.remove(this.undoItems.size() - 1);
+    if (this.undoItems.isEmpty()) {
+      return null;
+    }
+    final T result = this.undoItems.remove(this.undoItems.size() - 1);
+    this.undoBytes -= this.sizeEstimator.applyAsLong(result);
+    return result;
   }
 
   @Nullable
   public T fromRedo() {
-    return this.redoItems.isEmpty() ? null : this.redoItems.remove(this.redoItems.size() - 1);
+    if (this.redoItems.isEmpty()) {
+      return null;
+    }
+    final T result = this.redoItems.remove(this.redoItems.size() - 1);
+    this.redoBytes -= this.sizeEstimator.applyAsLong(result);
+    return result;
   }
 
   public void addToRedo(@Nonnull final T val) {
     this.redoItems.add(val);
-    while (this.redoItems.size() > maxSize) {
-      this.redoItems.remove(0);
+    this.redoBytes += this.sizeEstimator.applyAsLong(val);
+    while (this.redoItems.size() > maxSize
+        || (this.redoItems.size() > 1 && this.redoBytes + this.undoBytes > this.maxBytes)) {
+      this.redoBytes -= this.sizeEstimator.applyAsLong(this.redoItems.remove(0));
     }
   }
 
   public void clearRedo() {
     this.redoItems.clear();
+    this.redoBytes = 0L;
   }
 
   public void clearUndo() {
     this.hasUndoStateRemovedForFullBuffer = false;
     this.undoItems.clear();
+    this.undoBytes = 0L;
   }
 
   public void setFlagThatSomeStateLost(){
@@ -78,9 +114,11 @@ public final class UndoRedoStorage<T> {
 
   public void addToUndo(@Nonnull final T val) {
     this.undoItems.add(val);
-    while (this.undoItems.size() > maxSize) {
+    this.undoBytes += this.sizeEstimator.applyAsLong(val);
+    while (this.undoItems.size() > maxSize
+        || (this.undoItems.size() > 1 && this.redoBytes + this.undoBytes > this.maxBytes)) {
       this.hasUndoStateRemovedForFullBuffer = true;
-      this.undoItems.remove(0);
+      this.undoBytes -= this.sizeEstimator.applyAsLong(this.undoItems.remove(0));
     }
   }
 }
@@ -22,9 +22,16 @@ import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
 import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
 import javax.annotation.Nonnull;
 import com.igormaznitsa.meta.common.utils.Assertions;
 
+/**
+ * Searcher of byte sequence in file content. The whole file is streamed through provided buffer,
+ * the tail of each chunk is carried into the next one so that matches crossing chunk boundaries
+ * are found. Search is made by Boyer-Moore-Horspool algorithm over two byte variants of the same
+ * length, a position matches if its byte is equal to byte of any variant.
+ */
 public class FileExaminator {
 
   private final File file;
@@ -33,6 +40,52 @@ public class FileExaminator {
     this.file = file;
   }
 
+  @Nonnull
+  static int[] makeShiftTable(@Nonnull final byte[] dataArr1, @Nonnull final byte[] dataArr2) {
+    final int len = dataArr1.length;
+    final int[] result = new int[256];
+    Arrays.fill(result, len);
+    for (int i = 0; i < len - 1; i++) {
+      final int shift = len - 1 - i;
+      result[dataArr1[i] & 0xFF] = shift;
+      result[dataArr2[i] & 0xFF] = shift;
+    }
+    return result;
+  }
+
+  /**
+   * Find first position of data in buffer area.
+   *
+   * @param buffer     buffer to be examined
+   * @param length     number of bytes in buffer to be examined, started from zero
+   * @param dataArr1   first variant of data
+   * @param dataArr2   second variant of data, must have the same length as the first one
+   * @param shiftTable shift table made for the data variants
+   * @return index of found data or -1 if not found
+   */
+  static int indexOf(@Nonnull final byte[] buffer, final int length,
+                     @Nonnull final byte[] dataArr1, @Nonnull final byte[] dataArr2,
+                     @Nonnull final int[] shiftTable) {
+    final int len = dataArr1.length;
+    final int last = len - 1;
+    int position = 0;
+    while (position <= length - len) {
+      int i = last;
+      while (i >= 0) {
+        final byte b = buffer[position + i];
+        if (b != dataArr1[i] && b != dataArr2[i]) {
+          break;
+        }
+        i--;
+      }
+      if (i < 0) {
+        return position;
+      }
+      position += shiftTable[buffer[position + last] & 0xFF];
+    }
+    return -1;
+  }
+
   public boolean doesContainData(@Nonnull final byte[] dataBuffer, @Nonnull final byte[] dataArr1, @Nonnull final byte[] dataArr2) throws IOException {
     Assertions.assertTrue("Length must be the same", dataArr1.length == dataArr2.length);
 
@@ -41,56 +94,33 @@ public class FileExaminator {
     final int len = dataArr1.length;
 
     if (len != 0 && this.file.length() >= len) {
-      final ByteBuffer buffer = ByteBuffer.wrap(dataBuffer);
-      final int[] counters = new int[len];
+      final byte[] chunk = dataBuffer.length < len * 2 ? new byte[len * 2] : dataBuffer;
+      final ByteBuffer buffer = ByteBuffer.wrap(chunk);
+      final int[] shiftTable = makeShiftTable(dataArr1, dataArr2);
 
       try (final FileChannel channel = FileChannel.open(this.file.toPath(), StandardOpenOption.READ)) {
-        buffer.clear();
+        int carried = 0;
+        boolean endOfFile = false;
 
-        while (buffer.hasRemaining() && !Thread.currentThread().isInterrupted()) {
-          int read = channel.read(buffer);
-          if (read < 0) {
-            break;
-          }
-        }
+        while (!endOfFile && !Thread.currentThread().isInterrupted()) {
+          buffer.clear();
+          buffer.position(carried);
 
-        if (dataArr1.length == 1) {
-          for (int i = 0; i < buffer.position() && !Thread.currentThread().isInterrupted(); i++) {
-            final byte b = buffer.get(i);
-            if (b == dataArr1[0] || b == dataArr2[0]) {
-              result = true;
+          while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+              endOfFile = true;
               break;
             }
           }
-        } else {
-          mainLoop:
-          for (int i = 0; i < buffer.position() && !Thread.currentThread().isInterrupted(); i++) {
-            final byte b = buffer.get(i);
-            for (int j = 0; j < len; j++) {
-              int c = counters[j];
-              if (c == 0) {
-                continue;
-              }
-              if (b == dataArr1[c] || b == dataArr2[c]) {
-                c++;
-                if (c == len) {
-                  result = true;
-                  break mainLoop;
-                }
-                counters[j] = c;
-              } else {
-                counters[j] = 0;
-              }
-            }
-            if (b == dataArr1[0] || b == dataArr2[0]) {
-              for (int j = 0; j < len; j++) {
-                if (counters[j] == 0) {
-                  counters[j] = 1;
-                  break;
-                }
-              }
-            }
+
+          final int filled = buffer.position();
+          if (filled >= len && indexOf(chunk, filled, dataArr1, dataArr2, shiftTable) >= 0) {
+            result = true;
+            break;
           }
+
+          carried = Math.min(len - 1, filled);
+          System.arraycopy(chunk, filled - carried, chunk, 0, carried);
         }
       }
     }
@@ -17,12 +17,9 @@
  */
 package com.igormaznitsa.sciareto.ui.misc;
 
-import com.igormaznitsa.mindmap.model.MMapURI;
-import com.igormaznitsa.mindmap.model.MindMap;
 import com.igormaznitsa.mindmap.model.logger.Logger;
 import com.igormaznitsa.mindmap.model.logger.LoggerFactory;
 import com.igormaznitsa.mindmap.swing.panel.utils.Utils;
-import com.igormaznitsa.sciareto.ui.MapUtils;
 import com.igormaznitsa.sciareto.ui.SrI18n;
 import com.igormaznitsa.sciareto.ui.UiUtils;
 import edu.uci.ics.jung.algorithms.layout.CircleLayout;
@@ -51,12 +48,9 @@ import java.awt.Paint;
 import java.awt.Window;
 import java.awt.event.MouseEvent;
 import java.io.File;
-import java.io.StringReader;
-import java.nio.charset.StandardCharsets;
-import java.util.HashSet;
-import java.util.Iterator;
-import java.util.Set;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import javax.swing.Icon;
@@ -66,7 +60,6 @@ import javax.swing.JLabel;
 import javax.swing.JPanel;
 import javax.swing.SwingUtilities;
 import net.sourceforge.plantuml.bpm.Col;
-import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.FilenameUtils;
 import org.apache.commons.text.StringEscapeUtils;
 
@@ -160,109 +153,20 @@ public final class FileLinkGraphPanel extends JPanel {
   private Graph<FileVertex, Number> makeGraph(@Nullable final File projectFolder, @Nullable final File startMindMap) {
     final DirectedSparseGraph<FileVertex, Number> result = new DirectedSparseGraph<>();
 
-    final AtomicInteger edgeCounter = new AtomicInteger();
-
-    final Set<File> mapFilesInProcessing = new HashSet<>();
-
-    if (startMindMap != null) {
-      addMindMapAndFillByItsLinks(null, result, projectFolder, startMindMap, edgeCounter, mapFilesInProcessing);
-    } else if (projectFolder != null) {
-      final Iterator<File> iterator = FileUtils.iterateFiles(projectFolder, new String[]{"mmd"}, true); //NOI18N
-      while (iterator.hasNext()) {
-        final File mmdFile = iterator.next();
-        if (mmdFile.isFile()) {
-          addMindMapAndFillByItsLinks(null, result, projectFolder, mmdFile, edgeCounter, mapFilesInProcessing);
-        }
-      }
+    if (startMindMap == null && projectFolder == null) {
+      return result;
     }
 
-    return result;
-  }
-
-  @Nullable
-  private static FileVertex addMindMapAndFillByItsLinks(@Nullable final FileVertex parent, @Nonnull final @Nullable Graph<FileVertex, Number> graph, @Nullable final File projectFolder, @Nonnull final File mindMapFile, @Nonnull final AtomicInteger edgeCounter, @Nonnull Set<File> mapFilesInProcessing) {
-
-    MindMap map;
-
-    FileVertex thisVertex;
-
-    try {
-
-      thisVertex = new FileVertex(mindMapFile, FileVertexType.MINDMAP);
-      map = new MindMap(new StringReader(FileUtils.readFileToString(mindMapFile, StandardCharsets.UTF_8)));
-
-      if (parent != null) {
-        for (final MMapURI fileUri : MapUtils.extractAllFileLinks(map)) {
-          if (parent.getFile().equals(fileUri.asFile(projectFolder))) {
-            graph.addEdge(edgeCounter.getAndIncrement(), thisVertex, parent, EdgeType.DIRECTED);
-            break;
-          }
-        }
-        if (mapFilesInProcessing.contains(mindMapFile)) {
-          return null;
-        }
-      }
-    }
-    catch (final Exception ex) {
-      LOGGER.error("Can't load mind map : " + mindMapFile, ex); //NOI18N
-      thisVertex = new FileVertex(mindMapFile, FileVertexType.UNKNOWN);
-      map = null;
-    }
-
-    mapFilesInProcessing.add(mindMapFile);
-
-    graph.addVertex(thisVertex);
-
-    if (map != null) {
-      for (final MMapURI fileUri : MapUtils.extractAllFileLinks(map)) {
-        final FileVertex that;
-
-        final File convertedFile = convertUriInFile(mindMapFile, projectFolder, fileUri);
-
-        if (convertedFile == null) {
-          that = new FileVertex(fileUri.asFile(projectFolder), FileVertexType.NOTFOUND);
-        } else if (convertedFile.isDirectory()) {
-          that = new FileVertex(convertedFile, FileVertexType.FOLDER);
-        } else if (convertedFile.isFile()) {
-
-          if (convertedFile.getName().endsWith(".mmd")) { //NOI18N
-            if (convertedFile.equals(mindMapFile)) {
-              that = thisVertex;
-            } else {
-              that = addMindMapAndFillByItsLinks(thisVertex, graph, projectFolder, convertedFile, edgeCounter, mapFilesInProcessing);
-            }
-          } else {
-            that = new FileVertex(convertedFile, FileVertexType.DOCUMENT);
-          }
-
-        } else {
-          that = new FileVertex(convertedFile, convertedFile.exists() ? FileVertexType.UNKNOWN : FileVertexType.NOTFOUND);
-        }
-
-        if (that != null) {
-          graph.addEdge(edgeCounter.getAndIncrement(), thisVertex, that, EdgeType.DIRECTED);
-        }
-      }
-    }
-
-    return thisVertex;
-  }
-
-  @Nullable
-  private static File convertUriInFile(@Nonnull final File containingMindMap, @Nullable final File baseFolder, @Nonnull final MMapURI uri) {
-    File result = uri.asFile(baseFolder);
-
-    if (!uri.isAbsolute() && !result.exists()) {
-      File basePath = com.igormaznitsa.sciareto.ui.FileUtils.removeLastElementInPath(containingMindMap);
-      do {
-        result = uri.asFile(basePath);
-        if (result.exists()) {
-          break;
+    final MindMapLinkGraph linkGraph = MindMapLinkGraph.find(projectFolder);
+    synchronized (linkGraph) {
+      linkGraph.refresh(startMindMap == null ? Collections.emptyList() : Collections.singletonList(startMindMap));
+      int edgeCounter = 0;
+      for (final Map.Entry<FileVertex, List<FileVertex>> e : linkGraph.makeAdjacency(startMindMap).entrySet()) {
+        result.addVertex(e.getKey());
+        for (final FileVertex v : e.getValue()) {
+          result.addEdge(edgeCounter++, e.getKey(), v, EdgeType.DIRECTED);
         }
-        result = null;
-        basePath = com.igormaznitsa.sciareto.ui.FileUtils.removeLastElementInPath(basePath);
       }
-      while (!com.igormaznitsa.sciareto.ui.FileUtils.isRootFile(basePath));
     }
 
     return result;
@@ -21,11 +21,7 @@ import java.awt.Dimension;
 import java.awt.event.KeyEvent;
 import java.io.File;
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Comparator;
 import java.util.List;
-import java.util.Locale;
-import java.util.regex.Pattern;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import javax.swing.ListModel;
@@ -33,12 +29,13 @@ import javax.swing.event.DocumentEvent;
 import javax.swing.event.DocumentListener;
 import javax.swing.event.ListDataEvent;
 import javax.swing.event.ListDataListener;
+import com.igormaznitsa.meta.annotation.MustNotContainNull;
 import com.igormaznitsa.mindmap.swing.panel.utils.Focuser;
 import com.igormaznitsa.sciareto.ui.UiUtils;
 import com.igormaznitsa.sciareto.ui.tree.ExplorerTree;
 import com.igormaznitsa.sciareto.ui.tree.NodeFileOrFolder;
 
-public class GoToFilePanel extends javax.swing.JPanel implements Comparator<NodeFileOrFolder> {
+public class GoToFilePanel extends javax.swing.JPanel {
 
   private static final long serialVersionUID = 6372355072139143322L;
 
@@ -49,11 +46,6 @@ public class GoToFilePanel extends javax.swing.JPanel implements Comparator<Node
 
   private final Object dialogOkObject;
   
-  @Override
-  public int compare(@Nonnull final NodeFileOrFolder o1, @Nonnull final NodeFileOrFolder o2) {
-    return o1.toString().compareTo(o2.toString());
-  }
-
   @SuppressWarnings("ResultOfObjectAllocationIgnored")
   public GoToFilePanel(@Nonnull final ExplorerTree tree, @Nullable final Object dialogOkObject) {
     super();
@@ -117,48 +109,30 @@ public class GoToFilePanel extends javax.swing.JPanel implements Comparator<Node
     return this.listFoundFiles.getSelectedValue();
   }
 
+  @Override
+  public void removeNotify() {
+    this.tree.cancelSearchForName();
+    super.removeNotify();
+  }
+
   private void processEnteredPattern() {
+    this.tree.searchForName(this.textFieldMask.getText(), this::onFoundNodes);
+  }
+
+  private void onFoundNodes(@Nonnull @MustNotContainNull final List<NodeFileOrFolder> nodes, final boolean completed) {
+    final NodeFileOrFolder selected = this.listFoundFiles.getSelectedIndex() > 0 ? this.listFoundFiles.getSelectedValue() : null;
+
     this.foundNodeList.clear();
-    this.foundNodeList.addAll(this.tree.findForNamePattern(makePattern(this.textFieldMask.getText())));
+    this.foundNodeList.addAll(nodes);
     for (final ListDataListener l : this.listeners) {
       l.contentsChanged(new ListDataEvent(this.listFoundFiles.getModel(), ListDataEvent.CONTENTS_CHANGED, 0, this.foundNodeList.size()));
     }
 
-    Collections.sort(this.foundNodeList, this);
-
     if (!this.foundNodeList.isEmpty()) {
-      this.listFoundFiles.setSelectedIndex(0);
-      this.listFoundFiles.ensureIndexIsVisible(0);
-    }
-  }
-
-  @Nullable
-  private Pattern makePattern(@Nonnull final String text) {
-    if (text.isEmpty()) {
-      return null;
-    }
-    final StringBuilder buffer = new StringBuilder();
-    for (final char c : text.toCharArray()) {
-      switch (c) {
-        case '?':
-          buffer.append('.');
-          break;
-        case '*':
-          buffer.append(".*"); //NOI18N
-          break;
-        default: {
-          if (Character.isWhitespace(c) || Character.isISOControl(c)) {
-            buffer.append("\\s"); //NOI18N
-          } else {
-            final String code = Integer.toHexString(c).toUpperCase(Locale.ENGLISH);
-            buffer.append("\\u").append("0000", 0, 4 - code.length()).append(code); //NOI18N
-          }
-        }
-        break;
-      }
+      final int index = selected == null ? 0 : Math.max(0, this.foundNodeList.indexOf(selected));
+      this.listFoundFiles.setSelectedIndex(index);
+      this.listFoundFiles.ensureIndexIsVisible(index);
     }
-    buffer.append(".*"); //NOI18N
-    return Pattern.compile(buffer.toString(), Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE);
   }
 
   /**
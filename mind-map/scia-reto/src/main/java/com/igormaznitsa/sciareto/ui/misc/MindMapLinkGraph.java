@@ -0,0 +1,336 @@
+/*
+ * Copyright (C) 2015-2022 Igor A. Maznitsa
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package com.igormaznitsa.sciareto.ui.misc;
+
+import com.igormaznitsa.meta.annotation.MustNotContainNull;
+import com.igormaznitsa.mindmap.model.MMapURI;
+import com.igormaznitsa.mindmap.model.MindMap;
+import com.igormaznitsa.mindmap.model.logger.Logger;
+import com.igormaznitsa.mindmap.model.logger.LoggerFactory;
+import com.igormaznitsa.sciareto.ui.MapUtils;
+import com.igormaznitsa.sciareto.ui.SystemUtils;
+import com.igormaznitsa.sciareto.ui.misc.FileLinkGraphPanel.FileVertexType;
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import org.apache.commons.io.FileUtils;
+
+/**
+ * Graph of links between mind maps and files kept between openings of file link graph. Every mind
+ * map is parsed only when its modification time or size is changed, parsing is made in parallel.
+ * Linked files are resolved once for every distinct link and resolved again only when a mind map
+ * containing the link is changed, so that file link graph is made from ready adjacency lists.
+ */
+final class MindMapLinkGraph {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(MindMapLinkGraph.class);
+
+  private static final int MAX_CACHED_GRAPHS = 8;
+
+  private static final Map<File, MindMapLinkGraph> CACHE = new LinkedHashMap<File, MindMapLinkGraph>(16, 0.75f, true) {
+    @Override
+    protected boolean removeEldestEntry(@Nonnull final Map.Entry<File, MindMapLinkGraph> eldest) {
+      return this.size() > MAX_CACHED_GRAPHS;
+    }
+  };
+
+  private final File projectFolder;
+  private final Map<File, MapEntry> maps = new ConcurrentHashMap<>();
+  private final Map<LinkKey, Target> targets = new ConcurrentHashMap<>();
+
+  private MindMapLinkGraph(@Nullable final File projectFolder) {
+    this.projectFolder = projectFolder;
+  }
+
+  /**
+   * Find cached graph for project folder.
+   *
+   * @param projectFolder project folder, can be null if mind map is out of any project
+   * @return graph for the folder, must be refreshed before use
+   */
+  @Nonnull
+  static MindMapLinkGraph find(@Nullable final File projectFolder) {
+    if (projectFolder == null) {
+      return new MindMapLinkGraph(null);
+    }
+    synchronized (CACHE) {
+      return CACHE.computeIfAbsent(projectFolder.getAbsoluteFile(), MindMapLinkGraph::new);
+    }
+  }
+
+  @Nullable
+  private static File convertUriInFile(@Nonnull final File mindMapFolder, @Nullable final File baseFolder, @Nonnull final MMapURI uri) {
+    File result = uri.asFile(baseFolder);
+
+    if (!uri.isAbsolute() && !result.exists()) {
+      File basePath = mindMapFolder;
+      do {
+        result = uri.asFile(basePath);
+        if (result.exists()) {
+          break;
+        }
+        result = null;
+        basePath = com.igormaznitsa.sciareto.ui.FileUtils.removeLastElementInPath(basePath);
+      }
+      while (!com.igormaznitsa.sciareto.ui.FileUtils.isRootFile(basePath));
+    }
+
+    return result;
+  }
+
+  @Nonnull
+  private Target resolve(@Nonnull final LinkKey link) {
+    final File converted = convertUriInFile(link.mindMapFolder, this.projectFolder, link.uri);
+    if (converted == null) {
+      return new Target(link.uri.asFile(this.projectFolder), FileVertexType.NOTFOUND);
+    }
+    try {
+      final BasicFileAttributes attributes = Files.readAttributes(converted.toPath(), BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+      if (attributes.isDirectory()) {
+        return new Target(converted, FileVertexType.FOLDER);
+      } else if (attributes.isRegularFile() || attributes.isSymbolicLink() && converted.isFile()) {
+        return new Target(converted, converted.getName().endsWith(".mmd") ? FileVertexType.MINDMAP : FileVertexType.DOCUMENT); //NOI18N
+      } else {
+        return new Target(converted, FileVertexType.UNKNOWN);
+      }
+    } catch (IOException ex) {
+      return new Target(converted, FileVertexType.NOTFOUND);
+    }
+  }
+
+  private void updateMap(@Nonnull final File mindMapFile, @Nonnull @MustNotContainNull final Set<LinkKey> changedLinks) {
+    final long modified = mindMapFile.lastModified();
+    final long length = mindMapFile.length();
+    final MapEntry current = this.maps.get(mindMapFile);
+    if (current != null && current.modified == modified && current.length == length) {
+      return;
+    }
+    List<LinkKey> links;
+    try {
+      final MindMap map = new MindMap(new StringReader(FileUtils.readFileToString(mindMapFile, StandardCharsets.UTF_8)));
+      final File folder = com.igormaznitsa.sciareto.ui.FileUtils.removeLastElementInPath(mindMapFile);
+      links = new ArrayList<>();
+      for (final MMapURI uri : MapUtils.extractAllFileLinks(map)) {
+        links.add(new LinkKey(folder, uri));
+      }
+    } catch (Exception ex) {
+      LOGGER.error("Can't load mind map : " + mindMapFile, ex); //NOI18N
+      links = null;
+    }
+    if (links != null) {
+      changedLinks.addAll(links);
+    }
+    this.maps.put(mindMapFile, new MapEntry(modified, length, links));
+  }
+
+  private static void runInParallel(@Nonnull final Runnable task) {
+    final ForkJoinPool pool = SystemUtils.makeDaemonForkJoinPool("SciaRetoLinkGraph", //NOI18N
+        Runtime.getRuntime().availableProcessors());
+    try {
+      pool.submit(task).get();
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+    } catch (ExecutionException ex) {
+      LOGGER.error("Error during refresh of link graph", ex.getCause()); //NOI18N
+    } finally {
+      pool.shutdownNow();
+    }
+  }
+
+  /**
+   * Refresh graph, mind maps of project folder which have been changed since previous refresh are
+   * parsed again and their linked files are resolved again, removed ones are dropped.
+   *
+   * @param extraMindMaps mind maps which must be in graph even if they are out of project folder
+   */
+  void refresh(@Nonnull @MustNotContainNull final Collection<File> extraMindMaps) {
+    final long start = System.currentTimeMillis();
+    final Set<File> actual = new HashSet<>();
+    if (this.projectFolder != null && this.projectFolder.isDirectory()) {
+      for (final File f : FileUtils.listFiles(this.projectFolder, new String[] {"mmd"}, true)) { //NOI18N
+        if (f.isFile()) {
+          actual.add(f);
+        }
+      }
+    }
+    actual.addAll(extraMindMaps);
+
+    // mind maps linked from other ones but placed out of project folder
+    Collection<File> toUpdate = actual;
+    while (!toUpdate.isEmpty()) {
+      this.maps.keySet().retainAll(actual);
+      final Collection<File> batch = toUpdate;
+      final Set<LinkKey> changedLinks = ConcurrentHashMap.newKeySet();
+      runInParallel(() -> batch.parallelStream().forEach(f -> this.updateMap(f, changedLinks)));
+
+      final Set<LinkKey> links = new HashSet<>();
+      for (final MapEntry e : this.maps.values()) {
+        if (e.links != null) {
+          links.addAll(e.links);
+        }
+      }
+      // targets of links from changed mind maps are resolved again, links not used anymore dropped
+      this.targets.keySet().removeAll(changedLinks);
+      this.targets.keySet().retainAll(links);
+
+      final List<LinkKey> unresolved = new ArrayList<>(links);
+      unresolved.removeAll(this.targets.keySet());
+      if (!unresolved.isEmpty()) {
+        runInParallel(() -> unresolved.parallelStream().forEach(l -> this.targets.put(l, this.resolve(l))));
+      }
+
+      toUpdate = new ArrayList<>();
+      for (final Target t : this.targets.values()) {
+        if (t.type == FileVertexType.MINDMAP && actual.add(t.file)) {
+          toUpdate.add(t.file);
+        }
+      }
+    }
+    LOGGER.info(String.format("Link graph of %d mind maps refreshed, spent %d ms", this.maps.size(), System.currentTimeMillis() - start)); //NOI18N
+  }
+
+  @Nonnull
+  @MustNotContainNull
+  private List<Target> findTargets(@Nonnull final MapEntry entry) {
+    final List<Target> result = new ArrayList<>(entry.links.size());
+    for (final LinkKey l : entry.links) {
+      final Target target = this.targets.get(l);
+      if (target != null) {
+        result.add(target);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Make adjacency lists of graph.
+   *
+   * @param startMindMap mind map to start from, only mind maps reachable from it are included, if
+   *                     null then all mind maps are included
+   * @return map of vertexes to lists of vertexes they link
+   */
+  @Nonnull
+  Map<FileLinkGraphPanel.FileVertex, List<FileLinkGraphPanel.FileVertex>> makeAdjacency(@Nullable final File startMindMap) {
+    final Map<File, FileLinkGraphPanel.FileVertex> vertexes = new HashMap<>();
+    final Map<FileLinkGraphPanel.FileVertex, List<FileLinkGraphPanel.FileVertex>> result = new LinkedHashMap<>();
+
+    final Deque<File> queue = new ArrayDeque<>();
+    if (startMindMap == null) {
+      final List<File> all = new ArrayList<>(this.maps.keySet());
+      Collections.sort(all);
+      queue.addAll(all);
+    } else {
+      queue.add(startMindMap);
+    }
+
+    final Set<File> visited = new HashSet<>();
+    while (!queue.isEmpty()) {
+      final File mindMap = queue.poll();
+      if (!visited.add(mindMap)) {
+        continue;
+      }
+      final MapEntry entry = this.maps.get(mindMap);
+      final boolean parsed = entry != null && entry.links != null;
+      final FileLinkGraphPanel.FileVertex vertex = vertexes.computeIfAbsent(mindMap,
+          f -> new FileLinkGraphPanel.FileVertex(f, parsed ? FileVertexType.MINDMAP : FileVertexType.UNKNOWN));
+      final List<FileLinkGraphPanel.FileVertex> linked = result.computeIfAbsent(vertex, v -> new ArrayList<>());
+      if (parsed) {
+        for (final Target t : this.findTargets(entry)) {
+          linked.add(vertexes.computeIfAbsent(t.file, f -> new FileLinkGraphPanel.FileVertex(f, t.type)));
+          if (t.type == FileVertexType.MINDMAP && startMindMap != null) {
+            queue.add(t.file);
+          }
+        }
+      }
+    }
+    return result;
+  }
+
+  private static final class LinkKey {
+
+    private final File mindMapFolder;
+    private final MMapURI uri;
+
+    LinkKey(@Nonnull final File mindMapFolder, @Nonnull final MMapURI uri) {
+      this.mindMapFolder = mindMapFolder;
+      this.uri = uri;
+    }
+
+    @Override
+    public int hashCode() {
+      return this.mindMapFolder.hashCode() * 31 + this.uri.hashCode();
+    }
+
+    @Override
+    public boolean equals(@Nullable final Object obj) {
+      if (this == obj) {
+        return true;
+      }
+      if (!(obj instanceof LinkKey)) {
+        return false;
+      }
+      final LinkKey that = (LinkKey) obj;
+      return this.mindMapFolder.equals(that.mindMapFolder) && this.uri.equals(that.uri);
+    }
+  }
+
+  private static final class Target {
+
+    private final File file;
+    private final FileVertexType type;
+
+    Target(@Nonnull final File file, @Nonnull final FileVertexType type) {
+      this.file = file;
+      this.type = type;
+    }
+  }
+
+  private static final class MapEntry {
+
+    private final long modified;
+    private final long length;
+    private final List<LinkKey> links;
+
+    MapEntry(final long modified, final long length, @Nullable @MustNotContainNull final List<LinkKey> links) {
+      this.modified = modified;
+      this.length = length;
+      this.links = links;
+    }
+  }
+}
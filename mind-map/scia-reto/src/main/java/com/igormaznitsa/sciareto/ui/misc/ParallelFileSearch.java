@@ -0,0 +1,163 @@
+/*
+ * Copyright (C) 2015-2022 Igor A. Maznitsa
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package com.igormaznitsa.sciareto.ui.misc;
+
+import com.igormaznitsa.meta.annotation.MustNotContainNull;
+import com.igormaznitsa.mindmap.model.logger.Logger;
+import com.igormaznitsa.mindmap.model.logger.LoggerFactory;
+import com.igormaznitsa.sciareto.ui.SystemUtils;
+import com.igormaznitsa.sciareto.ui.tree.NodeFileOrFolder;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import javax.annotation.Nonnull;
+
+/**
+ * Search over file tree nodes where files are examined in parallel on work-stealing pool, but
+ * found files are reported in the same order as sequential walk would report them. The calling
+ * thread enumerates nodes, collects results and should be interrupted to cancel search.
+ */
+public final class ParallelFileSearch {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(ParallelFileSearch.class);
+
+  private static final int MAX_BATCH_SIZE = 64;
+
+  private final FileMatcher matcher;
+  private final SearchListener listener;
+  private final int parallelism;
+
+  public ParallelFileSearch(@Nonnull final FileMatcher matcher, @Nonnull final SearchListener listener) {
+    this(Runtime.getRuntime().availableProcessors(), matcher, listener);
+  }
+
+  public ParallelFileSearch(final int parallelism, @Nonnull final FileMatcher matcher, @Nonnull final SearchListener listener) {
+    this.parallelism = Math.max(1, parallelism);
+    this.matcher = matcher;
+    this.listener = listener;
+  }
+
+  private static int collectFiles(@Nonnull final NodeFileOrFolder folder, @Nonnull @MustNotContainNull final List<NodeFileOrFolder> files) {
+    int folders = 0;
+    for (final NodeFileOrFolder f : folder) {
+      if (Thread.currentThread().isInterrupted()) {
+        break;
+      }
+      if (f.isLeaf()) {
+        files.add(f);
+      } else {
+        f.ensureLoaded();
+        folders += 1 + collectFiles(f, files);
+      }
+    }
+    return folders;
+  }
+
+  /**
+   * Search files in scope. Must be called on dedicated search thread, interruption of the thread
+   * cancels search.
+   *
+   * @param scope roots of search, their children are examined
+   * @return true if search completed, false if it was interrupted
+   */
+  public boolean search(@Nonnull @MustNotContainNull final List<? extends NodeFileOrFolder> scope) {
+    final List<NodeFileOrFolder> files = new ArrayList<>();
+    int progress = 0;
+    for (final NodeFileOrFolder root : scope) {
+      root.ensureLoaded();
+      progress += collectFiles(root, files);
+    }
+    if (Thread.currentThread().isInterrupted()) {
+      return false;
+    }
+    this.listener.onStart(scope.size() + progress + files.size());
+    this.listener.onProgress(progress);
+
+    final ForkJoinPool pool = SystemUtils.makeDaemonForkJoinPool("SciaRetoSearch", //NOI18N
+        Math.min(this.parallelism, Math.max(1, files.size())));
+    try {
+      final List<Future<Boolean>> results = new ArrayList<>(files.size());
+      for (final NodeFileOrFolder file : files) {
+        results.add(pool.submit(() -> !Thread.currentThread().isInterrupted() && this.matcher.matches(file)));
+      }
+
+      final List<NodeFileOrFolder> batch = new ArrayList<>();
+      for (int i = 0; i < results.size(); i++) {
+        if (Thread.currentThread().isInterrupted()) {
+          return false;
+        }
+        final Future<Boolean> future = results.get(i);
+        try {
+          if (future.get()) {
+            batch.add(files.get(i));
+          }
+        } catch (InterruptedException ex) {
+          Thread.currentThread().interrupt();
+          return false;
+        } catch (ExecutionException ex) {
+          LOGGER.error("Error during search in '" + files.get(i) + '\'', ex.getCause()); //NOI18N
+        } catch (CancellationException ex) {
+          return false;
+        }
+
+        progress++;
+        final boolean last = i == results.size() - 1;
+        if (!batch.isEmpty() && (last || batch.size() >= MAX_BATCH_SIZE || !results.get(i + 1).isDone())) {
+          this.listener.onFound(new ArrayList<>(batch));
+          batch.clear();
+        }
+        if (last || !results.get(i + 1).isDone()) {
+          this.listener.onProgress(progress);
+        }
+      }
+      return true;
+    } finally {
+      pool.shutdownNow();
+    }
+  }
+
+  /**
+   * Matcher of file node, it is called concurrently from pool threads.
+   */
+  @FunctionalInterface
+  public interface FileMatcher {
+
+    boolean matches(@Nonnull NodeFileOrFolder file) throws Exception;
+  }
+
+  /**
+   * Listener of search, it is called from search thread.
+   */
+  public interface SearchListener {
+
+    /**
+     * Called when all files in scope are collected, folders not read yet in lazy mode are read
+     * during collecting.
+     *
+     * @param total number of folders and files in scope
+     */
+    void onStart(int total);
+
+    void onFound(@Nonnull @MustNotContainNull List<NodeFileOrFolder> files);
+
+    void onProgress(int value);
+  }
+}
@@ -160,6 +160,11 @@ public final class TabTitle extends JPanel {
       result = true;
       this.changed = false;
       updateView();
+      final File file = this.associatedFile;
+      final NodeProject project = file == null ? null : this.context.findProjectForFile(file);
+      if (project != null) {
+        project.notifyFileChanged(file);
+      }
     }
     return result;
   }
@@ -54,17 +54,25 @@ import java.awt.event.MouseEvent;
 import java.io.File;
 import java.io.IOException;
 import java.io.StringWriter;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryNotificationInfo;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Enumeration;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.ResourceBundle;
 import java.util.function.Predicate;
-import java.util.regex.Pattern;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
+import javax.management.ListenerNotFoundException;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
 import javax.swing.DropMode;
 import javax.swing.Icon;
 import javax.swing.ImageIcon;
@@ -77,6 +85,10 @@ import javax.swing.JSeparator;
 import javax.swing.JTree;
 import javax.swing.SwingUtilities;
 import javax.swing.ToolTipManager;
+import javax.swing.event.TreeExpansionEvent;
+import javax.swing.event.TreeModelEvent;
+import javax.swing.event.TreeModelListener;
+import javax.swing.event.TreeWillExpandListener;
 import javax.swing.tree.TreePath;
 import javax.swing.tree.TreeSelectionModel;
 import org.apache.commons.io.FileUtils;
@@ -87,9 +99,32 @@ public final class ExplorerTree extends JScrollPane {
   private static final long serialVersionUID = 3894835807758698784L;
   private static final Logger LOGGER = LoggerFactory.getLogger(ExplorerTree.class);
   private static final Icon CROSS_ICON = new ImageIcon(UiUtils.loadIcon("nimbusCloseFrame.png"));
+  private static final double LOW_MEMORY_THRESHOLD = 0.75d;
 
   private final DnDTree projectTree;
   private final Context context;
+  private final Map<MemoryPoolMXBean, Long> lowMemoryThresholds = new HashMap<>();
+  private final TreeModelListener lazyProjectTracker = new TreeModelListener() {
+    @Override
+    public void treeNodesChanged(@Nonnull final TreeModelEvent e) {
+    }
+
+    @Override
+    public void treeNodesInserted(@Nonnull final TreeModelEvent e) {
+      updateLowMemoryListener();
+    }
+
+    @Override
+    public void treeNodesRemoved(@Nonnull final TreeModelEvent e) {
+      updateLowMemoryListener();
+    }
+
+    @Override
+    public void treeStructureChanged(@Nonnull final TreeModelEvent e) {
+      updateLowMemoryListener();
+    }
+  };
+  private NotificationListener lowMemoryListener;
 
 
   private final ResourceBundle bundle = SrI18n.getInstance().findBundle();
@@ -106,10 +141,23 @@ public final class ExplorerTree extends JScrollPane {
     ToolTipManager.sharedInstance().registerComponent(this.projectTree);
 
     this.projectTree.setCellRenderer(new TreeCellRenderer());
-    this.projectTree.setModel(new NodeProjectGroup(predicateShowHiddenFiles, context, ".")); //NOI18N
+    final NodeProjectGroup group = new NodeProjectGroup(predicateShowHiddenFiles, context, "."); //NOI18N
+    group.addTreeModelListener(this.lazyProjectTracker);
+    this.projectTree.setModel(group);
     this.projectTree.setRootVisible(false);
     this.setViewportView(this.projectTree);
 
+    this.projectTree.addTreeWillExpandListener(new TreeWillExpandListener() {
+      @Override
+      public void treeWillExpand(@Nonnull final TreeExpansionEvent event) {
+        ((NodeFileOrFolder) event.getPath().getLastPathComponent()).loadLater(null);
+      }
+
+      @Override
+      public void treeWillCollapse(@Nonnull final TreeExpansionEvent event) {
+      }
+    });
+
     this.projectTree.addKeyListener(new KeyAdapter() {
       @Override
       public void keyPressed(@Nonnull final KeyEvent e) {
@@ -182,6 +230,112 @@ public final class ExplorerTree extends JScrollPane {
     });
   }
 
+  @Override
+  public void addNotify() {
+    super.addNotify();
+    this.updateLowMemoryListener();
+  }
+
+  @Override
+  public void removeNotify() {
+    this.uninstallLowMemoryListener();
+    super.removeNotify();
+  }
+
+  private boolean hasLazyProject() {
+    for (final NodeFileOrFolder p : this.getCurrentGroup()) {
+      if (((NodeProject) p).isLazyLoading()) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Low memory listener is needed only while some project is opened in lazy mode, because only
+   * folders of such projects can be unloaded.
+   */
+  private void updateLowMemoryListener() {
+    if (this.isDisplayable() && this.hasLazyProject()) {
+      this.installLowMemoryListener();
+    } else {
+      this.uninstallLowMemoryListener();
+    }
+  }
+
+  private void installLowMemoryListener() {
+    if (this.lowMemoryListener != null) {
+      return;
+    }
+    for (final MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+      final long max = pool.getUsage().getMax();
+      // threshold set by another component is not touched, its notifications are enough
+      if (pool.getType() == MemoryType.HEAP && pool.isCollectionUsageThresholdSupported() && max > 0L
+          && pool.getCollectionUsageThreshold() == 0L) {
+        final long threshold = Math.round(max * LOW_MEMORY_THRESHOLD);
+        pool.setCollectionUsageThreshold(threshold);
+        this.lowMemoryThresholds.put(pool, threshold);
+      }
+    }
+    this.lowMemoryListener = (notification, handback) -> {
+      if (MemoryNotificationInfo.MEMORY_COLLECTION_THRESHOLD_EXCEEDED.equals(notification.getType())) {
+        SwingUtilities.invokeLater(this::unloadCollapsedFolders);
+      }
+    };
+    ((NotificationEmitter) ManagementFactory.getMemoryMXBean()).addNotificationListener(this.lowMemoryListener, null, null);
+  }
+
+  private void uninstallLowMemoryListener() {
+    final NotificationListener listener = this.lowMemoryListener;
+    if (listener != null) {
+      this.lowMemoryListener = null;
+      try {
+        ((NotificationEmitter) ManagementFactory.getMemoryMXBean()).removeNotificationListener(listener);
+      } catch (ListenerNotFoundException ex) {
+        LOGGER.warn("Low memory listener is not found"); //NOI18N
+      }
+    }
+    for (final Map.Entry<MemoryPoolMXBean, Long> e : this.lowMemoryThresholds.entrySet()) {
+      if (e.getKey().getCollectionUsageThreshold() == e.getValue()) {
+        e.getKey().setCollectionUsageThreshold(0L);
+      }
+    }
+    this.lowMemoryThresholds.clear();
+  }
+
+  /**
+   * Drop children of collapsed folders in projects opened in lazy mode, they will be read again
+   * when expanded.
+   */
+  public void unloadCollapsedFolders() {
+    final NodeProjectGroup group = getCurrentGroup();
+    int unloaded = 0;
+    for (final NodeFileOrFolder p : group) {
+      final NodeProject project = (NodeProject) p;
+      if (project.isLazyLoading() && !project.isLoading()) {
+        unloaded += unloadCollapsedFolders(group, project);
+      }
+    }
+    if (unloaded > 0) {
+      LOGGER.info("Unloaded collapsed folders: " + unloaded); //NOI18N
+    }
+  }
+
+  private int unloadCollapsedFolders(@Nonnull final NodeProjectGroup group, @Nonnull final NodeFileOrFolder folder) {
+    int result = 0;
+    for (final NodeFileOrFolder child : folder) {
+      if (child.getAllowsChildren() && child.isLoaded()) {
+        if (this.projectTree.isExpanded(child.makeTreePath())) {
+          result += unloadCollapsedFolders(group, child);
+        } else {
+          group.unloadFolder(child);
+          result++;
+        }
+      }
+    }
+    return result;
+  }
+
   private void openNodeAsTab(@Nonnull final NodeFileOrFolder node) {
     if (!node.isLoading() && node.isLeaf()) {
       final File file = node.makeFileForNode();
@@ -238,10 +392,19 @@ public final class ExplorerTree extends JScrollPane {
     this.projectTree.requestFocus();
   }
 
-  @Nonnull
-  @MustNotContainNull
-  public List<NodeFileOrFolder> findForNamePattern(@Nullable final Pattern namePattern) {
-    return getCurrentGroup().findForNamePattern(namePattern);
+  /**
+   * Start background search of nodes for name in the current group, previous search is cancelled.
+   *
+   * @param text     text of name, wildcards are ignored
+   * @param consumer consumer of ranked results, called on Swing thread
+   * @see FileNameIndex#search(String, FileNameIndex.ResultConsumer)
+   */
+  public void searchForName(@Nonnull final String text, @Nonnull final FileNameIndex.ResultConsumer consumer) {
+    getCurrentGroup().getFileNameIndex().search(text, consumer);
+  }
+
+  public void cancelSearchForName() {
+    getCurrentGroup().getFileNameIndex().cancelSearch();
   }
 
   @Nonnull
@@ -267,6 +430,19 @@ public final class ExplorerTree extends JScrollPane {
       found = true;
       this.projectTree.setSelectionPath(pathToFile);
       this.projectTree.scrollPathToVisible(pathToFile);
+    } else {
+      final NodeProject project = group.findProjectForFile(file);
+      if (project != null && project.isLazyLoading() && file.exists()) {
+        // folders on path are read in background and the file is focused after that
+        found = true;
+        project.loadPathLater(file, () -> {
+          final TreePath loadedPath = getCurrentGroup().findPathToFile(file);
+          if (loadedPath != null) {
+            this.projectTree.setSelectionPath(loadedPath);
+            this.projectTree.scrollPathToVisible(loadedPath);
+          }
+        });
+      }
     }
     return found;
   }
@@ -561,7 +737,8 @@ public final class ExplorerTree extends JScrollPane {
       }
     }
 
-    editor.getMindMapPanel().executeModelJobs(new MindMapPanel.ModelJob() {
+    // folders are read in background in lazy mode before topics are generated
+    node.loadSubtreeLater(() -> editor.getMindMapPanel().executeModelJobs(new MindMapPanel.ModelJob() {
       @Nonnull
       private Topic recursiveGenerateTopics(@Nullable final File projectFolder,
                                             @Nonnull final MindMap model,
@@ -611,7 +788,7 @@ public final class ExplorerTree extends JScrollPane {
 
         return true;
       }
-    });
+    }));
   }
 
   private void addChildTo(@Nonnull final NodeFileOrFolder folder,
@@ -771,7 +948,10 @@ public final class ExplorerTree extends JScrollPane {
   }
 
   public void setModel(@Nonnull final NodeProjectGroup model, final boolean expandFirst) {
+    this.getCurrentGroup().removeTreeModelListener(this.lazyProjectTracker);
     this.projectTree.setModel(Assertions.assertNotNull(model));
+    model.addTreeModelListener(this.lazyProjectTracker);
+    this.updateLowMemoryListener();
     if (expandFirst && model.getChildCount() > 0) {
       this.projectTree.expandPath(new TreePath(new Object[] {model, model.getChildAt(0)}));
     }
@@ -0,0 +1,610 @@
+/*
+ * Copyright (C) 2015-2022 Igor A. Maznitsa
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package com.igormaznitsa.sciareto.ui.tree;
+
+import com.igormaznitsa.meta.annotation.MustNotContainNull;
+import com.igormaznitsa.mindmap.model.logger.Logger;
+import com.igormaznitsa.mindmap.model.logger.LoggerFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.ConcurrentModificationException;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.swing.SwingUtilities;
+
+/**
+ * Index of names of all nodes in project group for go to file. The index keeps snapshot with names
+ * sorted in lower case and trigram postings of the names, nodes added later are kept in small
+ * list and removed nodes are recognized as disposed ones, the snapshot is rebuilt only when the
+ * list becomes big or tree is reloaded. Search is made in background and ranked results are
+ * provided in steps: names started with the text, names containing the text, then fuzzy matches
+ * where characters of the text follow in the same order.
+ */
+public final class FileNameIndex {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(FileNameIndex.class);
+
+  /**
+   * Max number of nodes provided for search request.
+   */
+  public static final int MAX_RESULTS = 1000;
+
+  private static final int MIN_OVERLAY_FOR_REBUILD = 1024;
+  private static final int SCAN_CHUNK = 32768;
+
+  private static final ExecutorService SEARCHER = makeSearcher();
+
+  private final NodeProjectGroup group;
+  private final AtomicLong version = new AtomicLong();
+  private final AtomicLong searchGeneration = new AtomicLong();
+  private final List<NodeFileOrFolder> added = new ArrayList<>();
+  private volatile Snapshot snapshot;
+
+  FileNameIndex(@Nonnull final NodeProjectGroup group) {
+    this.group = group;
+  }
+
+  @Nonnull
+  private static ExecutorService makeSearcher() {
+    final ThreadPoolExecutor result = new ThreadPoolExecutor(1, 1, 30L, TimeUnit.SECONDS,
+        new LinkedBlockingQueue<>(), r -> {
+      final Thread thread = new Thread(r, "SciaRetoFileNameIndex"); //NOI18N
+      thread.setDaemon(true);
+      return thread;
+    });
+    result.allowCoreThreadTimeOut(true);
+    return result;
+  }
+
+  private static boolean isWordStart(@Nonnull final String name, final int index) {
+    if (index == 0) {
+      return true;
+    }
+    final char prev = name.charAt(index - 1);
+    return !Character.isLetterOrDigit(prev)
+        || (Character.isLowerCase(prev) && Character.isUpperCase(name.charAt(index)));
+  }
+
+  /**
+   * Calculate score of name for text, characters of text must be presented in name in the same
+   * order. Names started with the text get the biggest score, then names containing the text,
+   * then names where text characters start words or follow each other.
+   *
+   * @param text      text in lower case, without wildcards
+   * @param name      original name, used to find camel case humps
+   * @param lowerName name in lower case
+   * @return score, negative if name doesn't match text
+   */
+  static int score(@Nonnull final String text, @Nonnull final String name, @Nonnull final String lowerName) {
+    if (text.isEmpty()) {
+      return -1;
+    }
+    if (lowerName.startsWith(text)) {
+      return 30000 + (lowerName.length() == text.length() ? 1000 : 0) - Math.min(lowerName.length(), 999);
+    }
+    final int index = lowerName.indexOf(text);
+    if (index > 0) {
+      return 20000 + (isWordStart(name, index) ? 1000 : 0) - Math.min(index, 500) - Math.min(lowerName.length(), 499);
+    }
+
+    int result = 10000;
+    int position = 0;
+    int previous = -2;
+    for (int i = 0; i < text.length(); i++) {
+      final int found = lowerName.indexOf(text.charAt(i), position);
+      if (found < 0) {
+        return -1;
+      }
+      if (found == previous + 1) {
+        result += 16;
+      } else {
+        result -= Math.min(found - position, 32);
+        if (isWordStart(name, found)) {
+          result += 12;
+        }
+      }
+      previous = found;
+      position = found + 1;
+    }
+    return Math.max(0, Math.min(19000, result - Math.min(lowerName.length(), 999)));
+  }
+
+  @Nonnull
+  static String normalizeQuery(@Nonnull final String query) {
+    final StringBuilder result = new StringBuilder(query.length());
+    for (final char c : query.toCharArray()) {
+      if (c != '*' && c != '?' && !Character.isWhitespace(c) && !Character.isISOControl(c)) {
+        result.append(Character.toLowerCase(c));
+      }
+    }
+    return result.toString();
+  }
+
+  private static long trigram(@Nonnull final String text, final int index) {
+    return ((long) text.charAt(index) << 32) | ((long) text.charAt(index + 1) << 16) | text.charAt(index + 2);
+  }
+
+  /**
+   * Notify that whole tree or its big part has been changed, the index will be rebuilt for next
+   * search.
+   */
+  public void invalidate() {
+    this.version.incrementAndGet();
+  }
+
+  /**
+   * Register new nodes, their loaded children are registered too.
+   *
+   * @param nodes new nodes
+   */
+  void nodesAdded(@Nonnull @MustNotContainNull final Collection<NodeFileOrFolder> nodes) {
+    if (this.snapshot == null) {
+      return;
+    }
+    final List<NodeFileOrFolder> all = new ArrayList<>();
+    for (final NodeFileOrFolder n : nodes) {
+      collectLoaded(n, all);
+    }
+    synchronized (this.added) {
+      this.added.addAll(all);
+    }
+  }
+
+  /**
+   * Register loaded children of folder.
+   *
+   * @param folder folder which children have been read
+   */
+  void childrenLoaded(@Nonnull final NodeFileOrFolder folder) {
+    final List<NodeFileOrFolder> children = new ArrayList<>();
+    for (final NodeFileOrFolder c : folder) {
+      children.add(c);
+    }
+    this.nodesAdded(children);
+  }
+
+  private static void collectLoaded(@Nonnull final NodeFileOrFolder node, @Nonnull @MustNotContainNull final List<NodeFileOrFolder> list) {
+    list.add(node);
+    if (node.getAllowsChildren()) {
+      for (final NodeFileOrFolder c : node) {
+        collectLoaded(c, list);
+      }
+    }
+  }
+
+  /**
+   * Cancel current search if it is not completed yet.
+   */
+  public void cancelSearch() {
+    this.searchGeneration.incrementAndGet();
+  }
+
+  /**
+   * Start search of nodes for text, previous search is cancelled. Result consumer is called on
+   * Swing thread, at first with nodes containing text and then with full result list.
+   *
+   * @param query    text to search, wildcards '*' and '?' are ignored
+   * @param consumer consumer of ranked nodes, the second argument is true if result is final
+   */
+  public void search(@Nonnull final String query, @Nonnull final ResultConsumer consumer) {
+    final long generation = this.searchGeneration.incrementAndGet();
+    final String text = normalizeQuery(query);
+    if (text.isEmpty()) {
+      consumer.onResult(new ArrayList<>(), true);
+      return;
+    }
+    SEARCHER.submit(() -> {
+      try {
+        this.doSearch(text, generation, consumer);
+      } catch (Exception ex) {
+        LOGGER.error("Error during search of file name", ex); //NOI18N
+      }
+    });
+  }
+
+  private boolean isCancelled(final long generation) {
+    return this.searchGeneration.get() != generation;
+  }
+
+  private void publish(final long generation, @Nonnull final Ranking ranking, final boolean completed,
+                       @Nonnull final ResultConsumer consumer) {
+    final List<NodeFileOrFolder> result = ranking.toList();
+    SwingUtilities.invokeLater(() -> {
+      if (!this.isCancelled(generation)) {
+        consumer.onResult(result, completed);
+      }
+    });
+  }
+
+  @Nonnull
+  private Snapshot findSnapshot() {
+    Snapshot current = this.snapshot;
+    final long currentVersion = this.version.get();
+    final int overlay;
+    synchronized (this.added) {
+      overlay = this.added.size();
+    }
+    if (current == null || current.version != currentVersion
+        || overlay > Math.max(MIN_OVERLAY_FOR_REBUILD, current.names.length / 8)) {
+      final long start = System.currentTimeMillis();
+      final List<NodeFileOrFolder> nodes = new ArrayList<>();
+      for (int attempt = 0; ; attempt++) {
+        try {
+          for (final NodeFileOrFolder project : this.group) {
+            collectLoaded(project, nodes);
+          }
+          break;
+        } catch (ConcurrentModificationException ex) {
+          // tree has been changed during walk, just try again
+          nodes.clear();
+          if (attempt == 2) {
+            throw ex;
+          }
+        }
+      }
+      synchronized (this.added) {
+        this.added.clear();
+      }
+      current = new Snapshot(currentVersion, nodes);
+      this.snapshot = current;
+      LOGGER.info(String.format("File name index built for %d nodes, spent %d ms", nodes.size(), System.currentTimeMillis() - start)); //NOI18N
+    }
+    return current;
+  }
+
+  private void doSearch(@Nonnull final String text, final long generation, @Nonnull final ResultConsumer consumer) {
+    final Snapshot current = this.findSnapshot();
+    if (this.isCancelled(generation)) {
+      return;
+    }
+
+    final List<NodeFileOrFolder> overlay;
+    synchronized (this.added) {
+      overlay = new ArrayList<>(this.added);
+    }
+
+    final Ranking ranking = new Ranking();
+    final BitSet checked = new BitSet(current.names.length);
+
+    // every step finds nodes with lower score than previous one so that search can be stopped
+    // as soon as there are enough results
+    for (int step = 0; step < 3; step++) {
+      if (step == 2) {
+        for (int i = 0; i < current.names.length; i++) {
+          if (i % SCAN_CHUNK == 0 && this.isCancelled(generation)) {
+            return;
+          }
+          if (!checked.get(i)) {
+            this.addIfMatches(text, current.nodes[i], current.names[i], ranking);
+          }
+        }
+      } else {
+        final int[] ids = step == 0 ? current.findStarting(text) : current.findContaining(text);
+        for (final int id : ids) {
+          if (!checked.get(id)) {
+            checked.set(id);
+            this.addIfMatches(text, current.nodes[id], current.names[id], ranking);
+          }
+        }
+      }
+
+      for (final NodeFileOrFolder node : overlay) {
+        final String lowerName = node.toString().toLowerCase(Locale.ROOT);
+        if (step == 0 ? lowerName.startsWith(text)
+            : step == 1 ? lowerName.indexOf(text) > 0
+            : !lowerName.contains(text)) {
+          this.addIfMatches(text, node, lowerName, ranking);
+        }
+      }
+
+      final boolean completed = step == 2 || ranking.size() >= MAX_RESULTS;
+      if (completed || ranking.size() > 0) {
+        this.publish(generation, ranking, completed, consumer);
+      }
+      if (completed) {
+        break;
+      }
+    }
+  }
+
+  private void addIfMatches(@Nonnull final String text, @Nonnull final NodeFileOrFolder node,
+                            @Nonnull final String lowerName, @Nonnull final Ranking ranking) {
+    final int score = score(text, node.toString(), lowerName);
+    if (score >= 0 && !node.isDisposed()) {
+      ranking.add(node, score);
+    }
+  }
+
+  /**
+   * Consumer of search result.
+   */
+  @FunctionalInterface
+  public interface ResultConsumer {
+
+    void onResult(@Nonnull @MustNotContainNull List<NodeFileOrFolder> nodes, boolean completed);
+  }
+
+  private static final class Ranking {
+
+    private static final Comparator<Object[]> ORDER = Comparator
+        .<Object[]>comparingInt(x -> -(Integer) x[1])
+        .thenComparing(x -> x[0].toString());
+
+    private final List<Object[]> items = new ArrayList<>();
+    private int minScore = -1;
+    private int size;
+
+    void add(@Nonnull final NodeFileOrFolder node, final int score) {
+      if (score < 0 || (this.items.size() >= MAX_RESULTS * 2 && score < this.minScore)) {
+        return;
+      }
+      this.items.add(new Object[] {node, score});
+      this.size++;
+      if (this.items.size() >= MAX_RESULTS * 4) {
+        this.shrink();
+      }
+    }
+
+    int size() {
+      return this.size;
+    }
+
+    private void shrink() {
+      this.items.sort(ORDER);
+      this.items.subList(MAX_RESULTS * 2, this.items.size()).clear();
+      this.minScore = (Integer) this.items.get(this.items.size() - 1)[1];
+    }
+
+    @Nonnull
+    @MustNotContainNull
+    List<NodeFileOrFolder> toList() {
+      this.items.sort(ORDER);
+      final Set<NodeFileOrFolder> added = Collections.newSetFromMap(new IdentityHashMap<>());
+      final List<NodeFileOrFolder> result = new ArrayList<>();
+      for (int i = 0; i < this.items.size() && result.size() < MAX_RESULTS; i++) {
+        final NodeFileOrFolder node = (NodeFileOrFolder) this.items.get(i)[0];
+        if (added.add(node)) {
+          result.add(node);
+        }
+      }
+      return result;
+    }
+  }
+
+  private static final class Snapshot {
+
+    private final long version;
+    private final NodeFileOrFolder[] nodes;
+    private final String[] names;
+    private final TrigramTable table;
+    private final int[] postingStarts;
+    private final int[] postings;
+
+    Snapshot(final long version, @Nonnull @MustNotContainNull final List<NodeFileOrFolder> nodeList) {
+      this.version = version;
+      final int size = nodeList.size();
+      final String[] lowerNames = new String[size];
+      final Integer[] order = new Integer[size];
+      for (int i = 0; i < size; i++) {
+        lowerNames[i] = nodeList.get(i).toString().toLowerCase(Locale.ROOT);
+        order[i] = i;
+      }
+      Arrays.sort(order, Comparator.comparing(i -> lowerNames[i]));
+
+      this.nodes = new NodeFileOrFolder[size];
+      this.names = new String[size];
+      for (int i = 0; i < size; i++) {
+        this.nodes[i] = nodeList.get(order[i]);
+        this.names[i] = lowerNames[order[i]];
+      }
+
+      // postings are filled in order of node ids so that every list is sorted
+      final TrigramTable table = new TrigramTable(size);
+      int[] lastIds = new int[1024];
+      int[] counts = new int[1024];
+      for (int id = 0; id < size; id++) {
+        final String name = this.names[id];
+        for (int i = 0; i < name.length() - 2; i++) {
+          final int index = table.put(trigram(name, i));
+          if (index >= counts.length) {
+            counts = Arrays.copyOf(counts, counts.length * 2);
+            lastIds = Arrays.copyOf(lastIds, counts.length);
+          }
+          if (lastIds[index] != id + 1) {
+            counts[index]++;
+            lastIds[index] = id + 1;
+          }
+        }
+      }
+      this.table = table;
+      this.postingStarts = new int[table.size() + 1];
+      for (int i = 0; i < table.size(); i++) {
+        this.postingStarts[i + 1] = this.postingStarts[i] + counts[i];
+      }
+      this.postings = new int[this.postingStarts[table.size()]];
+      final int[] fill = Arrays.copyOf(this.postingStarts, table.size());
+      Arrays.fill(lastIds, 0);
+      for (int id = 0; id < size; id++) {
+        final String name = this.names[id];
+        for (int i = 0; i < name.length() - 2; i++) {
+          final int index = table.get(trigram(name, i));
+          if (lastIds[index] != id + 1) {
+            lastIds[index] = id + 1;
+            this.postings[fill[index]++] = id;
+          }
+        }
+      }
+    }
+
+    @Nullable
+    private int[] findPostings(final long trigram) {
+      final int index = this.table.get(trigram);
+      return index < 0 ? null : Arrays.copyOfRange(this.postings, this.postingStarts[index], this.postingStarts[index + 1]);
+    }
+
+    /**
+     * Find ids of names starting with text.
+     */
+    @Nonnull
+    int[] findStarting(@Nonnull final String text) {
+      int from = Arrays.binarySearch(this.names, text);
+      from = from < 0 ? -from - 1 : from;
+      int to = from;
+      while (to < this.names.length && this.names[to].startsWith(text)) {
+        to++;
+      }
+      final int[] result = new int[to - from];
+      for (int i = 0; i < result.length; i++) {
+        result[i] = from + i;
+      }
+      return result;
+    }
+
+    /**
+     * Find ids of names containing text, works only for text with three or more characters, for
+     * shorter text returns empty array.
+     */
+    @Nonnull
+    int[] findContaining(@Nonnull final String text) {
+      int[] result = new int[0];
+      for (int i = 0; i < text.length() - 2; i++) {
+        final int[] found = this.findPostings(trigram(text, i));
+        if (found == null) {
+          return new int[0];
+        }
+        result = i == 0 ? found : intersect(result, found);
+      }
+      int count = 0;
+      for (final int id : result) {
+        if (this.names[id].contains(text)) {
+          result[count++] = id;
+        }
+      }
+      return Arrays.copyOf(result, count);
+    }
+
+    @Nonnull
+    private static int[] intersect(@Nonnull final int[] a, @Nonnull final int[] b) {
+      final int[] result = new int[Math.min(a.length, b.length)];
+      int i = 0;
+      int j = 0;
+      int count = 0;
+      while (i < a.length && j < b.length) {
+        if (a[i] == b[j]) {
+          result[count++] = a[i];
+          i++;
+          j++;
+        } else if (a[i] < b[j]) {
+          i++;
+        } else {
+          j++;
+        }
+      }
+      return Arrays.copyOf(result, count);
+    }
+  }
+
+  /**
+   * Open addressing map of trigrams to their sequential indexes.
+   */
+  private static final class TrigramTable {
+
+    private long[] keys;
+    private int[] values;
+    private int size;
+
+    TrigramTable(final int expected) {
+      final int capacity = Integer.highestOneBit(Math.max(16, expected) * 2 - 1);
+      this.keys = new long[capacity];
+      this.values = new int[capacity];
+      Arrays.fill(this.values, -1);
+    }
+
+    private static int hash(final long key) {
+      final long mixed = key * 0x9E3779B97F4A7C15L;
+      return (int) (mixed ^ (mixed >>> 32));
+    }
+
+    int size() {
+      return this.size;
+    }
+
+    int get(final long key) {
+      final int mask = this.keys.length - 1;
+      int slot = hash(key) & mask;
+      while (this.values[slot] >= 0) {
+        if (this.keys[slot] == key) {
+          return this.values[slot];
+        }
+        slot = (slot + 1) & mask;
+      }
+      return -1;
+    }
+
+    int put(final long key) {
+      final int found = this.get(key);
+      if (found >= 0) {
+        return found;
+      }
+      if ((this.size + 1) * 2 > this.keys.length) {
+        this.grow();
+      }
+      final int mask = this.keys.length - 1;
+      int slot = hash(key) & mask;
+      while (this.values[slot] >= 0) {
+        slot = (slot + 1) & mask;
+      }
+      this.keys[slot] = key;
+      this.values[slot] = this.size;
+      return this.size++;
+    }
+
+    private void grow() {
+      final long[] oldKeys = this.keys;
+      final int[] oldValues = this.values;
+      this.keys = new long[oldKeys.length * 2];
+      this.values = new int[oldValues.length * 2];
+      Arrays.fill(this.values, -1);
+      final int mask = this.keys.length - 1;
+      for (int i = 0; i < oldKeys.length; i++) {
+        if (oldValues[i] >= 0) {
+          int slot = hash(oldKeys[i]) & mask;
+          while (this.values[slot] >= 0) {
+            slot = (slot + 1) & mask;
+          }
+          this.keys[slot] = oldKeys[i];
+          this.values[slot] = oldValues[i];
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,412 @@
+/*
+ * Copyright (C) 2015-2022 Igor A. Maznitsa
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package com.igormaznitsa.sciareto.ui.tree;
+
+import com.igormaznitsa.meta.annotation.MustNotContainNull;
+import com.igormaznitsa.mindmap.model.Extra;
+import com.igormaznitsa.mindmap.model.ExtraFile;
+import com.igormaznitsa.mindmap.model.MMapURI;
+import com.igormaznitsa.mindmap.model.MindMap;
+import com.igormaznitsa.mindmap.model.Topic;
+import com.igormaznitsa.mindmap.model.logger.Logger;
+import com.igormaznitsa.mindmap.model.logger.LoggerFactory;
+import com.igormaznitsa.sciareto.ui.SystemUtils;
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.AclFileAttributeView;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.nio.file.attribute.PosixFileAttributes;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import org.apache.commons.io.FileUtils;
+
+/**
+ * Batch processing of file links in mind maps of project for rename, move and delete of files.
+ * Links of every mind map are kept in index which is refreshed only for changed mind maps, so
+ * that affected mind maps are found without parsing of all maps. Affected maps are rewritten in
+ * parallel, then written through temp files moved over originals, if any write fails then all
+ * already written maps are restored.
+ */
+public final class LinkRefactoring {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(LinkRefactoring.class);
+
+  private final NodeProject project;
+  private final Map<File, LinkEntry> linkIndex = new ConcurrentHashMap<>();
+
+  LinkRefactoring(@Nonnull final NodeProject project) {
+    this.project = project;
+  }
+
+  @Nonnull
+  private static <T, R> List<R> processInParallel(@Nonnull @MustNotContainNull final List<T> items, @Nonnull final IoFunction<T, R> function) throws IOException {
+    if (items.size() < 2) {
+      final List<R> result = new ArrayList<>(items.size());
+      for (final T item : items) {
+        result.add(function.apply(item));
+      }
+      return result;
+    }
+    final ForkJoinPool pool = SystemUtils.makeDaemonForkJoinPool("SciaRetoLinks", //NOI18N
+        Runtime.getRuntime().availableProcessors());
+    try {
+      return pool.submit(() -> items.parallelStream().map(item -> {
+        try {
+          return function.apply(item);
+        } catch (IOException ex) {
+          throw new IllegalStateException(ex);
+        }
+      }).collect(Collectors.toList())).get();
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted", ex); //NOI18N
+    } catch (ExecutionException ex) {
+      final Throwable cause = ex.getCause();
+      if (cause instanceof IllegalStateException && cause.getCause() instanceof IOException) {
+        throw (IOException) cause.getCause();
+      }
+      throw new IOException("Can't process mind maps", cause); //NOI18N
+    } finally {
+      pool.shutdownNow();
+    }
+  }
+
+  /**
+   * Write text into file through temp file in the same folder moved over the file, so that the
+   * file contains either old or new text. Symbolic links are resolved, so that the target file is
+   * written, and permissions, owner and ACL of the file are copied to the temp file.
+   */
+  private static void writeAtomically(@Nonnull final File file, @Nonnull final byte[] content) throws IOException {
+    final Path target = Files.exists(file.toPath()) ? file.toPath().toRealPath() : file.toPath().toAbsolutePath();
+    final Path temp = Files.createTempFile(target.getParent(), '.' + target.getFileName().toString(), ".tmp"); //NOI18N
+    try {
+      Files.write(temp, content);
+      if (Files.exists(target)) {
+        copyAttributes(target, temp);
+      }
+      try {
+        Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+      } catch (AtomicMoveNotSupportedException ex) {
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+      }
+    } finally {
+      Files.deleteIfExists(temp);
+    }
+  }
+
+  private static void copyAttributes(@Nonnull final Path source, @Nonnull final Path target) throws IOException {
+    final PosixFileAttributeView sourcePosix = Files.getFileAttributeView(source, PosixFileAttributeView.class);
+    final PosixFileAttributeView targetPosix = Files.getFileAttributeView(target, PosixFileAttributeView.class);
+    if (sourcePosix != null && targetPosix != null) {
+      final PosixFileAttributes attributes = sourcePosix.readAttributes();
+      targetPosix.setPermissions(attributes.permissions());
+      try {
+        targetPosix.setOwner(attributes.owner());
+        targetPosix.setGroup(attributes.group());
+      } catch (IOException ex) {
+        // only privileged user can change owner, the file keeps owner of the current user
+        LOGGER.warn("Can't restore owner of " + source + ": " + ex.getMessage()); //NOI18N
+      }
+    }
+    final AclFileAttributeView sourceAcl = Files.getFileAttributeView(source, AclFileAttributeView.class);
+    final AclFileAttributeView targetAcl = Files.getFileAttributeView(target, AclFileAttributeView.class);
+    if (sourceAcl != null && targetAcl != null) {
+      targetAcl.setAcl(sourceAcl.getAcl());
+    }
+  }
+
+  @Nonnull
+  private File getBaseFolder() {
+    return this.project.getFolder();
+  }
+
+  @Nonnull
+  private LinkEntry findLinks(@Nonnull final File baseFolder, @Nonnull final File mindMapFile) throws IOException {
+    final long modified = mindMapFile.lastModified();
+    final long length = mindMapFile.length();
+    LinkEntry entry = this.linkIndex.get(mindMapFile);
+    if (entry == null || !entry.isActual(baseFolder, modified, length)) {
+      final MindMap map = new MindMap(new StringReader(FileUtils.readFileToString(mindMapFile, StandardCharsets.UTF_8)));
+      final List<Path> links = new ArrayList<>();
+      for (final Topic t : map) {
+        final ExtraFile link = (ExtraFile) t.getExtras().get(Extra.ExtraType.FILE);
+        if (link != null) {
+          links.add(link.getAsURI().asFile(baseFolder).toPath());
+        }
+      }
+      entry = new LinkEntry(baseFolder, modified, length, links);
+      this.linkIndex.put(mindMapFile, entry);
+    }
+    return entry;
+  }
+
+  /**
+   * Find mind maps in project which contain links to files or to content of folders.
+   *
+   * @param changedFiles files or folders to be renamed, moved or deleted
+   * @return mind map files which contain links to the files
+   */
+  @Nonnull
+  @MustNotContainNull
+  public List<File> findAffectedFiles(@Nonnull @MustNotContainNull final Collection<File> changedFiles) {
+    final File baseFolder = this.getBaseFolder();
+    final List<Path> changedPaths = changedFiles.stream()
+        .map(f -> (f.isAbsolute() ? f : new File(baseFolder, f.getPath())).toPath())
+        .collect(Collectors.toList());
+
+    final List<File> mindMaps = new ArrayList<>(FileUtils.listFiles(baseFolder, new String[] {"mmd", "MMD"}, true)); //NOI18N
+    this.linkIndex.keySet().retainAll(new HashSet<>(mindMaps));
+
+    final List<File> result;
+    try {
+      result = processInParallel(mindMaps, mindMap -> {
+        try {
+          return this.findLinks(baseFolder, mindMap).isLinkedTo(changedPaths) ? mindMap : null;
+        } catch (IOException ex) {
+          LOGGER.error("Can't process mind map file", ex); //NOI18N
+          return null;
+        }
+      });
+    } catch (IOException ex) {
+      LOGGER.error("Can't find affected mind maps", ex); //NOI18N
+      return new ArrayList<>();
+    }
+    result.removeIf(Objects::isNull);
+    return result;
+  }
+
+  /**
+   * Replace links to files in mind maps. Every link is changed only once, by the first mapping
+   * which file is the same as the link or its parent folder.
+   *
+   * @param mindMaps mind maps to be processed
+   * @param mapping  old files mapped to new ones
+   * @return made changes which can be rolled back
+   * @throws IOException if any mind map can't be processed, all mind maps are restored in the case
+   */
+  @Nonnull
+  public Changes replaceLinks(@Nonnull @MustNotContainNull final List<File> mindMaps, @Nonnull final Map<File, File> mapping) throws IOException {
+    final File baseFolder = this.getBaseFolder();
+    final Map<MMapURI, MMapURI> uris = new LinkedHashMap<>();
+    mapping.forEach((oldFile, newFile) -> uris.put(new MMapURI(baseFolder, oldFile, null), new MMapURI(baseFolder, newFile, null)));
+
+    return this.rewrite(mindMaps, topic -> {
+      final ExtraFile link = (ExtraFile) topic.getExtras().get(Extra.ExtraType.FILE);
+      if (link != null) {
+        for (final Map.Entry<MMapURI, MMapURI> e : uris.entrySet()) {
+          final ExtraFile replacement = link.isSame(baseFolder, e.getKey())
+              ? new ExtraFile(e.getValue())
+              : link.replaceParentPath(baseFolder, e.getKey(), e.getValue());
+          if (replacement != null) {
+            topic.setExtra(replacement);
+            return true;
+          }
+        }
+      }
+      return false;
+    });
+  }
+
+  /**
+   * Remove links to files and content of folders from mind maps.
+   *
+   * @param mindMaps mind maps to be processed
+   * @param files    removed files
+   * @return made changes which can be rolled back
+   * @throws IOException if any mind map can't be processed, all mind maps are restored in the case
+   */
+  @Nonnull
+  public Changes deleteLinks(@Nonnull @MustNotContainNull final List<File> mindMaps, @Nonnull @MustNotContainNull final Collection<File> files) throws IOException {
+    final File baseFolder = this.getBaseFolder();
+    final List<MMapURI> uris = files.stream().map(f -> new MMapURI(baseFolder, f, null)).collect(Collectors.toList());
+
+    return this.rewrite(mindMaps, topic -> {
+      final ExtraFile link = (ExtraFile) topic.getExtras().get(Extra.ExtraType.FILE);
+      if (link != null) {
+        for (final MMapURI uri : uris) {
+          if (link.isSameOrHasParent(baseFolder, uri)) {
+            topic.removeExtra(Extra.ExtraType.FILE);
+            return true;
+          }
+        }
+      }
+      return false;
+    });
+  }
+
+  @Nonnull
+  private Changes rewrite(@Nonnull @MustNotContainNull final List<File> mindMaps, @Nonnull final Function<Topic, Boolean> topicProcessor) throws IOException {
+    final List<File> files = mindMaps.stream().filter(File::isFile).distinct().collect(Collectors.toList());
+
+    // everything is prepared in memory before the first write
+    final List<Rewritten> prepared = processInParallel(files, file -> {
+      final byte[] original = Files.readAllBytes(file.toPath());
+      final MindMap map = new MindMap(new StringReader(new String(original, StandardCharsets.UTF_8)));
+      boolean changed = false;
+      for (final Topic t : map) {
+        changed |= topicProcessor.apply(t);
+      }
+      return changed ? new Rewritten(file, original, map.asString().getBytes(StandardCharsets.UTF_8)) : null;
+    });
+    prepared.removeIf(Objects::isNull);
+
+    final Changes changes = new Changes(prepared);
+    try {
+      for (final Rewritten r : prepared) {
+        writeAtomically(r.file, r.content);
+        changes.written++;
+        this.linkIndex.remove(r.file);
+      }
+    } catch (IOException ex) {
+      LOGGER.error("Can't write mind map, restoring already written ones", ex); //NOI18N
+      try {
+        changes.rollback();
+      } catch (IOException rex) {
+        ex.addSuppressed(rex);
+      }
+      throw ex;
+    }
+    return changes;
+  }
+
+  @FunctionalInterface
+  private interface IoFunction<T, R> {
+
+    @Nullable
+    R apply(@Nonnull T value) throws IOException;
+  }
+
+  private static final class LinkEntry {
+
+    private final File baseFolder;
+    private final long modified;
+    private final long length;
+    private final List<Path> links;
+
+    LinkEntry(@Nonnull final File baseFolder, final long modified, final long length, @Nonnull @MustNotContainNull final List<Path> links) {
+      this.baseFolder = baseFolder;
+      this.modified = modified;
+      this.length = length;
+      this.links = links;
+    }
+
+    boolean isActual(@Nonnull final File baseFolder, final long modified, final long length) {
+      return this.modified == modified && this.length == length && this.baseFolder.equals(baseFolder);
+    }
+
+    boolean isLinkedTo(@Nonnull @MustNotContainNull final List<Path> paths) {
+      for (final Path link : this.links) {
+        for (final Path path : paths) {
+          if (link.startsWith(path)) {
+            return true;
+          }
+        }
+      }
+      return false;
+    }
+  }
+
+  private static final class Rewritten {
+
+    private final File file;
+    private final byte[] original;
+    private final byte[] content;
+
+    Rewritten(@Nonnull final File file, @Nonnull final byte[] original, @Nonnull final byte[] content) {
+      this.file = file;
+      this.original = original;
+      this.content = content;
+    }
+  }
+
+  /**
+   * Mind maps changed by batch operation.
+   */
+  public final class Changes {
+
+    private final List<Rewritten> rewritten;
+    private int written;
+
+    private Changes(@Nonnull @MustNotContainNull final List<Rewritten> rewritten) {
+      this.rewritten = rewritten;
+    }
+
+    /**
+     * Get changed mind map files.
+     *
+     * @return list of changed files
+     */
+    @Nonnull
+    @MustNotContainNull
+    public List<File> getChangedFiles() {
+      final List<File> result = new ArrayList<>(this.written);
+      for (int i = 0; i < this.written; i++) {
+        result.add(this.rewritten.get(i).file);
+      }
+      return Collections.unmodifiableList(result);
+    }
+
+    /**
+     * Restore original content of all changed mind maps, for instance if renaming of file has
+     * failed after links were changed.
+     *
+     * @throws IOException if any file can't be restored, other files are restored anyway
+     */
+    public void rollback() throws IOException {
+      IOException error = null;
+      for (int i = this.written - 1; i >= 0; i--) {
+        final Rewritten r = this.rewritten.get(i);
+        try {
+          writeAtomically(r.file, r.original);
+          linkIndex.remove(r.file);
+        } catch (IOException ex) {
+          LOGGER.error("Can't restore mind map " + r.file, ex); //NOI18N
+          if (error == null) {
+            error = ex;
+          } else {
+            error.addSuppressed(ex);
+          }
+        }
+      }
+      this.written = 0;
+      if (error != null) {
+        throw error;
+      }
+    }
+  }
+}
@@ -20,6 +20,7 @@ package com.igormaznitsa.sciareto.ui.tree;
 
 import com.igormaznitsa.meta.annotation.MustNotContainNull;
 import com.igormaznitsa.meta.annotation.ReturnsOriginal;
+import com.igormaznitsa.meta.annotation.UiThread;
 import com.igormaznitsa.meta.common.utils.ArrayUtils;
 import com.igormaznitsa.meta.common.utils.Assertions;
 import com.igormaznitsa.meta.common.utils.IOUtils;
@@ -30,6 +31,7 @@ import com.igormaznitsa.sciareto.preferences.PrefUtils;
 import com.igormaznitsa.sciareto.ui.MainFrame;
 import java.io.File;
 import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
 import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
@@ -41,9 +43,9 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Predicate;
-import java.util.regex.Pattern;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
+import javax.swing.SwingUtilities;
 import javax.swing.event.TreeModelEvent;
 import javax.swing.event.TreeModelListener;
 import javax.swing.tree.TreeModel;
@@ -66,6 +68,8 @@ public class NodeFileOrFolder implements TreeNode, Comparator<NodeFileOrFolder>,
   protected volatile String name;
   private volatile boolean noAccess;
   private volatile boolean disposed = false;
+  private volatile boolean loaded;
+  private final Object loadingLock = new Object();
   protected final Predicate<NodeFileOrFolder> predicateShowHiddenFiles;
 
   public NodeFileOrFolder(
@@ -102,6 +106,166 @@ public class NodeFileOrFolder implements TreeNode, Comparator<NodeFileOrFolder>,
     return false;
   }
 
+  /**
+   * Check that children of folder have been read.
+   *
+   * @return true if node is file or its children have been read
+   */
+  public boolean isLoaded() {
+    return !this.folderFlag || this.loaded;
+  }
+
+  protected boolean isLazyLoading() {
+    return this.parent != null && this.parent.isLazyLoading();
+  }
+
+  /**
+   * Read children of folder if they have not been read yet. In lazy mode folders are read when
+   * they are expanded or their content is needed for search. Children are read in the calling
+   * thread and added into the tree in the Swing thread, the method waits for that so that it must
+   * not be called from the Swing thread, {@link #loadLater(Runnable)} should be used there.
+   */
+  public void ensureLoaded() {
+    if (!this.isLoaded() && !this.disposed) {
+      if (SwingUtilities.isEventDispatchThread()) {
+        this.loadLater(null);
+        return;
+      }
+      synchronized (this.loadingLock) {
+        if (!this.loaded && !this.disposed) {
+          final List<NodeFileOrFolder> loadedChildren = this.readChildren(this.predicateShowHiddenFiles.test(this));
+          try {
+            SwingUtilities.invokeAndWait(() -> this.installChildren(loadedChildren));
+          } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+          } catch (InvocationTargetException ex) {
+            LOGGER.error("Can't add children of folder " + this.name, ex.getCause()); //NOI18N
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Read children of folder in background if they have not been read yet, they are added into the
+   * tree in the Swing thread.
+   *
+   * @param onLoaded action to be called in the Swing thread after children are added, can be null
+   */
+  @UiThread
+  public void loadLater(@Nullable final Runnable onLoaded) {
+    if (this.isLoaded() || this.disposed) {
+      if (onLoaded != null) {
+        onLoaded.run();
+      }
+    } else {
+      MainFrame.REACTOR_SCHEDULER.schedule(() -> {
+        this.ensureLoaded();
+        if (onLoaded != null) {
+          SwingUtilities.invokeLater(onLoaded);
+        }
+      });
+    }
+  }
+
+  /**
+   * Read all not read folders of subtree in background, they are added into the tree in the Swing
+   * thread.
+   *
+   * @param onLoaded action to be called in the Swing thread after whole subtree is read
+   */
+  @UiThread
+  public void loadSubtreeLater(@Nonnull final Runnable onLoaded) {
+    MainFrame.REACTOR_SCHEDULER.schedule(() -> {
+      this.ensureSubtreeLoaded();
+      SwingUtilities.invokeLater(onLoaded);
+    });
+  }
+
+  /**
+   * Read not read folders on path to file in background, they are added into the tree in the
+   * Swing thread.
+   *
+   * @param file     file which path must be read
+   * @param onLoaded action to be called in the Swing thread after folders are read
+   */
+  @UiThread
+  public void loadPathLater(@Nonnull final File file, @Nonnull final Runnable onLoaded) {
+    MainFrame.REACTOR_SCHEDULER.schedule(() -> {
+      final File nodeFile = this.makeFileForNode();
+      if (nodeFile != null && file.toPath().startsWith(nodeFile.toPath())) {
+        NodeFileOrFolder current = this;
+        for (final Path name : nodeFile.toPath().relativize(file.toPath())) {
+          if (current == null || current.isLeaf()) {
+            break;
+          }
+          current.ensureLoaded();
+          current = current.findChildForName(name.toString());
+        }
+      }
+      SwingUtilities.invokeLater(onLoaded);
+    });
+  }
+
+  private void ensureSubtreeLoaded() {
+    if (this.folderFlag && !this.disposed) {
+      this.ensureLoaded();
+      for (final NodeFileOrFolder c : this) {
+        c.ensureSubtreeLoaded();
+      }
+    }
+  }
+
+  @Nonnull
+  @MustNotContainNull
+  private List<NodeFileOrFolder> readChildren(final boolean addHiddenFilesAndFolders) {
+    final List<NodeFileOrFolder> result = new ArrayList<>();
+    final File nodeFile = this.makeFileForNode();
+    if (nodeFile != null) {
+      final boolean parentIsProjectGroup = this.parent instanceof NodeProjectGroup;
+      try (final DirectoryStream<Path> stream = Files.newDirectoryStream(nodeFile.toPath())) {
+        for (final Path f : stream) {
+          if (addHiddenFilesAndFolders || !isFileHidden(f)
+              || (parentIsProjectGroup && Context.KNOWLEDGE_FOLDER.equals(f.getFileName().toString()))) {
+            result.add(new NodeFileOrFolder(this.predicateShowHiddenFiles, this, Files.isDirectory(f), f.getFileName().toString(), !Files.isWritable(f)));
+          }
+        }
+      } catch (Exception ex) {
+        LOGGER.warn("Error '" + ex.getClass().getCanonicalName() + "' during access to path: " + nodeFile.getPath()); //NOI18N
+        this.noAccess = true;
+      }
+    }
+    result.sort(this);
+    return result;
+  }
+
+  @UiThread
+  private void installChildren(@Nonnull @MustNotContainNull final List<NodeFileOrFolder> loadedChildren) {
+    if (this.loaded || this.disposed) {
+      return;
+    }
+    synchronized (this.children) {
+      this.clearChildren();
+      this.children.addAll(loadedChildren);
+    }
+    this.loaded = true;
+    final NodeProject project = this.findProject();
+    if (project != null) {
+      project.notifyFolderLoaded(this);
+    }
+  }
+
+  /**
+   * Drop read children of folder, they will be read again on demand.
+   */
+  @UiThread
+  void unloadChildren() {
+    if (this.folderFlag) {
+      this.loaded = false;
+      this.clearChildren();
+    }
+  }
+
   public int size() {
     if (this.folderFlag) {
       int counter = 1;
@@ -162,6 +326,30 @@ public class NodeFileOrFolder implements TreeNode, Comparator<NodeFileOrFolder>,
     return result;
   }
 
+  @Nonnull
+  @MustNotContainNull
+  List<NodeFileOrFolder> addFiles(@Nonnull @MustNotContainNull final List<File> files) {
+    final File nodeFile = this.makeFileForNode();
+    final List<NodeFileOrFolder> result = new ArrayList<>(files.size());
+    for (final File file : files) {
+      Assertions.assertTrue("Unexpected state!", this.folderFlag && file.getParentFile().equals(nodeFile)); //NOI18N
+      result.add(new NodeFileOrFolder(this.predicateShowHiddenFiles, this, file.isDirectory(), file.getName(), !Files.isWritable(file.toPath())));
+    }
+    this.children.addAll(result);
+    this.children.sort(this);
+    return result;
+  }
+
+  @Nullable
+  NodeFileOrFolder findChildForName(@Nonnull final String name) {
+    for (final NodeFileOrFolder c : this.children) {
+      if (name.equals(c.name)) {
+        return c;
+      }
+    }
+    return null;
+  }
+
   public void setName(@Nonnull final String name) throws IOException {
     this.name = name;
     readSubtree(this.predicateShowHiddenFiles.test(this)).subscribeOn(MainFrame.REACTOR_SCHEDULER).subscribe();
@@ -179,6 +367,7 @@ public class NodeFileOrFolder implements TreeNode, Comparator<NodeFileOrFolder>,
   public Mono<NodeFileOrFolder> readSubtree(final boolean addHiddenFilesAndFolders) {
     if (this.folderFlag) {
       final boolean parentIsProjectGroup = this.parent instanceof NodeProjectGroup;
+      final boolean lazy = this.isLazyLoading();
       return Flux.using(() -> {
         this.clearChildren();
         final File nodeFile = makeFileForNode();
@@ -217,12 +406,15 @@ public class NodeFileOrFolder implements TreeNode, Comparator<NodeFileOrFolder>,
             this.children.add(newItem);
             return newItem;
           })
-          .flatMap(f -> f.readSubtree(addHiddenFilesAndFolders))
+          .flatMap(f -> lazy ? Mono.just(f) : f.readSubtree(addHiddenFilesAndFolders))
           .reduce((x, y) -> this)
           .doFinally(signalType -> {
             if (signalType == SignalType.ON_COMPLETE) {
               this.children.sort(this);
             }
+            if (signalType != SignalType.CANCEL) {
+              this.loaded = true;
+            }
           });
     } else {
       return Mono.empty();
@@ -363,7 +555,7 @@ public class NodeFileOrFolder implements TreeNode, Comparator<NodeFileOrFolder>,
       return new TreePath(new Object[] {this});
     }
     if (!this.isLeaf()) {
-      for (final NodeFileOrFolder c : this.children) {
+      for (final NodeFileOrFolder c : this) {
         final TreePath result = c.findPathToFile(file);
         if (result != null) {
           return new TreePath(ArrayUtils.joinArrays(new Object[] {this}, result.getPath()));
@@ -383,17 +575,6 @@ public class NodeFileOrFolder implements TreeNode, Comparator<NodeFileOrFolder>,
     return result;
   }
 
-  protected void fillAllMatchNamePattern(@Nonnull final Pattern namePattern, @Nonnull @MustNotContainNull final List<NodeFileOrFolder> resultList) {
-    if (namePattern.matcher(this.name).matches()) {
-      resultList.add(this);
-    }
-    if (!this.isLeaf()) {
-      for (final NodeFileOrFolder c : this.children) {
-        c.fillAllMatchNamePattern(namePattern, resultList);
-      }
-    }
-  }
-
   public boolean isMindMapFile() {
     return !this.folderFlag && this.name.endsWith(".mmd"); //NOI18N
   }
@@ -18,22 +18,17 @@
 package com.igormaznitsa.sciareto.ui.tree;
 
 import com.igormaznitsa.meta.annotation.MustNotContainNull;
+import com.igormaznitsa.meta.annotation.UiThread;
 import com.igormaznitsa.meta.common.utils.Assertions;
-import com.igormaznitsa.mindmap.model.MMapURI;
-import com.igormaznitsa.mindmap.model.MindMap;
 import com.igormaznitsa.mindmap.model.logger.Logger;
 import com.igormaznitsa.mindmap.model.logger.LoggerFactory;
 import com.igormaznitsa.sciareto.Context;
 import com.igormaznitsa.sciareto.preferences.PrefUtils;
 import com.igormaznitsa.sciareto.ui.MainFrame;
-import com.igormaznitsa.sciareto.ui.MapUtils;
-import com.igormaznitsa.sciareto.ui.SystemUtils;
 import java.io.File;
 import java.io.IOException;
-import java.io.StringReader;
-import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
-import java.util.ArrayList;
+import java.nio.file.Path;
 import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -42,7 +37,6 @@ import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Predicate;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
-import org.apache.commons.io.FileUtils;
 import reactor.core.Disposable;
 import reactor.core.publisher.Mono;
 
@@ -54,6 +48,10 @@ public class NodeProject extends NodeFileOrFolder {
   private volatile boolean knowledgeFolderPresented;
   private final AtomicBoolean loading = new AtomicBoolean(true);
   private final AtomicReference<Disposable> loadDispose = new AtomicReference<>();
+  private volatile ProjectTextIndex textIndex;
+  private volatile ProjectFolderWatcher folderWatcher;
+  private final LinkRefactoring linkRefactoring = new LinkRefactoring(this);
+  private volatile boolean lazyLoading;
   
   public NodeProject(@Nonnull final Predicate<NodeFileOrFolder> predicateShowHiddenFiles, @Nonnull final NodeProjectGroup group, @Nonnull final File folder) throws IOException {
     super(predicateShowHiddenFiles, group, true, folder.getName(), !Files.isWritable(folder.toPath()));
@@ -66,6 +64,123 @@ public class NodeProject extends NodeFileOrFolder {
     return this.loading.get();
   }
 
+  /**
+   * Enable or disable background text index of the project.
+   *
+   * @param enabled true if index should be built and used
+   */
+  public synchronized void setTextIndexEnabled(final boolean enabled) {
+    if (enabled) {
+      if (this.textIndex == null) {
+        this.textIndex = new ProjectTextIndex(this);
+        if (!this.isLoading()) {
+          this.textIndex.refresh();
+        }
+      }
+    } else if (this.textIndex != null) {
+      this.textIndex.dispose();
+      this.textIndex = null;
+    }
+  }
+
+  /**
+   * Get text index of the project.
+   *
+   * @return text index or null if it is disabled
+   */
+  @Nullable
+  public ProjectTextIndex getTextIndex() {
+    return this.textIndex;
+  }
+
+  public void notifyFileChanged(@Nonnull final File file) {
+    final ProjectTextIndex index = this.textIndex;
+    if (index != null) {
+      index.update(file);
+    }
+  }
+
+  public void notifyFileRenamed(@Nonnull final File oldFile, @Nonnull final File newFile) {
+    final ProjectTextIndex index = this.textIndex;
+    if (index != null) {
+      index.rename(oldFile, newFile);
+    }
+  }
+
+  @Override
+  protected void onDispose() {
+    this.stopFolderWatcher();
+    this.setTextIndexEnabled(false);
+  }
+
+  private synchronized void startFolderWatcher() {
+    this.stopFolderWatcher();
+    if (!this.isDisposed()) {
+      this.folderWatcher = ProjectFolderWatcher.start(this);
+    }
+  }
+
+  private synchronized void stopFolderWatcher() {
+    if (this.folderWatcher != null) {
+      this.folderWatcher.stop();
+      this.folderWatcher = null;
+    }
+  }
+
+  /**
+   * Find loaded node for path inside project folder.
+   *
+   * @param path path to file or folder
+   * @return found node or null if path is outside of project or not loaded
+   */
+  @Nullable
+  NodeFileOrFolder findNodeForPath(@Nonnull final Path path) {
+    final Path projectPath = this.folder.toPath();
+    if (!path.startsWith(projectPath)) {
+      return null;
+    }
+    NodeFileOrFolder result = this;
+    for (final Path name : projectPath.relativize(path)) {
+      if (result == null || name.toString().isEmpty()) {
+        break;
+      }
+      result = result.findChildForName(name.toString());
+    }
+    return result;
+  }
+
+  /**
+   * Set lazy mode, in the mode only first level of project is read and folders are read on
+   * demand. Takes effect on next reload of project.
+   *
+   * @param lazy true if folders should be read on demand
+   */
+  public void setLazyLoading(final boolean lazy) {
+    this.lazyLoading = lazy;
+  }
+
+  @Override
+  public boolean isLazyLoading() {
+    return this.lazyLoading;
+  }
+
+  @UiThread
+  void notifyFolderLoaded(@Nonnull final NodeFileOrFolder folder) {
+    final ProjectFolderWatcher watcher = this.folderWatcher;
+    if (watcher != null) {
+      watcher.registerLoadedFolders(folder);
+    }
+    this.getGroup().notifyFolderReloaded(folder);
+  }
+
+  void notifyFolderUnloaded(@Nonnull final NodeFileOrFolder folder) {
+    final ProjectFolderWatcher watcher = this.folderWatcher;
+    final File file = folder.makeFileForNode();
+    if (watcher != null && file != null) {
+      watcher.unregisterFolders(file.toPath());
+    }
+  }
+
   public boolean hasKnowledgeFolder() {
     return this.knowledgeFolderPresented;
   }
@@ -99,46 +214,31 @@ public class NodeProject extends NodeFileOrFolder {
     return (NodeProjectGroup) this.parent;
   }
 
+  /**
+   * Get processor of file links in mind maps of the project.
+   *
+   * @return link processor, must not be null
+   */
+  @Nonnull
+  public LinkRefactoring getLinkRefactoring() {
+    return this.linkRefactoring;
+  }
+
   @Nonnull
   @MustNotContainNull
   public List<File> findAffectedFiles(@Nonnull final File changedFile) {
-    final File baseFolder = makeFileForNode();
-
-    final List<File> result = new ArrayList<>();
-    FileUtils.listFiles(baseFolder, new String[]{"mmd", "MMD"}, true).forEach((mindMapFile) -> {
-      try {
-        final MindMap map = new MindMap(new StringReader(FileUtils.readFileToString(mindMapFile, StandardCharsets.UTF_8))); //NOI18N
-        if (!MapUtils.findTopicsRelatedToFile(baseFolder, changedFile, map).isEmpty()) {
-          result.add(mindMapFile);
-        }
-      } catch (IOException ex) {
-        LOGGER.error("Can't process mind map file", ex); //NOI18N
-      }
-    });
-    return result;
+    return this.linkRefactoring.findAffectedFiles(Collections.singletonList(changedFile));
   }
 
   @Nonnull
   @MustNotContainNull
   public List<File> deleteAllLinksToFile(@Nonnull @MustNotContainNull final List<File> listOfFilesToProcess, @Nonnull final File fileToRemove) {
-    final List<File> affectedFiles = new ArrayList<>();
-
-    final File baseFolder = makeFileForNode();
-    final MMapURI fileURI = new MMapURI(baseFolder, fileToRemove, null);
-
-    listOfFilesToProcess.stream().filter((file) -> (file.isFile())).forEachOrdered((file) -> {
-      try {
-        final MindMap map = new MindMap(new StringReader(FileUtils.readFileToString(file, "UTF-8"))); //NOI18N
-        if (map.deleteAllLinksToFile(baseFolder, fileURI)) {
-          SystemUtils.saveUTFText(file, map.asString());
-          affectedFiles.add(file);
-        }
-      } catch (IOException ex) {
-        LOGGER.error("Can't process mind map file", ex); //NOI18N
-      }
-    });
-
-    return affectedFiles;
+    try {
+      return this.linkRefactoring.deleteLinks(listOfFilesToProcess, Collections.singletonList(fileToRemove)).getChangedFiles();
+    } catch (IOException ex) {
+      LOGGER.error("Can't process mind map files, all of them have been restored", ex); //NOI18N
+      return Collections.emptyList();
+    }
   }
 
   public void initLoading(@Nonnull final Disposable disposable) {
@@ -154,6 +254,7 @@ public class NodeProject extends NodeFileOrFolder {
     return Mono.just(this)
             .doOnSubscribe(s -> {
               time.set(System.currentTimeMillis());
+              this.stopFolderWatcher();
             })
             .flatMap(p -> super.readSubtree(addHiddenFilesAndFolders))
             .doFinally(signalType -> {
@@ -164,31 +265,23 @@ public class NodeProject extends NodeFileOrFolder {
               this.loading.set(false);
               this.loadDispose.set(null);
               this.getGroup().notifyProjectStateChanged(this);
+              this.startFolderWatcher();
+              final ProjectTextIndex index = this.textIndex;
+              if (index != null) {
+                index.refresh();
+              }
             });
   }
 
   @Nonnull
   @MustNotContainNull
   public List<File> replaceAllLinksToFile(@Nonnull @MustNotContainNull final List<File> listOfFilesToProcess, @Nonnull final File oldFile, @Nonnull final File newFile) {
-    final List<File> affectedFiles = new ArrayList<>();
-
-    final File baseFolder = makeFileForNode();
-    final MMapURI oldFileURI = new MMapURI(baseFolder, oldFile, null);
-    final MMapURI newFileURI = new MMapURI(baseFolder, newFile, null);
-
-    listOfFilesToProcess.stream().filter((file) -> (file.isFile())).forEachOrdered((file) -> {
-      try {
-        final MindMap map = new MindMap(new StringReader(FileUtils.readFileToString(file, StandardCharsets.UTF_8)));
-        if (map.replaceAllLinksToFile(baseFolder, oldFileURI, newFileURI)) {
-          SystemUtils.saveUTFText(file, map.asString());
-          affectedFiles.add(file);
-        }
-      } catch (IOException ex) {
-        LOGGER.error("Can't process mind map file", ex); //NOI18N
-      }
-    });
-
-    return affectedFiles;
+    try {
+      return this.linkRefactoring.replaceLinks(listOfFilesToProcess, Collections.singletonMap(oldFile, newFile)).getChangedFiles();
+    } catch (IOException ex) {
+      LOGGER.error("Can't process mind map files, all of them have been restored", ex); //NOI18N
+      return Collections.emptyList();
+    }
   }
 
   public void cancelLoading() {
@@ -34,6 +34,8 @@ import java.io.File;
 import java.io.IOException;
 import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.function.Predicate;
@@ -52,6 +54,7 @@ public class NodeProjectGroup extends NodeFileOrFolder implements TreeModel {
   protected final String groupName;
   protected final List<TreeModelListener> listeners = new CopyOnWriteArrayList<>();
   private final Context context;
+  private final FileNameIndex fileNameIndex = new FileNameIndex(this);
 
   public static final Pattern FILE_NAME = Pattern.compile("^[^\\+\\*\\?\\{\\}\\&\\|\\;\\:\\\\\\/]+$"); //NOI18N
 
@@ -69,6 +72,16 @@ public class NodeProjectGroup extends NodeFileOrFolder implements TreeModel {
     return null;
   }
 
+  /**
+   * Get index of names of all nodes in the group, used for fast search of files by name.
+   *
+   * @return index of names, must not be null
+   */
+  @Nonnull
+  public FileNameIndex getFileNameIndex() {
+    return this.fileNameIndex;
+  }
+
   @Nullable
   public NodeProject findForFolder(@Nonnull final File folder) {
     NodeProject result = null;
@@ -90,11 +103,13 @@ public class NodeProjectGroup extends NodeFileOrFolder implements TreeModel {
       });
     }
     project.dispose();
+    this.fileNameIndex.invalidate();
   }
 
   @Nonnull
   @Override
   public Mono<NodeFileOrFolder> readSubtree(final boolean addHiddenFilesAndFolders) {
+    this.fileNameIndex.invalidate();
     this.children.forEach(proj -> {
       ((NodeProject)proj).initLoading(proj.readSubtree(addHiddenFilesAndFolders).subscribeOn(MainFrame.REACTOR_SCHEDULER).subscribe());
     });
@@ -177,6 +192,7 @@ public class NodeProjectGroup extends NodeFileOrFolder implements TreeModel {
               boolean doIt = true;
 
               List<File> affectedFiles = null;
+              LinkRefactoring.Changes linkChanges = null;
 
               final NodeProject project = editedNode.findProject();
               if (project != null) {
@@ -186,16 +202,21 @@ public class NodeProjectGroup extends NodeFileOrFolder implements TreeModel {
                   if (affectedFiles == null) {
                     doIt = false;
                   } else {
-                    affectedFiles = project.replaceAllLinksToFile(affectedFiles, origFile, newFile);
+                    linkChanges = project.getLinkRefactoring().replaceLinks(affectedFiles, Collections.singletonMap(origFile, newFile));
+                    affectedFiles = linkChanges.getChangedFiles();
                   }
                 }
               }
 
               if (doIt) {
                 if (!origFile.renameTo(newFile)) {
+                    if (linkChanges != null) {
+                      linkChanges.rollback();
+                    }
                     throw new IOException("Can't rename " + origFile.getName() + " to " + newFile.getName());
                 }
                 editedNode.setName(newFile.getName());
+                this.fileNameIndex.invalidate();
 
                 final TreeModelEvent renamedEvent = new TreeModelEvent(this, editedNode.makeTreePath());
                 for (final TreeModelListener l : listeners) {
@@ -238,6 +259,7 @@ public class NodeProjectGroup extends NodeFileOrFolder implements TreeModel {
 
   void notifyProjectStateChanged(@Nonnull final NodeProject project) {
     Assertions.assertTrue("Must belong the group", project.getGroup() == this);
+    this.fileNameIndex.invalidate();
 
     final TreeModelEvent event = new TreeModelEvent(this, new TreePath(new Object[]{this, project}));
 
@@ -309,6 +331,7 @@ public class NodeProjectGroup extends NodeFileOrFolder implements TreeModel {
   @Nonnull
   public NodeFileOrFolder addChild(@Nonnull final NodeFileOrFolder folder, @Nonnull final File childFile) throws IOException {
     final NodeFileOrFolder newNode = folder.addFile(childFile);
+    this.fileNameIndex.nodesAdded(Collections.singletonList(newNode));
     final TreeModelEvent event = new TreeModelEvent(this, folder.makeTreePath(), new int[]{newNode.getIndexAtParent()}, new Object[]{newNode});
     for (final TreeModelListener l : this.listeners) {
       l.treeNodesInserted(event);
@@ -316,18 +339,73 @@ public class NodeProjectGroup extends NodeFileOrFolder implements TreeModel {
     return newNode;
   }
 
+  /**
+   * Remove and add children of folder and notify listeners by one event for all removed and one
+   * event for all added nodes.
+   *
+   * @param folder  folder to be changed
+   * @param removed children to be removed
+   * @param added   files to be added as children
+   * @return added nodes which are folders and need to be loaded
+   */
+  @UiThread
   @Nonnull
   @MustNotContainNull
-  public List<NodeFileOrFolder> findForNamePattern(@Nullable final Pattern namePattern) {
-    final List<NodeFileOrFolder> result = new ArrayList<>();
+  List<NodeFileOrFolder> applyFolderChanges(@Nonnull final NodeFileOrFolder folder,
+                                            @Nonnull @MustNotContainNull final List<NodeFileOrFolder> removed,
+                                            @Nonnull @MustNotContainNull final List<File> added) {
+    final Object[] folderPath = folder.makeTreePath().getPath();
+
+    if (!removed.isEmpty()) {
+      final List<NodeFileOrFolder> nodes = new ArrayList<>(removed);
+      nodes.sort(Comparator.comparingInt(folder::getIndex));
+      final int[] indexes = nodes.stream().mapToInt(folder::getIndex).toArray();
+      nodes.forEach(folder::deleteChild);
+      final TreeModelEvent event = new TreeModelEvent(this, folderPath, indexes, nodes.toArray());
+      for (final TreeModelListener l : this.listeners) {
+        l.treeNodesRemoved(event);
+      }
+    }
 
-    if (namePattern != null) {
-      for (final NodeFileOrFolder f : this.children) {
-        f.fillAllMatchNamePattern(namePattern, result);
+    final List<NodeFileOrFolder> newFolders = new ArrayList<>();
+    if (!added.isEmpty()) {
+      final List<NodeFileOrFolder> nodes = folder.addFiles(added);
+      this.fileNameIndex.nodesAdded(nodes);
+      nodes.sort(Comparator.comparingInt(folder::getIndex));
+      final int[] indexes = nodes.stream().mapToInt(folder::getIndex).toArray();
+      final TreeModelEvent event = new TreeModelEvent(this, folderPath, indexes, nodes.toArray());
+      for (final TreeModelListener l : this.listeners) {
+        l.treeNodesInserted(event);
       }
+      nodes.stream().filter(NodeFileOrFolder::getAllowsChildren).forEach(newFolders::add);
     }
+    return newFolders;
+  }
 
-    return result;
+  /**
+   * Drop children of folder in lazy mode to release memory, they will be read again on expand.
+   *
+   * @param folder folder which must be collapsed in tree
+   */
+  @UiThread
+  void unloadFolder(@Nonnull final NodeFileOrFolder folder) {
+    folder.unloadChildren();
+    final NodeProject project = folder.findProject();
+    if (project != null) {
+      project.notifyFolderUnloaded(folder);
+    }
+    this.notifyFolderReloaded(folder);
+  }
+
+  @UiThread
+  void notifyFolderReloaded(@Nonnull final NodeFileOrFolder folder) {
+    if (!folder.isDisposed()) {
+      this.fileNameIndex.childrenLoaded(folder);
+      final TreeModelEvent event = new TreeModelEvent(this, folder.makeTreePath());
+      for (final TreeModelListener l : this.listeners) {
+        l.treeStructureChanged(event);
+      }
+    }
   }
 
 }
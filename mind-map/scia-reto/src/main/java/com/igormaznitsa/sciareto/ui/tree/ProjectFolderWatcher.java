@@ -0,0 +1,286 @@
+/*
+ * Copyright (C) 2015-2022 Igor A. Maznitsa
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package com.igormaznitsa.sciareto.ui.tree;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+
+import com.igormaznitsa.meta.annotation.UiThread;
+import com.igormaznitsa.mindmap.model.logger.Logger;
+import com.igormaznitsa.mindmap.model.logger.LoggerFactory;
+import com.igormaznitsa.sciareto.Context;
+import com.igormaznitsa.sciareto.ui.MainFrame;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.swing.SwingUtilities;
+
+/**
+ * Watcher of project folder which keeps loaded project tree in sync with file system. Events are
+ * collected until file system is quiet for a while, grouped per folder and applied on Swing thread
+ * as insertions and removals of nodes, so that the tree is not reloaded for every change. If
+ * events are lost, whole project is reloaded.
+ */
+final class ProjectFolderWatcher {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(ProjectFolderWatcher.class);
+
+  private static final long QUIET_PERIOD_MS = 300L;
+  private static final long MAX_DELAY_MS = 2000L;
+
+  private final NodeProject project;
+  private final Path projectFolder;
+  private final WatchService watchService;
+  private final Map<WatchKey, Path> keys = new ConcurrentHashMap<>();
+  private final Thread thread;
+  private volatile boolean stopped;
+  private volatile boolean registrationFailed;
+
+  private ProjectFolderWatcher(@Nonnull final NodeProject project, @Nonnull final WatchService watchService) {
+    this.project = project;
+    this.projectFolder = project.getFolder().toPath();
+    this.watchService = watchService;
+    this.thread = new Thread(this::run, "SciaRetoWatcher-" + project); //NOI18N
+    this.thread.setDaemon(true);
+  }
+
+  /**
+   * Start watching of loaded project tree.
+   *
+   * @param project project which tree is loaded
+   * @return started watcher or null if file system doesn't provide watching
+   */
+  @Nullable
+  static ProjectFolderWatcher start(@Nonnull final NodeProject project) {
+    try {
+      final ProjectFolderWatcher result = new ProjectFolderWatcher(project, project.getFolder().toPath().getFileSystem().newWatchService());
+      result.registerLoadedFolders(project);
+      result.thread.start();
+      return result;
+    } catch (IOException | UnsupportedOperationException ex) {
+      LOGGER.warn("Can't start watching of project folder " + project.getFolder() + ": " + ex.getMessage()); //NOI18N
+      return null;
+    }
+  }
+
+  void stop() {
+    this.stopped = true;
+    this.thread.interrupt();
+    try {
+      this.watchService.close();
+    } catch (IOException ex) {
+      LOGGER.warn("Can't close watch service: " + ex.getMessage()); //NOI18N
+    }
+  }
+
+  void registerLoadedFolders(@Nonnull final NodeFileOrFolder folder) {
+    final File file = folder.makeFileForNode();
+    if (file != null && folder.getAllowsChildren() && folder.isLoaded() && this.register(file.toPath())) {
+      for (final NodeFileOrFolder child : folder) {
+        if (child.getAllowsChildren()) {
+          this.registerLoadedFolders(child);
+        }
+      }
+    }
+  }
+
+  void unregisterFolders(@Nonnull final Path folder) {
+    this.keys.entrySet().removeIf(e -> {
+      if (e.getValue().startsWith(folder)) {
+        e.getKey().cancel();
+        return true;
+      }
+      return false;
+    });
+  }
+
+  private boolean register(@Nonnull final Path folder) {
+    if (this.registrationFailed || this.stopped) {
+      return false;
+    }
+    try {
+      this.keys.put(folder.register(this.watchService, ENTRY_CREATE, ENTRY_DELETE, ENTRY_MODIFY), folder);
+      return true;
+    } catch (ClosedWatchServiceException ex) {
+      return false;
+    } catch (IOException ex) {
+      // usually limit of watches, folders registered before stay watched
+      this.registrationFailed = true;
+      LOGGER.warn("Can't watch folder " + folder + ", project tree can be not actual: " + ex.getMessage()); //NOI18N
+      return false;
+    }
+  }
+
+  private void registerNewFolder(@Nonnull final Path folder) {
+    try {
+      Files.walkFileTree(folder, new SimpleFileVisitor<Path>() {
+        @Override
+        @Nonnull
+        public FileVisitResult preVisitDirectory(@Nonnull final Path dir, @Nonnull final BasicFileAttributes attrs) {
+          if (stopped || !isVisible(dir)) {
+            return FileVisitResult.SKIP_SUBTREE;
+          }
+          return register(dir) ? FileVisitResult.CONTINUE : FileVisitResult.TERMINATE;
+        }
+
+        @Override
+        @Nonnull
+        public FileVisitResult visitFileFailed(@Nonnull final Path file, @Nonnull final IOException exc) {
+          return FileVisitResult.CONTINUE;
+        }
+      });
+    } catch (IOException ex) {
+      LOGGER.warn("Can't register new folder " + folder + ": " + ex.getMessage()); //NOI18N
+    }
+  }
+
+  private boolean isVisible(@Nonnull final Path path) {
+    if (this.project.predicateShowHiddenFiles.test(this.project)) {
+      return true;
+    }
+    try {
+      return !Files.isHidden(path)
+          || (this.projectFolder.equals(path.getParent()) && Context.KNOWLEDGE_FOLDER.equals(path.getFileName().toString()));
+    } catch (IOException ex) {
+      return false;
+    }
+  }
+
+  private void run() {
+    final Map<Path, Set<String>> changes = new LinkedHashMap<>();
+    try {
+      while (!this.stopped) {
+        WatchKey key = this.watchService.take();
+        final long start = System.currentTimeMillis();
+        boolean overflow = false;
+        while (key != null) {
+          overflow |= this.collect(key, changes);
+          key = System.currentTimeMillis() - start >= MAX_DELAY_MS ? null : this.watchService.poll(QUIET_PERIOD_MS, TimeUnit.MILLISECONDS);
+        }
+
+        if (overflow) {
+          changes.clear();
+          LOGGER.warn("Watch events of project " + this.project + " are lost, reload project"); //NOI18N
+          SwingUtilities.invokeLater(() -> {
+            if (!this.stopped) {
+              this.project.getGroup().startProjectFolderRefresh(this.project);
+            }
+          });
+        } else if (!changes.isEmpty()) {
+          final Map<Path, Set<String>> batch = new LinkedHashMap<>(changes);
+          changes.clear();
+          SwingUtilities.invokeLater(() -> this.apply(batch));
+        }
+      }
+    } catch (InterruptedException | ClosedWatchServiceException ex) {
+      // watcher stopped
+    } catch (Exception ex) {
+      LOGGER.error("Unexpected error in watcher of project " + this.project, ex); //NOI18N
+    }
+  }
+
+  private boolean collect(@Nonnull final WatchKey key, @Nonnull final Map<Path, Set<String>> changes) {
+    final Path folder = this.keys.get(key);
+    boolean overflow = false;
+    for (final WatchEvent<?> event : key.pollEvents()) {
+      if (event.kind() == OVERFLOW) {
+        overflow = true;
+      } else if (folder != null) {
+        final Path child = folder.resolve((Path) event.context());
+        changes.computeIfAbsent(folder, f -> new LinkedHashSet<>()).add(child.getFileName().toString());
+        if (event.kind() == ENTRY_CREATE && !this.project.isLazyLoading() && Files.isDirectory(child)) {
+          this.registerNewFolder(child);
+        }
+      }
+    }
+    if (!key.reset()) {
+      this.keys.remove(key);
+    }
+    return overflow;
+  }
+
+  @UiThread
+  private void apply(@Nonnull final Map<Path, Set<String>> batch) {
+    if (this.stopped || this.project.isLoading() || this.project.isDisposed()) {
+      return;
+    }
+    final NodeProjectGroup group = this.project.getGroup();
+    final boolean showHidden = this.project.predicateShowHiddenFiles.test(this.project);
+
+    for (final Map.Entry<Path, Set<String>> e : batch.entrySet()) {
+      final NodeFileOrFolder folder = this.project.findNodeForPath(e.getKey());
+      if (folder == null || !folder.getAllowsChildren() || !folder.isLoaded()) {
+        continue;
+      }
+
+      final List<NodeFileOrFolder> removed = new ArrayList<>();
+      final List<File> added = new ArrayList<>();
+
+      for (final String name : e.getValue()) {
+        final Path path = e.getKey().resolve(name);
+        final NodeFileOrFolder node = folder.findChildForName(name);
+        final boolean exists = Files.exists(path);
+        final boolean directory = exists && Files.isDirectory(path);
+
+        boolean add = exists && node == null;
+        if (node != null && (!exists || node.getAllowsChildren() != directory)) {
+          removed.add(node);
+          add = exists;
+        }
+        if (add && isVisible(path)) {
+          added.add(path.toFile());
+        }
+        if (!directory) {
+          this.project.notifyFileChanged(path.toFile());
+        }
+      }
+
+      final List<NodeFileOrFolder> newFolders = group.applyFolderChanges(folder, removed, added);
+      if (this.project.isLazyLoading()) {
+        continue;
+      }
+      for (final NodeFileOrFolder newFolder : newFolders) {
+        newFolder.readSubtree(showHidden)
+            .subscribeOn(MainFrame.REACTOR_SCHEDULER)
+            .doFinally(signal -> SwingUtilities.invokeLater(() -> group.notifyFolderReloaded(newFolder)))
+            .subscribe();
+      }
+    }
+  }
+}
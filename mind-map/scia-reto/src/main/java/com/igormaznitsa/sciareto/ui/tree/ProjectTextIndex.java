@@ -0,0 +1,591 @@
+/*
+ * Copyright (C) 2015-2022 Igor A. Maznitsa
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package com.igormaznitsa.sciareto.ui.tree;
+
+import com.igormaznitsa.mindmap.model.Extra;
+import com.igormaznitsa.mindmap.model.ExtraFile;
+import com.igormaznitsa.mindmap.model.ExtraNote;
+import com.igormaznitsa.mindmap.model.MindMap;
+import com.igormaznitsa.mindmap.model.Topic;
+import com.igormaznitsa.mindmap.model.logger.Logger;
+import com.igormaznitsa.mindmap.model.logger.LoggerFactory;
+import com.igormaznitsa.sciareto.Context;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitOption;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.io.FilenameUtils;
+
+/**
+ * Background text index of project files. Every file is described by its trigram signature, a
+ * bit set where each trigram of file content (ASCII case folded) sets one hashed bit. Search
+ * makes trigrams of the requested text and selects files whose signatures contain all of them,
+ * only such candidates must be read and verified. For mind maps the signature is made from topic
+ * text, notes, links and file paths. The index is updated for saved and renamed files and
+ * persisted between sessions in temp folder.
+ */
+public final class ProjectTextIndex {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(ProjectTextIndex.class);
+
+  private static final int STORE_MAGIC = 0x53525449;
+  private static final int STORE_VERSION = 1;
+
+  private static final long MAX_INDEXED_FILE_SIZE = 16L * 1024L * 1024L;
+  private static final int MIN_SIGNATURE_BITS = 512;
+  private static final int MAX_SIGNATURE_BITS = 1 << 16;
+  private static final int BITS_PER_TRIGRAM = 8;
+
+  private static final int FLAG_MIND_MAP = 1;
+  private static final int FLAG_NOT_INDEXED = 2;
+
+  private static final ExecutorService INDEXER = makeIndexer();
+
+  private final NodeProject project;
+  private final Map<File, Entry> entries = new ConcurrentHashMap<>();
+  private volatile boolean loaded;
+  private volatile boolean ready;
+  private volatile boolean disposed;
+  private volatile boolean changed;
+
+  ProjectTextIndex(@Nonnull final NodeProject project) {
+    this.project = project;
+  }
+
+  @Nonnull
+  private static ExecutorService makeIndexer() {
+    final ThreadPoolExecutor result = new ThreadPoolExecutor(1, 1, 30L, TimeUnit.SECONDS,
+        new LinkedBlockingQueue<>(), r -> {
+      final Thread thread = new Thread(r, "SciaRetoTextIndexer"); //NOI18N
+      thread.setDaemon(true);
+      thread.setPriority(Thread.MIN_PRIORITY);
+      return thread;
+    });
+    result.allowCoreThreadTimeOut(true);
+    return result;
+  }
+
+  private static int foldCase(final byte value) {
+    final int result = value & 0xFF;
+    return result >= 'A' && result <= 'Z' ? result + ('a' - 'A') : result;
+  }
+
+  private static int hash(final int trigram, final int mask) {
+    return (trigram * 0x9E3779B1) >>> 8 & mask;
+  }
+
+  /**
+   * Make trigrams for data which must be found by examining bytes, a position matches if file byte
+   * is the same as byte of one of variants. Windows where variants differ in non-ASCII letters
+   * are ignored.
+   */
+  @Nonnull
+  static int[] makeQueryTrigrams(@Nonnull final byte[] variant1, @Nonnull final byte[] variant2) {
+    final Set<Integer> result = new HashSet<>();
+    if (variant1.length == variant2.length) {
+      for (int i = 0; i <= variant1.length - 3; i++) {
+        int trigram = 0;
+        boolean same = true;
+        for (int j = i; j < i + 3 && same; j++) {
+          final int folded = foldCase(variant1[j]);
+          same = folded == foldCase(variant2[j]);
+          trigram = (trigram << 8) | folded;
+        }
+        if (same) {
+          result.add(trigram);
+        }
+      }
+    }
+    return result.stream().mapToInt(Integer::intValue).toArray();
+  }
+
+  @Nonnull
+  static int[] makeQueryTrigrams(@Nonnull final String text) {
+    final byte[] data = text.getBytes(StandardCharsets.UTF_8);
+    return makeQueryTrigrams(data, data);
+  }
+
+  private static void collectTrigrams(@Nonnull final byte[] data, final int length, @Nonnull final TrigramSet trigrams) {
+    if (length >= 3) {
+      int trigram = (foldCase(data[0]) << 8) | foldCase(data[1]);
+      for (int i = 2; i < length; i++) {
+        trigram = ((trigram << 8) | foldCase(data[i])) & 0xFFFFFF;
+        trigrams.add(trigram);
+      }
+    }
+  }
+
+  @Nonnull
+  private static long[] makeSignature(@Nonnull final TrigramSet trigrams) {
+    int bits = MIN_SIGNATURE_BITS;
+    while (bits < MAX_SIGNATURE_BITS && bits < trigrams.size * BITS_PER_TRIGRAM) {
+      bits <<= 1;
+    }
+    final long[] result = new long[bits / 64];
+    final int mask = bits - 1;
+    for (final int slot : trigrams.slots) {
+      if (slot != 0) {
+        final int bit = hash(slot - 1, mask);
+        result[bit >>> 6] |= 1L << bit;
+      }
+    }
+    return result;
+  }
+
+  @Nonnull
+  private static List<String> extractMindMapTexts(@Nonnull final File file, @Nonnull final MindMap map) {
+    final File baseFolder = file.getParentFile();
+    final List<String> result = new ArrayList<>();
+    for (final Topic topic : map) {
+      result.add(topic.getText());
+      for (final Extra<?> extra : topic.getExtras().values()) {
+        if (extra instanceof ExtraFile) {
+          result.add(FilenameUtils.normalize(((ExtraFile) extra).getValue().asFile(baseFolder).getAbsolutePath()));
+        } else if (extra instanceof ExtraNote) {
+          result.add(((ExtraNote) extra).getValue());
+        } else {
+          result.add(extra.getAsString());
+        }
+      }
+    }
+    return result;
+  }
+
+  @Nonnull
+  private static Entry makeEntry(@Nonnull final File file) throws IOException {
+    final long modified = file.lastModified();
+    final long length = file.length();
+
+    if (length > MAX_INDEXED_FILE_SIZE) {
+      return new Entry(modified, length, FLAG_NOT_INDEXED, new long[0]);
+    }
+
+    final byte[] content = Files.readAllBytes(file.toPath());
+    int flags = 0;
+    final TrigramSet trigrams = new TrigramSet(content.length);
+    MindMap map = null;
+    if ("mmd".equals(FilenameUtils.getExtension(file.getName()).toLowerCase(Locale.ENGLISH))) { //NOI18N
+      try {
+        map = new MindMap(new StringReader(new String(content, StandardCharsets.UTF_8)));
+      } catch (Exception ex) {
+        map = null;
+      }
+    }
+    if (map == null) {
+      collectTrigrams(content, content.length, trigrams);
+    } else {
+      flags |= FLAG_MIND_MAP;
+      for (final String text : extractMindMapTexts(file, map)) {
+        if (text == null) {
+          continue;
+        }
+        final byte[] data = text.getBytes(StandardCharsets.UTF_8);
+        collectTrigrams(data, data.length, trigrams);
+      }
+    }
+    return new Entry(modified, length, flags, makeSignature(trigrams));
+  }
+
+  private static boolean isVisible(@Nonnull final Path path, @Nonnull final Path root, final boolean addHidden) {
+    return addHidden || !NodeFileOrFolder.isFileHidden(path)
+        || (root.equals(path.getParent()) && Context.KNOWLEDGE_FOLDER.equals(path.getFileName().toString()));
+  }
+
+  /**
+   * Collect project files directly from disk with the same hidden file filter as the project tree,
+   * tree nodes are not made so that folders of lazy project stay not loaded.
+   *
+   * @param files set to be filled by found files
+   */
+  private void collectFiles(@Nonnull final Set<File> files) {
+    final Path root = this.project.getFolder().toPath();
+    final boolean addHidden = this.project.predicateShowHiddenFiles.test(this.project);
+    try {
+      Files.walkFileTree(root, EnumSet.of(FileVisitOption.FOLLOW_LINKS), Integer.MAX_VALUE, new SimpleFileVisitor<Path>() {
+        @Override
+        @Nonnull
+        public FileVisitResult preVisitDirectory(@Nonnull final Path dir, @Nonnull final BasicFileAttributes attrs) {
+          if (disposed) {
+            return FileVisitResult.TERMINATE;
+          }
+          return dir.equals(root) || isVisible(dir, root, addHidden) ? FileVisitResult.CONTINUE : FileVisitResult.SKIP_SUBTREE;
+        }
+
+        @Override
+        @Nonnull
+        public FileVisitResult visitFile(@Nonnull final Path file, @Nonnull final BasicFileAttributes attrs) {
+          if (isVisible(file, root, addHidden)) {
+            files.add(file.toFile());
+          }
+          return FileVisitResult.CONTINUE;
+        }
+
+        @Override
+        @Nonnull
+        public FileVisitResult visitFileFailed(@Nonnull final Path file, @Nonnull final IOException exc) {
+          return FileVisitResult.CONTINUE;
+        }
+      });
+    } catch (IOException ex) {
+      LOGGER.warn("Can't collect files of project " + root + ": " + ex.getMessage()); //NOI18N
+    }
+  }
+
+  /**
+   * Check that index contains information about all project files.
+   *
+   * @return true if index can be used for search
+   */
+  public boolean isReady() {
+    return this.ready && !this.disposed;
+  }
+
+  /**
+   * Make filter which rejects files certainly not containing searched text. Files unknown for the
+   * index and files changed since indexing are always accepted, changed files are reindexed in
+   * background.
+   *
+   * @param variant1 first byte variant of text to be found in plain files
+   * @param variant2 second byte variant of text to be found in plain files
+   * @param text     text to be found in mind maps, case insensitive for ASCII letters
+   * @return filter of candidate files or null if index can't filter the text
+   */
+  @Nullable
+  public Predicate<File> makeCandidateFilter(@Nonnull final byte[] variant1, @Nonnull final byte[] variant2, @Nonnull final String text) {
+    if (!this.isReady()) {
+      return null;
+    }
+    final int[] fileTrigrams = makeQueryTrigrams(variant1, variant2);
+    final int[] mapTrigrams = makeQueryTrigrams(text);
+    if (fileTrigrams.length == 0 && mapTrigrams.length == 0) {
+      return null;
+    }
+    return file -> {
+      final Entry entry = this.entries.get(file);
+      if (entry == null) {
+        return true;
+      }
+      if (!entry.isActual(file)) {
+        this.update(file);
+        return true;
+      }
+      return entry.mayContain((entry.flags & FLAG_MIND_MAP) == 0 ? fileTrigrams : mapTrigrams);
+    };
+  }
+
+  /**
+   * Start background check of all project files, new and changed ones are indexed.
+   */
+  public void refresh() {
+    this.submit(this::doRefresh);
+  }
+
+  /**
+   * Reindex file in background, called when file is saved.
+   *
+   * @param file changed file
+   */
+  public void update(@Nonnull final File file) {
+    this.submit(() -> this.doUpdate(file));
+  }
+
+  /**
+   * Move index data for renamed file or folder.
+   *
+   * @param oldFile old file
+   * @param newFile new file
+   */
+  public void rename(@Nonnull final File oldFile, @Nonnull final File newFile) {
+    this.submit(() -> {
+      final String oldPrefix = oldFile.getAbsolutePath() + File.separatorChar;
+      final Map<File, Entry> moved = new HashMap<>();
+      final Iterator<Map.Entry<File, Entry>> iterator = this.entries.entrySet().iterator();
+      while (iterator.hasNext()) {
+        final Map.Entry<File, Entry> e = iterator.next();
+        final String path = e.getKey().getAbsolutePath();
+        if (e.getKey().equals(oldFile)) {
+          moved.put(newFile, e.getValue());
+          iterator.remove();
+        } else if (path.startsWith(oldPrefix)) {
+          moved.put(new File(newFile, path.substring(oldPrefix.length())), e.getValue());
+          iterator.remove();
+        }
+      }
+      this.entries.putAll(moved);
+      this.changed = true;
+      if (newFile.isFile()) {
+        this.doUpdate(newFile);
+      }
+    });
+  }
+
+  /**
+   * Stop index and save its state.
+   */
+  public void dispose() {
+    if (!this.disposed) {
+      this.disposed = true;
+      INDEXER.submit(this::save);
+    }
+  }
+
+  private void submit(@Nonnull final Runnable task) {
+    if (!this.disposed) {
+      INDEXER.submit(() -> {
+        if (!this.disposed) {
+          try {
+            task.run();
+          } catch (Exception ex) {
+            LOGGER.error("Error during text index processing for " + this.project, ex); //NOI18N
+          }
+        }
+      });
+    }
+  }
+
+  private void doUpdate(@Nonnull final File file) {
+    if (file.isFile()) {
+      try {
+        this.entries.put(file, makeEntry(file));
+      } catch (IOException ex) {
+        LOGGER.warn("Can't index file " + file + ": " + ex.getMessage()); //NOI18N
+        this.entries.remove(file);
+      }
+    } else {
+      this.entries.remove(file);
+    }
+    this.changed = true;
+  }
+
+  private void doRefresh() {
+    if (!this.loaded) {
+      this.load();
+      this.loaded = true;
+    }
+
+    final long start = System.currentTimeMillis();
+    final Set<File> files = new HashSet<>();
+    this.collectFiles(files);
+
+    if (this.entries.keySet().retainAll(files)) {
+      this.changed = true;
+    }
+
+    int indexed = 0;
+    for (final File file : files) {
+      if (this.disposed) {
+        return;
+      }
+      final Entry entry = this.entries.get(file);
+      if (entry == null || !entry.isActual(file)) {
+        this.doUpdate(file);
+        indexed++;
+      }
+    }
+    this.ready = true;
+
+    LOGGER.info(String.format("Text index of %s refreshed, %d of %d files indexed, spent %d ms", this.project, indexed, files.size(), System.currentTimeMillis() - start)); //NOI18N
+    this.save();
+  }
+
+  @Nonnull
+  private File makeStoreFile() {
+    final File folder = new File(System.getProperty("java.io.tmpdir"), "sciareto-text-index"); //NOI18N
+    return new File(folder, DigestUtils.md5Hex(this.project.getFolder().getAbsolutePath()) + ".idx"); //NOI18N
+  }
+
+  private void load() {
+    final File file = makeStoreFile();
+    if (!file.isFile()) {
+      return;
+    }
+    try (final DataInputStream in = new DataInputStream(new BufferedInputStream(new GZIPInputStream(Files.newInputStream(file.toPath()))))) {
+      if (in.readInt() != STORE_MAGIC || in.readInt() != STORE_VERSION
+          || !this.project.getFolder().getAbsolutePath().equals(in.readUTF())) {
+        return;
+      }
+      final int count = in.readInt();
+      for (int i = 0; i < count; i++) {
+        final File entryFile = new File(in.readUTF());
+        final long modified = in.readLong();
+        final long length = in.readLong();
+        final int flags = in.readByte();
+        final long[] signature = new long[in.readInt()];
+        for (int j = 0; j < signature.length; j++) {
+          signature[j] = in.readLong();
+        }
+        this.entries.put(entryFile, new Entry(modified, length, flags, signature));
+      }
+    } catch (Exception ex) {
+      LOGGER.warn("Can't load text index " + file + ": " + ex.getMessage()); //NOI18N
+      this.entries.clear();
+    }
+  }
+
+  private void save() {
+    if (!this.changed) {
+      return;
+    }
+    final File file = makeStoreFile();
+    try {
+      Files.createDirectories(file.getParentFile().toPath());
+      final File tempFile = new File(file.getParentFile(), file.getName() + ".tmp"); //NOI18N
+      try (final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new GZIPOutputStream(Files.newOutputStream(tempFile.toPath()))))) {
+        out.writeInt(STORE_MAGIC);
+        out.writeInt(STORE_VERSION);
+        out.writeUTF(this.project.getFolder().getAbsolutePath());
+        final List<Map.Entry<File, Entry>> snapshot = new ArrayList<>(this.entries.entrySet());
+        out.writeInt(snapshot.size());
+        for (final Map.Entry<File, Entry> e : snapshot) {
+          out.writeUTF(e.getKey().getAbsolutePath());
+          out.writeLong(e.getValue().modified);
+          out.writeLong(e.getValue().length);
+          out.writeByte(e.getValue().flags);
+          out.writeInt(e.getValue().signature.length);
+          for (final long word : e.getValue().signature) {
+            out.writeLong(word);
+          }
+        }
+      }
+      Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+      this.changed = false;
+    } catch (IOException ex) {
+      LOGGER.warn("Can't save text index " + file + ": " + ex.getMessage()); //NOI18N
+    }
+  }
+
+  /**
+   * Open addressing set of distinct trigrams of one file, it is sized by file length so that small
+   * files don't touch big buffers. Slots keep trigram plus one, zero marks empty slot.
+   */
+  private static final class TrigramSet {
+    private static final int MIN_CAPACITY = 64;
+    private static final int MAX_INITIAL_CAPACITY = 1 << 16;
+
+    private int[] slots;
+    private int size;
+
+    private TrigramSet(final long dataLength) {
+      int capacity = MIN_CAPACITY;
+      while (capacity < MAX_INITIAL_CAPACITY && capacity < dataLength) {
+        capacity <<= 1;
+      }
+      this.slots = new int[capacity];
+    }
+
+    private static void insert(@Nonnull final int[] slots, final int value) {
+      final int mask = slots.length - 1;
+      int index = (value * 0x9E3779B1) >>> 7 & mask;
+      while (slots[index] != 0) {
+        index = (index + 1) & mask;
+      }
+      slots[index] = value;
+    }
+
+    private void add(final int trigram) {
+      final int value = trigram + 1;
+      final int mask = this.slots.length - 1;
+      int index = (value * 0x9E3779B1) >>> 7 & mask;
+      while (true) {
+        final int slot = this.slots[index];
+        if (slot == value) {
+          return;
+        }
+        if (slot == 0) {
+          break;
+        }
+        index = (index + 1) & mask;
+      }
+      this.slots[index] = value;
+      this.size++;
+      if (this.size * 2 > this.slots.length) {
+        final int[] grown = new int[this.slots.length << 1];
+        for (final int slot : this.slots) {
+          if (slot != 0) {
+            insert(grown, slot);
+          }
+        }
+        this.slots = grown;
+      }
+    }
+  }
+
+  private static final class Entry {
+
+    private final long modified;
+    private final long length;
+    private final int flags;
+    private final long[] signature;
+
+    private Entry(final long modified, final long length, final int flags, @Nonnull final long[] signature) {
+      this.modified = modified;
+      this.length = length;
+      this.flags = flags;
+      this.signature = signature;
+    }
+
+    private boolean isActual(@Nonnull final File file) {
+      return this.modified == file.lastModified() && this.length == file.length();
+    }
+
+    private boolean mayContain(@Nonnull final int[] trigrams) {
+      if ((this.flags & FLAG_NOT_INDEXED) != 0 || this.signature.length == 0) {
+        return true;
+      }
+      final int mask = this.signature.length * 64 - 1;
+      for (final int t : trigrams) {
+        final int bit = hash(t, mask);
+        if ((this.signature[bit >>> 6] & (1L << bit)) == 0L) {
+          return false;
+        }
+      }
+      return true;
+    }
+  }
+}
@@ -21,11 +21,14 @@ package com.igormaznitsa.sciareto.ui.editors;
 
 import static java.time.Duration.ofMinutes;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 
 import java.time.Instant;
+import java.util.Collections;
 import java.util.Optional;
+import javax.annotation.Nonnull;
 import org.apache.kafka.common.serialization.Serdes;
 import org.apache.kafka.streams.StreamsBuilder;
 import org.apache.kafka.streams.Topology;
@@ -211,6 +214,79 @@ public class KStreamsTopologyDescriptionParserTest {
     assertEquals(9, graph.size());
   }
 
+  @Nonnull
+  private static String makeBigTopology(final int subTopologies, final int elementsPerSub,
+                                        @Nonnull final String changedComment) {
+    final StringBuilder buffer = new StringBuilder("Topologies:\n");
+    for (int s = 0; s < subTopologies; s++) {
+      buffer.append("   Sub-topology: ").append(s).append('\n');
+      for (int e = 0; e < elementsPerSub; e++) {
+        final String id = String.format("KSTREAM-ELEM-%05d-%03d", s, e);
+        if (e == 0) {
+          buffer.append("    Source: ").append(id).append(" (topics: [topic-").append(s)
+              .append("])\n");
+        } else if (e == elementsPerSub - 1) {
+          buffer.append("    Sink: ").append(id).append(" (topic: topic-").append(s + 1)
+              .append(")\n");
+        } else {
+          buffer.append("    Processor: ").append(id).append(" (stores: [store-").append(s)
+              .append("])");
+          if (s == subTopologies / 2 && e == 1) {
+            buffer.append(' ').append(changedComment);
+          }
+          buffer.append('\n');
+        }
+        if (e < elementsPerSub - 1) {
+          buffer.append("      --> ").append(String.format("KSTREAM-ELEM-%05d-%03d", s, e + 1))
+              .append('\n');
+        }
+        if (e > 0) {
+          buffer.append("      <-- ").append(String.format("KSTREAM-ELEM-%05d-%03d", s, e - 1))
+              .append('\n');
+        }
+      }
+    }
+    return buffer.toString();
+  }
+
+  @Test
+  public void testIncrementalParsingOfBigTopology() {
+    final int subTopologies = 500;
+    final int elementsPerSub = 10;
+    final String text = makeBigTopology(subTopologies, elementsPerSub, "first");
+    final String changedText = makeBigTopology(subTopologies, elementsPerSub, "second");
+
+    long start = System.nanoTime();
+    final KStreamsTopologyDescriptionParser full = new KStreamsTopologyDescriptionParser(text);
+    final long fullTime = System.nanoTime() - start;
+
+    start = System.nanoTime();
+    final KStreamsTopologyDescriptionParser incremental =
+        new KStreamsTopologyDescriptionParser(changedText, full);
+    final long incrementalTime = System.nanoTime() - start;
+
+    System.out.printf("Parsing of %d elements, full: %d us, incremental: %d us%n",
+        subTopologies * elementsPerSub, fullTime / 1000L, incrementalTime / 1000L);
+
+    assertEquals(subTopologies + 1, full.getParsedBlocks());
+    assertEquals(1, incremental.getParsedBlocks());
+    assertEquals(subTopologies * elementsPerSub, incremental.size());
+    assertEquals(Collections.singleton(Integer.toString(subTopologies / 2)),
+        incremental.findChangedSubTopologies(full));
+    assertTrue(incremental.findChangedSubTopologies(incremental).isEmpty());
+
+    final String changedId = String.format("KSTREAM-ELEM-%05d-%03d", subTopologies / 2, 1);
+    assertEquals("first", full.findForId(changedId).get().comment.trim());
+    assertEquals("second", incremental.findForId(changedId).get().comment.trim());
+
+    final KStreamsTopologyDescriptionParser.TopologyElement source =
+        incremental.findForId(String.format("KSTREAM-ELEM-%05d-%03d", subTopologies / 2, 0))
+            .get();
+    assertEquals(1, source.to.size());
+    assertSame(incremental.findForId(changedId).get(), source.to.get(0));
+    assertEquals(full.toString().replace(" first ", " second "), incremental.toString());
+  }
+
   static class SimpleValueTransformer implements ValueTransformerWithKey<String, String, String> {
 
     private String storeName;
@@ -0,0 +1,104 @@
+/*
+ * Copyright (C) 2015-2022 Igor A. Maznitsa
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+
+package com.igormaznitsa.sciareto.ui.misc;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class FileExaminatorTest {
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private static byte[] bytes(final String text) {
+    return text.getBytes(StandardCharsets.UTF_8);
+  }
+
+  private File makeFile(final byte[] content) throws IOException {
+    final File result = this.folder.newFile();
+    Files.write(result.toPath(), content);
+    return result;
+  }
+
+  private static int indexOf(final String text, final String lower, final String upper) {
+    final byte[] data = bytes(text);
+    return FileExaminator.indexOf(data, data.length, bytes(lower), bytes(upper),
+        FileExaminator.makeShiftTable(bytes(lower), bytes(upper)));
+  }
+
+  @Test
+  public void testIndexOf() {
+    assertEquals(0, indexOf("Hello world", "hello", "HELLO"));
+    assertEquals(6, indexOf("Hello world", "world", "WORLD"));
+    assertEquals(6, indexOf("Hello WoRlD", "world", "WORLD"));
+    assertEquals(-1, indexOf("Hello word", "world", "WORLD"));
+    assertEquals(4, indexOf("aaaaab", "ab", "AB"));
+    assertEquals(-1, indexOf("", "a", "A"));
+    assertEquals(2, indexOf("xyz", "z", "Z"));
+  }
+
+  @Test
+  public void testNotFoundInShortFile() throws Exception {
+    final File file = makeFile(bytes("ab"));
+    assertFalse(new FileExaminator(file).doesContainData(new byte[16], bytes("abc"), bytes("ABC")));
+  }
+
+  @Test
+  public void testFoundAcrossChunkBoundaries() throws Exception {
+    final byte[] pattern = bytes("needle");
+    final byte[] buffer = new byte[16];
+    for (int offset = 0; offset < 64 - pattern.length; offset++) {
+      final byte[] content = new byte[64];
+      Arrays.fill(content, (byte) '.');
+      System.arraycopy(bytes("NeEdLe"), 0, content, offset, pattern.length);
+      final File file = makeFile(content);
+      assertTrue("Offset " + offset,
+          new FileExaminator(file).doesContainData(buffer, pattern, bytes("NEEDLE")));
+    }
+  }
+
+  @Test
+  public void testFoundAfterFirstMegabyte() throws Exception {
+    final byte[] content = new byte[3 * 1024 * 1024 + 17];
+    Arrays.fill(content, (byte) 'x');
+    System.arraycopy(bytes("tail"), 0, content, content.length - 4, 4);
+    final File file = makeFile(content);
+    assertTrue(new FileExaminator(file)
+        .doesContainData(new byte[1024 * 1024], bytes("tail"), bytes("TAIL")));
+    assertFalse(new FileExaminator(file)
+        .doesContainData(new byte[1024 * 1024], bytes("tails"), bytes("TAILS")));
+  }
+
+  @Test
+  public void testBufferSmallerThanPattern() throws Exception {
+    final File file = makeFile(bytes("some long text to be found"));
+    assertTrue(new FileExaminator(file)
+        .doesContainData(new byte[4], bytes("long text"), bytes("LONG TEXT")));
+  }
+}